@@ -1698,6 +1698,17 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
     // batch gradient descent: mini-batch size = # training rows
     public int _mini_batch_size = 1;
 
+    /**
+     * Number of replicas of the weights per node, -1 for one per F/J thread.
+     * 0: all threads of a node update the same weights (Hogwild!)
+     */
+    public int _weight_replicas = 0;
+
+    /**
+     * Number of mini-batches a weight replica trains before its updates are averaged into the node's model
+     */
+    public int _replica_sync_interval = 1000;
+
     public enum MissingValuesHandling {
       MeanImputation, Skip
     }
@@ -1930,6 +1941,13 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
       if (_max_w2 <= 0) {
         dl.error("_max_w2", "Cannot use max_w2 <= 0.");
       }
+      if (_weight_replicas < -1)
+        dl.error("_weight_replicas", "Number of weight replicas must be >= 0, or -1 for one replica per thread.");
+      if (_weight_replicas == 0) {
+        dl.hide("_replica_sync_interval", "Weight replicas are required for this parameter.");
+      } else if (_replica_sync_interval < 1) {
+        dl.error("_replica_sync_interval", "Replica synchronization interval must be >= 1.");
+      }
       if (expensive) {
         if (!classification && _balance_classes) {
           dl.error("_balance_classes", "balance_classes requires classification.");
@@ -2003,6 +2021,8 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
               "_elastic_averaging_moving_rate",
               "_elastic_averaging_regularization",
               "_mini_batch_size",
+              "_weight_replicas",
+              "_replica_sync_interval",
               "_pretrained_autoencoder"
       };
 
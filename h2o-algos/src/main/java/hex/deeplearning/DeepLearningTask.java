@@ -20,6 +20,8 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
   private DeepLearningModelInfo _sharedmodel; //input/output
   transient Neurons[] _neurons;
   transient Random _dropout_rng;
+  transient WeightReplicas _replicas; //per-node replicas of the weights (only with weight_replicas != 0)
+  transient WeightReplicas.Replica _replica; //replica trained by the current map call
   int _chunk_node_count = 1;
 
   /**
@@ -81,13 +83,18 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
       _sharedmodel = null;
     }
     _localmodel.set_processed_local(0);
+    int replicas = _localmodel.get_params()._weight_replicas;
+    if (replicas == -1) replicas = H2O.ARGS.nthreads;
+    if (replicas > 0)
+      _replicas = new WeightReplicas(_localmodel, replicas, _localmodel.get_params()._replica_sync_interval);
   }
 
   // Create local workspace (neurons) and link them to shared weights
   @Override protected boolean chunkInit(){
     if (_localmodel.get_processed_local() >= _useFraction * _fr.numRows())
       return false;
-    _neurons = makeNeuronsForTraining(_localmodel);
+    _replica = _replicas == null ? null : _replicas.get();
+    _neurons = makeNeuronsForTraining(_replica == null ? _localmodel : _replica._minfo);
     _dropout_rng = RandomUtils.getRNG(System.currentTimeMillis());
     return true;
   }
@@ -124,6 +131,7 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     }
     fpropMiniBatch(seed, _neurons, _localmodel, _localmodel.get_params()._elastic_averaging ? _sharedmodel : null, _training, responses, offsets, n);
     bpropMiniBatch(_neurons, n);
+    if (_replica != null) _replica.miniBatchDone();
   }
 
   /**
@@ -161,10 +169,15 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
   }
 
   /**
-   * After all maps are done on a node, this is called to store the per-node model into DKV (for elastic averaging)
-   * Otherwise, do nothing.
+   * After all maps are done on a node, this is called to fold the weight replicas into the per-node model (if any),
+   * and to store the per-node model into DKV (for elastic averaging)
    */
   @Override protected void closeLocal() {
+    if (_replicas != null) {
+      // fold the remaining updates of the per-thread replicas into the node's model
+      _replicas.syncAll();
+      _replicas = null;
+    }
     if (_localmodel.get_params()._elastic_averaging) {
       // store local model, as it will be reduced in the following, and hence averaged with other models
       DKV.put(_localmodel.localModelInfoKey(H2O.SELF), _localmodel, _fs);
@@ -624,9 +624,7 @@ public abstract class Neurons {
   public static class Tanh extends Neurons {
     public Tanh(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_a, _w, _previous._a, _b, _dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb)
         for( int row = 0; row < rows; row++ )
@@ -749,9 +747,7 @@ public abstract class Neurons {
   public static class Rectifier extends Neurons {
     public Rectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_a, _w, _previous._a, _b, _dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb) {
         for( int row = 0; row < rows; row++ ) {
@@ -799,8 +795,7 @@ public abstract class Neurons {
   public static class ExpRectifier extends Neurons {
     public ExpRectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_a, _w, _previous._a, _b, _dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for( int row = 0; row < rows; row++ ) {
         for (int mb=0;mb<n;++mb) {
@@ -862,8 +857,7 @@ public abstract class Neurons {
   public static class Softmax extends Output {
     public Softmax(int units) { super(units); }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, null);
+      gemm(_a, _w, _previous._a, _b, null, n);
       for (int mb=0;mb<n;++mb) {
         final double max = ArrayUtils.maxValue(_a[mb].raw());
         double scaling = 0;
@@ -919,8 +913,7 @@ public abstract class Neurons {
       super(1);
     }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_a, _w, _previous._a, _b, _dropout != null ? _dropout.bits() : null, n);
     }
 
     /**
@@ -1012,4 +1005,107 @@ public abstract class Neurons {
   static void gemv_naive(final Storage.DenseVector res, final Storage.DenseRowMatrix a, final Storage.DenseVector x, final Storage.DenseVector y, byte[] row_bits) {
     gemv_naive(res.raw(), a.raw(), x.raw(), y.raw(), row_bits);
   }
+
+  /**
+   * Mat-Mat Plus Add for a whole mini-batch (with optional row dropout): res[mb] = a*x[mb]+y for mb &lt; n
+   * Two rows of the matrix are multiplied with every input of the mini-batch at once, so each row of the matrix is
+   * read once per mini-batch (instead of once per input) and each input once per pair of rows.
+   * Every single dot product is summed up in the same order as in gemv_row_optimized, so the results are identical.
+   * @param res = a*x+y (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols
+   * @param x n vectors of length cols
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n number of inputs in this mini-batch
+   */
+  static void gemm_row_blocked(final double[][] res, final float[] a, final double[][] x, final double[] y, final byte[] row_bits, final int n) {
+    final int rows = y.length;
+    final int cols = x[0].length;
+    final int extra=cols-cols%8;
+    final int multiple = (cols/8)*8-1;
+    for (int row = 0; row < rows; row += 2) {
+      final boolean use0 = row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0;
+      final boolean use1 = row + 1 < rows && (row_bits == null || (row_bits[(row+1) / 8] & (1 << ((row+1) % 8))) != 0);
+      final int idx0 = row * cols;
+      final int idx1 = idx0 + cols;
+      for (int mb = 0; mb < n; mb++) {
+        final double[] xs = x[mb];
+        final double[] r = res[mb];
+        r[row] = 0;
+        if (row + 1 < rows) r[row+1] = 0;
+        if (use0 && use1) {
+          double p0 = 0, p1 = 0, p2 = 0, p3 = 0, p4 = 0, p5 = 0, p6 = 0, p7 = 0;
+          double q0 = 0, q1 = 0, q2 = 0, q3 = 0, q4 = 0, q5 = 0, q6 = 0, q7 = 0;
+          for (int col = 0; col < multiple; col += 8) {
+            final double x0 = xs[col], x1 = xs[col+1], x2 = xs[col+2], x3 = xs[col+3];
+            final double x4 = xs[col+4], x5 = xs[col+5], x6 = xs[col+6], x7 = xs[col+7];
+            final int off0 = idx0 + col;
+            final int off1 = idx1 + col;
+            p0 += a[off0    ] * x0; q0 += a[off1    ] * x0;
+            p1 += a[off0 + 1] * x1; q1 += a[off1 + 1] * x1;
+            p2 += a[off0 + 2] * x2; q2 += a[off1 + 2] * x2;
+            p3 += a[off0 + 3] * x3; q3 += a[off1 + 3] * x3;
+            p4 += a[off0 + 4] * x4; q4 += a[off1 + 4] * x4;
+            p5 += a[off0 + 5] * x5; q5 += a[off1 + 5] * x5;
+            p6 += a[off0 + 6] * x6; q6 += a[off1 + 6] * x6;
+            p7 += a[off0 + 7] * x7; q7 += a[off1 + 7] * x7;
+          }
+          r[row] += p0 + p1 + p2 + p3;
+          r[row] += p4 + p5 + p6 + p7;
+          r[row+1] += q0 + q1 + q2 + q3;
+          r[row+1] += q4 + q5 + q6 + q7;
+          for (int col = extra; col < cols; col++) {
+            r[row] += a[idx0 + col] * xs[col];
+            r[row+1] += a[idx1 + col] * xs[col];
+          }
+          r[row] += y[row];
+          r[row+1] += y[row+1];
+        } else {
+          if (use0) r[row] = dot(a, idx0, xs, cols, multiple, extra) + y[row];
+          if (use1) r[row+1] = dot(a, idx1, xs, cols, multiple, extra) + y[row+1];
+        }
+      }
+    }
+  }
+
+  // Single row of gemv_row_optimized, without the bias
+  private static double dot(final float[] a, final int idx, final double[] x, final int cols, final int multiple, final int extra) {
+    double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
+    for (int col = 0; col < multiple; col += 8) {
+      int off = idx + col;
+      psum0 += a[off    ] * x[col    ];
+      psum1 += a[off + 1] * x[col + 1];
+      psum2 += a[off + 2] * x[col + 2];
+      psum3 += a[off + 3] * x[col + 3];
+      psum4 += a[off + 4] * x[col + 4];
+      psum5 += a[off + 5] * x[col + 5];
+      psum6 += a[off + 6] * x[col + 6];
+      psum7 += a[off + 7] * x[col + 7];
+    }
+    double res = 0;
+    res += psum0 + psum1 + psum2 + psum3;
+    res += psum4 + psum5 + psum6 + psum7;
+    for (int col = extra; col < cols; col++)
+      res += a[idx + col] * x[col];
+    return res;
+  }
+
+  /**
+   * Helper to do a generic gemm for the first n inputs of a mini-batch: res[mb] = a*x[mb] + y
+   * @param res Dense results
+   * @param a DenseMatrix
+   * @param x DenseVectors
+   * @param y Dense vector to add to the results
+   * @param row_bits Bit mask for which rows to use
+   * @param n number of inputs in this mini-batch
+   */
+  static void gemm(final Storage.DenseVector[] res, final Storage.DenseRowMatrix a, final Storage.DenseVector[] x, final Storage.DenseVector y, byte[] row_bits, int n) {
+    final double[][] r = new double[n][];
+    final double[][] xs = new double[n][];
+    for (int mb = 0; mb < n; mb++) {
+      r[mb] = res[mb].raw();
+      xs[mb] = x[mb].raw();
+    }
+    gemm_row_blocked(r, a.raw(), xs, y.raw(), row_bits, n);
+  }
 }
@@ -0,0 +1,128 @@
+package hex.deeplearning;
+
+import jsr166y.ForkJoinWorkerThread;
+import water.IcedUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local replicas of the weights and biases of a model, so that the F/J threads of a node don't all update the
+ * same weights (and fight over the same cache lines) Hogwild!-style.
+ * <p>
+ * Every F/J thread trains on one of the replicas; threads sharing a replica still update it Hogwild!-style.
+ * Every <code>replica_sync_interval</code> mini-batches a replica adds its updates since its last synchronization,
+ * divided by the number of replicas which trained in the meantime, to the node's model and then continues from the
+ * node's model.  This is the model averaging that is done across nodes after every iteration, only between the
+ * threads of a node and on a much shorter period.  Replicas are created lazily, on a node with fewer active chunks or
+ * threads than replicas only some of them train, dividing by the configured number of replicas would slow down
+ * the training accordingly.
+ */
+final class WeightReplicas {
+  private final DeepLearningModelInfo _node;
+  private final Replica[] _replicas;
+  private final int _syncInterval;
+  private final AtomicLong _clock = new AtomicLong(); // Number of mini-batches trained by all the replicas
+
+  /**
+   * @param node The node's model, which will be updated by the replicas
+   * @param replicas Number of replicas
+   * @param syncInterval Number of mini-batches between two synchronizations of a replica
+   */
+  WeightReplicas(DeepLearningModelInfo node, int replicas, int syncInterval) {
+    assert(replicas > 0 && syncInterval > 0);
+    _node = node;
+    _replicas = new Replica[replicas];
+    _syncInterval = syncInterval;
+  }
+
+  /**
+   * @return The replica of the current thread (created on first use)
+   */
+  Replica get() {
+    Thread t = Thread.currentThread();
+    int idx = t instanceof ForkJoinWorkerThread ? ((ForkJoinWorkerThread) t).getPoolIndex() % _replicas.length : 0;
+    Replica r = _replicas[idx];
+    if (r == null) {
+      synchronized (this) {
+        if (_replicas[idx] == null) _replicas[idx] = new Replica();
+        r = _replicas[idx];
+      }
+    }
+    return r;
+  }
+
+  /**
+   * Add the remaining updates of all replicas to the node's model, after all the training on this node is done
+   */
+  void syncAll() {
+    for (Replica r : _replicas)
+      if (r != null) r.sync();
+  }
+
+  final class Replica {
+    final DeepLearningModelInfo _minfo;
+    // Weights and biases as of the last synchronization
+    private final float[][] _w0;
+    private final double[][] _b0;
+    private int _miniBatches;
+    private volatile long _lastTrained; // Clock of the last mini-batch trained by this replica
+    private long _lastSync;             // Clock as of the last synchronization of this replica
+
+    private Replica() {
+      synchronized (_node) {
+        _minfo = IcedUtils.deepCopy(_node);
+      }
+      final int layers = _minfo.units.length - 1;
+      _w0 = new float[layers][];
+      _b0 = new double[layers][];
+      for (int i = 0; i < layers; ++i) {
+        _w0[i] = _minfo.get_weights(i).raw().clone();
+        _b0[i] = _minfo.get_biases(i).raw().clone();
+      }
+    }
+
+    /**
+     * Called after every trained mini-batch, synchronizes with the node's model every <code>syncInterval</code> calls
+     */
+    void miniBatchDone() {
+      _lastTrained = _clock.incrementAndGet();
+      if (++_miniBatches % _syncInterval == 0) sync();
+    }
+
+    /** Number of replicas (including this one) which trained since the last synchronization of this replica */
+    private int activeReplicas() {
+      int n = 1;
+      for (Replica r : _replicas)
+        if (r != null && r != this && r._lastTrained > _lastSync) n++;
+      return n;
+    }
+
+    private void sync() {
+      if (_lastTrained <= _lastSync) return; // Nothing trained since the last synchronization
+      synchronized (_node) {
+        final float scale = 1f / activeReplicas();
+        _lastSync = _clock.get();
+        for (int i = 0; i < _w0.length; ++i) {
+          final float[] w = _minfo.get_weights(i).raw();
+          final float[] w0 = _w0[i];
+          final float[] wn = _node.get_weights(i).raw();
+          for (int j = 0; j < w.length; ++j) {
+            wn[j] += (w[j] - w0[j]) * scale;
+            w[j] = w0[j] = wn[j];
+          }
+          final double[] b = _minfo.get_biases(i).raw();
+          final double[] b0 = _b0[i];
+          final double[] bn = _node.get_biases(i).raw();
+          for (int j = 0; j < b.length; ++j) {
+            bn[j] += (b[j] - b0[j]) * scale;
+            b[j] = b0[j] = bn[j];
+          }
+        }
+        if (_minfo.isUnstable()) _node.setUnstable();
+        // Learning rate annealing and momentum ramp depend on the number of rows trained by the whole node
+        _minfo.set_processed_global(_node.get_processed_global());
+        _minfo.set_processed_local(_node.get_processed_local());
+      }
+    }
+  }
+}
@@ -52,8 +52,11 @@ public abstract class GLMTask  {
       Chunk r = chks[i];
       if(_glmf._family != Family.multinomial) {
         double ymu = _glmf.link(_ymu[0]);
+        double [] ws = w.getDoubles(MemoryManager.malloc8d(len),0,len);
+        double [] os = o.getDoubles(MemoryManager.malloc8d(len),0,len);
+        double [] ys = r.getDoubles(MemoryManager.malloc8d(len),0,len);
         for (int j = 0; j < len; ++j)
-          _nullDev += w.atd(j)*_glmf.deviance(r.atd(j), _glmf.linkInv(ymu + o.atd(j)));
+          _nullDev += ws[j]*_glmf.deviance(ys[j], _glmf.linkInv(ymu + os[j]));
       } else {
         throw H2O.unimpl();
       }
@@ -250,16 +253,27 @@ public abstract class GLMTask  {
        numsResponse = MemoryManager.malloc8d(_nClasses);
      }
      // compute basic stats for numeric predictors
+     double [] vals = MemoryManager.malloc8d(ws.length);
+     int [] ids = MemoryManager.malloc4(ws.length);
      for(int i = 0; i < _nums; ++i) {
        Chunk c = chunks[i + _numOff];
        double w;
-       for (int r = c.nextNZ(-1); r < c._len; r = c.nextNZ(r)) {
-         if ((w = ws[r]) == 0) continue;
-         double d = c.atd(r);
-         _basicStats.add(d, w, i);
+       if (c.isSparseZero() || c.isSparseNA()) { // only the stored values
+         int n = c.getSparseDoubles(vals, ids);
+         for (int k = 0; k < n; ++k) {
+           if ((w = ws[ids[k]]) == 0) continue;
+           _basicStats.add(vals[k], w, i);
+         }
+       } else {
+         c.getDoubles(vals, 0, c._len);
+         for (int r = 0; r < c._len; ++r) {
+           if ((w = ws[r]) == 0) continue;
+           _basicStats.add(vals[r], w, i);
+         }
        }
      }
      if (response == null) return;
+     double [] ys = response.getDoubles(vals, 0, response._len);
      long nobs = 0;
      double wsum = 0;
      for(double w:ws) {
@@ -280,7 +294,7 @@ public abstract class GLMTask  {
              numsResponse[i] = chunks[chunks.length - _nClasses + i].atd(r);
          } else {
            Arrays.fill(numsResponse,0);
-           double d = response.atd(r);
+           double d = ys[r];
            if(Double.isNaN(d))
              Arrays.fill(numsResponse,Double.NaN);
            else
@@ -288,7 +302,7 @@ public abstract class GLMTask  {
          }
          _basicStatsResponse.add(numsResponse,w);
        }
-       double d = response.atd(r);
+       double d = ys[r];
        if(!Double.isNaN(d)) {
          if (_nClasses > 2)
            _yMu[(int) d] += w;
@@ -1297,6 +1311,7 @@ public abstract class GLMTask  {
     double wsum, wsumu;
     double _sumsqe;
     int _c = -1;
+    int _blockRows = Gram.DEFAULT_BLOCK_ROWS; // rows per blocked update of the gram, 1 to update row by row
 
     public  GLMIterationTask(Key jobKey, DataInfo dinfo, GLMWeightsFun glmw,double [] beta) {
       super(null,dinfo,jobKey);
@@ -1315,11 +1330,17 @@ public abstract class GLMTask  {
 
     @Override public boolean handlesSparseData(){return true;}
 
+    public GLMIterationTask setBlockRows(int blockRows) {
+      _blockRows = blockRows;
+      return this;
+    }
+
     transient private double _sparseOffset;
     @Override
     public void chunkInit() {
       // initialize
       _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
+      _gram.startBlockedAccumulation(_blockRows);
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
          _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
@@ -1366,7 +1387,10 @@ public abstract class GLMTask  {
     }
 
     @Override
-    public void chunkDone(){adjustForSparseStandardizedZeros();}
+    public void chunkDone(){
+      _gram.finishBlockedAccumulation();
+      adjustForSparseStandardizedZeros();
+    }
 
     @Override
     public void reduce(GLMIterationTask git){
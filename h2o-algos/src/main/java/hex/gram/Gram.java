@@ -528,6 +528,7 @@ public final class Gram extends Iced<Gram> {
   public void add(Gram grm) {
     ArrayUtils.add(_xx,grm._xx);
     ArrayUtils.add(_diag,grm._diag);
+    _numOps += grm._numOps;
   }
 
   public final boolean hasNaNsOrInfs() {
@@ -668,7 +669,8 @@ public final class Gram extends Iced<Gram> {
     final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
     assert _denseN + denseRowStart == _xx.length-intercept;
     final double [] interceptRow = _hasIntercept?_xx[_xx.length-1]:null;
-    // nums
+    // nums, sparse rows are never blocked: the union of their non-zero columns makes the rank-k update much denser
+    _numOps += (long)r.nNums*(r.nNums+1)/2;
     for(int i = 0; i < r.nNums; ++i) {
       int cid = r.numIds[i];
       final double [] mrow = _xx[cid - _diagN];
@@ -713,12 +715,17 @@ public final class Gram extends Iced<Gram> {
 
     assert _denseN + denseRowStart == _xx.length-intercept;
     final double [] interceptRow = _hasIntercept?_xx[_denseN + denseRowStart]:null;
+    final boolean blocked = _blockX != null && isDenseEnough(row);
     // nums
+    int nz = 0;
     for(int i = 0; i < _denseN; ++i) if(row.numVals[i] != 0) {
       final double [] mrow = _xx[i+denseRowStart];
       final double d = w * row.numVals[i];
-      for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
-        mrow[j+denseColStart] += d* row.numVals[j];
+      if(!blocked) {
+        _numOps += ++nz;
+        for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
+          mrow[j+denseColStart] += d* row.numVals[j];
+      }
       if(_hasIntercept)
         interceptRow[i+denseColStart] += d; // intercept*x[i]
       // nums * cats
@@ -742,6 +749,123 @@ public final class Gram extends Iced<Gram> {
     // DIAG
     if(hasDiag)
       _diag[row.binIds[0]] += w;
+    if(blocked)
+      bufferRow(row, w);
+  }
+
+  /*
+   * Blocked accumulation of the dense (numeric) block.
+   *
+   * Instead of updating the numeric lower triangle for every row (O(denseN^2) scattered updates per row), up to k rows
+   * are buffered column-wise and the triangle is updated by a rank-k update, tile by tile, where every element of
+   * the Gram is read and written once per k rows.  Columns which are zero in all the buffered rows are skipped.
+   * Only rows with at least half of the numeric values non-zero are buffered: the rank-k update works on the union of
+   * the non-zero columns of the buffered rows, for sparse rows that costs up to k times more than their own outer
+   * products.  Sparse rows, and the categorical and intercept parts, are updated row by row.
+   */
+  public static final int DEFAULT_BLOCK_ROWS = 32;
+  private static final int MIN_BLOCKED_DENSE_N = 32; // below this the plain row-by-row update is as fast
+  private static final int BLOCK_TILE = 64;          // columns per tile of the rank-k update
+
+  private long _numOps;                  // multiply-adds spent on the numeric block
+
+  private transient double[][] _blockX;  // buffered rows, [dense column][row]
+  private transient double[] _blockW;    // weights of the buffered rows
+  private transient double[] _blockWX;   // scratch, weighted column
+  private transient boolean[] _blockNZ;  // dense column has a non-zero in the buffer
+  private transient int[] _blockCols;    // dense columns with a non-zero in the buffer
+  private transient int _blockN;         // number of buffered rows
+  private transient int _blockNZCnt;     // number of non-zero columns
+
+  /**
+   * Start buffering the dense part of the added rows, k rows at a time.  Does nothing if the dense block is too small
+   * to benefit from it.  {@link #finishBlockedAccumulation()} has to be called before the Gram is used.
+   */
+  public void startBlockedAccumulation(int k) {
+    if(k <= 1 || _denseN < MIN_BLOCKED_DENSE_N) return;
+    _blockX = new double[_denseN][];
+    for(int i = 0; i < _denseN; ++i)
+      _blockX[i] = MemoryManager.malloc8d(k);
+    _blockW = MemoryManager.malloc8d(k);
+    _blockWX = MemoryManager.malloc8d(k);
+    _blockNZ = new boolean[_denseN];
+    _blockCols = MemoryManager.malloc4(_denseN);
+    _blockN = 0;
+    _blockNZCnt = 0;
+  }
+
+  /** Add the buffered rows to the Gram and stop buffering. */
+  public void finishBlockedAccumulation() {
+    if(_blockX == null) return;
+    flushBlock();
+    _blockX = null;
+    _blockW = _blockWX = null;
+    _blockNZ = null;
+    _blockCols = null;
+  }
+
+  /** Number of multiply-adds spent on the numeric block so far, summed over the added Grams */
+  public long numericOps() { return _numOps; }
+
+  private boolean isDenseEnough(DataInfo.Row r) {
+    int nz = 0;
+    for(int i = 0; i < _denseN; ++i)
+      if(r.numVals[i] != 0) ++nz;
+    return 2*nz >= _denseN;
+  }
+
+  private void bufferRow(DataInfo.Row r, double w) {
+    final int b = _blockN++;
+    _blockW[b] = w;
+    for(int i = 0; i < _denseN; ++i)
+      bufferValue(i, b, r.numVals[i]);
+    if(_blockN == _blockW.length)
+      flushBlock();
+  }
+
+  private void bufferValue(int col, int row, double val) {
+    if(val == 0) return;
+    _blockX[col][row] = val;
+    if(!_blockNZ[col]) {
+      _blockNZ[col] = true;
+      _blockCols[_blockNZCnt++] = col;
+    }
+  }
+
+  private void flushBlock() {
+    final int n = _blockN, ncols = _blockNZCnt;
+    if(n == 0) return;
+    final int[] cols = _blockCols;
+    Arrays.sort(cols, 0, ncols);
+    final int intercept = _hasIntercept?1:0;
+    final int denseRowStart = _fullN - _denseN - _diagN - intercept;
+    final int denseColStart = _fullN - _denseN - intercept;
+    final double[] w = _blockW, wx = _blockWX;
+    _numOps += (long)n*ncols*(ncols+1)/2;
+    for(int jb = 0; jb < ncols; jb += BLOCK_TILE) {
+      final int jEnd = Math.min(jb + BLOCK_TILE, ncols);
+      for(int ii = jb; ii < ncols; ++ii) {
+        final int ci = cols[ii];
+        final double[] xi = _blockX[ci];
+        for(int r = 0; r < n; ++r)
+          wx[r] = w[r]*xi[r];
+        final double[] mrow = _xx[ci + denseRowStart];
+        final int jLast = Math.min(jEnd, ii + 1);
+        for(int jj = jb; jj < jLast; ++jj) {
+          final double[] xj = _blockX[cols[jj]];
+          double s = 0;
+          for(int r = 0; r < n; ++r)
+            s += wx[r]*xj[r];
+          mrow[cols[jj] + denseColStart] += s;
+        }
+      }
+    }
+    for(int ii = 0; ii < ncols; ++ii) {
+      Arrays.fill(_blockX[cols[ii]], 0, n, 0);
+      _blockNZ[cols[ii]] = false;
+    }
+    _blockN = 0;
+    _blockNZCnt = 0;
   }
   public void mul(double x){
     if(_diag != null)for(int i = 0; i < _diag.length; ++i)
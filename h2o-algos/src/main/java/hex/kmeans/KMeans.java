@@ -27,6 +27,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   @Override public ToEigenVec getToEigenVec() { return LinearAlgebraUtils.toEigen; }
   // Convergence tolerance
   final static private double TOLERANCE = 1e-4;
+  // Use the blocked, bounded Lloyd's pass on all-numeric data
+  boolean _boundedLloyds = true;
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[]{ ModelCategory.Clustering }; }
 
@@ -287,14 +289,23 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           Log.info("Cutoff for relative improvement in within_cluster_sum_of_squares: " + rel_improvement_cutoff);
         Vec[] vecs2 = Arrays.copyOf(vecs, vecs.length+1);
         vecs2[vecs2.length-1] = vecs2[0].makeCon(-1);
+        // All-numeric data: blocked distances and a per-row lower bound in one more Vec
+        final boolean bounded = _boundedLloyds && model._output._categorical_column_count == 0;
+        Vec[] vecs3 = bounded ? ArrayUtils.append(vecs2, vecs2[0].makeCon(0)) : null;
         for (int k = startK; k <= _parms._k; ++k) {
           Log.info("Running Lloyds iteration for " + k + " centroids.");
           model._output._iterations = 0;  // Loop ends only when iterations > max_iterations with strict inequality
           double[][] lo=null, hi=null;
+          double[][] prevCenters = null;  // Centers the bounds refer to
           boolean stop = false;
           do { //Lloyds algorithm
             assert(centers.length == k);
-            LloydsIterationTask task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs2); //1 PASS OVER THE DATA
+            LloydsIterationTask task; //1 PASS OVER THE DATA
+            if (bounded) {
+              task = new BoundedLloydsTask(centers, prevCenters, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs3);
+              prevCenters = ArrayUtils.deepClone(centers);
+            } else
+              task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs2);
             // Pick the max categorical level for cluster center
             max_cats(task._cMeans, task._cats, _isCats);
 
@@ -350,6 +361,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             centers = splitLargestCluster(centers, lo, hi, means, mults, impute_cat, vecs2, k);
         } //k-finder
         vecs2[vecs2.length-1].remove();
+        if (vecs3 != null)
+          vecs3[vecs3.length-1].remove();
 
         // Create metrics by scoring on training set otherwise scores are based on last Lloyd iteration
         model.score(_train).delete();
@@ -653,22 +666,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
 
     @Override public void map(Chunk[] cs) {
       int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/;
-      assert _centers[0].length==N;
-      _lo = new double[_k][N];
-      for( int clu=0; clu< _k; clu++ )
-        Arrays.fill(_lo[clu], Double.MAX_VALUE);
-      _hi = new double[_k][N];
-      for( int clu=0; clu< _k; clu++ )
-        Arrays.fill(_hi[clu], -Double.MAX_VALUE);
-      _cMeans = new double[_k][N];
-      _cSqr = new double[_k];
-      _size = new long[_k];
-      // Space for cat histograms
-      _cats = new long[_k][N][];
-      for( int clu=0; clu< _k; clu++ )
-        for( int col=0; col<N; col++ )
-          _cats[clu][col] = _isCats[col]==null ? null : new long[cs[col].vec().cardinality()];
-      _worst_err = 0;
+      initOutputs(cs, N);
 
       Chunk assignment = cs[cs.length-1];
       // Find closest cluster center for each row
@@ -706,6 +704,29 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         // Track worst row
         if( cd._dist > _worst_err) { _worst_err = cd._dist; _worst_row = cs[0].start()+row; }
       }
+      finishOutputs();
+    }
+
+    void initOutputs(Chunk[] cs, int N) {
+      assert _centers[0].length==N;
+      _lo = new double[_k][N];
+      for( int clu=0; clu< _k; clu++ )
+        Arrays.fill(_lo[clu], Double.MAX_VALUE);
+      _hi = new double[_k][N];
+      for( int clu=0; clu< _k; clu++ )
+        Arrays.fill(_hi[clu], -Double.MAX_VALUE);
+      _cMeans = new double[_k][N];
+      _cSqr = new double[_k];
+      _size = new long[_k];
+      // Space for cat histograms
+      _cats = new long[_k][N][];
+      for( int clu=0; clu< _k; clu++ )
+        for( int col=0; col<N; col++ )
+          _cats[clu][col] = _isCats[col]==null ? null : new long[cs[col].vec().cardinality()];
+      _worst_err = 0;
+    }
+
+    void finishOutputs() {
       // Scale back down to local mean
       for( int clu = 0; clu < _k; clu++ )
         if( _size[clu] != 0 ) ArrayUtils.div(_cMeans[clu], _size[clu]);
@@ -738,6 +759,231 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     }
   }
 
+  // ---------------------------------------
+  // A Lloyd's pass over numeric data, with the same outputs as LloydsIterationTask:
+  //   Rows are decoded column by column into blocks of BLOCK_ROWS rows, and the
+  //   distances to all the centers are computed for a whole block at once as
+  //   |x|^2 - 2x.c + |c|^2.
+  //   Hamerly's lower bound on the distance to all the other centers is kept per
+  //   row in a side Vec.  After the first pass, a row is only compared to all
+  //   the centers if the bound (moved by how far the centers moved) no longer
+  //   guarantees that its assigned center is still the closest one.
+  //   The square distance to the assigned center is needed for the within-cluster
+  //   sums of squares anyway, so it is always computed exactly and serves as
+  //   Hamerly's (tight) upper bound - there is no stored upper bound.
+
+  private static class BoundedLloydsTask extends LloydsIterationTask {
+    static final int BLOCK_ROWS = 256;
+    // Relative slack of the bound test, covers the rounding of the bounds
+    static final double BOUND_SLACK = 1e-9;
+
+    // IN
+    final boolean _hasBounds;   // False on the first pass with these centers: bounds are not valid yet
+    final double[] _delta;      // Distance each center moved since the previous pass
+    final double _maxDelta, _secondMaxDelta;
+    final int _maxMover;        // Center which moved the most
+    final double[] _halfSep;    // Half the distance from each center to the closest other center
+
+    BoundedLloydsTask(double[][] centers, double[][] prevCenters, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight) {
+      super(centers, means, mults, modes, isCats, k, hasWeight);
+      _hasBounds = prevCenters != null && prevCenters.length == k;
+      _delta = new double[k];
+      double maxDelta = 0, secondMaxDelta = 0;
+      int maxMover = -1;
+      if( _hasBounds ) {
+        for( int clu = 0; clu < k; clu++ ) {
+          _delta[clu] = Math.sqrt(sqrDist(centers[clu], prevCenters[clu]));
+          if( _delta[clu] > maxDelta ) {
+            secondMaxDelta = maxDelta;
+            maxDelta = _delta[clu];
+            maxMover = clu;
+          } else if( _delta[clu] > secondMaxDelta )
+            secondMaxDelta = _delta[clu];
+        }
+      }
+      _maxDelta = maxDelta;
+      _secondMaxDelta = secondMaxDelta;
+      _maxMover = maxMover;
+      _halfSep = new double[k];
+      Arrays.fill(_halfSep, Double.MAX_VALUE);
+      for( int c1 = 0; c1 < k; c1++ )
+        for( int c2 = c1+1; c2 < k; c2++ ) {
+          double half = 0.5 * Math.sqrt(sqrDist(centers[c1], centers[c2]));
+          _halfSep[c1] = Math.min(_halfSep[c1], half);
+          _halfSep[c2] = Math.min(_halfSep[c2], half);
+        }
+    }
+
+    @Override public void map(Chunk[] cs) {
+      int N = cs.length - (_hasWeight ? 1:0) - 2 /*clusterassignment, lower bound*/;
+      initOutputs(cs, N);
+      Chunk assignment = cs[cs.length-2];
+      Chunk lower = cs[cs.length-1];
+
+      double[] cNorms = new double[_k];
+      double cNormMax = 0;
+      for( int clu = 0; clu < _k; clu++ ) {
+        for( int col = 0; col < N; col++ )
+          cNorms[clu] += _centers[clu][col] * _centers[clu][col];
+        cNormMax = Math.max(cNormMax, cNorms[clu]);
+      }
+
+      double[][] xs = new double[N][BLOCK_ROWS];      // Block of rows, column-major
+      double[][] search = new double[N][BLOCK_ROWS];  // Rows of the block compared to all the centers
+      int[] searchRows = new int[BLOCK_ROWS];
+      double[] dots = new double[BLOCK_ROWS];
+      double[] norms = new double[BLOCK_ROWS];
+      double[] best = new double[BLOCK_ROWS], second = new double[BLOCK_ROWS];
+      int[] bestClu = new int[BLOCK_ROWS], secondClu = new int[BLOCK_ROWS];
+      boolean[] skip = new boolean[BLOCK_ROWS];       // Holdout rows
+      int[] clus = new int[BLOCK_ROWS];
+      double[] dists = new double[BLOCK_ROWS];
+      double[] lbs = new double[BLOCK_ROWS];
+
+      int len = cs[0]._len;
+      for( int r0 = 0; r0 < len; r0 += BLOCK_ROWS ) {
+        int n = Math.min(BLOCK_ROWS, len - r0);
+        // Decode the block column by column; missing values are imputed with the means
+        for( int col = 0; col < N; col++ ) {
+          double[] x = xs[col];
+          cs[col].getDoubles(x, r0, r0+n, _means[col]);
+          if( _mults != null ) {
+            double mean = _means[col], mult = _mults[col];
+            for( int r = 0; r < n; r++ )
+              x[r] = (x[r] - mean) * mult;
+          }
+        }
+
+        // Rows whose assigned center is still the closest one only need the distance to it
+        int m = 0;
+        for( int r = 0; r < n; r++ ) {
+          double weight = _hasWeight ? cs[N].atd(r0+r) : 1;
+          skip[r] = weight == 0;
+          if( skip[r] ) continue; //skip holdout rows
+          assert(weight == 1); //K-Means only works for weight 1 (or weight 0 for holdout)
+          int clu = (int)assignment.at8(r0+r);
+          if( _hasBounds && clu >= 0 ) {
+            double lb = lower.atd(r0+r) - (clu == _maxMover ? _secondMaxDelta : _maxDelta);
+            double dist = sqrDist(xs, r, _centers[clu]);
+            double ub = Math.sqrt(dist); // Exact, so tight, upper bound
+            if( ub * (1 + BOUND_SLACK) < Math.max(lb, _halfSep[clu]) ) {
+              clus[r] = clu;
+              dists[r] = dist;
+              lbs[r] = lb;
+              continue;
+            }
+          }
+          searchRows[m++] = r;
+        }
+
+        if( m > 0 ) {
+          for( int col = 0; col < N; col++ ) {
+            double[] x = xs[col], s = search[col];
+            for( int i = 0; i < m; i++ )
+              s[i] = x[searchRows[i]];
+          }
+          Arrays.fill(norms, 0, m, 0);
+          for( int col = 0; col < N; col++ ) {
+            double[] s = search[col];
+            for( int i = 0; i < m; i++ )
+              norms[i] += s[i] * s[i];
+          }
+          Arrays.fill(best, 0, m, Double.MAX_VALUE);
+          Arrays.fill(second, 0, m, Double.MAX_VALUE);
+          Arrays.fill(bestClu, 0, m, -1);
+          Arrays.fill(secondClu, 0, m, -1);
+          for( int clu = 0; clu < _k; clu++ ) {
+            double[] center = _centers[clu];
+            Arrays.fill(dots, 0, m, 0);
+            for( int col = 0; col < N; col++ ) {
+              double c = center[col];
+              if( c == 0 ) continue;
+              double[] s = search[col];
+              for( int i = 0; i < m; i++ )
+                dots[i] += c * s[i];
+            }
+            double cNorm = cNorms[clu];
+            for( int i = 0; i < m; i++ ) {
+              double d = norms[i] - 2 * dots[i] + cNorm;
+              if( d < best[i] ) {
+                second[i] = best[i]; secondClu[i] = bestClu[i];
+                best[i] = d; bestClu[i] = clu;
+              } else if( d < second[i] ) {
+                second[i] = d; secondClu[i] = clu;
+              }
+            }
+          }
+          for( int i = 0; i < m; i++ ) {
+            int r = searchRows[i];
+            // Rounding error of the expanded distances
+            double tol = 4 * (N + 2) * Math.ulp(1.0) * (norms[i] + cNormMax);
+            int clu = bestClu[i];
+            double dist = sqrDist(xs, r, _centers[clu]);
+            double other = second[i];
+            if( secondClu[i] != -1 && second[i] - best[i] <= tol ) {
+              // Near tie: settle it on the exact distances, the lower index wins like in closest()
+              int clu2 = secondClu[i];
+              double dist2 = sqrDist(xs, r, _centers[clu2]);
+              if( dist2 < dist || (dist2 == dist && clu2 < clu) ) {
+                clu = clu2;
+                dist = dist2;
+                other = best[i];
+              }
+            }
+            clus[r] = clu;
+            dists[r] = dist;
+            lbs[r] = other == Double.MAX_VALUE ? Double.MAX_VALUE : Math.sqrt(Math.max(0, other - tol));
+          }
+        }
+
+        for( int r = 0; r < n; r++ ) {
+          if( skip[r] ) continue;
+          int clu = clus[r];
+          if( clu != assignment.at8(r0+r) ) {
+            _reassigned_count++;
+            assignment.set(r0+r, clu);
+          }
+          lower.set(r0+r, lbs[r]);
+          _cSqr[clu] += dists[r];
+          _size[clu]++;
+          // Track worst row
+          if( dists[r] > _worst_err) { _worst_err = dists[r]; _worst_row = cs[0].start()+r0+r; }
+        }
+        // Sum the column centers and the bounding boxes, column by column
+        for( int col = 0; col < N; col++ ) {
+          double[] x = xs[col];
+          for( int r = 0; r < n; r++ ) {
+            if( skip[r] ) continue;
+            int clu = clus[r];
+            _cMeans[clu][col] += x[r];
+            _lo[clu][col] = Math.min(x[r], _lo[clu][col]);
+            _hi[clu][col] = Math.max(x[r], _hi[clu][col]);
+          }
+        }
+      }
+      finishOutputs();
+    }
+
+    // Square distance of row r of a column-major block to a center, same as GenModel.KMeans_distance for numeric rows
+    private static double sqrDist(double[][] xs, int r, double[] center) {
+      double sqr = 0;
+      for( int col = 0; col < center.length; col++ ) {
+        double delta = xs[col][r] - center[col];
+        sqr += delta * delta;
+      }
+      return sqr;
+    }
+
+    private static double sqrDist(double[] a, double[] b) {
+      double sqr = 0;
+      for( int col = 0; col < a.length; col++ ) {
+        double delta = a[col] - b[col];
+        sqr += delta * delta;
+      }
+      return sqr;
+    }
+  }
+
   // A pair result: nearest cluster center and the square distance
   private static final class ClusterDist { int _cluster; double _dist;  }
 
@@ -99,7 +99,9 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         "categorical_encoding",
         "elastic_averaging",
         "elastic_averaging_moving_rate",
-        "elastic_averaging_regularization"
+        "elastic_averaging_regularization",
+        "weight_replicas",
+        "replica_sync_interval"
     };
 
 
@@ -658,6 +660,14 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         help = "Elastic averaging regularization strength (only if elastic averaging is enabled).")
     public double elastic_averaging_regularization;
 
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, gridable = true,
+        help = "Number of replicas of the weights per node (-1: one per thread), so that threads don't contend for the same weights. 0 disables replicas (Hogwild!). #Experimental")
+    public int weight_replicas;
+
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, gridable = true,
+        help = "Number of mini-batches between two averaging steps of a weight replica (only if weight replicas are enabled).")
+    public int replica_sync_interval;
+
     @API(level = API.Level.expert, direction = API.Direction.INOUT,
         help = "Pretrained autoencoder model to initialize this model with.")
     public KeyV3.ModelKeyV3 pretrained_autoencoder;
@@ -425,6 +425,66 @@ public final class DHistogram extends Iced {
     }
   }
 
+  /**
+   * Block-wise variant of {@link #updateHisto(double[], double[], double[], int[], int, int)} which accumulates
+   * into separate contiguous arrays instead of the interleaved {@link #_vals}. The bin ids of a block of rows
+   * are computed first and the block is only then scattered into the accumulators. Not thread safe, the
+   * accumulators are assumed to be private to a worker, use {@link #addAndReset(double[], double[], double[])}
+   * to add them to the histogram.
+   * @param ws observation weights
+   * @param cs column data
+   * @param ys response
+   * @param rows rows sorted by leaf assignemnt
+   * @param hi  upper bound on index into rows array to be processed by this call (exclusive)
+   * @param lo  lower bound on index into rows array to be processed by this call (inclusive)
+   * @param bins buffer for the bin ids of a block of rows, its length determines the block size
+   * @param w sums of weights, indexed by bin (bin {@link #nbins()} is the NA bucket)
+   * @param wY sums of weighted responses
+   * @param wYY sums of weighted squared responses
+   */
+  public void updateHisto(double[] ws, double[] cs, double[] ys, int [] rows, int hi, int lo,
+                          int[] bins, double[] w, double[] wY, double[] wYY){
+    for(int blo = lo; blo < hi; blo += bins.length) {
+      int bhi = Math.min(hi, blo + bins.length);
+      // Pass 1: bin ids and min/max of the block
+      for(int r = blo; r < bhi; ++r) {
+        int k = rows[r];
+        if (ws[k] == 0) continue;
+        double col_data = cs[k];
+        if (col_data < _min2) _min2 = col_data;
+        if (col_data > _maxIn) _maxIn = col_data;
+        bins[r - blo] = bin(col_data);
+      }
+      // Pass 2: scatter the block into the accumulators
+      for(int r = blo; r < bhi; ++r) {
+        int k = rows[r];
+        double weight = ws[k];
+        if (weight == 0) continue;
+        double y = ys[k];
+        assert (!Double.isNaN(y));
+        double wy = weight * y;
+        int b = bins[r - blo];
+        w[b] += weight;
+        wY[b] += wy;
+        wYY[b] += wy * y;
+      }
+    }
+  }
+
+  /**
+   * Adds accumulators filled by the block-wise updateHisto to this histogram and clears them.
+   */
+  public void addAndReset(double[] w, double[] wY, double[] wYY) {
+    for(int b = 0; b <= _nbin; ++b) {
+      _vals[3*b + 0] += w[b];
+      _vals[3*b + 1] += wY[b];
+      _vals[3*b + 2] += wYY[b];
+    }
+    Arrays.fill(w, 0, _nbin + 1, 0);
+    Arrays.fill(wY, 0, _nbin + 1, 0);
+    Arrays.fill(wYY, 0, _nbin + 1, 0);
+  }
+
   /**
    * Cast bin values *except for sums of weights and Na-bucket counters to floats to drop least significant bits.
    * Improves reproducibility (drop bits most affected by floating point error).
@@ -116,12 +116,15 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
     int nnids[] = new int[nids._len];
     if( _leaf > 0)            // Prior pass exists?
       score_decide(chks,nids,nnids);
-    else                      // Just flag all the NA rows
+    else {                    // Just flag all the NA rows
+      double[] ws = weight.getDoubles(new double[nids._len], 0, nids._len);
+      double[] ns = nids.getDoubles(new double[nids._len], 0, nids._len);
       for( int row=0; row<nids._len; row++ ) {
-        if( weight.atd(row) == 0) continue;
-        if( isDecidedRow((int)nids.atd(row)) )
+        if( ws[row] == 0) continue;
+        if( isDecidedRow((int)ns[row]) )
           nnids[row] = DECIDED_ROW;
       }
+    }
 
     // Pass 2: accumulate all rows, cols into histograms
 //    if (_subset)
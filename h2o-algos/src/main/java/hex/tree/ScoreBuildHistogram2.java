@@ -278,10 +278,18 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     }
   }
 
+  // Number of rows binned at once before their values are scattered into the histogram
+  private static final int BLOCK_SIZE = 256;
+
   private class ComputeHistoThread extends MrFun<ComputeHistoThread> {
     final int _maxChunkSz;
     final int _col;
     final DHistogram [] _lh;
+    // Worker-private accumulators (one set per node), added to the histograms once the worker is done
+    private double [][] _w;
+    private double [][] _wY;
+    private double [][] _wYY;
+    private int [] _bins;
 
     AtomicInteger _cidx;
     private boolean _done;
@@ -302,9 +310,22 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     protected void map(int id){
       double [] cs = null;
       for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
-        if(cs == null) cs = MemoryManager.malloc8d(_maxChunkSz);
+        if(cs == null) {
+          cs = MemoryManager.malloc8d(_maxChunkSz);
+          _w = new double[_lh.length][];
+          _wY = new double[_lh.length][];
+          _wYY = new double[_lh.length][];
+          _bins = MemoryManager.malloc4(BLOCK_SIZE);
+        }
         computeChunk(i,cs,_ws[i]);
       }
+      if(_w != null) {
+        for (int n = 0; n < _lh.length; n++)
+          if (_w[n] != null)
+            _lh[n].addAndReset(_w[n], _wY[n], _wYY[n]);
+        _w = _wY = _wYY = null;
+        _bins = null;
+      }
     }
 
     private void computeChunk(int id, double [] cs, double [] ws){
@@ -313,7 +334,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       Chunk resChk = _chks[id][_workIdx];
       int len = resChk._len;
       double [] ys = ScoreBuildHistogram2.this._ys[id];
-      if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
+      // ws were already decoded (once per chunk, not once per column) in phase 1
       final int hcslen = _lh.length;
       boolean extracted = false;
       for (int n = 0; n < hcslen; n++) {
@@ -324,11 +345,17 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
           int lo = (n == 0 ? 0 : nh[n - 1]);
           if (hi == lo || h == null) continue; // Ignore untracked columns in this split
           if (h._vals == null) h.init();
+          if (_w[n] == null) {
+            int nbins = h.nbins() + 1; // +1 for NAs
+            _w[n] = MemoryManager.malloc8d(nbins);
+            _wY[n] = MemoryManager.malloc8d(nbins);
+            _wYY[n] = MemoryManager.malloc8d(nbins);
+          }
           if (!extracted) {
             _chks[id][_col].getDoubles(cs,0,len);
             extracted = true;
           }
-          h.updateHisto(ws, cs, ys, rs, hi, lo);
+          h.updateHisto(ws, cs, ys, rs, hi, lo, _bins, _w[n], _wY[n], _wYY[n]);
         }
       }
     }
@@ -8,7 +8,7 @@ import water.util.Log;
 
 public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecParameters,Word2VecModel.Word2VecOutput> {
   public enum WordModel { SkipGram }
-  public enum NormModel { HSM }
+  public enum NormModel { HSM, NegativeSampling }
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[]{ ModelCategory.WordEmbedding, }; }
   @Override public BuilderVisibility builderVisibility() { return BuilderVisibility.Stable; }
@@ -44,6 +44,10 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
     if (_parms._sent_sample_rate < 0.0) error("_sent_sample_rate", "Negative sentence sample rate not allowed for Word2Vec.  Expected a value > 0.0, received " + _parms._sent_sample_rate);
     if (_parms._init_learning_rate < 0.0) error("_init_learning_rate", "Negative learning rate not allowed for Word2Vec.  Expected a value > 0.0, received " + _parms._init_learning_rate);
     if (_parms._epochs < 1) error("_epochs", "Negative epoch count not allowed for Word2Vec.  Expected value > 0, received " + _parms._epochs);
+    if (_parms._norm_model == NormModel.NegativeSampling) {
+      if (_parms._negative_samples < 1) error("_negative_samples", "Negative sampling needs at least one negative sample per word.  Expected value > 0, received " + _parms._negative_samples);
+    } else
+      hide("_negative_samples", "Only used with NegativeSampling.");
   }
 
   @Override
@@ -260,15 +260,8 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
   }
 
   void buildModelOutput(Word2VecModelInfo modelInfo) {
-    IcedHashMapGeneric<BufferedString, Integer> vocab = ((Vocabulary) DKV.getGet(modelInfo._vocabKey))._data;
-    BufferedString[] words = new BufferedString[vocab.size()];
-    for (BufferedString str : vocab.keySet())
-      words[vocab.get(str)] = str;
-
-    _output._vecSize = _parms._vec_size;
-    _output._vecs = modelInfo._syn0;
-    _output._words = words;
-    _output._vocab = vocab;
+    BufferedString[] words = ((Vocabulary) DKV.getGet(modelInfo._vocabKey))._words;
+    buildModelOutput(words, modelInfo._syn0);
   }
 
   void buildModelOutput(BufferedString[] words, float[] syn0) {
@@ -304,6 +297,7 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
     public int _epochs = 5;
     public float _init_learning_rate = 0.025f;
     public float _sent_sample_rate = 1e-3f;
+    public int _negative_samples = 5;  // only used by NegativeSampling
     public Key<Frame> _pre_trained;  // key of a frame that contains a pre-trained word2vec model
     boolean isPreTrained() { return _pre_trained != null; }
     Vec trainVec() { return train().vec(0); }
@@ -331,19 +325,18 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
     float[] _syn0, _syn1;
     Key<HBWTree> _treeKey;
     Key<Vocabulary> _vocabKey;
-    Key<WordCounts> _wordCountsKey;
 
     private Word2VecParameters _parameters;
     public final Word2VecParameters getParams() { return _parameters; }
 
     public Word2VecModelInfo() {}
 
-    private Word2VecModelInfo(Word2VecParameters params, WordCounts wordCounts) {
+    private Word2VecModelInfo(Word2VecParameters params, IcedHashMap<BufferedString, IcedLong> wordCounts) {
       _parameters = params;
 
       long vocabWordCount = 0L;
-      List<Map.Entry<BufferedString, IcedLong>> wordCountList = new ArrayList<>(wordCounts._data.size());
-      for (Map.Entry<BufferedString, IcedLong> wc : wordCounts._data.entrySet()) {
+      List<Map.Entry<BufferedString, IcedLong>> wordCountList = new ArrayList<>(wordCounts.size());
+      for (Map.Entry<BufferedString, IcedLong> wc : wordCounts.entrySet()) {
         if (wc.getValue()._val >= _parameters._min_word_freq) {
           wordCountList.add(wc);
           vocabWordCount += wc.getValue()._val;
@@ -358,19 +351,18 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
       });
 
       int vocabSize = wordCountList.size();
+      BufferedString[] words = new BufferedString[vocabSize];
       long[] countAry = new long[vocabSize];
-      Vocabulary vocab = new Vocabulary(new IcedHashMapGeneric<BufferedString, Integer>());
       int idx = 0;
       for (Map.Entry<BufferedString, IcedLong> wc : wordCountList) {
-        countAry[idx] = wc.getValue()._val;
-        vocab._data.put(wc.getKey(), idx++);
+        words[idx] = wc.getKey();
+        countAry[idx++] = wc.getValue()._val;
       }
-      HBWTree t = HBWTree.buildHuffmanBinaryWordTree(countAry);
 
       _vocabWordCount = vocabWordCount;
-      _treeKey = publish(t);
-      _vocabKey = publish(vocab);
-      _wordCountsKey = publish(wordCounts);
+      _vocabKey = publish(new Vocabulary(words, countAry));
+      if (_parameters._norm_model == Word2Vec.NormModel.HSM)
+        _treeKey = publish(HBWTree.buildHuffmanBinaryWordTree(countAry));
 
       //initialize weights to random values
       Random rand = RandomUtils.getRNG(0xDECAF, 0xDA7A);
@@ -381,8 +373,7 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
 
     public static Word2VecModelInfo createInitialModelInfo(Word2VecParameters params) {
       Vec v = params.trainVec();
-      WordCounts wordCounts = new WordCounts(new WordCountTask().doAll(v)._counts);
-      return new Word2VecModelInfo(params, wordCounts);
+      return new Word2VecModelInfo(params, new WordCountTask().doAll(v)._counts);
     }
 
     private static <T extends Keyed> Key<T> publish(Keyed<T> keyed) {
@@ -393,21 +384,64 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
 
   }
 
-  // wraps Vocabulary map into a Keyed object
+  /**
+   * Vocabulary of the training: the words and their counts, indexed by a primitive open-addressing hash table
+   * keyed on 64-bit hashes of the words. Looking a word up doesn't allocate, and it only compares the bytes
+   * of the words if their hashes match.
+   */
   public static class Vocabulary extends Keyed<Vocabulary> {
-    IcedHashMapGeneric<BufferedString, Integer> _data;
-    Vocabulary(IcedHashMapGeneric<BufferedString, Integer> data) {
+    BufferedString[] _words; // words by their index
+    long[] _counts;          // number of occurrences of each word in the training frame
+    private long[] _hashes;  // hash of the word stored in each slot of the table
+    private int[] _slots;    // index of the word stored in each slot of the table, -1 marks an empty slot
+
+    Vocabulary(BufferedString[] words, long[] counts) {
       super(Key.<Vocabulary>make());
-      _data = data;
+      assert words.length == counts.length;
+      _words = words;
+      _counts = counts;
+      int capacity = 2;
+      while (capacity < 2 * words.length) capacity <<= 1; // load factor of at most 0.5
+      _hashes = new long[capacity];
+      _slots = new int[capacity];
+      Arrays.fill(_slots, -1);
+      final int mask = capacity - 1;
+      for (int i = 0; i < words.length; i++) {
+        long h = hash(words[i]);
+        int s = (int) h & mask;
+        while (_slots[s] != -1) s = (s + 1) & mask;
+        _hashes[s] = h;
+        _slots[s] = i;
+      }
+    }
+
+    int size() { return _words.length; }
+
+    /**
+     * @return index of the word in the vocabulary, or -1 if the vocabulary doesn't contain the word
+     */
+    int index(BufferedString word) {
+      final long h = hash(word);
+      final int mask = _slots.length - 1;
+      for (int s = (int) h & mask; _slots[s] != -1; s = (s + 1) & mask)
+        if (_hashes[s] == h && _words[_slots[s]].equals(word))
+          return _slots[s];
+      return -1;
     }
-  }
 
-  // wraps Word-Count map into a Keyed object
-  public static class WordCounts extends Keyed<WordCounts> {
-    IcedHashMap<BufferedString, IcedLong> _data;
-    WordCounts(IcedHashMap<BufferedString, IcedLong> data) {
-      super(Key.<WordCounts>make());
-      _data = data;
+    // FNV-1a of the bytes of the word, followed by a mixing step so that the low bits can be used to pick the slot
+    static long hash(BufferedString word) {
+      final byte[] buf = word.getBuffer();
+      final int end = word.getOffset() + word.length();
+      long h = 0xcbf29ce484222325L;
+      for (int i = word.getOffset(); i < end; i++) {
+        h ^= buf[i] & 0xFF;
+        h *= 0x100000001b3L;
+      }
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      return h;
     }
   }
 
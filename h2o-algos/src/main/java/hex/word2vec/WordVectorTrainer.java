@@ -8,10 +8,9 @@ import water.fvec.Chunk;
 import water.parser.BufferedString;
 import hex.word2vec.Word2VecModel.*;
 import water.util.ArrayUtils;
-import water.util.IcedHashMap;
-import water.util.IcedHashMapGeneric;
 import water.util.IcedLong;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
@@ -26,13 +25,14 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   // Params
   private final int _wordVecSize, _windowSize, _epochs;
+  private final boolean _negativeSampling;
+  private final int _negativeSamples;
   private final float _initLearningRate;
   private final float _sentSampleRate;
   private final long _vocabWordCount;
 
   // Model IN
   private final Key<Vocabulary> _vocabKey;
-  private final Key<WordCounts> _wordCountsKey;
   private final Key<HBWTree> _treeKey;
   private final long _prevTotalProcessedWords;
 
@@ -45,8 +45,8 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   // Node-Local (Shared)
   IcedLong _nodeProcessedWords; // mutable long, approximates the total number of words processed by this node
-  private transient IcedHashMapGeneric<BufferedString, Integer> _vocab;
-  private transient IcedHashMap<BufferedString, IcedLong> _wordCounts;
+  private transient Vocabulary _vocab;
+  private transient UnigramAliasTable _unigrams;
   private transient int[][] _HBWTCode;
   private transient int[][] _HBWTPoint;
 
@@ -59,7 +59,6 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
     _treeKey = input._treeKey;
     _vocabKey = input._vocabKey;
-    _wordCountsKey = input._wordCountsKey;
 
     // Params
     _wordVecSize = input.getParams()._vec_size;
@@ -67,6 +66,8 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     _sentSampleRate = input.getParams()._sent_sample_rate;
     _epochs = input.getParams()._epochs;
     _initLearningRate = input.getParams()._init_learning_rate;
+    _negativeSampling = input.getParams()._norm_model == Word2Vec.NormModel.NegativeSampling;
+    _negativeSamples = input.getParams()._negative_samples;
 
     _vocabWordCount = input._vocabWordCount;
     _prevTotalProcessedWords = input._totalProcessedWords;
@@ -78,11 +79,14 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   @Override
   protected void setupLocal() {
-    _vocab = ((Vocabulary) DKV.getGet(_vocabKey))._data;
-    _wordCounts = ((WordCounts) DKV.getGet(_wordCountsKey))._data;
-    HBWTree t = DKV.getGet(_treeKey);
-    _HBWTCode = t._code;
-    _HBWTPoint = t._point;
+    _vocab = DKV.getGet(_vocabKey);
+    if (_negativeSampling) {
+      _unigrams = new UnigramAliasTable(_vocab._counts);
+    } else {
+      HBWTree t = DKV.getGet(_treeKey);
+      _HBWTCode = t._code;
+      _HBWTPoint = t._point;
+    }
     _nodeProcessedWords = new IcedLong(0L);
   }
 
@@ -98,7 +102,10 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   @Override public void map(Chunk chk) {
     final int winSize = _windowSize;
-    float[] neu1e = new float[_wordVecSize];
+    final int vecSize = _wordVecSize;
+    float[] neu1e = new float[vecSize];
+    int[] winWords = new int[winSize * 2];
+    NegativeSamplingBatch batch = _negativeSampling ? new NegativeSamplingBatch(winWords.length, _negativeSamples + 1, vecSize) : null;
     ChunkSentenceIterator sentIter = new ChunkSentenceIterator(chk);
 
     int wordCount = 0;
@@ -108,17 +115,23 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
       for (int sentIdx = 0; sentIdx < sentLen; sentIdx++) {
         int curWord = sentence[sentIdx];
 
-        // for each item in the window (except curWord), update neu1 vals
+        // collect the items in the window (except curWord)
         int winSizeMod = cheapRandInt(winSize);
+        int winLen = 0;
         for (int winIdx = winSizeMod; winIdx < winSize * 2 + 1 - winSizeMod; winIdx++) {
           if (winIdx != winSize) { // skips curWord in sentence
             int winWordSentIdx = sentIdx - winSize + winIdx;
             if (winWordSentIdx < 0 || winWordSentIdx >= sentLen) continue;
-            int winWord = sentence[winWordSentIdx];
-            skipGram(curWord, winWord, neu1e);
+            winWords[winLen++] = sentence[winWordSentIdx];
           }
         } // end for each item in the window
 
+        if (_negativeSampling) {
+          if (winLen > 0) negativeSamplingSG(curWord, winWords, winLen, batch);
+        } else {
+          for (int i = 0; i < winLen; i++) skipGram(curWord, winWords[i], neu1e);
+        }
+
         wordCount++;
         // update learning rate
         if (wordCount % 10000 == 0) {
@@ -178,6 +191,141 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     }
   }
 
+  /**
+   * Skip-gram with negative sampling of a whole window at once. All the words of the window share the same negative
+   * samples, this turns the updates of the individual (window word, target) pairs into small dense matrix products:
+   * the input vectors of the window words (winLen x vecSize) are multiplied by the output vectors of curWord and
+   * of the negative samples (vecSize x targets), and the gradients of both are again products of these matrices.
+   * The rows are gathered from _syn0/_syn1 into the contiguous buffers of the batch and the updates are scattered
+   * back once the whole window is done.
+   */
+  private void negativeSamplingSG(final int curWord, final int[] winWords, final int winLen, NegativeSamplingBatch b) {
+    final int vecSize = _wordVecSize, nTargets = _negativeSamples + 1;
+    final float alpha = _curLearningRate;
+    final int[] targets = b._targets;
+    final float[] in = b._in, out = b._out, g = b._g, inGrad = b._inGrad, outGrad = b._outGrad;
+
+    // curWord is the positive target, the rest are the negative samples (-1 if we drew curWord itself)
+    targets[0] = curWord;
+    for (int k = 1; k < nTargets; k++) {
+      int w = _unigrams.sample(nextRandLong());
+      targets[k] = w == curWord ? -1 : w;
+    }
+
+    // Gather the rows of the window words and of the targets
+    for (int i = 0; i < winLen; i++) System.arraycopy(_syn0, winWords[i] * vecSize, in, i * vecSize, vecSize);
+    for (int k = 0; k < nTargets; k++)
+      if (targets[k] >= 0) System.arraycopy(_syn1, targets[k] * vecSize, out, k * vecSize, vecSize);
+
+    // Propagate hidden -> output for all the pairs at once, then turn the scores into gradients
+    for (int i = 0; i < winLen; i++) {
+      final int ii = i * vecSize;
+      for (int k = 0; k < nTargets; k++) {
+        if (targets[k] < 0) {
+          g[i * nTargets + k] = 0;
+          continue;
+        }
+        final int kk = k * vecSize;
+        float f = 0;
+        for (int j = 0; j < vecSize; j++) f += in[ii + j] * out[kk + j];
+        final int label = k == 0 ? 1 : 0;
+        if (f > MAX_EXP) f = 1;
+        else if (f < -MAX_EXP) f = 0;
+        else f = _expTable[(int) ((f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))];
+        g[i * nTargets + k] = (label - f) * alpha;
+      }
+    }
+
+    // Propagate errors output -> hidden (G x OUT) and learn weights hidden -> output (G' x IN)
+    Arrays.fill(inGrad, 0, winLen * vecSize, 0);
+    Arrays.fill(outGrad, 0, nTargets * vecSize, 0);
+    for (int i = 0; i < winLen; i++) {
+      final int ii = i * vecSize;
+      for (int k = 0; k < nTargets; k++) {
+        final float gik = g[i * nTargets + k];
+        if (gik == 0) continue;
+        final int kk = k * vecSize;
+        for (int j = 0; j < vecSize; j++) {
+          inGrad[ii + j] += gik * out[kk + j];
+          outGrad[kk + j] += gik * in[ii + j];
+        }
+      }
+    }
+
+    // Scatter the updates
+    for (int i = 0; i < winLen; i++) {
+      final int l1 = winWords[i] * vecSize, ii = i * vecSize;
+      for (int j = 0; j < vecSize; j++) _syn0[l1 + j] += inGrad[ii + j];
+    }
+    for (int k = 0; k < nTargets; k++) {
+      if (targets[k] < 0) continue;
+      final int l2 = targets[k] * vecSize, kk = k * vecSize;
+      for (int j = 0; j < vecSize; j++) _syn1[l2 + j] += outGrad[kk + j];
+    }
+  }
+
+  // Buffers of negativeSamplingSG, allocated once per chunk
+  private static final class NegativeSamplingBatch {
+    final int[] _targets;
+    final float[] _in, _out, _g, _inGrad, _outGrad;
+    NegativeSamplingBatch(int maxWinLen, int nTargets, int vecSize) {
+      _targets = new int[nTargets];
+      _in = new float[maxWinLen * vecSize];
+      _inGrad = new float[maxWinLen * vecSize];
+      _out = new float[nTargets * vecSize];
+      _outGrad = new float[nTargets * vecSize];
+      _g = new float[maxWinLen * nTargets];
+    }
+  }
+
+  /**
+   * Walker's alias table of the unigram distribution raised to the 3/4 power, used to draw the negative samples
+   * in constant time.
+   */
+  static final class UnigramAliasTable {
+    private static final double POWER = 0.75;
+    final float[] _prob;
+    final int[] _alias;
+
+    UnigramAliasTable(long[] counts) {
+      final int n = counts.length;
+      _prob = new float[n];
+      _alias = new int[n];
+      double[] p = new double[n];
+      double sum = 0;
+      for (int i = 0; i < n; i++) sum += p[i] = Math.pow(counts[i], POWER);
+      // Vose's method: split the scaled probabilities into those below and above 1, then pair them up
+      int[] small = new int[n], large = new int[n];
+      int ns = 0, nl = 0;
+      for (int i = 0; i < n; i++) {
+        p[i] = p[i] * n / sum;
+        if (p[i] < 1) small[ns++] = i;
+        else large[nl++] = i;
+      }
+      while (ns > 0 && nl > 0) {
+        int s = small[--ns], l = large[--nl];
+        _prob[s] = (float) p[s];
+        _alias[s] = l;
+        p[l] = (p[l] + p[s]) - 1;
+        if (p[l] < 1) small[ns++] = l;
+        else large[nl++] = l;
+      }
+      // Whatever is left has a probability of 1 up to rounding errors
+      while (nl > 0) { int l = large[--nl]; _prob[l] = 1; _alias[l] = l; }
+      while (ns > 0) { int s = small[--ns]; _prob[s] = 1; _alias[s] = s; }
+    }
+
+    /**
+     * @param r 64 random bits, the upper half picks the column of the table, the lower half the side of the column
+     * @return a word drawn from the distribution
+     */
+    int sample(long r) {
+      int col = (int) (((r >>> 32) * _prob.length) >>> 32);
+      float u = (r & 0xFFFFFF) / (float) (1 << 24);
+      return u < _prob[col] ? col : _alias[col];
+    }
+  }
+
   /**
    * Calculates a new global learning rate for the next round
    * of map/reduce calls.
@@ -203,11 +351,15 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     * @return int between 0-(max-1).
     */
   private int cheapRandInt(int max) {
+    int r = (int) nextRandLong() % max;
+    return r > 0 ? r : -r;
+  }
+
+  private long nextRandLong() {
     _seed ^= ( _seed << 21);
     _seed ^= ( _seed >>> 35);
     _seed ^= ( _seed << 4);
-    int r = (int) _seed % max;
-    return r > 0 ? r : -r;
+    return _seed;
   }
 
   private class ChunkSentenceIterator implements Iterator<int[]> {
@@ -233,14 +385,14 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
       _len = 0;
       BufferedString tmp = new BufferedString();
       for (; _pos < _chk._len && ! _chk.isNA(_pos) && _len < MAX_SENTENCE_LEN; _pos++) {
-        BufferedString str = _chk.atStr(tmp, _pos);
-        if (! _vocab.containsKey(str)) continue; // not in the vocab, skip
+        int wordIdx = _vocab.index(_chk.atStr(tmp, _pos));
+        if (wordIdx < 0) continue; // not in the vocab, skip
         if (_sentSampleRate > 0) {  // sub-sampling while creating a sentence
-          long count = _wordCounts.get(str)._val;
+          long count = _vocab._counts[wordIdx];
           float ran = (float) ((Math.sqrt(count / (_sentSampleRate * _vocabWordCount)) + 1) * (_sentSampleRate * _vocabWordCount) / count);
           if (ran * 65536 < cheapRandInt(0xFFFF)) continue;
         }
-        _sent[_len++] = _vocab.get(tmp);
+        _sent[_len++] = wordIdx;
       }
       _sent[_len] = -1;
       _pos++;
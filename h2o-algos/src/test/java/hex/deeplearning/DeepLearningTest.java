@@ -1622,6 +1622,71 @@ public class DeepLearningTest extends TestUtil {
   }
 
 
+  @Test
+  public void testWeightReplicas() {
+    Frame tfr = null;
+    DeepLearningModel dl = null;
+    DeepLearningModel dlr = null;
+
+    try {
+      tfr = parse_test_file("./smalldata/gbm_test/BostonHousing.csv");
+      DeepLearningParameters parms = new DeepLearningParameters();
+      parms._train = tfr._key;
+      parms._response_column = tfr.lastVecName();
+      parms._hidden = new int[]{20,20};
+      parms._seed = 0xdecaf;
+      parms._epochs = 20;
+
+      dl = new DeepLearning(parms).trainModel().get();
+
+      parms._weight_replicas = -1;
+      parms._replica_sync_interval = 10;
+      dlr = new DeepLearning(parms).trainModel().get();
+
+      // Hogwild! is not reproducible either, so just make sure that the replicas learn about as well
+      Assert.assertFalse(dlr.model_info().isUnstable());
+      Assert.assertTrue(dlr._output._training_metrics._MSE < 2 * dl._output._training_metrics._MSE);
+
+    } finally {
+      if (tfr != null) tfr.delete();
+      if (dl != null) dl.delete();
+      if (dlr != null) dlr.delete();
+    }
+  }
+
+  @Test
+  public void testWeightReplicasIdle() {
+    Frame tfr = null;
+    DeepLearningModel dl = null;
+    DeepLearningModel dlr = null;
+
+    try {
+      tfr = parse_test_file("./smalldata/gbm_test/BostonHousing.csv");
+      DeepLearningParameters parms = new DeepLearningParameters();
+      parms._train = tfr._key;
+      parms._response_column = tfr.lastVecName();
+      parms._hidden = new int[]{20,20};
+      parms._seed = 0xdecaf;
+      parms._epochs = 20;
+      parms._force_load_balance = false; // A single chunk: only one of the replicas trains
+
+      dl = new DeepLearning(parms).trainModel().get();
+
+      parms._weight_replicas = 64;
+      parms._replica_sync_interval = 10;
+      dlr = new DeepLearning(parms).trainModel().get();
+
+      // The idle replicas don't shrink the updates of the one which trains
+      Assert.assertFalse(dlr.model_info().isUnstable());
+      Assert.assertTrue(dlr._output._training_metrics._MSE < 1.5 * dl._output._training_metrics._MSE);
+
+    } finally {
+      if (tfr != null) tfr.delete();
+      if (dl != null) dl.delete();
+      if (dlr != null) dlr.delete();
+    }
+  }
+
   @Test
   public void testPretrainedAE() {
     Frame tfr = null;
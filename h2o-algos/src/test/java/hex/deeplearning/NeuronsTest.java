@@ -109,4 +109,31 @@ public class NeuronsTest extends water.TestUtil {
     System.out.println("optimized dense row * dense time: " + PrettyPrint.msecs(System.currentTimeMillis()-start, true));
   }
 
+  @Test
+  public void matrixMatrixTest() {
+    Random rng = new Random(0xBEEF);
+    for (int rows : new int[]{1, 7, 16}) {
+      for (int cols : new int[]{3, 8, 21}) {
+        int n = 5;
+        float[] a = new float[rows*cols];
+        for (int i=0;i<a.length;++i) a[i] = rng.nextFloat()-0.5f;
+        double[] y = new double[rows];
+        for (int row=0;row<rows;++row) y[row] = rng.nextDouble();
+        double[][] x = new double[n][cols];
+        for (double[] xs : x)
+          for (int col=0;col<cols;++col) xs[col] = rng.nextDouble();
+        byte[] bits = new byte[(rows+7)/8];
+        rng.nextBytes(bits);
+        for (byte[] rowBits : new byte[][]{null, bits}) {
+          double[][] res = new double[n][rows];
+          gemm_row_blocked(res, a, x, y, rowBits, n);
+          for (int mb=0;mb<n;++mb) {
+            double[] expected = new double[rows];
+            gemv_row_optimized(expected, a, x[mb], y, rowBits);
+            Assert.assertArrayEquals(expected, res[mb], 0);
+          }
+        }
+      }
+    }
+  }
 }
@@ -1048,6 +1048,94 @@ public class GLMTest  extends TestUtil {
     f.delete();
   }
 
+  /**
+   * Test the blocked accumulation of the gram gives the same gram as the row by row one, for dense and sparse rows
+   */
+  @Test
+  public void testBlockedGramComputation() {
+    Random rnd = new Random(987654321l);
+    String[] dom = new String[]{"a", "b", "c", "d", "e", "f", "g", "h"};
+    final int nrows = 1000, nnums = 50;
+    Vec.VectorGroup vg = Vec.VectorGroup.VG_LEN1;
+    Vec[] vecs = new Vec[nnums + 2];
+    for (int c = 0; c < 2; ++c) {
+      long[] cats = MemoryManager.malloc8(nrows);
+      for (int i = 0; i < nrows; ++i) cats[i] = rnd.nextInt(dom.length);
+      vecs[c] = Vec.makeVec(cats, dom, vg.addVec());
+    }
+    for (int c = 0; c < nnums; ++c) {
+      double[] nums = MemoryManager.malloc8d(nrows);
+      if (c % 2 == 0) { // dense column
+        for (int i = 0; i < nrows; ++i) nums[i] = rnd.nextDouble();
+      } else {          // sparse column
+        for (int i = 0; i < 20; ++i) nums[rnd.nextInt(nrows)] = rnd.nextDouble();
+      }
+      vecs[c + 2] = Vec.makeVec(nums, vg.addVec());
+    }
+    Frame f = new Frame(Key.<Frame>make("BlockedGramData"), null, vecs);
+    DKV.put(f);
+    DataInfo dinfo = new DataInfo(f, null, 1, true, DataInfo.TransformType.STANDARDIZE, DataInfo.TransformType.NONE, true, false, false, false, false, false);
+    try {
+      GLMParameters params = new GLMParameters(Family.gaussian);
+      for (boolean sparse : new boolean[]{false, true}) {
+        GLMIterationTask rowByRow = new GLMIterationTask(null, dinfo, new GLMWeightsFun(params), null).setBlockRows(1).setSparse(sparse).doAll(dinfo._adaptedFrame);
+        GLMIterationTask blocked = new GLMIterationTask(null, dinfo, new GLMWeightsFun(params), null).setBlockRows(7).setSparse(sparse).doAll(dinfo._adaptedFrame);
+        for (int i = 0; i < rowByRow._xy.length; ++i) {
+          for (int j = 0; j <= i; ++j) {
+            assertEquals(rowByRow._gram.get(i, j), blocked._gram.get(i, j), 1e-8);
+          }
+          assertEquals(rowByRow._xy[i], blocked._xy[i], 1e-8);
+        }
+      }
+    } finally {
+      dinfo.remove();
+      f.delete();
+    }
+  }
+
+  /**
+   * Test sparse rows are not blocked: on one-hot like numeric data the blocked accumulation gives the same gram for
+   * the same number of multiply-adds as the row by row one
+   */
+  @Test
+  public void testBlockedGramSparseRows() {
+    Random rnd = new Random(123456789l);
+    final int nrows = 2000, nnums = 64;
+    Vec.VectorGroup vg = Vec.VectorGroup.VG_LEN1;
+    double[][] nums = new double[nnums][nrows];
+    for (int i = 0; i < nrows; ++i) { // two non-zeros per row
+      nums[rnd.nextInt(nnums)][i] = 1;
+      nums[rnd.nextInt(nnums)][i] = rnd.nextDouble();
+    }
+    Vec[] vecs = new Vec[nnums + 1];
+    for (int c = 0; c < nnums; ++c)
+      vecs[c] = Vec.makeVec(nums[c], vg.addVec());
+    double[] ys = MemoryManager.malloc8d(nrows);
+    for (int i = 0; i < nrows; ++i) ys[i] = rnd.nextDouble();
+    vecs[nnums] = Vec.makeVec(ys, vg.addVec());
+    Frame f = new Frame(Key.<Frame>make("BlockedGramSparseData"), null, vecs);
+    DKV.put(f);
+    DataInfo dinfo = new DataInfo(f, null, 1, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE, true, false, false, false, false, false);
+    try {
+      GLMParameters params = new GLMParameters(Family.gaussian);
+      for (boolean sparse : new boolean[]{false, true}) {
+        GLMIterationTask rowByRow = new GLMIterationTask(null, dinfo, new GLMWeightsFun(params), null).setBlockRows(1).setSparse(sparse).doAll(dinfo._adaptedFrame);
+        GLMIterationTask blocked = new GLMIterationTask(null, dinfo, new GLMWeightsFun(params), null).setBlockRows(32).setSparse(sparse).doAll(dinfo._adaptedFrame);
+        for (int i = 0; i < rowByRow._xy.length; ++i) {
+          for (int j = 0; j <= i; ++j) {
+            assertEquals(rowByRow._gram.get(i, j), blocked._gram.get(i, j), 1e-8);
+          }
+          assertEquals(rowByRow._xy[i], blocked._xy[i], 1e-8);
+        }
+        assertTrue(rowByRow._gram.numericOps() > 0);
+        assertEquals(rowByRow._gram.numericOps(), blocked._gram.numericOps());
+      }
+    } finally {
+      dinfo.remove();
+      f.delete();
+    }
+  }
+
   // test categorical autoexpansions, run on airlines which has several categorical columns,
   // once on explicitly expanded data, once on h2o autoexpanded and compare the results
   @Test
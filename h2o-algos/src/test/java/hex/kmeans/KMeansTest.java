@@ -546,6 +546,43 @@ public class KMeansTest extends TestUtil {
     }
   }
 
+  // The blocked, bounded Lloyd's pass has to give the same clustering as the plain one
+  @Test
+  public void testBoundedLloyds() {
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      for (boolean estimateK : new boolean[]{false, true}) {
+        KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+        parms._train = fr._key;
+        parms._ignored_columns = new String[]{"class"};
+        parms._k = 8;
+        parms._estimate_k = estimateK;
+        parms._standardize = !estimateK;
+        parms._max_iterations = 50;
+        parms._seed = 0xdecaf;
+        KMeansModel plain = null, bounded = null;
+        try {
+          KMeans job = new KMeans(parms);
+          job._boundedLloyds = false;
+          plain = job.trainModel().get();
+          bounded = new KMeans(parms).trainModel().get();
+          assertEquals(plain._output._iterations, bounded._output._iterations);
+          assertArrayEquals(plain._output._size, bounded._output._size);
+          assertArrayEquals(plain._output._withinss, bounded._output._withinss, threshold);
+          assertEquals(plain._output._tot_withinss, bounded._output._tot_withinss, threshold);
+          for (int i = 0; i < plain._output._centers_raw.length; i++)
+            assertArrayEquals(plain._output._centers_raw[i], bounded._output._centers_raw[i], threshold);
+        } finally {
+          if (plain != null) plain.delete();
+          if (bounded != null) bounded.delete();
+        }
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
   double _ref_betweenss = 429.75370357154713;
   double _ref_tot_withinss = 266.24628336259855;
   double _ref_totss = 695.9999869341457;
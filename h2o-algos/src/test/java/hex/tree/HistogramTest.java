@@ -313,4 +313,40 @@ public class HistogramTest extends TestUtil {
       Log.info("N=" + N + " Sum:" + sum + " Time: " + PrettyPrint.msecs(done - start, true));
     }
   }
+
+  @Test public void testBlockUpdateMatchesRowUpdate() {
+    int nbins = 20;
+    double min = -5;
+    double maxEx = 5;
+    SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
+    DHistogram rowHist = new DHistogram("rowhisto", nbins, nbins, (byte) 0, min, maxEx, 0, histoType, 1234, null);
+    DHistogram blockHist = new DHistogram("blockhisto", nbins, nbins, (byte) 0, min, maxEx, 0, histoType, 1234, null);
+    rowHist.init();
+    blockHist.init();
+
+    int N = 1000;
+    Random rnd = RandomUtils.getRNG(42);
+    double[] ws = new double[N];
+    double[] cs = new double[N];
+    double[] ys = new double[N];
+    int[] rows = new int[N];
+    for (int i = 0; i < N; ++i) {
+      ws[i] = i % 11 == 0 ? 0 : rnd.nextDouble();
+      cs[i] = i % 13 == 0 ? Double.NaN : min + rnd.nextDouble() * (maxEx - min);
+      ys[i] = rnd.nextGaussian();
+      rows[i] = i;
+    }
+
+    rowHist.updateHisto(ws, cs, ys, rows, N, 100);
+    double[] w = new double[nbins + 1];
+    double[] wY = new double[nbins + 1];
+    double[] wYY = new double[nbins + 1];
+    blockHist.updateHisto(ws, cs, ys, rows, N, 100, new int[7], w, wY, wYY);
+    blockHist.addAndReset(w, wY, wYY);
+
+    Assert.assertArrayEquals(rowHist._vals, blockHist._vals, 0);
+    Assert.assertEquals(rowHist.find_min(), blockHist.find_min(), 0);
+    Assert.assertEquals(rowHist.find_maxIn(), blockHist.find_maxIn(), 0);
+    Assert.assertArrayEquals(new double[nbins + 1], w, 0);
+  }
 }
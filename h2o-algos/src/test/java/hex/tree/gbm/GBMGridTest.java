@@ -17,6 +17,7 @@ import hex.Distribution;
 import hex.Model;
 import hex.grid.Grid;
 import hex.grid.GridSearch;
+import hex.grid.HyperSpaceSearchCriteria;
 import water.DKV;
 import water.Job;
 import water.Key;
@@ -284,4 +285,54 @@ public class GBMGridTest extends TestUtil {
       if (gbmRebuilt != null) gbmRebuilt.remove();
     }
   }
+
+  @Test
+  public void testParallelRandomCarsGrid() {
+    Grid grid = null;
+    Frame fr = null;
+    Vec old = null;
+    try {
+      fr = parse_test_file("smalldata/junit/cars.csv");
+      fr.remove("name").remove();
+      old = fr.remove("economy (mpg)");
+      fr.add("economy (mpg)", old); // response to last column
+      DKV.put(fr);
+
+      HashMap<String, Object[]> hyperParms = new HashMap<>();
+      hyperParms.put("_distribution", new DistributionFamily[]{DistributionFamily.gaussian});
+      hyperParms.put("_ntrees", new Integer[]{1, 2, 3, 4, 5});
+      hyperParms.put("_max_depth", new Integer[]{1, 2, 3, 4, 5});
+      hyperParms.put("_learn_rate", new Double[]{0.01, 0.1, 0.3});
+
+      GBMModel.GBMParameters params = new GBMModel.GBMParameters();
+      params._train = fr._key;
+      params._response_column = "economy (mpg)";
+
+      // Max models budget is shared by the concurrent builds
+      HyperSpaceSearchCriteria.RandomDiscreteValueSearchCriteria searchCriteria =
+          new HyperSpaceSearchCriteria.RandomDiscreteValueSearchCriteria();
+      searchCriteria.set_max_models(7);
+      searchCriteria.set_parallelism(3);
+      Job<Grid> gs = GridSearch.startGridSearch(null, params, hyperParms,
+                                                new GridSearch.SimpleParametersBuilderFactory<GBMModel.GBMParameters>(),
+                                                searchCriteria);
+      grid = gs.get();
+      Assert.assertEquals(7, grid.getModelCount() + grid.getFailureCount());
+      Assert.assertEquals(0, grid.getFailureCount());
+
+      // Adaptive parallelism builds the whole Cartesian space
+      grid.remove();
+      HyperSpaceSearchCriteria.CartesianSearchCriteria cartesianCriteria = new HyperSpaceSearchCriteria.CartesianSearchCriteria();
+      cartesianCriteria.set_parallelism(0);
+      gs = GridSearch.startGridSearch(null, params, hyperParms,
+                                      new GridSearch.SimpleParametersBuilderFactory<GBMModel.GBMParameters>(),
+                                      cartesianCriteria);
+      grid = gs.get();
+      Assert.assertEquals(ArrayUtils.crossProductSize(hyperParms), grid.getModelCount());
+    } finally {
+      if (old != null) old.remove();
+      if (fr != null) fr.remove();
+      if (grid != null) grid.remove();
+    }
+  }
 }
@@ -67,6 +67,75 @@ public class Word2VecTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testW2V_SG_NS_small() {
+    String[] words = new String[220];
+    for (int i = 0; i < 200; i += 2) { words[i] = "a"; words[i + 1] = "b"; }
+    for (int i = 200; i < 220; i += 2) { words[i] = "a"; words[i + 1] = "c"; }
+    Scope.enter();
+    try {
+      Vec v = Scope.track(svec(words));
+      Frame fr = Scope.track(new Frame(Key.<Frame>make(), new String[]{"Words"}, new Vec[]{v}));
+      DKV.put(fr);
+
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._min_word_freq = 5;
+      p._word_model = Word2Vec.WordModel.SkipGram;
+      p._norm_model = Word2Vec.NormModel.NegativeSampling;
+      p._negative_samples = 2;
+      p._vec_size = 10;
+      p._window_size = 5;
+      p._sent_sample_rate = 0.001f;
+      p._init_learning_rate = 0.025f;
+      p._epochs = 1;
+
+      Word2VecModel w2vm = (Word2VecModel) Scope.track_generic(new Word2Vec(p).trainModel().get());
+
+      Map<String, Float> hm = w2vm.findSynonyms("a", 2);
+      logResults(hm);
+      assertEquals(new HashSet<>(Arrays.asList("b", "c")), hm.keySet());
+      for (float f : w2vm._output._vecs)
+        assertFalse(Float.isNaN(f));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testVocabulary() {
+    BufferedString[] words = new BufferedString[1000];
+    long[] counts = new long[words.length];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = new BufferedString("word" + i);
+      counts[i] = i + 1;
+    }
+    Word2VecModel.Vocabulary vocab = new Word2VecModel.Vocabulary(words, counts);
+    assertEquals(words.length, vocab.size());
+    for (int i = 0; i < words.length; i++)
+      assertEquals(i, vocab.index(new BufferedString("word" + i)));
+    assertEquals(-1, vocab.index(new BufferedString("word" + words.length)));
+    assertEquals(-1, vocab.index(new BufferedString("")));
+    // lookup of a word in the middle of a larger buffer
+    BufferedString str = new BufferedString("xxword42xx".getBytes(), 2, 6);
+    assertEquals(42, vocab.index(str));
+  }
+
+  @Test
+  public void testUnigramAliasTable() {
+    long[] counts = new long[]{1, 10, 100, 1000};
+    WordVectorTrainer.UnigramAliasTable table = new WordVectorTrainer.UnigramAliasTable(counts);
+    double sum = 0;
+    for (long c : counts) sum += Math.pow(c, 0.75);
+    int[] hits = new int[counts.length];
+    Random r = new Random(42);
+    final int N = 1000000;
+    for (int i = 0; i < N; i++)
+      hits[table.sample(r.nextLong())]++;
+    for (int i = 0; i < counts.length; i++)
+      assertEquals(Math.pow(counts[i], 0.75) / sum, hits[i] / (double) N, 5e-3);
+  }
+
   @Test
   public void testW2V_pretrained() {
     String[] words = new String[1000];
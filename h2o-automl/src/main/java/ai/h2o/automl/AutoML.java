@@ -96,6 +96,8 @@ public final class AutoML extends Lockable<AutoML> implements TimedH2ORunnable {
   private transient ArrayList<Frame> tempFrames;
 
   private AtomicInteger modelCount = new AtomicInteger();  // prepare for concurrency
+  private transient int reservedModels;  // part of max_models promised to the running stages
+  private transient Key<Model> ensemble; // latest StackedEnsemble of this run, the only one on the leaderboard
   private Leaderboard leaderboard;
   private UserFeedback userFeedback;
 
@@ -366,94 +368,37 @@ public final class AutoML extends Lockable<AutoML> implements TimedH2ORunnable {
   }
 
   public int remainingModels() {
-    if (buildSpec.build_control.stopping_criteria.max_models() == 0)
+    if (!hasModelLimit())
       return Integer.MAX_VALUE;
-    return buildSpec.build_control.stopping_criteria.max_models() - modelCount.get();
+    return buildSpec.build_control.stopping_criteria.max_models() - modelCount.get() - reservedModels;
   }
 
-  @Override
-  public boolean keepRunning() {
-    return timeRemainingMs() > 0 && remainingModels() > 0;
+  /** Number of base models built so far. */
+  int modelCount() {
+    return modelCount.get();
   }
 
-  private enum JobType {
-    Unknown,
-    ModelBuild,
-    HyperparamSearch
+  boolean hasModelLimit() {
+    return buildSpec.build_control.stopping_criteria.max_models() != 0;
   }
 
-  public void pollAndUpdateProgress(Stage stage, String name, long workContribution, Job parentJob, Job subJob, JobType subJobType) {
-    if (null == subJob) {
-      parentJob.update(workContribution, "SKIPPED: " + name);
-      return;
-    }
-    userFeedback.info(stage, name + " started");
-    jobs.add(subJob);
-
-    long lastWorkedSoFar = 0;
-    long cumulative = 0;
-    int gridLastCount = 0;
-
-    while (subJob.isRunning()) {
-      if(parentJob.stop_requested()){
-        Log.info("Skipping " + name + " due to Job cancel");
-        subJob.stop();
-      }
-      long workedSoFar = Math.round(subJob.progress() * workContribution);
-      cumulative += workedSoFar;
-
-      parentJob.update(Math.round(workedSoFar - lastWorkedSoFar), name);
-
-      if (JobType.HyperparamSearch == subJobType) {
-        Grid grid = (Grid)subJob._result.get();
-        int gridCount = grid.getModelCount();
-        if (gridCount > gridLastCount) {
-          userFeedback.info(Stage.ModelTraining,
-                  "Built: " + gridCount + " models for search: " + name);
-          this.addModels(grid.getModelKeys());
-          gridLastCount = gridCount;
-        }
-      }
-
-      try {
-        Thread.currentThread().sleep(1000);
-      }
-      catch (InterruptedException e) {
-        // keep going
-      }
-      lastWorkedSoFar = workedSoFar;
-    }
-
-    // pick up any stragglers:
-    if (JobType.HyperparamSearch == subJobType) {
-      if (subJob.isCrashed()) {
-        userFeedback.info(stage, name + " failed: " + subJob.ex().toString());
-      } else {
-        Grid grid = (Grid) subJob._result.get();
-        int gridCount = grid.getModelCount();
-        if (gridCount > gridLastCount) {
-          userFeedback.info(Stage.ModelTraining,
-                  "Built: " + gridCount + " models for search: " + name);
-          this.addModels(grid.getModelKeys());
-          gridLastCount = gridCount;
-        }
-        userFeedback.info(stage, name + " complete");
-      }
-    } else if (JobType.ModelBuild == subJobType) {
-      if (subJob.isCrashed()) {
-        userFeedback.info(stage, name + " failed: " + subJob.ex().toString());
-      } else {
-        userFeedback.info(stage, name + " complete");
-        this.addModel((Model) subJob._result.get());
-      }
-    }
+  /** Reserve (or for negative n release) a part of the max_models budget for a running stage. */
+  void reserveModels(int n) {
+    reservedModels += n;
+  }
 
-    // add remaining work
-    parentJob.update(workContribution - lastWorkedSoFar);
+  void trackJob(Job job) {
+    jobs.add(job);
+  }
 
+  void untrackJob(Job job) {
     //FIXME Bad call here. Should revist later
-    try { jobs.remove(subJob); } catch (NullPointerException npe) {} // stop() can null jobs; can't just do a pre-check, because there's a race
+    try { jobs.remove(job); } catch (NullPointerException npe) {} // stop() can null jobs; can't just do a pre-check, because there's a race
+  }
 
+  @Override
+  public boolean keepRunning() {
+    return timeRemainingMs() > 0 && remainingModels() > 0;
   }
 
   private int individualModelsTrained = 0;
@@ -798,6 +743,40 @@ public final class AutoML extends Lockable<AutoML> implements TimedH2ORunnable {
     return ensembleJob;
   }
 
+  /**
+   * Base models for a StackedEnsemble: all the models on the leaderboard except for other StackedEnsembles.
+   * Note that this also stacks models from other AutoML runs of the same project.
+   * @return keys of the base models, or null if no StackedEnsemble can be built (no models or multinomial classifier)
+   */
+  Key<Model>[] ensembleBaseModels() {
+    Model[] allModels = leaderboard().getModels();
+    if (allModels.length == 0)
+      return null;
+    Model m = allModels[0];
+    if (m._output.isClassifier() && !m._output.isBinomialClassifier())
+      return null;
+
+    List<Key<Model>> notEnsembles = new ArrayList<>();
+    for (Model aModel : allModels)
+      if (!(aModel instanceof StackedEnsembleModel))
+        notEnsembles.add(aModel._key);
+    return notEnsembles.toArray(new Key[notEnsembles.size()]);
+  }
+
+  /**
+   * Every new StackedEnsemble stacks all the base models built so far, so it replaces the previous one of this run
+   * on the leaderboard.  The replaced ensemble is deleted.
+   */
+  void addEnsemble(final Key<Model> newEnsemble) {
+    leaderboard.addModel(newEnsemble);
+    Key<Model> old = ensemble;
+    ensemble = newEnsemble;
+    if (old != null && !old.equals(newEnsemble)) {
+      leaderboard.removeModel(old);
+      old.remove();
+    }
+  }
+
   Job<DeepWaterModel>defaulDeepWater() {
     if (exceededSearchLimits("DeepWater")) return null;
 
@@ -843,103 +822,73 @@ public final class AutoML extends Lockable<AutoML> implements TimedH2ORunnable {
     isClassification = frameMetadata.isClassification();
 
     ///////////////////////////////////////////////////////////
-    // build a fast RF with default settings...
+    // build the models: independent stages run concurrently
     ///////////////////////////////////////////////////////////
-    Job<DRFModel>defaultRandomForestJob = defaultRandomForest();
-    pollAndUpdateProgress(Stage.ModelTraining, "Default Random Forest build", 50, this.job(), defaultRandomForestJob, JobType.ModelBuild);
+    List<StageScheduler.TrainingStage> stages = new ArrayList<>();
 
+    // a fast RF with default settings...
+    stages.add(new StageScheduler.TrainingStage("Default Random Forest build", 50, StageScheduler.JobType.ModelBuild, null) {
+      @Override Job start() { return defaultRandomForest(); }
+    });
 
-    ///////////////////////////////////////////////////////////
     // ... and another with "XRT" / extratrees settings
-    ///////////////////////////////////////////////////////////
-    Job<DRFModel>defaultExtremelyRandomTreesJob = defaultExtremelyRandomTrees();
-    pollAndUpdateProgress(Stage.ModelTraining, "Default Extremely Random Trees (XRT) build", 50, this.job(), defaultExtremelyRandomTreesJob, JobType.ModelBuild);
-
+    stages.add(new StageScheduler.TrainingStage("Default Extremely Random Trees (XRT) build", 50, StageScheduler.JobType.ModelBuild, null) {
+      @Override Job start() { return defaultExtremelyRandomTrees(); }
+    });
 
-    ///////////////////////////////////////////////////////////
-    // build GLMs with the default search parameters
-    ///////////////////////////////////////////////////////////
+    // GLMs with the default search parameters
     // TODO: run for only part of the remaining time?
-    Job<Grid>glmJob = defaultSearchGLM();
-    pollAndUpdateProgress(Stage.ModelTraining, "GLM hyperparameter search", 50, this.job(), glmJob, JobType.HyperparamSearch);
+    stages.add(new StageScheduler.TrainingStage("GLM hyperparameter search", 50, StageScheduler.JobType.HyperparamSearch, null) {
+      @Override Job start() { return defaultSearchGLM(); }
+    });
 
     // TODO: build GBMs with Arno's default settings, using 1-grid Cartesian searches
     // into the same grid object as the search below.
     // Can't do until PUBDEV-4361 is fixed.
 
-    ///////////////////////////////////////////////////////////
-    // build GBMs with the default search parameters
-    ///////////////////////////////////////////////////////////
+    // GBMs with the default search parameters
     // TODO: run for only part of the remaining time?
-    Job<Grid> gbmJob = defaultSearchGBM();
-    pollAndUpdateProgress(Stage.ModelTraining, "GBM hyperparameter search", 150, this.job(), gbmJob, JobType.HyperparamSearch);
+    stages.add(new StageScheduler.TrainingStage("GBM hyperparameter search", 150, StageScheduler.JobType.HyperparamSearch, null) {
+      @Override Job start() { return defaultSearchGBM(); }
+    });
 
-    ///////////////////////////////////////////////////////////
-    // build DL models with the default search parameter set 1
-    ///////////////////////////////////////////////////////////
+    // DL models with the default search parameter sets 1, 2 and 3; they all add models to the same grid
     // TODO: run for only part of the remaining time?
-    Job<Grid>dlJob1 = defaultSearchDL1();
-    pollAndUpdateProgress(Stage.ModelTraining, "DeepLearning hyperparameter search 1", 150, this.job(), dlJob1, JobType.HyperparamSearch);
-
-
-    ///////////////////////////////////////////////////////////
-    // build DL models with the default search parameter set 2
-    ///////////////////////////////////////////////////////////
-    // TODO: run for only part of the remaining time?
-    Job<Grid>dlJob2 = defaultSearchDL2();
-    pollAndUpdateProgress(Stage.ModelTraining, "DeepLearning hyperparameter search 2", 200, this.job(), dlJob2, JobType.HyperparamSearch);
-
-
-    ///////////////////////////////////////////////////////////
-    // build DL models with the default search parameter set 3
-    ///////////////////////////////////////////////////////////
-    // TODO: run for only part of the remaining time?
-    Job<Grid>dlJob3 = defaultSearchDL3();
-    pollAndUpdateProgress(Stage.ModelTraining, "DeepLearning hyperparameter search 3", 300, this.job(), dlJob3, JobType.HyperparamSearch);
-
-    ///////////////////////////////////////////////////////////
-    // build a DeepWater model
-    ///////////////////////////////////////////////////////////
+    StageScheduler.TrainingStage dl1 = new StageScheduler.TrainingStage("DeepLearning hyperparameter search 1", 150, StageScheduler.JobType.HyperparamSearch, null) {
+      @Override Job start() { return defaultSearchDL1(); }
+    };
+    StageScheduler.TrainingStage dl2 = new StageScheduler.TrainingStage("DeepLearning hyperparameter search 2", 200, StageScheduler.JobType.HyperparamSearch, dl1) {
+      @Override Job start() { return defaultSearchDL2(); }
+    };
+    StageScheduler.TrainingStage dl3 = new StageScheduler.TrainingStage("DeepLearning hyperparameter search 3", 300, StageScheduler.JobType.HyperparamSearch, dl2) {
+      @Override Job start() { return defaultSearchDL3(); }
+    };
+    stages.addAll(Arrays.asList(dl1, dl2, dl3));
+
+    // a DeepWater model
     if (DeepWater.haveBackend()) {
-      Job<DeepWaterModel> defaultDeepWaterJob = defaulDeepWater();
-      pollAndUpdateProgress(Stage.ModelTraining, "Default DeepWater build", 50, this.job(), defaultDeepWaterJob, JobType.ModelBuild);
+      stages.add(new StageScheduler.TrainingStage("Default DeepWater build", 50, StageScheduler.JobType.ModelBuild, null) {
+        @Override Job start() { return defaulDeepWater(); }
+      });
     }
 
+    // StackedEnsembles are started by the scheduler as the base models get built
+    int maxConcurrentStages = GridSearch.adaptiveParallelism(trainingFrame);
+    userFeedback.info(Stage.ModelTraining, "AutoML: running up to " + maxConcurrentStages + " build stages concurrently");
+    new StageScheduler(this, userFeedback, this.job(), maxConcurrentStages).run(stages);
+    // The StackedEnsemble counts as one model, as the final ensemble built after all the base models always did;
+    // it is built on top of the max_models base models and does not take any of their budget
+    if (ensemble != null) modelCount.incrementAndGet();
 
-    ///////////////////////////////////////////////////////////
-    // (optionally) build StackedEnsemble
-    ///////////////////////////////////////////////////////////
     Model[] allModels = leaderboard().getModels();
-
-    if (allModels.length == 0){
+    if (allModels.length == 0) {
       this.job.update(50, "No models built: StackedEnsemble build skipped");
       userFeedback.info(Stage.ModelTraining, "No models were built, due to timeouts.");
+    } else if (ensembleBaseModels() == null) {
+      this.job.update(50, "Multinomial classifier: StackedEnsemble build skipped");
+      userFeedback.info(Stage.ModelTraining,"Multinomial classifier: StackedEnsemble build skipped");
     } else {
-      Model m = allModels[0];
-      if (m._output.isClassifier() && !m._output.isBinomialClassifier()) {
-        // nada
-        this.job.update(50, "Multinomial classifier: StackedEnsemble build skipped");
-        userFeedback.info(Stage.ModelTraining,"Multinomial classifier: StackedEnsemble build skipped");
-      } else {
-        ///////////////////////////////////////////////////////////
-        // stack all models
-        ///////////////////////////////////////////////////////////
-
-        // Also stack models from other AutoML runs, by using the Leaderboard! (but don't stack stacks)
-        int nonEnsembleCount = 0;
-        for (Model aModel : allModels)
-          if (!(aModel instanceof StackedEnsembleModel))
-            nonEnsembleCount++;
-
-        Key<Model>[] notEnsembles = new Key[nonEnsembleCount];
-        int notEnsembleIndex = 0;
-        for (Model aModel : allModels)
-          if (!(aModel instanceof StackedEnsembleModel))
-            notEnsembles[notEnsembleIndex++] = aModel._key;
-
-        Job<StackedEnsembleModel> ensembleJob = stack(notEnsembles);
-        pollAndUpdateProgress(Stage.ModelTraining, "StackedEnsemble build", 50, this.job(), ensembleJob, JobType.ModelBuild);
-      }
+      this.job.update(50, "StackedEnsemble build complete");
     }
     userFeedback.info(Stage.Workflow, "AutoML: build done; built " + modelCount + " models");
     Log.info(userFeedback.toString("User Feedback for AutoML Run " + this._key));
@@ -285,6 +285,56 @@ public class Leaderboard extends Keyed<Leaderboard> {
     addModels(keys);
   }
 
+  /**
+   * Remove the given model from the leaderboard; the model itself is not deleted.
+   * The leader does not change unless the removed model was the leader.
+   */
+  public void removeModel(final Key<Model> key) {
+    if (null == key) return;
+    Model model = key.get();
+    final Key<ModelMetrics> mmKey = model == null ? null : ModelMetrics.buildKey(model, leaderboardFrame);
+
+    new TAtomic<Leaderboard>() {
+      @Override
+      final public Leaderboard atomic(Leaderboard old) {
+        if (old == null) return null;
+        int idx = Arrays.asList(old.models).indexOf(key);
+        if (idx < 0) return null; // not on the leaderboard, nothing to update
+
+        // all the metrics are in the same order as the models
+        old.models = ArrayUtils.remove(old.models, idx);
+        old.sort_metrics = removeIdx(old.sort_metrics, idx);
+        old.logloss = removeIdx(old.logloss, idx);
+        old.rmse = removeIdx(old.rmse, idx);
+        old.mae = removeIdx(old.mae, idx);
+        old.rmsle = removeIdx(old.rmsle, idx);
+        if (mmKey != null) {
+          IcedHashMap<Key<ModelMetrics>, ModelMetrics> metrics = new IcedHashMap<>();
+          metrics.putAll(old.leaderboard_set_metrics);
+          metrics.remove(mmKey);
+          old.leaderboard_set_metrics = metrics;
+        }
+        return old;
+      } // atomic
+    }.invoke(this._key);
+
+    // We've updated the DKV but not this instance, so:
+    Leaderboard updated = DKV.getGet(this._key);
+    this.models = updated.models;
+    this.leaderboard_set_metrics = updated.leaderboard_set_metrics;
+    this.sort_metrics = updated.sort_metrics;
+    this.logloss = updated.logloss;
+    this.rmse = updated.rmse;
+    this.mae = updated.mae;
+    this.rmsle = updated.rmsle;
+
+    EckoClient.updateLeaderboard(this);
+  }
+
+  private static double[] removeIdx(double[] metrics, int idx) {
+    return metrics == null || idx >= metrics.length ? metrics : ArrayUtils.removeIds(metrics, new int[]{idx});
+  }
+
   private static Model[] modelsForModelKeys(Key<Model>[] modelKeys, Model[] models) {
     assert models.length >= modelKeys.length;
     int i = 0;
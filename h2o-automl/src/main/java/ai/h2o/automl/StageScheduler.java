@@ -0,0 +1,309 @@
+package ai.h2o.automl;
+
+import ai.h2o.automl.UserFeedbackEvent.Stage;
+import hex.Model;
+import hex.StackedEnsembleModel;
+import hex.grid.Grid;
+import water.H2O;
+import water.Job;
+import water.Key;
+import water.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-driven scheduler of the AutoML training stages.
+ * <p>
+ * Stages (single model builds and hyperparameter searches) are started in the given order as soon as the stage they
+ * depend on is done and there is a free slot.  Up to {@code maxRunning} stages run concurrently and share the time
+ * and max_models budget of the AutoML run.  If max_models is set, a hyperparameter search may use the whole
+ * remaining budget, so searches are run one at a time while single model builds still run next to them.
+ * <p>
+ * The scheduler wakes up as soon as a stage finishes; while stages are running it also wakes up every
+ * {@link #REFRESH_MS} to update the progress and to put the models built so far by the searches on the leaderboard.
+ * A search which has built at least {@link #PREEMPT_MIN_MODELS} models, none of them among the top
+ * {@link #PREEMPT_TOP_K} base models of the leaderboard, is stopped when other stages are waiting for a slot.
+ * Every time a stage finishes and new base models were added, a StackedEnsemble of all base models is started; it
+ * replaces the previous ensemble on the leaderboard (see {@link AutoML#addEnsemble}).
+ */
+class StageScheduler {
+
+  static final long REFRESH_MS = 1000;
+  static final int PREEMPT_TOP_K = 5;
+  static final int PREEMPT_MIN_MODELS = 3;
+
+  enum JobType {
+    ModelBuild,
+    HyperparamSearch
+  }
+
+  /** A stage of the AutoML run: a single model build or a hyperparameter search. */
+  abstract static class TrainingStage {
+    final String _name;
+    final long _work;             // Contribution to the progress of the AutoML job
+    final JobType _type;
+    final TrainingStage _after;   // Stage which has to finish before this one is started, or null
+
+    Job _job;
+    private long _worked;
+    private int _reserved;        // Models of the max_models budget reserved for this stage
+    private boolean _done;
+    private boolean _preempted;
+    private final Set<Key<Model>> _models = new HashSet<>();   // Models built by this stage
+
+    TrainingStage(String name, long work, JobType type, TrainingStage after) {
+      _name = name;
+      _work = work;
+      _type = type;
+      _after = after;
+    }
+
+    /** Start the stage; returns null if the stage is skipped. */
+    abstract Job start();
+  }
+
+  private final AutoML _aml;
+  private final UserFeedback _userFeedback;
+  private final Job _parentJob;
+  private final int _maxRunning;
+  private final LinkedBlockingQueue<TrainingStage> _finished = new LinkedBlockingQueue<>();
+  private final List<TrainingStage> _pending = new ArrayList<>();
+  private final List<TrainingStage> _running = new ArrayList<>();
+  private TrainingStage _ensemble;    // Running StackedEnsemble build, or null
+  private int _ensembledModels;       // Number of base models of the last StackedEnsemble
+  // Models already collected from each grid; several searches (e.g. the DeepLearning ones) share the same grid
+  private final Map<Key<Grid>, Set<Key<Model>>> _gridModels = new HashMap<>();
+
+  StageScheduler(AutoML aml, UserFeedback userFeedback, Job parentJob, int maxRunning) {
+    _aml = aml;
+    _userFeedback = userFeedback;
+    _parentJob = parentJob;
+    _maxRunning = Math.max(1, maxRunning);
+  }
+
+  /** Run the given stages and the StackedEnsembles of their models; blocks until all of them are done. */
+  void run(List<TrainingStage> stages) {
+    _pending.addAll(stages);
+    while (true) {
+      if (_parentJob.stop_requested())
+        cancel();
+      startReady();
+      if (_running.isEmpty() && _pending.isEmpty() && _ensemble == null && !startEnsemble(true))
+        break;
+
+      TrainingStage finished = null;
+      try {
+        finished = _finished.poll(REFRESH_MS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        // keep going
+      }
+      refresh();
+      boolean newBaseModels = false;
+      while (finished != null) {
+        newBaseModels |= finish(finished);
+        finished = _finished.poll();
+      }
+      preempt();
+      if (newBaseModels && _aml.timeRemainingMs() > 0)
+        startEnsemble(false);
+    }
+  }
+
+  // Start pending stages while there are free slots
+  private void startReady() {
+    Iterator<TrainingStage> it = _pending.iterator();
+    while (it.hasNext() && _running.size() < _maxRunning) {
+      TrainingStage stage = it.next();
+      if (stage._after != null && !stage._after._done) continue;
+      if (_aml.hasModelLimit()) {
+        // Wait for the running stages to return their part of the budget
+        if (_aml.remainingModels() <= 0 && !_running.isEmpty()) return;
+        if (stage._type == JobType.HyperparamSearch && runningSearches() > 0) continue;
+      }
+      it.remove();
+      int remaining = _aml.remainingModels();
+      stage._job = stage.start();
+      if (stage._job == null) {
+        stage._done = true;
+        _parentJob.update(stage._work, "SKIPPED: " + stage._name);
+        continue;
+      }
+      if (_aml.hasModelLimit())
+        _aml.reserveModels(stage._reserved = stage._type == JobType.ModelBuild ? 1 : remaining);
+      start(stage);
+      _running.add(stage);
+    }
+  }
+
+  private int runningSearches() {
+    int n = 0;
+    for (TrainingStage stage : _running)
+      if (stage._type == JobType.HyperparamSearch) n++;
+    return n;
+  }
+
+  private void start(final TrainingStage stage) {
+    _userFeedback.info(Stage.ModelTraining, stage._name + " started");
+    _aml.trackJob(stage._job);
+    H2O.submitTask(new H2O.H2OCountedCompleter() {
+      @Override public void compute2() {
+        try {
+          stage._job.get();
+        } catch (Throwable ignore) {
+          // Failures are reported by the finished Job
+        } finally {
+          _finished.add(stage);
+        }
+        tryComplete();
+      }
+    });
+  }
+
+  // Update progress and collect the models built so far by the running searches
+  private void refresh() {
+    for (TrainingStage stage : _running) {
+      long worked = Math.round(stage._job.progress() * stage._work);
+      if (worked > stage._worked) {
+        _parentJob.update(worked - stage._worked, stage._name);
+        stage._worked = worked;
+      }
+      if (stage._type == JobType.HyperparamSearch)
+        collectGridModels(stage);
+    }
+  }
+
+  private void collectGridModels(TrainingStage stage) {
+    Key<Grid> gridKey = stage._job._result;
+    Grid grid = gridKey.get();
+    if (grid == null) return;
+    Set<Key<Model>> seen = _gridModels.get(gridKey);
+    if (seen == null) _gridModels.put(gridKey, seen = new HashSet<>());
+    List<Key<Model>> newModels = new ArrayList<>();
+    for (Key<Model> key : grid.getModelKeys())
+      if (seen.add(key)) {
+        stage._models.add(key);
+        newModels.add(key);
+      }
+    if (newModels.isEmpty()) return;
+    _userFeedback.info(Stage.ModelTraining, "Built: " + stage._models.size() + " models for search: " + stage._name);
+    addModels(stage, newModels.toArray(new Key[newModels.size()]));
+  }
+
+  private void addModels(TrainingStage stage, Key<Model>[] models) {
+    int reserved = Math.min(stage._reserved, models.length);
+    stage._reserved -= reserved;
+    _aml.reserveModels(-reserved);
+    _aml.addModels(models);
+  }
+
+  // Returns true if the stage has built any base models
+  private boolean finish(TrainingStage stage) {
+    boolean isEnsemble = stage == _ensemble;
+    if (isEnsemble) _ensemble = null;
+    else _running.remove(stage);
+    stage._done = true;
+    _aml.untrackJob(stage._job);
+
+    Job job = stage._job;
+    if (job.isCrashed()) {
+      _userFeedback.info(Stage.ModelTraining, stage._name + " failed: " + job.ex().toString());
+    } else if (stage._type == JobType.HyperparamSearch) {
+      collectGridModels(stage);
+      _userFeedback.info(Stage.ModelTraining, stage._name + (stage._preempted ? " preempted" : " complete"));
+    } else {
+      Key<Model> key = job._result;
+      if (key != null && key.get() != null) {
+        stage._models.add(key);
+        if (isEnsemble) _aml.addEnsemble(key);
+        else addModels(stage, new Key[]{key});
+      }
+      _userFeedback.info(Stage.ModelTraining, stage._name + " complete");
+    }
+    _aml.reserveModels(-stage._reserved);
+    stage._reserved = 0;
+    _parentJob.update(stage._work - stage._worked);
+    return !isEnsemble && !stage._models.isEmpty();
+  }
+
+  // Stop searches which do not contribute to the top of the leaderboard, if other stages are waiting
+  private void preempt() {
+    if (_pending.isEmpty()) return;
+    Set<Key<Model>> top = null;
+    for (TrainingStage stage : _running) {
+      if (stage._type != JobType.HyperparamSearch || stage._preempted || stage._models.size() < PREEMPT_MIN_MODELS)
+        continue;
+      if (top == null) {
+        top = topBaseModels();
+        if (top == null) return;
+      }
+      boolean inTop = false;
+      for (Key<Model> key : stage._models)
+        inTop |= top.contains(key);
+      if (!inTop) {
+        _userFeedback.info(Stage.ModelTraining, "AutoML: none of the " + stage._models.size() + " models of " +
+            stage._name + " made it to the top " + PREEMPT_TOP_K + " of the leaderboard; stopping it");
+        stage._preempted = true;
+        stage._job.stop();
+      }
+    }
+  }
+
+  // Top base models of the leaderboard, or null if there are not enough of them yet
+  private Set<Key<Model>> topBaseModels() {
+    Key<Model>[] keys = _aml.leaderboard().getModelKeys();
+    if (keys == null) return null;
+    Set<Key<Model>> top = new HashSet<>();
+    for (Key<Model> key : keys) {
+      if (top.size() == PREEMPT_TOP_K) return top;
+      if (!(key.get() instanceof StackedEnsembleModel)) top.add(key);
+    }
+    return null;
+  }
+
+  /**
+   * Start a StackedEnsemble of all the base models if there are new ones since the last ensemble.
+   * Intermediate ensembles are built only once there are at least 2 base models.
+   */
+  private boolean startEnsemble(boolean last) {
+    if (_ensemble != null || _parentJob.stop_requested()) return false;
+    final Key<Model>[] baseModels = _aml.ensembleBaseModels();
+    if (baseModels == null || baseModels.length <= _ensembledModels || (!last && baseModels.length < 2))
+      return false;
+    _ensembledModels = baseModels.length;
+    Log.info("AutoML: building StackedEnsemble of " + baseModels.length + " base models: " + Arrays.toString(baseModels));
+    TrainingStage ensemble = new TrainingStage("StackedEnsemble build", 0, JobType.ModelBuild, null) {
+      @Override Job start() { return _aml.stack(baseModels); }
+    };
+    ensemble._job = ensemble.start();
+    if (ensemble._job == null) return false;
+    _ensemble = ensemble;
+    start(ensemble);
+    return true;
+  }
+
+  // Stop the running stages and skip the pending ones
+  private void cancel() {
+    for (TrainingStage stage : _running) {
+      if (stage._job.isRunning()) {
+        Log.info("Skipping " + stage._name + " due to Job cancel");
+        stage._job.stop();
+      }
+    }
+    if (_ensemble != null && _ensemble._job.isRunning())
+      _ensemble._job.stop();
+    for (TrainingStage stage : _pending) {
+      stage._done = true;
+      _parentJob.update(stage._work, "SKIPPED: " + stage._name);
+    }
+    _pending.clear();
+  }
+}
@@ -1,10 +1,15 @@
 package ai.h2o.automl;
 
+import hex.Model;
+import hex.StackedEnsembleModel;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import water.Key;
 import water.fvec.Frame;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class AutoMLTest extends TestUtil {
 
   @BeforeClass public static void setup() { stall_till_cloudsize(1); }
@@ -30,4 +35,36 @@ public class AutoMLTest extends TestUtil {
       if(fr != null) fr.remove();
     }
   }
+
+  @Test public void MaxModelsTest() {
+    AutoML aml=null;
+    Frame fr=null;
+    try {
+      AutoMLBuildSpec autoMLBuildSpec = new AutoMLBuildSpec();
+      fr = parse_test_file("./smalldata/logreg/prostate.csv");
+      autoMLBuildSpec.input_spec.training_frame = fr._key;
+      autoMLBuildSpec.input_spec.response_column = "CAPSULE";
+      autoMLBuildSpec.build_control.stopping_criteria.set_max_models(5);
+      autoMLBuildSpec.build_control.stopping_criteria.set_max_runtime_secs(60);
+
+      aml = AutoML.makeAutoML(Key.<AutoML>make(), autoMLBuildSpec);
+      AutoML.startAutoML(aml);
+      aml.get();
+
+      // The max_models budget is shared by the concurrently running stages.  The searches sharing a grid must not
+      // count the models of each other.
+      int baseModels = 0, ensembles = 0;
+      for (Model m : aml.leaderboard().getModels())
+        if (m instanceof StackedEnsembleModel) ensembles++;
+        else baseModels++;
+      assertTrue("Too many models: " + baseModels, baseModels > 0 && baseModels <= 5);
+      // Every new ensemble replaced the previous one; the one left counts as a model, built after the base models
+      assertEquals(1, ensembles);
+      assertEquals(baseModels + 1, aml.modelCount());
+    } finally {
+      // cleanup
+      if(aml!=null) aml.deleteWithChildren();
+      if(fr != null) fr.remove();
+    }
+  }
 }
@@ -0,0 +1,119 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import water.fvec.Chunk;
+import water.fvec.NewChunk;
+
+/**
+ * Per-chunk-type comparison of element-wise access (atd) and the bulk decoders (getDoubles, getSparseDoubles)
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkBulkReadBench {
+
+  @Param({"C1N", "C1", "C1S", "C2", "C2S", "C4", "C4S", "C4F", "C8", "C8D", "CBS", "C0L", "C0D", "CXI", "CXF"})
+  private String chunkType;
+  @Param({"100000"})
+  private int rows;
+
+  private Chunk chunk;
+  private double[] vals;
+  private int[] ids;
+
+  @Benchmark
+  public double atdRead() {
+    double sum = 0;
+    final Chunk c = chunk;
+    for (int row = 0; row < rows; ++row)
+      sum += c.atd(row);
+    return sum;
+  }
+
+  @Benchmark
+  public double bulkRead() {
+    double sum = 0;
+    chunk.getDoubles(vals, 0, rows);
+    for (int row = 0; row < rows; ++row)
+      sum += vals[row];
+    return sum;
+  }
+
+  @Benchmark
+  public double nextNZRead() {
+    double sum = 0;
+    final Chunk c = chunk;
+    for (int row = c.nextNZ(-1); row < c._len; row = c.nextNZ(row))
+      sum += c.atd(row);
+    return sum;
+  }
+
+  @Benchmark
+  public double sparseBulkRead() {
+    double sum = 0;
+    int n = chunk.getSparseDoubles(vals, ids);
+    for (int k = 0; k < n; ++k)
+      sum += vals[k];
+    return sum;
+  }
+
+  @Setup
+  public void setup() {
+    double[] raw = new double[rows];
+    for (int row = 0; row < rows; ++row)
+      raw[row] = get(chunkType, row);
+    chunk = new NewChunk(raw).compress();
+    vals = new double[rows];
+    ids = new int[rows];
+  }
+
+  private static double get(String chunkType, int i) {
+    switch (chunkType) {
+      case "C1N": return i % 200;                            // 1 byte integer, no NAs
+      case "C1":  return i % 97 == 0 ? Double.NaN : i % 200; // 1 byte integer with NAs
+      case "C1S": return (i % 200) / 10.0;                   // 1 byte, scaled
+      case "C2":  return i % 500;                            // 2 byte integer
+      case "C2S": return (i % 500) / 100.0;                  // 2 byte, scaled
+      case "C4":  return (i * 100003L) % (1 << 30);          // 4 byte integer
+      case "C4S": return (i % 100000) / 1000.0;              // 4 byte, scaled
+      case "C4F": return (float) (i * 1.1f);                 // floats
+      case "C8":  return i * (long) Integer.MAX_VALUE;       // 8 byte integer
+      case "C8D": return Math.PI * i;                        // doubles
+      case "CBS": return i % 3 == 0 ? 1 : 0;                 // bits
+      case "C0L": return 7;                                  // constant long
+      case "C0D": return 3.14;                               // constant double
+      case "CXI": return i % 100 == 0 ? 5 : 0;               // sparse integers
+      case "CXF": return i % 100 == 0 ? 0.5 : 0;             // sparse doubles
+      default:
+        throw H2O.unimpl();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(ChunkBulkReadBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
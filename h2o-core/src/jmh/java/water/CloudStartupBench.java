@@ -0,0 +1,68 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+/**
+ * Cloud startup benchmark: time to form a cloud and serve a first request,
+ * with the Icers generated at compile time or woven by javassist on first use.
+ * A cloud starts once per JVM, so every fork measures a single shot.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 5, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CloudStartupBench {
+
+  @Param({"true", "false"})
+  private String pregenerated;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    // Before the Weaver & the TypeMap are loaded
+    System.setProperty(Weaver.PROP_PREGENERATED_ICERS, pregenerated);
+  }
+
+  @Benchmark
+  public int startCloud() {
+    H2O.main(new String[]{"-name", "CloudStartupBench-" + pregenerated});
+    H2O.waitForCloudSize(1, 60000);
+    // First request: a frame, its rollups and the serialization of the results
+    Vec vec = Vec.makeSeq(1, 100000);
+    Frame fr = new Frame(Key.<Frame>make(), new String[]{"x"}, new Vec[]{vec});
+    DKV.put(fr);
+    double mean = vec.mean();
+    int len = new AutoBuffer().put(fr).put(vec).buf().length + fr.toJsonString().length();
+    fr.remove();
+    return len + (int) mean;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CloudStartupBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
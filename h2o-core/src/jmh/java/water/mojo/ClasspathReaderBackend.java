@@ -0,0 +1,58 @@
+package water.mojo;
+
+import hex.genmodel.ModelMojoReader;
+import hex.genmodel.MojoModel;
+import hex.genmodel.MojoReaderBackend;
+
+import java.io.*;
+
+/**
+ * Reads an unpacked MOJO from a directory on the classpath, the directory is resolved relative to the given class
+ * (or absolute if it starts with a '/')
+ */
+public class ClasspathReaderBackend implements MojoReaderBackend {
+
+  private final Class<?> _anchor;
+  private final String _dir;
+
+  public ClasspathReaderBackend(Class<?> anchor, String dir) {
+    _anchor = anchor;
+    _dir = dir;
+  }
+
+  public static MojoModel loadMojo(Class<?> anchor, String dir) throws IOException {
+    return ModelMojoReader.readFrom(new ClasspathReaderBackend(anchor, dir));
+  }
+
+  @Override
+  public BufferedReader getTextFile(String filename) throws IOException {
+    return new BufferedReader(new InputStreamReader(open(filename)));
+  }
+
+  @Override
+  public byte[] getBinaryFile(String filename) throws IOException {
+    InputStream is = open(filename);
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      byte[] buf = new byte[4096];
+      int n;
+      while ((n = is.read(buf)) > 0)
+        baos.write(buf, 0, n);
+      return baos.toByteArray();
+    } finally {
+      is.close();
+    }
+  }
+
+  @Override
+  public boolean exists(String name) {
+    return _anchor.getResource(_dir + "/" + name) != null;
+  }
+
+  private InputStream open(String filename) throws IOException {
+    InputStream is = _anchor.getResourceAsStream(_dir + "/" + filename);
+    if (is == null)
+      throw new FileNotFoundException(_dir + "/" + filename);
+    return is;
+  }
+}
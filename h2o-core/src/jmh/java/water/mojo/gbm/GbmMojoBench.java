@@ -0,0 +1,91 @@
+package water.mojo.gbm;
+
+import hex.genmodel.algos.gbm.GbmMojoModel;
+import hex.genmodel.algos.tree.SharedTreeMojoReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.StackProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static water.mojo.ClasspathReaderBackend.loadMojo;
+
+/**
+ * GBM MOJO scoring benchmark: compressed (byte[]) trees vs trees compiled into flat arrays, row-at-a-time vs batch
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GbmMojoBench {
+
+  // The calibrated MOJO of the h2o-genmodel tests
+  private static final String MOJO_DIR = "/hex/genmodel/algos/gbm/calibrated";
+
+  @Param({"1000", "10000"})
+  private int rows;
+
+  private GbmMojoModel compressedMojo;
+  private GbmMojoModel flatMojo;
+  private double[][] data;
+  private double[][] preds;
+  private double[][] columns;
+
+  @Benchmark
+  public double[][] score0_nRows_compressed() {
+    for (int i = 0; i < data.length; i++)
+      preds[i] = compressedMojo.score0(data[i], preds[i]);
+    return preds;
+  }
+
+  @Benchmark
+  public double[][] score0_nRows_flat() {
+    for (int i = 0; i < data.length; i++)
+      preds[i] = flatMojo.score0(data[i], preds[i]);
+    return preds;
+  }
+
+  @Benchmark
+  public double[][] score0_batch_flat() {
+    return flatMojo.score0(columns, rows, preds);
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    System.setProperty(SharedTreeMojoReader.FLAT_TREES_PROPERTY, "false");
+    compressedMojo = (GbmMojoModel) loadMojo(GbmMojoBench.class, MOJO_DIR);
+    System.setProperty(SharedTreeMojoReader.FLAT_TREES_PROPERTY, "true");
+    flatMojo = (GbmMojoModel) loadMojo(GbmMojoBench.class, MOJO_DIR);
+
+    Random r = new Random(42);
+    int cols = flatMojo.nfeatures();
+    data = new double[rows][];
+    preds = new double[rows][];
+    columns = new double[cols][rows];
+    for (int i = 0; i < rows; i++) {
+      data[i] = new double[cols];
+      preds[i] = new double[flatMojo.getPredsSize()];
+      for (int c = 0; c < cols; c++) {
+        String[] domain = flatMojo.getDomainValues(c);
+        data[i][c] = columns[c][i] = domain == null ? r.nextGaussian() * 50 : r.nextInt(domain.length);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(GbmMojoBench.class.getSimpleName())
+            .addProfiler(StackProfiler.class)
+            .build();
+
+    new Runner(opt).run();
+  }
+
+}
@@ -31,6 +31,7 @@ public class GlmMojoBench {
   private GlmMojoModel mojo;
   private double[][] data;
   private double[][] preds;
+  private double[][] columns;
 
   @Benchmark
   public double[][] score0_nRows() {
@@ -39,6 +40,11 @@ public class GlmMojoBench {
     return preds;
   }
 
+  @Benchmark
+  public double[][] score0_batch() {
+    return mojo.score0(columns, data.length, preds);
+  }
+
   @Setup
   public void setup() throws IOException {
     File f = getFile("smalldata/airlines/allyears2k.zip");
@@ -56,6 +62,10 @@ public class GlmMojoBench {
       3, 6, -1, 5, -1, -1, -1, -1, 4, 0, -1, -1, -1, -1, -1, -1, 2, 1, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1
     };
     readData(f, mapping, null, data, mojo);
+    columns = new double[data[0].length][rows];
+    for (int i = 0; i < rows; i++)
+      for (int c = 0; c < data[i].length; c++)
+        columns[c][i] = data[i][c];
   }
 
 
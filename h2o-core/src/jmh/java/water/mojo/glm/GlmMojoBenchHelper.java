@@ -1,9 +1,8 @@
 package water.mojo.glm;
 
 import au.com.bytecode.opencsv.CSVReader;
-import hex.genmodel.ModelMojoReader;
 import hex.genmodel.MojoModel;
-import hex.genmodel.MojoReaderBackend;
+import water.mojo.ClasspathReaderBackend;
 
 import java.io.*;
 import java.util.Arrays;
@@ -73,29 +72,6 @@ public class GlmMojoBenchHelper {
   }
 
   static MojoModel loadMojo(String dir) throws IOException {
-    return ModelMojoReader.readFrom(new ClasspathReaderBackend(dir));
-  }
-
-  private static class ClasspathReaderBackend implements MojoReaderBackend {
-
-    private final String _dir;
-
-    public ClasspathReaderBackend(String dir) { _dir = dir; }
-
-    @Override
-    public BufferedReader getTextFile(String filename) throws IOException {
-      InputStream is = GlmMojoBenchHelper.class.getResourceAsStream(_dir + "/" + filename);
-      return new BufferedReader(new InputStreamReader(is));
-    }
-
-    @Override
-    public byte[] getBinaryFile(String filename) throws IOException {
-      throw new UnsupportedOperationException("Unexpected call to getBinaryFile()");
-    }
-
-    @Override
-    public boolean exists(String name) {
-      throw new UnsupportedOperationException("Unexpected call to exists()");
-    }
+    return ClasspathReaderBackend.loadMojo(GlmMojoBenchHelper.class, dir);
   }
 }
@@ -32,6 +32,7 @@ public class GlmMultinomialMojoBench {
   private GlmMultinomialMojoModel mojo;
   private double[][] data;
   private double[][] preds;
+  private double[][] columns;
 
   @Benchmark
   public double[][] score0_nRows() {
@@ -40,6 +41,11 @@ public class GlmMultinomialMojoBench {
     return preds;
   }
 
+  @Benchmark
+  public double[][] score0_batch() {
+    return mojo.score0(columns, data.length, preds);
+  }
+
   @Setup
   public void setup() throws IOException {
     File f = getFile("smalldata/flow_examples/mnist/test.csv.gz");
@@ -54,6 +60,10 @@ public class GlmMultinomialMojoBench {
       preds[i] = new double[11];
     }
     readData(f, cols, "C1", data, mojo);
+    columns = new double[data[0].length][rows];
+    for (int i = 0; i < rows; i++)
+      for (int c = 0; c < data[i].length; c++)
+        columns[c][i] = data[i][c];
   }
 
 
@@ -5,7 +5,10 @@ import water.Iced;
 import water.MRTask;
 import water.exceptions.H2OIllegalArgumentException;
 import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
 import water.fvec.Vec;
+import water.rapids.Merge;
 import water.util.fp.Function;
 import water.util.fp.Functions;
 
@@ -28,6 +31,7 @@ public class AUC2 extends Iced {
   public final double[] _fps;     // False Positives
   public final double _p, _n;     // Actual trues, falses
   public final double _auc, _gini; // Actual AUC value
+  private final double _pr_auc; // PR AUC of the sketch the AUC was built from, NaN if computed from the bins
   public final int _max_idx;    // Threshold that maximizes the default criterion
 
   public static final ThresholdCriterion DEFAULT_CM = ThresholdCriterion.f1;
@@ -137,7 +141,17 @@ public class AUC2 extends Iced {
    *  large nBins can be very slow. */
   AUC2( int nBins, Vec probs, Vec actls ) { this(new AUC_Impl(nBins).doAll(probs,actls)._bldr); }
 
-  public AUC2( AUCBuilder bldr ) {
+  /** Full resolution of the sketch for the AUC and PR AUC; the thresholds
+   *  (and the criteria maximized over them) come from the sketch reduced to
+   *  NBINS bins.
+   *  @param exactAUC exact AUC to report instead of the AUC of the sketch, or NaN */
+  public AUC2( AUCSketch sketch, double exactAUC ) {
+    this(sketch.toBuilder(NBINS), Double.isNaN(exactAUC) ? sketch.auc() : exactAUC, sketch.prAuc());
+  }
+
+  public AUC2( AUCBuilder bldr ) { this(bldr, Double.NaN, Double.NaN); }
+
+  private AUC2( AUCBuilder bldr, double auc, double pr_auc ) {
     // Copy result arrays into base object, shrinking to match actual bins
     _nBins = bldr._n;
     assert _nBins >= 1 : "Must have >= 1 bins for AUC calculation, but got " + _nBins;
@@ -159,12 +173,14 @@ public class AUC2 extends Iced {
       n += _fps[i]; _fps[i] = n;
     }
     _p = p;  _n = n;
-    _auc = compute_auc();
+    _auc = Double.isNaN(auc) ? compute_auc() : auc;
+    _pr_auc = pr_auc;
     _gini = 2*_auc-1;
     _max_idx = DEFAULT_CM.max_criterion_idx(this);
   }
   
   public double pr_auc() {
+    if (!Double.isNaN(_pr_auc)) return _pr_auc;
     checkRecallValidity();
     return Functions.integrate(forCriterion(recall), forCriterion(precision), 0, _nBins-1);
   }
@@ -417,20 +433,143 @@ public class AUC2 extends Iced {
 
   // ==========
   // Given the probabilities of a 1, and the actuals (0/1) report the perfect
-  // AUC found by sorting the entire dataset.  Expensive, and only works for
-  // small data (probably caps out at about 10M rows).
+  // AUC found by sorting the entire dataset.
   public static double perfectAUC( Vec vprob, Vec vacts ) {
     if( vacts.min() < 0 || vacts.max() > 1 || !vacts.isInt() )
       throw new IllegalArgumentException("Actuals are either 0 or 1");
     if( vprob.min() < 0 || vprob.max() > 1 )
       throw new IllegalArgumentException("Probabilities are between 0 and 1");
-    // Horrible data replication into array of structs, to sort.  
-    Pair[] ps = new Pair[(int)vprob.length()];
-    Vec.Reader rprob = vprob.new Reader();
-    Vec.Reader racts = vacts.new Reader();
-    for( int i=0; i<ps.length; i++ )
-      ps[i] = new Pair(rprob.at(i),(byte)racts.at8(i));
-    return perfectAUC(ps);
+    return exactAUC(vprob, vacts, null);
+  }
+
+  /** Exact (weighted) AUC, from a distributed radix sort of the predictions.
+   *  Rows with a missing prediction, actual or weight are skipped.
+   *  @param weights observation weights, or null */
+  public static double exactAUC( Vec vprob, Vec vacts, Vec weights ) {
+    Vec[] vecs = weights == null ? new Vec[]{vprob, vacts} : new Vec[]{vprob, vacts, weights};
+    Vec[] aligned = vecs.clone();
+    for( int i=1; i<vecs.length; i++ )
+      if( !vecs[i].group().equals(vprob.group()) ) aligned[i] = vprob.align(vecs[i]);
+    Frame keys = null, sorted = null;
+    try {
+      // Sort key: the bits of the prediction as a sortable long, split into
+      // two integer columns that are exactly representable as doubles
+      byte[] types = new byte[]{Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM};
+      keys = new SortKeys().doAll(types, aligned).outputFrame();
+      sorted = Merge.sort(keys, new int[]{0, 1});
+      return new ExactAUCTask().doAll(sorted.vec(2), sorted.vec(3), sorted.vec(4)).auc();
+    } finally {
+      if( keys != null ) keys.remove();
+      if( sorted != null ) sorted.remove();
+      for( int i=1; i<vecs.length; i++ )
+        if( aligned[i] != vecs[i] ) aligned[i].remove();
+    }
+  }
+
+  // Columns: sort key (high and low 32 bits), prediction, actual, weight.  All
+  // NA for rows that do not count.
+  private static class SortKeys extends MRTask<SortKeys> {
+    @Override public void map( Chunk[] cs, NewChunk[] ncs ) {
+      Chunk ps = cs[0], as = cs[1], ws = cs.length > 2 ? cs[2] : null;
+      for( int row = 0; row < ps._len; row++ ) {
+        double w = ws == null ? 1 : ws.atd(row);
+        if( ps.isNA(row) || as.isNA(row) || Double.isNaN(w) || w == 0 ) {
+          for( NewChunk nc : ncs ) nc.addNA();
+          continue;
+        }
+        double p = ps.atd(row);
+        if( p == 0 ) p = 0;     // -0.0 and 0.0 are the same prediction
+        long bits = Double.doubleToLongBits(p);
+        long key = bits ^ ((bits >> 63) & Long.MAX_VALUE); // Order of the longs is the order of the doubles
+        ncs[0].addNum(key >> 32, 0);
+        ncs[1].addNum(key & 0xFFFFFFFFL, 0);
+        ncs[2].addNum(p);
+        ncs[3].addNum(as.at8(row), 0);
+        ncs[4].addNum(w);
+      }
+    }
+  }
+
+  // AUC of predictions sorted in ascending order.  Every chunk is summarized
+  // by its total area, counts, and its first and last group of tied
+  // predictions; the chunks are combined in order in postGlobal, since the
+  // reduction order across nodes does not follow the chunk order.
+  static class ExactAUCTask extends MRTask<ExactAUCTask> {
+    private static final int CIDX = 0, TP = 1, FP = 2, AREA = 3, FIRST = 4, FIRST_TP = 5, FIRST_FP = 6, LAST = 7, LAST_TP = 8, LAST_FP = 9, SINGLE = 10, FIELDS = 11;
+    double[] _chunks;           // FIELDS per non-empty chunk, in any order
+    private double _auc;
+
+    @Override public void map( Chunk ps, Chunk as, Chunk ws ) {
+      double tp = 0, fp = 0, area = 0;
+      double first = Double.NaN, firstTp = 0, firstFp = 0;
+      double last = Double.NaN, lastTp = 0, lastFp = 0;
+      boolean single = true;
+      for( int row = 0; row < ps._len; row++ ) {
+        if( ps.isNA(row) ) continue;
+        final double p = ps.atd(row), w = ws.atd(row);
+        final boolean act = as.at8(row) == 1;
+        if( Double.isNaN(last) ) {
+          first = last = p;
+        } else if( p != last ) {
+          area += lastTp*(fp + lastFp/2); // Close the group of ties
+          tp += lastTp;  fp += lastFp;
+          if( single ) { firstTp = lastTp; firstFp = lastFp; single = false; }
+          last = p;  lastTp = lastFp = 0;
+        }
+        if( act ) lastTp += w; else lastFp += w;
+      }
+      if( Double.isNaN(last) ) return;  // No rows
+      area += lastTp*(fp + lastFp/2);
+      tp += lastTp;  fp += lastFp;
+      if( single ) { firstTp = lastTp; firstFp = lastFp; }
+      _chunks = new double[FIELDS];
+      _chunks[CIDX] = ps.cidx();
+      _chunks[TP] = tp;  _chunks[FP] = fp;  _chunks[AREA] = area;
+      _chunks[FIRST] = first;  _chunks[FIRST_TP] = firstTp;  _chunks[FIRST_FP] = firstFp;
+      _chunks[LAST] = last;  _chunks[LAST_TP] = lastTp;  _chunks[LAST_FP] = lastFp;
+      _chunks[SINGLE] = single ? 1 : 0;
+    }
+
+    @Override public void reduce( ExactAUCTask t ) {
+      if( _chunks == null ) _chunks = t._chunks;
+      else if( t._chunks != null ) {
+        int n = _chunks.length;
+        _chunks = Arrays.copyOf(_chunks, n + t._chunks.length);
+        System.arraycopy(t._chunks, 0, _chunks, n, t._chunks.length);
+      }
+    }
+
+    @Override public void postGlobal() {
+      // Put the chunks in order
+      double[] chunks = new double[FIELDS * _fr.anyVec().nChunks()];
+      if( _chunks != null )
+        for( int off = 0; off < _chunks.length; off += FIELDS )
+          System.arraycopy(_chunks, off, chunks, FIELDS * (int)_chunks[off+CIDX], FIELDS);
+      _chunks = chunks;
+      double tp = 0, fp = 0, area = 0;
+      double last = Double.NaN, lastTp = 0, lastFp = 0;   // Group of ties open at the end of the chunks so far
+      for( int off = 0; off < _chunks.length; off += FIELDS ) {
+        if( _chunks[off+TP] + _chunks[off+FP] == 0 ) continue;  // No rows
+        // Positives of this chunk are above all the negatives so far, except
+        // those tied with the first group, which get half credit; positives
+        // of the open group get half credit for the negatives of the first group
+        area += _chunks[off+AREA] + _chunks[off+TP]*fp;
+        boolean tied = _chunks[off+FIRST] == last;
+        if( tied )
+          area += (lastTp*_chunks[off+FIRST_FP] - _chunks[off+FIRST_TP]*lastFp)/2;
+        tp += _chunks[off+TP];  fp += _chunks[off+FP];
+        if( _chunks[off+SINGLE] == 1 && tied ) {
+          lastTp += _chunks[off+LAST_TP];  lastFp += _chunks[off+LAST_FP];
+        } else {
+          last = _chunks[off+LAST];  lastTp = _chunks[off+LAST_TP];  lastFp = _chunks[off+LAST_FP];
+        }
+      }
+      if( fp == 0 ) _auc = 1.0;         // special case
+      else if( tp == 0 ) _auc = 0.0;    // special case
+      else _auc = area/tp/fp;
+    }
+
+    double auc() { return _auc; }
   }
   public static double perfectAUC( double ds[], double[] acts ) {
     Pair[] ps = new Pair[ds.length];
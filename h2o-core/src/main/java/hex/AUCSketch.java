@@ -0,0 +1,166 @@
+package hex;
+
+import water.Iced;
+import water.MemoryManager;
+
+/** Mergeable sketch of binomial predictions, with bounded error
+ *
+ *  The predicted probabilities are counted in fixed buckets with a constant
+ *  relative width on both tails: the bucket of a probability p is given by the
+ *  exponent and the top {@link #MANTISSA_BITS} bits of the mantissa of
+ *  min(p,1-p), so that predictions close to 0 and close to 1 are resolved
+ *  equally well.  Probabilities below 2^-{@link #EXPONENTS} (or above
+ *  1-2^-{@link #EXPONENTS}) share a single bucket.
+ *
+ *  Unlike {@link AUC2.AUCBuilder}, adding a prediction is O(1) and two
+ *  sketches are merged by adding up their buckets, so the result does not
+ *  depend on how the rows were split into chunks.  The only information lost
+ *  is the order of the predictions within a bucket; the AUC is computed as if
+ *  the predictions in a bucket were tied, which is at most
+ *  {@link #aucErrorBound()} away from the exact AUC.
+ */
+public class AUCSketch extends Iced {
+  static final int MANTISSA_BITS = 7;   // Relative width of a bucket is 2^-7
+  static final int EXPONENTS = 24;      // min(p,1-p) below 2^-24 goes to the first (last) bucket
+  private static final int HALF = EXPONENTS << MANTISSA_BITS;
+  static final int NBUCKETS = 2 * HALF;
+  private static final int BIAS = (127 - EXPONENTS) << MANTISSA_BITS;
+  private static final int MANTISSA_SHIFT = 23 - MANTISSA_BITS;
+
+  private double[] _tps;        // True  positives per bucket, allocated on the first row
+  private double[] _fps;        // False positives per bucket
+
+  public void perRow(double pred, int act, double w) {
+    assert !Double.isNaN(pred);
+    assert act==0 || act==1;  // Actual better be 0 or 1
+    if( _tps == null ) {
+      _tps = MemoryManager.malloc8d(NBUCKETS);
+      _fps = MemoryManager.malloc8d(NBUCKETS);
+    }
+    if( act==0 ) _fps[bucket(pred)] += w;
+    else         _tps[bucket(pred)] += w;
+  }
+
+  public void reduce(AUCSketch sketch) {
+    if( sketch._tps == null ) return;
+    if( _tps == null ) { _tps = sketch._tps; _fps = sketch._fps; return; }
+    for( int i=0; i<NBUCKETS; i++ ) {
+      _tps[i] += sketch._tps[i];
+      _fps[i] += sketch._fps[i];
+    }
+  }
+
+  public boolean isEmpty() { return _tps == null; }
+
+  // Bucket of a probability; buckets are ordered as the probabilities
+  static int bucket(double p) {
+    if( !(p > 0) ) p = 0;       // Also catches -0.0
+    if( p > 1 ) p = 1;
+    return p <= 0.5 ? halfIndex((float)p) : NBUCKETS-1-halfIndex((float)(1-p));
+  }
+
+  // Index of q in [0,0.5] within a half of the buckets
+  private static int halfIndex(float q) {
+    int idx = (Float.floatToRawIntBits(q) >>> MANTISSA_SHIFT) - BIAS;
+    return idx < 0 ? 0 : idx;
+  }
+
+  // Smallest q in the half-bucket idx
+  private static double halfLowerBound(int idx) {
+    return idx == 0 ? 0 : Float.intBitsToFloat((idx + BIAS) << MANTISSA_SHIFT);
+  }
+
+  /** @return the lower bound of the probabilities counted in bucket b */
+  static double lowerBound(int b) {
+    return b < HALF ? halfLowerBound(b) : 1 - halfLowerBound(NBUCKETS-b);
+  }
+
+  /** Area under the ROC curve, predictions in the same bucket count as ties */
+  public double auc() {
+    double p = 0, n = 0;
+    double area = 0;
+    for( int b=0; b<NBUCKETS; b++ ) {
+      area += _tps[b]*(n + _fps[b]/2); // Every positive is above the negatives of the lower buckets
+      p += _tps[b];
+      n += _fps[b];
+    }
+    if( n == 0 ) return 1.0;    // special case
+    if( p == 0 ) return 0.0;    // special case
+    return area/p/n;
+  }
+
+  /** Bound on the difference between {@link #auc()} and the exact AUC: only
+   *  the pairs of a positive and a negative in the same bucket can be in the
+   *  wrong order, and each of them is off by a half. */
+  public double aucErrorBound() {
+    double p = 0, n = 0;
+    double ties = 0;
+    for( int b=0; b<NBUCKETS; b++ ) {
+      ties += _tps[b]*_fps[b];
+      p += _tps[b];
+      n += _fps[b];
+    }
+    return p == 0 || n == 0 ? 0 : ties/2/p/n;
+  }
+
+  /** Area under the precision-recall curve, with thresholds at the bucket
+   *  boundaries, from the highest threshold down */
+  public double prAuc() {
+    double p = 0;
+    for( int b=0; b<NBUCKETS; b++ ) p += _tps[b];
+    if( p == 0 ) return 0;
+    double tp = 0, fp = 0;
+    double recall0 = Double.NaN, precision0 = Double.NaN;
+    double area = 0;
+    for( int b=NBUCKETS-1; b>=0; b-- ) {
+      if( _tps[b] == 0 && _fps[b] == 0 ) continue;
+      tp += _tps[b];
+      fp += _fps[b];
+      double recall = tp/p, precision = tp/(tp+fp);
+      if( !Double.isNaN(recall0) ) area += (recall-recall0)*(precision+precision0)/2; // Trapezoid
+      recall0 = recall;  precision0 = precision;
+    }
+    return area;
+  }
+
+  /** Weighted quantile of the predictions, at the resolution of the buckets
+   *  @return lower bound of the bucket holding the quantile */
+  public double quantile(double prob) {
+    double total = 0;
+    for( int b=0; b<NBUCKETS; b++ ) total += _tps[b]+_fps[b];
+    double target = prob*total, sum = 0;
+    int last = 0;
+    for( int b=0; b<NBUCKETS; b++ ) {
+      double k = _tps[b]+_fps[b];
+      if( k == 0 ) continue;
+      sum += k;
+      last = b;
+      if( sum >= target ) return lowerBound(b);
+    }
+    return lowerBound(last);
+  }
+
+  /** True and false positives of the buckets with a lower bound in [lo,hi);
+   *  exact counts of the predictions in [lo,hi) if both are bucket boundaries
+   *  @return {tps, fps} */
+  public double[] counts(double lo, double hi) {
+    double tp = 0, fp = 0;
+    for( int b=0; b<NBUCKETS; b++ ) {
+      double lb = lowerBound(b);
+      if( lb >= lo && lb < hi ) { tp += _tps[b]; fp += _fps[b]; }
+    }
+    return new double[]{tp, fp};
+  }
+
+  /** Reduce the sketch to at most nBins histogram bins, for the thresholds
+   *  and confusion matrices of {@link AUC2} */
+  public AUC2.AUCBuilder toBuilder(int nBins) {
+    AUC2.AUCBuilder bldr = new AUC2.AUCBuilder(nBins);
+    for( int b=0; b<NBUCKETS; b++ ) {
+      double th = lowerBound(b);
+      if( _fps[b] > 0 ) bldr.perRow(th,0,_fps[b]);
+      if( _tps[b] > 0 ) bldr.perRow(th,1,_tps[b]);
+    }
+    return bldr;
+  }
+}
@@ -22,6 +22,7 @@ public class GainsLift extends Iced {
   public Vec _labels;
   public Vec _preds; //of length N, n_i = N/GROUPS
   public Vec _weights;
+  private AUCSketch _sketch;
 
   //OUTPUT
   public double[] response_rates; // p_i = e_i/n_i
@@ -39,6 +40,37 @@ public class GainsLift extends Iced {
     _weights = weights;
   }
 
+  /** Gains/Lift of the predictions summarized by the sketch: the group
+   *  thresholds are quantiles of the sketch and the counts are read from its
+   *  buckets, no pass over the data is needed. */
+  public GainsLift(AUCSketch sketch) {
+    _sketch = sketch;
+  }
+
+  private double[] probs() {
+    double[] probs;
+    if (_groups > 0) {
+      probs = new double[_groups];
+      for (int i = 0; i < _groups; ++i) {
+        probs[i] = (_groups - i - 1.) / _groups; // This is 0.9, 0.8, 0.7, 0.6, ..., 0.1, 0 for 10 groups
+      }
+    } else {
+      probs = new double[]{0.99, 0.98, 0.97, 0.96, 0.95, 0.9, 0.85, 0.8, 0.7, 0.6, 0.5, 0.4, 0.3, 0.2, 0.1, 0};
+    }
+    return probs;
+  }
+
+  // find uniques (is there a more elegant way?)
+  private static double[] uniqueDescending(double[] quantiles) {
+    TreeSet<Double> hs = new TreeSet<>();
+    for (double d : quantiles) hs.add(d);
+    double[] res = new double[hs.size()];
+    Iterator<Double> it = hs.descendingIterator();
+    int i = 0;
+    while (it.hasNext()) res[i++] = it.next();
+    return res;
+  }
+
   private void init(Job job) throws IllegalArgumentException {
     _labels = _labels.toCategoricalVec();
     if( _labels ==null || _preds ==null )
@@ -90,23 +122,9 @@ public class GainsLift extends Iced {
         }
         DKV.put(fr);
         qp._train = fr._key;
-        if (_groups > 0) {
-          qp._probs = new double[_groups];
-          for (int i = 0; i < _groups; ++i) {
-            qp._probs[i] = (_groups - i - 1.) / _groups; // This is 0.9, 0.8, 0.7, 0.6, ..., 0.1, 0 for 10 groups
-          }
-        } else {
-          qp._probs = new double[]{0.99, 0.98, 0.97, 0.96, 0.95, 0.9, 0.85, 0.8, 0.7, 0.6, 0.5, 0.4, 0.3, 0.2, 0.1, 0};
-        }
+        qp._probs = probs();
         qm = job != null && !job.isDone() ? new Quantile(qp, job).trainModelNested(null) : new Quantile(qp).trainModel().get();
-        _quantiles = qm._output._quantiles[0];
-        // find uniques (is there a more elegant way?)
-        TreeSet<Double> hs = new TreeSet<>();
-        for (double d : _quantiles) hs.add(d);
-        _quantiles = new double[hs.size()];
-        Iterator<Double> it = hs.descendingIterator();
-        int i = 0;
-        while (it.hasNext()) _quantiles[i++] = it.next();
+        _quantiles = uniqueDescending(qm._output._quantiles[0]);
       } finally {
         if (qm!=null) qm.remove();
         if (fr!=null) DKV.remove(fr._key);
@@ -118,6 +136,10 @@ public class GainsLift extends Iced {
     exec(null);
   }
   public void exec(Job job) {
+    if (_sketch != null) {
+      execSketch();
+      return;
+    }
     Scope.enter();
     init(job); //check parameters and obtain _quantiles from _preds
     try {
@@ -132,6 +154,28 @@ public class GainsLift extends Iced {
     }
   }
 
+  private void execSketch() {
+    double[] probs = probs();
+    double[] quantiles = new double[probs.length];
+    for (int i = 0; i < probs.length; i++)
+      quantiles[i] = _sketch.quantile(probs[i]);
+    _quantiles = uniqueDescending(quantiles);
+    events = new long[_quantiles.length];
+    observations = new long[_quantiles.length];
+    response_rates = new double[_quantiles.length];
+    long sum_e = 0, sum_n = 0;
+    for (int t = 0; t < _quantiles.length; t++) {
+      // Same groups as GainsLiftBuilder: thresh[t] <= pr < thresh[t-1]
+      double[] counts = _sketch.counts(_quantiles[t], t == 0 ? Double.POSITIVE_INFINITY : _quantiles[t-1]);
+      events[t] = Math.round(counts[0]);
+      observations[t] = Math.round(counts[0] + counts[1]);
+      response_rates[t] = observations[t] == 0 ? 0 : (double) events[t] / observations[t];
+      sum_e += events[t];
+      sum_n += observations[t];
+    }
+    avg_response_rate = (double) sum_e / sum_n;
+  }
+
   @Override public String toString() {
     TwoDimTable t = createTwoDimTable();
     return t==null ? "" : t.toString();
@@ -1,6 +1,7 @@
 package hex.grid;
 
 import hex.*;
+import jsr166y.ForkJoinPool;
 import hex.grid.HyperSpaceWalker.BaseWalker;
 import water.*;
 import water.exceptions.H2OIllegalArgumentException;
@@ -12,7 +13,10 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Grid search job.
@@ -28,8 +32,14 @@ import java.util.Map;
  *
  * The job is started by the <code>startGridSearch</code> method which create a new grid search, put
  * representation of Grid into distributed KV store, and for each parameter in hyper space of
- * possible parameters, it launches a separated model building job. The launch of jobs is sequential
- * and blocking. So after finish the last model, whole grid search job is done as well.
+ * possible parameters, it launches a separated model building job. By default the launch of jobs is
+ * sequential and blocking. So after finish the last model, whole grid search job is done as well.
+ *
+ * If {@link HyperSpaceSearchCriteria#parallelism()} is greater than 1, up to that many models are
+ * built concurrently; a new model is launched as soon as one of the running builds finishes.
+ * Parallelism 0 lets the grid search pick the number of concurrent builds based on the size of the
+ * training frame and on the free memory and CPUs of the cloud (see {@link #adaptiveParallelism(long, int, long[], int[])}).
+ * Limits on the number of models and on the runtime of the grid are shared by all concurrent builds.
  *
  * By default, the grid search invokes cartezian grid search, but it can be
  * modified by passing explicit hyper space walk strategy via the
@@ -69,6 +79,10 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
   public final Key<Grid> _result;
   public final Job<Grid> _job;
 
+  /** Memory needed by a single model build, in multiples of the (per-node) size of the training
+   *  frame; used to limit the adaptive parallelism. */
+  static final int MEM_PER_MODEL_FACTOR = 4;
+
   /** Walks hyper space and for each point produces model parameters. It is
    *  used only locally to fire new model builders.  */
   private final transient HyperSpaceWalker<MP, ?> _hyperSpaceWalker;
@@ -150,10 +164,75 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     return _hyperSpaceWalker.getMaxHyperSpaceSize();
   }
 
+  /**
+   * Number of models built concurrently by this grid search.
+   *
+   * @return parallelism given by the search criteria, or the adaptive parallelism if the criteria
+   * ask for it
+   */
+  int parallelism() {
+    int parallelism = _hyperSpaceWalker.search_criteria().parallelism();
+    return parallelism > 0 ? parallelism : adaptiveParallelism(_hyperSpaceWalker.getParams().train());
+  }
+
+  /**
+   * Number of models which can be built concurrently on the given training frame, based on the
+   * current free memory and CPUs of the cloud.
+   *
+   * @param train training frame
+   * @return number of models to build concurrently, at least 1
+   * @see #adaptiveParallelism(long, int, long[], int[])
+   */
+  public static int adaptiveParallelism(Frame train) {
+    if (train == null || train.numCols() == 0) return 1;
+    H2ONode[] nodes = H2O.CLOUD.members();
+    long[] freeMem = new long[nodes.length];
+    int[] cpus = new int[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      HeartBeat hb = nodes[i]._heartbeat;
+      freeMem[i] = hb.get_free_mem();
+      cpus[i] = hb._nthreads;
+    }
+    return adaptiveParallelism(train.byteSize(), train.anyVec().nChunks(), freeMem, cpus);
+  }
+
+  /**
+   * Picks the number of models to build concurrently.
+   *
+   * A single model build runs at most one map call per chunk of the training frame on the
+   * whole cloud, so a frame with fewer chunks than there are CPUs leaves CPUs idle and more
+   * models can be built at once. The number is further limited by the free memory of the
+   * most loaded node, assuming each build needs {@link #MEM_PER_MODEL_FACTOR} times its share
+   * of the training frame, and by the number of CPUs of a single node (every build keeps a
+   * driver thread busy on the node running the grid search).
+   *
+   * @param trainBytes size of the training frame in bytes
+   * @param trainChunks number of chunks of the training frame
+   * @param freeMem free memory of each node, as reported by its heartbeat
+   * @param cpus number of F/J threads of each node
+   * @return number of models to build concurrently, at least 1
+   */
+  static int adaptiveParallelism(long trainBytes, int trainChunks, long[] freeMem, int[] cpus) {
+    if (freeMem.length == 0) return 1;
+    int totalCpus = 0, maxCpus = 0;
+    for (int c : cpus) {
+      totalCpus += c;
+      maxCpus = Math.max(maxCpus, c);
+    }
+    long byCpu = totalCpus / Math.max(trainChunks, 1);
+    long memPerModel = MEM_PER_MODEL_FACTOR * (trainBytes / freeMem.length + 1);
+    long byMem = Long.MAX_VALUE;
+    for (long free : freeMem)
+      byMem = Math.min(byMem, free / memPerModel);
+    return (int) Math.max(1, Math.min(Math.min(byCpu, byMem), maxCpus));
+  }
+
   /**
    * Invokes grid search based on specified hyper space walk strategy.
    *
-   * It updates passed grid object in distributed store.
+   * It updates passed grid object in distributed store. Up to {@link #parallelism()} models are
+   * built at once; hyper space walking and all updates of the grid object happen in the calling
+   * thread.
    *
    * @param grid grid object to save results; grid already locked
    */
@@ -164,32 +243,52 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     //                       ? grid._key + "_model_"
     //                       : _hyperSpaceWalker.getParams()._model_id.toString() + H2O.calcNextUniqueModelId("") + "_";
     String protoModelKey = grid._key + "_model_";
+    final int parallelism = parallelism();
+    if (parallelism > 1)
+      Log.info("Grid search: building up to " + parallelism + " models in parallel for grid: " + grid._key);
 
+    FinishedBuilds finished = new FinishedBuilds();
+    Set<Long> running = new HashSet<>(); // Checksums of parameters of the running builds
     try {
       // Get iterator to traverse hyper space
       HyperSpaceWalker.HyperSpaceIterator<MP> it = _hyperSpaceWalker.iterator();
       // Number of traversed model parameters
       int counter = grid.getModelCount();
-      while (it.hasNext(model)) {
-        if(_job.stop_requested() ) return;  // Handle end-user cancel request
-        double max_runtime_secs = it.max_runtime_secs();
-
-        double time_remaining_secs = Double.MAX_VALUE;
-        if (max_runtime_secs > 0) {
-          time_remaining_secs = it.time_remaining_secs();
-          if (time_remaining_secs < 0) {
-            Log.info("Grid max_runtime_secs of " + max_runtime_secs + " secs has expired; stopping early.");
-            return;
+      boolean stop = false;
+      while (true) {
+        // Fill free slots with new builds
+        while (!stop && running.size() < parallelism && it.hasNext(model)) {
+          if (_job.stop_requested()) { // Handle end-user cancel request
+            stop = true;
+            break;
           }
-        }
+          double max_runtime_secs = it.max_runtime_secs();
 
-        MP params;
-        try {
-          // Get parameters for next model
-          params = it.nextModelParameters(model);
+          double time_remaining_secs = Double.MAX_VALUE;
+          if (max_runtime_secs > 0) {
+            time_remaining_secs = it.time_remaining_secs();
+            if (time_remaining_secs < 0) {
+              Log.info("Grid max_runtime_secs of " + max_runtime_secs + " secs has expired; stopping early.");
+              stop = true;
+              break;
+            }
+          }
 
-          // Sequential model building, should never propagate
-          // exception up, just mark combination of model parameters as wrong
+          MP params;
+          try {
+            // Get parameters for next model
+            params = it.nextModelParameters(model);
+          } catch (IllegalArgumentException e) {
+            Log.warn("Grid search: construction of model parameters failed! Exception: ", e);
+            // Model parameters cannot be constructed for some reason
+            it.modelFailed(model);
+            Object[] rawParams = it.getCurrentRawParameters();
+            grid.appendFailedModelParameters(rawParams, e);
+            // Update progress by 1 increment
+            _job.update(1);
+            grid.update(_job);
+            continue;
+          }
 
           // Do we need to limit the model build time?
           if (max_runtime_secs > 0) {
@@ -205,33 +304,37 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
             }
           }
 
-          try {
-            ScoringInfo scoringInfo = new ScoringInfo();
-            scoringInfo.time_stamp_ms = System.currentTimeMillis();
-
-            //// build the model!
-            model = buildModel(params, grid, counter++, protoModelKey);
+          // Model builder modifies the parameters, so take the checksum before launching it
+          long checksum = params.checksum();
+          if (!running.add(checksum)) {
+            Log.info("GridSearch: model with these parameters is being built, skipping; checksum: " + checksum);
+            _job.update(1);
+            continue;
+          }
+          H2O.submitTask(new ModelBuild(params, checksum, grid, counter++, protoModelKey, finished));
+        }
+        if (running.isEmpty()) break;
 
-            if (model!=null) {
-              model.fillScoringInfo(scoringInfo);
-              grid.setScoringInfos(ScoringInfo.prependScoringInfo(scoringInfo, grid.getScoringInfos()));
-              ScoringInfo.sort(grid.getScoringInfos(), _hyperSpaceWalker.search_criteria().stopping_metric()); // Currently AUTO for Cartesian and user-specified for RandomDiscrete
-            }
-          } catch (RuntimeException e) { // Catch everything
-            if (!Job.isCancelledException(e)) {
-              StringWriter sw = new StringWriter();
-              PrintWriter pw = new PrintWriter(sw);
-              e.printStackTrace(pw);
-              Log.warn("Grid search: model builder for parameters " + params + " failed! Exception: ", e, sw.toString());
-            }
-            grid.appendFailedModelParameters(params, e);
+        // Wait for any of the running builds
+        ModelBuild build = finished.take();
+        running.remove(build._checksum);
+        if (build._error != null) throw build._error;
+        try {
+          if (build._exception != null) throw build._exception;
+          model = build._model;
+          if (model != null) {
+            model.fillScoringInfo(build._scoringInfo);
+            grid.setScoringInfos(ScoringInfo.prependScoringInfo(build._scoringInfo, grid.getScoringInfos()));
+            ScoringInfo.sort(grid.getScoringInfos(), _hyperSpaceWalker.search_criteria().stopping_metric()); // Currently AUTO for Cartesian and user-specified for RandomDiscrete
           }
-        } catch (IllegalArgumentException e) {
-          Log.warn("Grid search: construction of model parameters failed! Exception: ", e);
-          // Model parameters cannot be constructed for some reason
-          it.modelFailed(model);
-          Object[] rawParams = it.getCurrentRawParameters();
-          grid.appendFailedModelParameters(rawParams, e);
+        } catch (RuntimeException e) { // Catch everything
+          if (!Job.isCancelledException(e)) {
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            e.printStackTrace(pw);
+            Log.warn("Grid search: model builder for parameters " + build._params + " failed! Exception: ", e, sw.toString());
+          }
+          grid.appendFailedModelParameters(build._params, e);
         } finally {
           // Update progress by 1 increment
           _job.update(1);
@@ -239,18 +342,90 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
           grid.update(_job);
         } // finally
 
-        if (model != null && grid.getScoringInfos() != null && // did model build and scoringInfo creation succeed?
+        if (!stop && model != null && grid.getScoringInfos() != null && // did model build and scoringInfo creation succeed?
             _hyperSpaceWalker.stopEarly(model, grid.getScoringInfos())) {
           Log.info("Convergence detected based on simple moving average of the loss function. Grid building completed.");
-          break;
+          stop = true; // Let the running builds finish
         }
-      } // while (it.hasNext(model))
+      } // while (true)
       Log.info("For grid: " + grid._key + " built: " + grid.getModelCount() + " models.");
     } finally {
+      // Never unlock the grid under running builds (only happens if we are leaving with an exception)
+      while (!running.isEmpty())
+        running.remove(finished.take()._checksum);
       grid.unlock(_job);
     }
   }
 
+  /** A single model build running in F/J pool; reports itself to the grid search once finished. */
+  private class ModelBuild extends H2O.H2OCountedCompleter<ModelBuild> {
+    final MP _params;
+    final long _checksum;
+    final ScoringInfo _scoringInfo = new ScoringInfo();
+    private final Grid<MP> _grid;
+    private final int _paramsIdx;
+    private final String _protoModelKey;
+    private final FinishedBuilds _finished;
+    // OUT
+    Model _model;
+    RuntimeException _exception;
+    Error _error;
+
+    ModelBuild(MP params, long checksum, Grid<MP> grid, int paramsIdx, String protoModelKey, FinishedBuilds finished) {
+      _params = params;
+      _checksum = checksum;
+      _grid = grid;
+      _paramsIdx = paramsIdx;
+      _protoModelKey = protoModelKey;
+      _finished = finished;
+    }
+
+    @Override public void compute2() {
+      try {
+        _scoringInfo.time_stamp_ms = System.currentTimeMillis();
+        //// build the model!
+        _model = buildModel(_params, _checksum, _grid, _paramsIdx, _protoModelKey);
+      } catch (RuntimeException e) {
+        _exception = e;
+      } catch (Error e) {
+        _error = e;
+      } finally {
+        _finished.add(this);
+      }
+      tryComplete();
+    }
+  }
+
+  /** Queue of finished model builds; waiting for a build lets F/J pool compensate the blocked thread. */
+  private class FinishedBuilds implements ForkJoinPool.ManagedBlocker {
+    private final LinkedBlockingQueue<ModelBuild> _queue = new LinkedBlockingQueue<>();
+    private ModelBuild _next;
+
+    void add(ModelBuild build) { _queue.add(build); }
+
+    ModelBuild take() {
+      while (_next == null) {
+        try {
+          ForkJoinPool.managedBlock(this);
+        } catch (InterruptedException ignore) {
+          // do nothing
+        }
+      }
+      ModelBuild build = _next;
+      _next = null;
+      return build;
+    }
+
+    @Override public boolean block() throws InterruptedException {
+      if (_next == null) _next = _queue.take();
+      return true;
+    }
+
+    @Override public boolean isReleasable() {
+      return _next != null || (_next = _queue.poll()) != null;
+    }
+  }
+
   /**
    * Build a model based on specified parameters and save it to resulting Grid object.
    *
@@ -264,17 +439,15 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
    * <code>null</code>.
    *
    * @param params parameters for a new model
+   * @param checksum checksum of the parameters, taken before the model builder modified them
    * @param grid   grid object holding created models
    * @param paramsIdx  index of generated model parameter
    * @param protoModelKey  prototype of model key
    * @return return a new model if it does not exist
    */
-  private Model buildModel(final MP params, Grid<MP> grid, int paramsIdx, String protoModelKey) {
+  private Model buildModel(final MP params, final long checksum, Grid<MP> grid, int paramsIdx, String protoModelKey) {
     // Make sure that the model is not yet built (can be case of duplicated hyper parameters).
     // We first look in the grid _models cache, then we look in the DKV.
-    // FIXME: get checksum here since model builder will modify instance of params!!!
-
-    final long checksum = params.checksum();
     Key<Model> key = grid.getModelKey(checksum);
     if (key != null) {
       if (DKV.get(key) == null) {
@@ -304,8 +477,7 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     // Note: Cannot create it before checking the cache since checksum would differ for each model
     Key<Model> result = Key.make(protoModelKey + paramsIdx);
     // Build a new model
-    // THIS IS BLOCKING call since we do not have enough information about free resources
-    // FIXME: we should allow here any launching strategy (not only sequential)
+    // THIS IS BLOCKING call, concurrent builds are launched by gridSearch in separate F/J tasks
     Model m = (Model)startBuildModel(result,params, grid).dest().get();
     grid.putModel(checksum, result);
     return m;
@@ -16,6 +16,18 @@ public class HyperSpaceSearchCriteria extends Iced {
 
   public ScoreKeeper.StoppingMetric stopping_metric() { return ScoreKeeper.StoppingMetric.AUTO; }
 
+  private int _parallelism = 1;
+
+  /**
+   * Number of models to build concurrently. Defaults to 1 (sequential model building); set to 0 to let
+   * the grid search choose based on the size of the training frame and the free resources of the cloud.
+   * Limits on the number of models and on the runtime of the search apply to all concurrent builds together.
+   */
+  public int parallelism() { return _parallelism; }
+
+  public void set_parallelism(int _parallelism) {
+    this._parallelism = _parallelism;
+  }
 
 // TODO: add a factory which accepts a Strategy and calls the right constructor
 
@@ -16,6 +16,9 @@ public class HyperSpaceSearchCriteriaV99<I extends HyperSpaceSearchCriteria, S e
   @API(help = "Hyperparameter space search strategy.", required = true, values = { "Unknown", "Cartesian", "RandomDiscrete" }, direction = API.Direction.INOUT)
   public HyperSpaceSearchCriteria.Strategy strategy;
 
+  @API(help = "Number of models to build in parallel; 0 to choose adaptively based on the training frame size and free resources of the cluster.", required = false, direction = API.Direction.INOUT)
+  public int parallelism = 1;
+
 // TODO: add a factory which accepts a Strategy and calls the right constructor
 
   /**
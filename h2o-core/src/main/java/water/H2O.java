@@ -331,7 +331,8 @@ final public class H2O {
     /** -random_udp_drop, -random_udp_drop=true; test only, randomly drop udp incoming */
     public boolean random_udp_drop;
 
-    /** -md5skip, -md5skip=true; test-only; Skip the MD5 Jar checksum; allows jars from different builds to mingle in the same cloud */
+    /** -md5skip, -md5skip=true; test-only; Skip the MD5 Jar checksum; allows jars from different builds to mingle in the same cloud,
+     *  only the bootstrap type ids are static then (see TypeMap), the leader assigns all the other ids */
     public boolean md5skip = false;
 
     /** -quiet Enable quiet mode and avoid any prints to console, useful for client embedding */
@@ -1575,6 +1576,7 @@ final public class H2O {
 
     // Create the starter Cloud with 1 member
     SELF._heartbeat._jar_md5 = JarHash.JARHASH;
+    SELF._heartbeat._type_ids_hash = TypeMap.STATIC_TYPES_HASH;
     SELF._heartbeat._client = ARGS.client;
     SELF._heartbeat._cloud_name_hash = ARGS.name.hashCode();
 
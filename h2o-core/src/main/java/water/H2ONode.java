@@ -3,6 +3,7 @@ package water;
 import water.RPC.RPCCall;
 import water.nbhm.NonBlockingHashMap;
 import water.nbhm.NonBlockingHashMapLong;
+import water.network.CompressedByteChannel;
 import water.network.SocketChannelFactory;
 import water.util.ArrayUtils;
 import water.util.Log;
@@ -273,8 +274,10 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     sock2.socket().setSendBufferSize(AutoBuffer.BBP_BIG._size);
     boolean res = sock2.connect( _key );
     assert res && !sock2.isConnectionPending() && sock2.isBlocking() && sock2.isConnected() && sock2.isOpen();
+    // Offer compression of the big transfers, the other side may decline
+    final boolean compress = CompressedByteChannel.ENABLED;
     ByteBuffer bb = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
-    bb.put((byte)2);
+    bb.put(compress ? (byte)(TCPReceiverThread.TCP_BIG | TCPReceiverThread.TCP_COMPRESSED) : TCPReceiverThread.TCP_BIG);
     bb.putChar((char)H2O.H2O_PORT);
     bb.put((byte)0xef);
     bb.flip();
@@ -282,6 +285,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     while(bb.hasRemaining()) {
       wrappedSocket.write(bb);
     }
+    if( compress ) wrappedSocket = CompressedByteChannel.offer(wrappedSocket);
     TCPS.incrementAndGet();     // Cluster-wide counting
     return wrappedSocket;
   }
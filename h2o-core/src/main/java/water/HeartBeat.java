@@ -16,6 +16,7 @@ public class HeartBeat extends Iced<HeartBeat> {
   long _jvm_boot_msec;          // Boot time of JVM
   public long jvmBootTimeMsec(){return _jvm_boot_msec;}
   byte[] _jar_md5;              // JAR file digest
+  int _type_ids_hash;           // Hash of the static type ids, see TypeMap
 
   public boolean _client;       // This is a client node: no keys homed here
   public boolean _watchdog_client = false; // Special client mode - kill cluster when client disappears
@@ -67,6 +68,17 @@ public class HeartBeat extends Iced<HeartBeat> {
     return false;
   }
 
+  // Static type ids are never exchanged, nodes must agree on them.  Nodes
+  // mixing jars from different builds (-md5skip) only use the bootstrap ids
+  // as static ids, see TypeMap.staticClasses
+  boolean check_type_ids() {
+    if( TypeMap.STATIC_TYPES_HASH == _type_ids_hash ) return true;
+    System.out.println("Type ids check fails; my hash="+TypeMap.STATIC_TYPES_HASH+", received hash="+_type_ids_hash);
+    if( H2O.ARGS.md5skip )
+      System.out.println("Type ids check fails; all the nodes of the cloud need to be started with -md5skip");
+    return false;
+  }
+
   // Internal profiling
   public float _gflops = Float.NaN;         // Number of GFlops for this node
   public float _membw;          // Memory bandwidth in GB/s
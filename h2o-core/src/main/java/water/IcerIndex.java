@@ -0,0 +1,19 @@
+package water;
+
+/**
+ * Index of the {@link Freezable} classes of a module, generated at compile time
+ * together with their {@link Icer}s (see the h2o-icer-processor module) and
+ * registered as a {@link java.util.ServiceLoader} service.
+ * <p>
+ * The classes of all the indexes found at startup get static type ids in the
+ * {@link TypeMap}, right after the bootstrap classes, so that they do not need
+ * the cloud to be locked to get an id.  Ids are assigned in the order of the
+ * module names and then of the class names, all the nodes of a cloud must see
+ * the same indexes.
+ */
+public interface IcerIndex {
+  /** @return Name of the module */
+  String module();
+  /** @return Binary names of all the Freezable classes of the module, sorted */
+  String[] classes();
+}
@@ -179,6 +179,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** If true, run entirely local - which will pull all the data locally. */
   protected boolean _run_local;
 
+  /** Time (System.nanoTime) this piece of work was queued for execution; 0 if not tracked (see {@link TaskProfiler}) */
+  transient long _queuedAt;
+
   public String profString() { return _profile != null ? _profile.toString() : "Profiling turned off"; }
   MRProfile _profile;
 
@@ -407,6 +410,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _keys = keys;
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     setupLocal0();              // Local setup
+    if( TaskProfiler.enabled() ) _queuedAt = System.nanoTime();
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
   }
 
@@ -454,6 +458,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     _run_local = run_local;     // Run locally by copying data, or run globally?
     setupLocal0();              // Local setup
+    if( TaskProfiler.enabled() ) _queuedAt = System.nanoTime();
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
     return self();
   }
@@ -499,6 +504,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  Called internal by D/F/J.  Not expected to be user-called.  */
   @Override public final void dinvoke(H2ONode sender) {
     setupLocal0();              // Local setup
+    if( TaskProfiler.enabled() ) _queuedAt = System.nanoTime();
     H2O.submitTask(this);
   }
 
@@ -580,6 +586,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   @Override public final void compute2() {
     assert _left == null && _rite == null && _res == null;
     if(_profile!=null) _profile._mapstart = System.currentTimeMillis();
+    if( _queuedAt != 0 ) {
+      TaskProfiler.stats(getClass())._queueNanos.addAndGet(System.nanoTime() - _queuedAt);
+      _queuedAt = 0;
+    }
     if( (_hi-_lo) >= 2 ) { // Multi-chunk case: just divide-and-conquer to 1 chunk
       final int mid = (_lo+_hi)>>>1; // Mid-point
       _left = copyAndInit();
@@ -587,6 +597,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _left._hi = mid;          // Reset mid-point
       _rite._lo = mid;          // Also set self mid-point
       addToPendingCount(1);     // One fork awaiting completion
+      if( TaskProfiler.enabled() ) _left._queuedAt = System.nanoTime();
       if( !isCompletedAbnormally() ) _left.fork();     // Runs in another thread/FJ instance
       if( !isCompletedAbnormally() ) _rite.compute2(); // Runs in THIS F/J thread
       if(_profile!=null) _profile._mapdone = System.currentTimeMillis();
@@ -598,7 +609,14 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _hi > _lo && _keys[_lo].home() ) {
         assert(_keys == null || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
         if(_profile!=null) _profile._userstart = System.currentTimeMillis();
-        if( _keys != null ) map(_keys[_lo]);
+        if( _keys != null ) {
+          if( TaskProfiler.enabled() ) {
+            long t0 = System.nanoTime(), a0 = TaskProfiler.allocatedBytes();
+            map(_keys[_lo]);
+            TaskProfiler.stats(getClass()).map(System.nanoTime() - t0, TaskProfiler.allocatedSince(a0), null);
+          } else
+            map(_keys[_lo]);
+        }
         _res = self();        // Save results since called map() at least once!
         if(_profile!=null) _profile._closestart = System.currentTimeMillis();
       }
@@ -630,6 +648,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         // Call all the various map() calls that apply
         if(_profile!=null)
           _profile._userstart = System.currentTimeMillis();
+        final long mapStart = TaskProfiler.enabled() ? System.nanoTime() : 0;
+        final long allocStart = mapStart != 0 ? TaskProfiler.allocatedBytes() : 0;
 
         int num_fr_vecs = _fr.vecs().length;
         int num_outputs = _output_types == null? 0 : _output_types.length;
@@ -662,6 +682,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _profile._closestart = System.currentTimeMillis();
         for( Chunk bv : bvs )  bv.close(_lo,_fs);
         if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(_lo, _fs);
+        if( mapStart != 0 )
+          TaskProfiler.stats(getClass()).map(System.nanoTime() - mapStart, TaskProfiler.allocatedSince(allocStart), bvs);
       }
     }
     if(_profile!=null)
@@ -676,8 +698,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // Reduce results into 'this' so they collapse going up the execution tree.
     // NULL out child-references so we don't accidentally keep large subtrees
     // alive since each one may be holding large partial results.
+    final long reduceStart = TaskProfiler.enabled() && (_left != null || _rite != null) ? System.nanoTime() : 0;
     reduce2(_left); _left = null;
     reduce2(_rite); _rite = null;
+    if( reduceStart != 0 )
+      TaskProfiler.stats(getClass())._reduceNanos.addAndGet(System.nanoTime() - reduceStart);
     if(_profile!=null) _profile._reducedone = System.currentTimeMillis();
     // Only on the top local call, have more completion work
     if( _topLocal ) postLocal0();
@@ -705,6 +730,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for other queued pending tasks.
   // Copy any final results into 'this', such that a return of 'this' has the results.
   private void postLocal0() {
+    if( TaskProfiler.enabled() ) TaskProfiler.stats(getClass())._invocations.incrementAndGet();
     closeLocal();               // User's node-local cleanup
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
     reduce3(_nleft);            // Reduce global results from neighbors.
@@ -730,7 +756,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for RPCs to complete, then reduce global results into self results
   private void reduce3( RPC<T> rpc ) {
     if( rpc == null ) return;
+    final long netStart = TaskProfiler.enabled() ? System.nanoTime() : 0;
     T mrt = rpc.get();          // This is a blocking remote call
+    if( netStart != 0 ) {
+      TaskProfiler.Stats stats = TaskProfiler.stats(getClass());
+      stats._networkNanos.addAndGet(System.nanoTime() - netStart);
+      stats._networkBytes.addAndGet(rpc.size_rez());
+    }
     // Note: because _fs is transient it is not set or cleared by the RPC.
     // Because the MRT object is a clone of 'self' it's likely to contain a ptr
     // to the self _fs which will be not-null and still have local pending
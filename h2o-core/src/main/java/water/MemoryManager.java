@@ -9,6 +9,9 @@ import jsr166y.ForkJoinPool.ManagedBlocker;
 import jsr166y.ForkJoinPool;
 import water.util.Log;
 import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 
 /**
  * Manages memory assigned to key/value pairs. All byte arrays used in
@@ -48,6 +51,21 @@ abstract public class MemoryManager {
   // max heap memory
   public static final long MEM_MAX = Runtime.getRuntime().maxMemory();
 
+  /** Property which enables the off-heap spill tier: Values spilled by the Cleaner
+   *  are kept in native memory (outside of the Java heap) and only go to disk
+   *  once the off-heap budget is exhausted. Chunks in use always live on the heap,
+   *  the off-heap copies do not relieve the heap and are not part of the Cleaner's
+   *  memory pressure checks. Cannot be combined with the segmented ice store. */
+  public static final String PROP_OFFHEAP = SYSTEM_PROP_PREFIX + "mem.offheap";
+  /** Off-heap budget in bytes, by default a quarter of the max heap size */
+  public static final String PROP_OFFHEAP_MAX = SYSTEM_PROP_PREFIX + "mem.offheap.max";
+
+  public static final boolean OFFHEAP = Boolean.getBoolean(PROP_OFFHEAP);
+  public static final long OFFHEAP_MAX = Long.getLong(PROP_OFFHEAP_MAX, MEM_MAX >> 2);
+
+  // Exact amount of off-heap memory allocated via MemoryManager
+  private static final AtomicLong OFFHEAP_USED = new AtomicLong();
+
   // Callbacks from GC
   static final HeapUsageMonitor HEAP_USAGE_MONITOR = new HeapUsageMonitor();
 
@@ -152,7 +170,7 @@ abstract public class MemoryManager {
     }
 
     // No logging if under memory pressure: can deadlock the cleaner thread
-    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM");
+    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(OFFHEAP?", OFFHEAP:"+PrettyPrint.bytes(offHeapUsed()):"")+(oom?" OOM!":" NO-OOM");
     if( CAN_ALLOC ) { if( oom ) Log.warn(s); else Log.debug(s); }
     else            System.err.println(s);
   }
@@ -297,6 +315,28 @@ abstract public class MemoryManager {
   public static long   [] arrayCopyOf( long  [] orig, int sz) { return arrayCopyOfRange(orig,0,sz); }
   public static double [] arrayCopyOf( double[] orig, int sz) { return arrayCopyOfRange(orig,0,sz); }
 
+  /**
+   * Allocates off-heap (native) memory. Off-heap memory is not seen by the GC
+   * and needs to be released explicitly by {@link #freeOffHeap(long, long)};
+   * the amount in use is thus always known exactly.
+   *
+   * @param bytes - requested number of bytes
+   * @return address of the allocated memory or 0 if the allocation failed
+   */
+  public static long mallocOffHeap(long bytes) {
+    assert bytes > 0 : "Bad size " + bytes;
+    long address;
+    try { address = UnsafeUtils.allocateMemory(bytes); }
+    catch( OutOfMemoryError e ) { return 0; }
+    OFFHEAP_USED.addAndGet(bytes);
+    return address;
+  }
+  public static void freeOffHeap(long address, long bytes) {
+    UnsafeUtils.freeMemory(address);
+    OFFHEAP_USED.addAndGet(-bytes);
+  }
+  public static long offHeapUsed() { return OFFHEAP_USED.get(); }
+
   // Memory available for tasks (we assume 3/4 of the heap is available for tasks)
   static final AtomicLong _taskMem = new AtomicLong(MEM_MAX-(MEM_MAX>>2));
 
@@ -47,6 +47,15 @@ public abstract class Paxos {
       }
       return 0;
     }
+    if( !h2o._heartbeat.check_type_ids() ) {
+      if( H2O.CLOUD.size() > 1 ) {
+        Log.warn("Killing "+h2o+" because of a type ids mismatch (different pre-generated Icers, start all the nodes with -md5skip to mix builds).");
+        UDPRebooted.T.mismatch.send(h2o);
+      } else {
+        H2O.die("Attempting to join "+h2o+" with a type ids mismatch (different pre-generated Icers, start all the nodes with -md5skip to mix builds).  Exiting.");
+      }
+      return 0;
+    }
     
     if(h2o._heartbeat._cloud_name_hash != H2O.SELF._heartbeat._cloud_name_hash){
       // ignore requests from this node as they are coming from different cluster
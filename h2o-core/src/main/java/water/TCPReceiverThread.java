@@ -8,6 +8,7 @@ import java.nio.channels.ByteChannel;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 
+import water.network.CompressedByteChannel;
 import water.network.SocketChannelFactory;
 import water.util.Log;
 import water.util.SB;
@@ -40,6 +41,11 @@ public class TCPReceiverThread extends Thread {
    */
   static final byte TCP_EXTERNAL = 3;
 
+  /**
+   * Flag set on TCP_BIG by senders offering to compress the channel, see {@link CompressedByteChannel}
+   */
+  static final byte TCP_COMPRESSED = 0x10;
+
   public TCPReceiverThread(
           ServerSocketChannel sock) {
     super("TCP-Accept");
@@ -83,6 +89,8 @@ public class TCPReceiverThread extends Thread {
         }
         bb.flip();
         int chanType = bb.get(); // 1 - small , 2 - big
+        boolean compressed = (chanType & TCP_COMPRESSED) != 0;
+        chanType &= ~TCP_COMPRESSED;
         int port = bb.getChar();
         int sentinel = (0xFF) & bb.get();
         if(sentinel != 0xef) {
@@ -105,7 +113,8 @@ public class TCPReceiverThread extends Thread {
           new UDP_TCP_ReaderThread(h2o, wrappedSocket).start();
           break;
         case TCP_BIG:
-          new TCPReaderThread(wrappedSocket, new AutoBuffer(wrappedSocket, inetAddress), inetAddress).start();
+          ByteChannel chan = compressed ? CompressedByteChannel.accept(wrappedSocket) : wrappedSocket;
+          new TCPReaderThread(chan, new AutoBuffer(chan, inetAddress), inetAddress).start();
           break;
         case TCP_EXTERNAL:
           new ExternalFrameHandlerThread(wrappedSocket, new AutoBuffer(wrappedSocket, null)).start();
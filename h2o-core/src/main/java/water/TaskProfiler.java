@@ -0,0 +1,318 @@
+package water;
+
+import water.fvec.Chunk;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Opt-in, low-overhead profiler of {@link MRTask}s.
+ * <p>
+ * Unlike {@link MRTask#profile()} (which records a detailed timeline of a single task invocation) this profiler keeps
+ * node-local counters aggregated per MRTask class: time spent in map, reduce and waiting for remote nodes, time
+ * the forked pieces of work spent waiting in the F/J queues, number of rows and bytes of Chunks (per Chunk class)
+ * processed by map calls and, optionally, the number of bytes allocated by the map calls (as reported by the JVM).
+ * Counters are only updated once per map call (Chunk) and once per reduce, the overhead is a few atomic
+ * increments per Chunk.
+ * <p>
+ * {@link Collector} gathers the counters from all nodes of the cloud.
+ * The profiler is off by default, it is turned on and off at runtime on all nodes by {@link Toggle} (eg. from
+ * the REST API); the system property {@link #PROP_ENABLED} only sets its initial state. When off, the cost is one
+ * volatile read per map call and per reduce. Tracking the allocations costs two more calls into the JVM per map
+ * call and is turned on separately (initially by {@link #PROP_ALLOCATIONS}).
+ */
+public final class TaskProfiler {
+
+  public static final String PROP_ENABLED = SYSTEM_PROP_PREFIX + "mr.profiler";
+  public static final String PROP_ALLOCATIONS = SYSTEM_PROP_PREFIX + "mr.profiler.allocations";
+
+  private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationsBean();
+  private static volatile boolean _enabled = Boolean.parseBoolean(System.getProperty(PROP_ENABLED, "false"));
+  private static volatile boolean _allocations = Boolean.parseBoolean(System.getProperty(PROP_ALLOCATIONS, "false"));
+  private static final ConcurrentHashMap<String, Stats> STATS = new ConcurrentHashMap<>();
+  private static final ClassValue<Stats> STATS_BY_CLASS = new ClassValue<Stats>() {
+    @Override protected Stats computeValue(Class<?> clz) {
+      Stats s = new Stats(clz.getName());
+      Stats old = STATS.putIfAbsent(s._task, s);
+      return old != null ? old : s;
+    }
+  };
+
+  private TaskProfiler() {}
+
+  private static com.sun.management.ThreadMXBean allocationsBean() {
+    try {
+      java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+          return sunBean;
+      }
+    } catch (Throwable ignore) {
+      // Not available on this JVM
+    }
+    return null;
+  }
+
+  static Stats stats(Class<?> clz) { return STATS_BY_CLASS.get(clz); }
+
+  /** True if the profiler is turned on */
+  public static boolean enabled() { return _enabled; }
+
+  /** True if the allocations are tracked (and the JVM reports per-thread allocations) */
+  public static boolean allocationsSupported() { return ALLOCATIONS != null && _allocations; }
+
+  /** Turns the profiler on this node on or off, see {@link Toggle} to do it on all nodes */
+  static void setEnabled(boolean enabled, boolean allocations) {
+    _allocations = allocations;
+    _enabled = enabled;
+  }
+
+  /** Bytes allocated so far by the current thread, 0 if not tracked */
+  static long allocatedBytes() {
+    return allocationsSupported() ? ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+  }
+
+  /** Bytes allocated by the current thread since {@link #allocatedBytes()} returned the given start, 0 if not tracked */
+  static long allocatedSince(long start) {
+    return start != 0 ? allocatedBytes() - start : 0;
+  }
+
+  /** Live node-local counters of one MRTask class */
+  static final class Stats {
+    final String _task;
+    final AtomicLong _invocations = new AtomicLong(); // Node-local executions of the task
+    final AtomicLong _maps = new AtomicLong();
+    final AtomicLong _mapNanos = new AtomicLong();
+    final AtomicLong _reduceNanos = new AtomicLong();
+    final AtomicLong _networkNanos = new AtomicLong();
+    final AtomicLong _networkBytes = new AtomicLong();
+    final AtomicLong _queueNanos = new AtomicLong();
+    final AtomicLong _rows = new AtomicLong();
+    final AtomicLong _allocBytes = new AtomicLong();
+    final ConcurrentHashMap<Class, AtomicLong> _chunkBytes = new ConcurrentHashMap<>();
+
+    Stats(String task) { _task = task; }
+
+    void map(long nanos, long allocBytes, Chunk[] cs) {
+      _maps.incrementAndGet();
+      _mapNanos.addAndGet(nanos);
+      if (allocBytes > 0)
+        _allocBytes.addAndGet(allocBytes);
+      if (cs == null || cs.length == 0)
+        return;
+      Chunk c0 = cs[0];
+      if (c0 != null)
+        _rows.addAndGet(c0._len);
+      for (Chunk c : cs) {
+        byte[] mem = c != null ? c.asBytes() : null;
+        if (mem == null)
+          continue;
+        AtomicLong bytes = _chunkBytes.get(c.getClass());
+        if (bytes == null) {
+          AtomicLong old = _chunkBytes.putIfAbsent(c.getClass(), bytes = new AtomicLong());
+          if (old != null)
+            bytes = old;
+        }
+        bytes.addAndGet(mem.length);
+      }
+    }
+
+    TaskProfile snapshot() {
+      TaskProfile p = new TaskProfile();
+      p._task = _task;
+      p._invocations = _invocations.get();
+      p._maps = _maps.get();
+      p._mapNanos = _mapNanos.get();
+      p._reduceNanos = _reduceNanos.get();
+      p._networkNanos = _networkNanos.get();
+      p._networkBytes = _networkBytes.get();
+      p._queueNanos = _queueNanos.get();
+      p._rows = _rows.get();
+      p._allocBytes = _allocBytes.get();
+      ArrayList<Map.Entry<Class, AtomicLong>> chunks = new ArrayList<>(_chunkBytes.entrySet());
+      p._chunkTypes = new String[chunks.size()];
+      p._chunkBytes = new long[chunks.size()];
+      for (int i = 0; i < chunks.size(); i++) {
+        p._chunkTypes[i] = chunks.get(i).getKey().getSimpleName();
+        p._chunkBytes[i] = chunks.get(i).getValue().get();
+      }
+      return p;
+    }
+
+    void reset() {
+      for (AtomicLong l : new AtomicLong[]{_invocations, _maps, _mapNanos, _reduceNanos, _networkNanos, _networkBytes,
+          _queueNanos, _rows, _allocBytes})
+        l.set(0);
+      _chunkBytes.clear();
+    }
+  }
+
+  /** Immutable snapshot of the counters of one MRTask class (of a single node or aggregated over the cloud) */
+  public static class TaskProfile extends Iced<TaskProfile> {
+    public String _task;
+    public long _invocations;
+    public long _maps;
+    public long _mapNanos;
+    public long _reduceNanos;
+    public long _networkNanos;
+    public long _networkBytes;
+    public long _queueNanos;
+    public long _rows;
+    public long _allocBytes;
+    public String[] _chunkTypes;
+    public long[] _chunkBytes;
+
+    /** Rows processed per second of (cumulative) map time */
+    public double rowsPerSecond() { return _mapNanos == 0 ? 0 : _rows * 1e9 / _mapNanos; }
+
+    void add(TaskProfile p) {
+      _invocations += p._invocations;
+      _maps += p._maps;
+      _mapNanos += p._mapNanos;
+      _reduceNanos += p._reduceNanos;
+      _networkNanos += p._networkNanos;
+      _networkBytes += p._networkBytes;
+      _queueNanos += p._queueNanos;
+      _rows += p._rows;
+      _allocBytes += p._allocBytes;
+      HashMap<String, Long> chunks = new HashMap<>();
+      for (int i = 0; i < _chunkTypes.length; i++)
+        chunks.put(_chunkTypes[i], _chunkBytes[i]);
+      for (int i = 0; i < p._chunkTypes.length; i++) {
+        Long b = chunks.get(p._chunkTypes[i]);
+        chunks.put(p._chunkTypes[i], (b == null ? 0 : b) + p._chunkBytes[i]);
+      }
+      _chunkTypes = chunks.keySet().toArray(new String[chunks.size()]);
+      Arrays.sort(_chunkTypes);
+      _chunkBytes = new long[_chunkTypes.length];
+      for (int i = 0; i < _chunkTypes.length; i++)
+        _chunkBytes[i] = chunks.get(_chunkTypes[i]);
+    }
+
+    TaskProfile copy() {
+      TaskProfile p = clone();
+      p._chunkTypes = _chunkTypes.clone();
+      p._chunkBytes = _chunkBytes.clone();
+      return p;
+    }
+  }
+
+  /** Node-local profiles of all MRTask classes executed on this node, sorted by decreasing map time */
+  public static TaskProfile[] snapshot() {
+    ArrayList<TaskProfile> res = new ArrayList<>();
+    for (Stats s : STATS.values())
+      if (s._invocations.get() > 0 || s._maps.get() > 0)
+        res.add(s.snapshot());
+    TaskProfile[] ps = res.toArray(new TaskProfile[res.size()]);
+    sort(ps);
+    return ps;
+  }
+
+  /** Reset all node-local counters */
+  public static void reset() {
+    for (Stats s : STATS.values())
+      s.reset();
+  }
+
+  /** Sums up profiles (eg. of multiple nodes) by the MRTask class */
+  public static TaskProfile[] aggregate(TaskProfile[][] profiles) {
+    HashMap<String, TaskProfile> agg = new HashMap<>();
+    for (TaskProfile[] ps : profiles) {
+      if (ps == null)
+        continue;
+      for (TaskProfile p : ps) {
+        TaskProfile a = agg.get(p._task);
+        if (a == null)
+          agg.put(p._task, p.copy());
+        else
+          a.add(p);
+      }
+    }
+    TaskProfile[] res = agg.values().toArray(new TaskProfile[agg.size()]);
+    sort(res);
+    return res;
+  }
+
+  private static void sort(TaskProfile[] ps) {
+    Arrays.sort(ps, new Comparator<TaskProfile>() {
+      @Override public int compare(TaskProfile o1, TaskProfile o2) { return Long.compare(o2._mapNanos, o1._mapNanos); }
+    });
+  }
+
+  /**
+   * Exports profiles in the "folded stacks" format consumed by flame graph tools (eg. flamegraph.pl, speedscope).
+   * Every line is a stack {@code MRTask;<task class>;<phase>} followed by the time spent in microseconds.
+   */
+  public static String toFoldedStacks(TaskProfile[] ps) {
+    StringBuilder sb = new StringBuilder();
+    for (TaskProfile p : ps) {
+      String task = p._task.replace(';', '_').replace(' ', '_');
+      appendFolded(sb, task, "map", p._mapNanos);
+      appendFolded(sb, task, "reduce", p._reduceNanos);
+      appendFolded(sb, task, "network", p._networkNanos);
+      appendFolded(sb, task, "queue_wait", p._queueNanos);
+    }
+    return sb.toString();
+  }
+
+  private static void appendFolded(StringBuilder sb, String task, String phase, long nanos) {
+    long micros = nanos / 1000;
+    if (micros > 0)
+      sb.append("MRTask;").append(task).append(';').append(phase).append(' ').append(micros).append('\n');
+  }
+
+  /** Turns the profiler on or off on all nodes; counters collected so far are kept */
+  public static class Toggle extends MRTask<Toggle> {
+    private final boolean _enable;
+    private final boolean _trackAllocations;
+
+    public Toggle(boolean enable, boolean trackAllocations) {
+      super(H2O.GUI_PRIORITY);
+      _enable = enable;
+      _trackAllocations = trackAllocations;
+    }
+
+    @Override protected void setupLocal() { setEnabled(_enable, _trackAllocations); }
+  }
+
+  /** Collects the node-local profiles from all nodes */
+  public static class Collector extends MRTask<Collector> {
+    // IN
+    private final boolean _reset;
+    // OUT
+    public TaskProfile[][] _nodeProfiles;
+    public String[] _nodeNames;
+
+    public Collector(boolean reset) { super(H2O.GUI_PRIORITY); _reset = reset; }
+
+    @Override protected void setupLocal() {
+      int idx = H2O.SELF.index();
+      _nodeProfiles = new TaskProfile[H2O.CLOUD.size()][];
+      _nodeNames = new String[H2O.CLOUD.size()];
+      if (idx < 0)
+        return; // Client
+      _nodeProfiles[idx] = snapshot();
+      _nodeNames[idx] = H2O.SELF.toString();
+      if (_reset)
+        reset();
+    }
+
+    @Override public void reduce(Collector other) {
+      for (int i = 0; i < _nodeProfiles.length; ++i)
+        if (_nodeProfiles[i] == null) {
+          _nodeProfiles[i] = other._nodeProfiles[i];
+          _nodeNames[i] = other._nodeNames[i];
+        }
+    }
+  }
+
+}
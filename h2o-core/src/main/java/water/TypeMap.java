@@ -4,7 +4,12 @@ import water.api.schemas3.*;
 import water.nbhm.NonBlockingHashMap;
 import water.util.Log;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.ServiceLoader;
 
 import static water.Weaver.classForName;
 
@@ -76,12 +81,15 @@ public class TypeMap {
   static private int IDS;
   // JUnit helper flag
   static public volatile boolean _check_no_locking; // ONLY TOUCH IN AAA_PreCloudLock!
+  // Hash of the statically known type ids, all the nodes of a cloud must agree on it
+  static final int STATIC_TYPES_HASH;
   static {
-    CLAZZES = BOOTSTRAP_CLASSES;
-    GOLD = new Icer[BOOTSTRAP_CLASSES.length];
+    CLAZZES = staticClasses();
+    GOLD = new Icer[CLAZZES.length];
     int id=0;                   // The initial set of Type IDs to boot with
     for( String s : CLAZZES ) MAP.put(s,id++);
     IDS = id;
+    STATIC_TYPES_HASH = Arrays.hashCode(CLAZZES);
     // Some statically known names, to make life easier during e.g. bootup & parse
     NULL         = (short) -1;
     PRIM_B       = (short)onIce("[B");
@@ -93,6 +101,26 @@ public class TypeMap {
     ESPCGROUP    = (short)onIce("water.fvec.Vec$ESPC"); // Used in TestUtil
   }
 
+  // The bootstrap classes, followed by the classes of the modules with
+  // pre-generated Icers (see IcerIndex), which then never need to lock the
+  // cloud to get an id.  Modules are sorted by name so all nodes with the same
+  // jars agree on the ids.  Nodes allowed to mix jars from different builds
+  // (-md5skip) only share the bootstrap ids, the leader assigns all the others.
+  static String[] staticClasses() {
+    if( !Weaver.PREGENERATED || H2O.ARGS.md5skip ) return BOOTSTRAP_CLASSES;
+    ArrayList<IcerIndex> indexes = new ArrayList<>();
+    for( IcerIndex idx : ServiceLoader.load(IcerIndex.class) ) indexes.add(idx);
+    Collections.sort(indexes, new Comparator<IcerIndex>() {
+      @Override public int compare(IcerIndex a, IcerIndex b) { return a.module().compareTo(b.module()); }
+    });
+    ArrayList<String> clazzes = new ArrayList<>(Arrays.asList(BOOTSTRAP_CLASSES));
+    HashSet<String> seen = new HashSet<>(clazzes);
+    for( IcerIndex idx : indexes )
+      for( String s : idx.classes() )
+        if( seen.add(s) ) clazzes.add(s);
+    return clazzes.toArray(new String[clazzes.size()]);
+  }
+
   // The major complexity of this code is that the are FOUR major data forms
   // which get converted to one another.  At various times the code is
   // presented with one of the forms, and asked for another form, sometimes
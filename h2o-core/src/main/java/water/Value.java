@@ -174,6 +174,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   public  final static byte HDFS= 2<<0; // HDFS: backed by Hadoop cluster
   public  final static byte S3  = 3<<0; // Amazon S3
   public  final static byte NFS = 4<<0; // NFS: Standard file system
+  public  final static byte SNAP= 5<<0; // SNAP: Memory-mapped frame snapshot files
   public  final static byte TCP = 7<<0; // TCP: For profile purposes, not a storage system
   private final static byte BACKEND_MASK = (8-1);
   final byte backend() { return (byte)(_persist&BACKEND_MASK); }
@@ -181,6 +182,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   private boolean onHDFS(){ return (backend()) == HDFS; }
   private boolean onNFS (){ return (backend()) ==  NFS; }
   private boolean onS3  (){ return (backend()) ==   S3; }
+  private boolean onSNAP(){ return (backend()) == SNAP; }
 
  // Manipulate the on-disk bit
   private final static byte NOTdsk = 0<<3; // latest _mem is persisted or not
@@ -221,7 +223,12 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     // 01       double delete; do nothing
     // 10 -> 11 delete
     // 11       double delete; do nothing
-    if( !onICE() ) return;      // Wrong filestore?
+    if( !onICE() && !onSNAP() ) {
+      // Chunks of remote files are never deleted, but their local copies are
+      if( (backend() == HDFS || backend() == S3) && _key.isChunkKey() && isPersisted() )
+        H2O.getPM().delete(backend(), this);
+      return;
+    }
     if( isDeleted() ) return;   // Already deleted?
     setDel();                   // Set del bit BEFORE testing isPersist
     if( !isPersisted() ) return;// Nothing there
@@ -242,7 +249,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   }
 
   String nameOfPersist() { return nameOfPersist(backend()); }
-  /** One of ICE, HDFS, S3, NFS or TCP, according to where this Value is persisted.
+  /** One of ICE, HDFS, S3, NFS, SNAP or TCP, according to where this Value is persisted.
    *  @return Short String of the persitance name */
   public static String nameOfPersist(int x) {
     switch( x ) {
@@ -250,6 +257,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     case HDFS: return "HDFS";
     case S3  : return "S3";
     case NFS : return "NFS";
+    case SNAP: return "SNAP";
     case TCP : return "TCP";
     default  : return null;
     }
@@ -3,6 +3,7 @@ package water;
 import javassist.*;
 import sun.misc.Unsafe;
 import water.api.API;
+import water.nbhm.NonBlockingHashSet;
 import water.nbhm.UtilUnsafe;
 
 import java.lang.reflect.Field;
@@ -14,9 +15,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
 /** Class to auto-gen serializer delegate classes.  */
 public class Weaver {
 
+  /** Use the Icers generated at compile time (see {@link IcerIndex}), true by default */
+  public static final String PROP_PREGENERATED_ICERS = SYSTEM_PROP_PREFIX + "icer.pregenerated";
+  static final boolean PREGENERATED = Boolean.parseBoolean(System.getProperty(PROP_PREGENERATED_ICERS, "true"));
+
     /** Get all woven fields in this class, including subclasses, up to the
    *  normal {@link Iced} serialization classes, skipping static and transient
    *  fields, and the required _ice_id field.
@@ -56,6 +63,12 @@ public class Weaver {
    */
   private static final transient Map<String/*className*/, ClassPath> CLASSPATHS;
 
+  /** Names of the Icers generated by javassist; the Icers found on the
+   * classpath were generated at compile time, and are only used when
+   * {@link #PREGENERATED}.
+   */
+  private static final NonBlockingHashSet<String> _woven = new NonBlockingHashSet<>();
+
   static Class classForName(String className) throws ClassNotFoundException {
     ClassLoader c = CLASSLOADERS.get(className);  // was this class dynamically loaded?
     if( c==null ) return Class.forName(className); // class not dynamically loaded, use Weaver's ClassLoader
@@ -180,6 +193,7 @@ public class Weaver {
         ctc.detach();
         CtClass icer = _pool.getOrNull(implClazzName(name));
         if( icer!=null ) icer.detach(); // drop the Icer
+        _woven.remove(implClazzName(name));
         _pool.removeClassPath(CLASSPATHS.get(name));
         TypeMap.drop(name);  // drop the icer from the typemap
       }
@@ -201,7 +215,9 @@ public class Weaver {
 
     // Now look for a pre-cooked Icer.  No locking, 'cause we're just looking
     String icer_name = implClazzName(iced_name);
-    CtClass icer_cc = _pool.getOrNull(icer_name); // Full Name Lookup of Icer
+    Class pregen = pregenerated(icer_name, iced_clazz);
+    if( pregen != null ) return pregen;
+    CtClass icer_cc = _woven.contains(icer_name) ? _pool.getOrNull(icer_name) : null; // Full Name Lookup of Icer
     if( icer_cc != null ) {
       synchronized( iced_clazz ) {
         if( !icer_cc.isFrozen() )   icer_cc.toClass(iced_clazz.getClassLoader()); // Load class (but does not link & init)
@@ -230,16 +246,40 @@ public class Weaver {
     // class, but also to allow parallel class-gens of unrelated Iced).
     //noinspection SynchronizationOnLocalVariableOrMethodParameter
     synchronized( iced_clazz ) {
-      icer_cc = _pool.getOrNull(icer_name); // Retry under lock
+      icer_cc = _woven.contains(icer_name) ? _pool.getOrNull(icer_name) : null; // Retry under lock
       if( icer_cc != null ) return Class.forName(icer_name); // Found a pre-cooked Icer implementation
-      icer_cc = genIcerClass(id,iced_cc,iced_clazz,icer_name,super_id,super_icer_cc,super_has_jfields);
+      icer_cc = genIcerClass(id,depth(iced_clazz),iced_cc,iced_clazz,icer_name,super_id,super_icer_cc,super_has_jfields);
       icer_cc.toClass(iced_clazz.getClassLoader());               // Load class (but does not link & init)
+      _woven.add(icer_name);
       return Class.forName(icer_name,true, iced_clazz.getClassLoader()); // Initialize class now, before subclasses
     }
   }
 
+  // The Icer generated at compile time, if any.  Only valid if defined by the
+  // same loader as the Iced class: a class reloaded by LoadClazz gets a new
+  // loader, and a new woven Icer.
+  static Class pregenerated( String icer_name, Class iced_clazz ) {
+    if( !PREGENERATED || _woven.contains(icer_name) ) return null;
+    try {
+      Class icer_clz = Class.forName(icer_name,false,iced_clazz.getClassLoader());
+      if( icer_clz.getClassLoader() != iced_clazz.getClassLoader() ) return null;
+      return Class.forName(icer_name,true,iced_clazz.getClassLoader()); // Initialize class now, before subclasses
+    } catch( ClassNotFoundException e ) {
+      return null;
+    }
+  }
+
+  // Number of Freezable superclasses.  Names the write/read call chain of the
+  // Icers, which must not depend on the type ids: Icers generated at compile
+  // time and by javassist call each other.
+  static int depth( Class clz ) {
+    int depth = 0;
+    while( Freezable.class.isAssignableFrom(clz = clz.getSuperclass()) ) depth++;
+    return depth;
+  }
+
   // Generate the Icer class
-  private static CtClass genIcerClass(int id, CtClass iced_cc, Class iced_clazz, String icer_name, int super_id, CtClass super_icer, boolean super_has_jfields ) throws CannotCompileException, NotFoundException, NoSuchFieldException {
+  private static CtClass genIcerClass(int id, int depth, CtClass iced_cc, Class iced_clazz, String icer_name, int super_id, CtClass super_icer, boolean super_has_jfields ) throws CannotCompileException, NotFoundException, NoSuchFieldException {
     // Generate the Icer class
     String iced_name = iced_cc.getName();
     CtClass icer_cc = _pool.makeClass(icer_name);
@@ -282,8 +322,8 @@ public class Weaver {
     // The write call
     String debug =
     make_body(icer_cc, iced_cc, iced_clazz, "write", null, null,
-              "  protected final water.AutoBuffer write"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
-              super_id == -1?"":"    write"+super_id+"(ab,ice);\n",
+              "  protected final water.AutoBuffer write"+depth+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
+              super_id == -1?"":"    write"+(depth-1)+"(ab,ice);\n",
               "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
               "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
               "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
@@ -292,8 +332,8 @@ public class Weaver {
     if( debug_print ) System.out.println(debug);
     String debugJ=
     make_body(icer_cc, iced_cc, iced_clazz, "writeJSON", "(supers?ab.put1(','):ab).", "    ab.put1(',').",
-              "  protected final water.AutoBuffer writeJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
-              super_id == -1?"":"    writeJSON"+super_id+"(ab,ice);\n",
+              "  protected final water.AutoBuffer writeJSON"+depth+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
+              super_id == -1?"":"    writeJSON"+(depth-1)+"(ab,ice);\n",
               "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
               "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
               "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n"  ,
@@ -304,12 +344,12 @@ public class Weaver {
     // The generic override method.  Called virtually at the start of a
     // serialization call.  Only calls thru to the named static method.
     String wbody = "  protected water.AutoBuffer write(water.AutoBuffer ab, water.Freezable ice) {\n"+
-      "    return write"+id+"(ab,("+iced_name+")ice);\n"+
+      "    return write"+depth+"(ab,("+iced_name+")ice);\n"+
       "  }";
     if( debug_print ) System.out.println(wbody);
     addMethod(wbody,icer_cc);
     String wbodyJ= "  protected water.AutoBuffer writeJSON(water.AutoBuffer ab, water.Freezable ice) {\n"+
-      "    return writeJSON"+id+"(ab.put1('{'),("+iced_name+")ice).put1('}');\n"+
+      "    return writeJSON"+depth+"(ab.put1('{'),("+iced_name+")ice).put1('}');\n"+
       "  }";
     if( debug_print ) System.out.println(wbodyJ);
     addMethod(wbodyJ,icer_cc);
@@ -318,8 +358,8 @@ public class Weaver {
     // The read call
     String rbody_impl =
     make_body(icer_cc, iced_cc, iced_clazz, "read", null, null,
-              "  protected final "+iced_name+" read"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
-              super_id == -1?"":"    read"+super_id+"(ab,ice);\n",
+              "  protected final "+iced_name+" read"+depth+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
+              super_id == -1?"":"    read"+(depth-1)+"(ab,ice);\n",
               "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
               "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%dL,ab.get%z(%s));\n",
               "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
@@ -328,8 +368,8 @@ public class Weaver {
     if( debug_print ) System.out.println(rbody_impl);
     String rbodyJ_impl =
     make_body(icer_cc, iced_cc, iced_clazz, "readJSON", null, null,
-              "  protected final "+iced_name+" readJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
-              super_id == -1?"":"    readJSON"+super_id+"(ab,ice);\n",
+              "  protected final "+iced_name+" readJSON"+depth+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
+              super_id == -1?"":"    readJSON"+(depth-1)+"(ab,ice);\n",
               "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
               "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%dL,ab.get%z(%s));\n",
               "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
@@ -341,12 +381,12 @@ public class Weaver {
     // The generic override method.  Called virtually at the start of a
     // serialization call.  Only calls thru to the named static method.
     String rbody = "  protected water.Freezable read(water.AutoBuffer ab, water.Freezable ice) {\n"+
-      "    return read"+id+"(ab,("+iced_name+")ice);\n"+
+      "    return read"+depth+"(ab,("+iced_name+")ice);\n"+
       "  }";
     if( debug_print ) System.out.println(rbody);
     addMethod(rbody,icer_cc);
     String rbodyJ= "  protected water.Freezable readJSON(water.AutoBuffer ab, water.Freezable ice) {\n"+
-      "    return readJSON"+id+"(ab,("+iced_name+")ice);\n"+
+      "    return readJSON"+depth+"(ab,("+iced_name+")ice);\n"+
       "  }";
     if( debug_print ) System.out.println(rbodyJ);
     addMethod(rbodyJ,icer_cc);
@@ -255,7 +255,26 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
   public FramesV3 export(int version, FramesV3 s) {
     Frame fr = getFromDKV("key", s.frame_id.key());
     Log.info("ExportFiles processing (" + s.path + ")");
-    s.job = new JobV3(Frame.export(fr, s.path, s.frame_id.key().toString(), s.force, s.num_parts));
+    s.job = new JobV3(Frame.export(fr, s.path, s.frame_id.key().toString(), s.force, s.num_parts, s.format));
+    return s;
+  }
+
+  /** Save a single frame into a binary snapshot in the specified directory. */
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public FramesV3 saveSnapshot(int version, FramesV3 s) {
+    Frame fr = getFromDKV("key", s.frame_id.key());
+    Log.info("SaveFrameSnapshot processing (" + s.path + ")");
+    s.job = new JobV3(fr.saveSnapshot(s.path, s.force));
+    return s;
+  }
+
+  /** Load a frame from a binary snapshot stored in the specified directory. */
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public FramesV3 loadSnapshot(int version, FramesV3 s) {
+    if (s.frame_id == null || s.frame_id.key() == null)
+      throw new H2OIllegalArgumentException("frame_id", "loadSnapshot", "Destination frame_id must be specified");
+    Log.info("LoadFrameSnapshot processing (" + s.path + ")");
+    s.job = new JobV3(Frame.loadSnapshot(s.path, s.frame_id.key()));
     return s;
   }
 
@@ -266,14 +285,16 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
 
     if( null != frame) {
       Futures fs = new Futures();
+      ArrayList<Vec> vecs = new ArrayList<>();
       int i = 0;
       for( Vec v : frame.vecs() ) {
         if (null == DKV.get(v._key))
           Log.warn("For Frame: " + frame._key + ", Vec number: " + i + " (" + frame.name(i)+ ") is missing; not returning it.");
         else
-          v.startRollupStats(fs, Vec.DO_HISTOGRAMS);
+          vecs.add(v);
         i++;
       }
+      Vec.startRollupStats(vecs.toArray(new Vec[vecs.size()]), fs, Vec.DO_HISTOGRAMS);
       fs.blockForPending();
     }
 
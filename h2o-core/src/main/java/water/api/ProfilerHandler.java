@@ -1,7 +1,10 @@
 package water.api;
 
+import water.TaskProfiler;
 import water.api.schemas3.ProfilerNodeV3;
 import water.api.schemas3.ProfilerV3;
+import water.api.schemas3.TaskProfilerToggleV3;
+import water.api.schemas3.TaskProfilerV3;
 import water.util.JProfile;
 
 public class ProfilerHandler extends Handler {
@@ -30,4 +33,42 @@ public class ProfilerHandler extends Handler {
     }
     return p;
   }
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public TaskProfilerV3 tasks(int version, TaskProfilerV3 p) {
+    if (!TaskProfiler.enabled())
+      throw new IllegalArgumentException("MRTask profiler is turned off, turn it on with POST /3/Profiler/tasks/toggle?enabled=true");
+    TaskProfiler.Collector c = new TaskProfiler.Collector(p.reset).doAllNodes();
+    int nnodes = 0;
+    for (TaskProfiler.TaskProfile[] ps : c._nodeProfiles)
+      if (ps != null) nnodes++;
+    p.nodes = new TaskProfilerV3.TaskProfilerNodeV3[nnodes];
+    int i = 0;
+    for (int j = 0; j < c._nodeProfiles.length; j++) {
+      if (c._nodeProfiles[j] == null) continue;
+      TaskProfilerV3.TaskProfilerNodeV3 n = new TaskProfilerV3.TaskProfilerNodeV3();
+      n.node_name = c._nodeNames[j];
+      n.tasks = toSchema(c._nodeProfiles[j]);
+      p.nodes[i++] = n;
+    }
+    TaskProfiler.TaskProfile[] agg = TaskProfiler.aggregate(c._nodeProfiles);
+    p.tasks = toSchema(agg);
+    p.flamegraph = TaskProfiler.toFoldedStacks(agg);
+    return p;
+  }
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public TaskProfilerToggleV3 toggleTasks(int version, TaskProfilerToggleV3 p) {
+    new TaskProfiler.Toggle(p.enabled, p.allocations).doAllNodes();
+    p.enabled = TaskProfiler.enabled();
+    p.allocations = TaskProfiler.allocationsSupported();
+    return p;
+  }
+
+  private static TaskProfilerV3.TaskProfileV3[] toSchema(TaskProfiler.TaskProfile[] ps) {
+    TaskProfilerV3.TaskProfileV3[] res = new TaskProfilerV3.TaskProfileV3[ps.length];
+    for (int i = 0; i < ps.length; i++)
+      res[i] = new TaskProfilerV3.TaskProfileV3().fillFromProfile(ps[i]);
+    return res;
+  }
 }
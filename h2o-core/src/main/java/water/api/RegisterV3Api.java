@@ -79,6 +79,14 @@ public class RegisterV3Api extends AbstractRegister {
         "GET /3/Profiler", ProfilerHandler.class, "fetch",
         "Report real-time profiling information for all nodes (sorted, aggregated stack traces).");
 
+    RequestServer.registerEndpoint("profilerTasks",
+        "GET /3/Profiler/tasks", ProfilerHandler.class, "tasks",
+        "Report per-MRTask profiling counters (map/reduce/network time, rows, Chunk bytes, allocations) for all nodes.");
+
+    RequestServer.registerEndpoint("profilerTasksToggle",
+        "POST /3/Profiler/tasks/toggle", ProfilerHandler.class, "toggleTasks",
+        "Turn the MRTask profiler on or off on all nodes.");
+
     RequestServer.registerEndpoint("stacktraces",
         "GET /3/JStack", JStackHandler.class, "fetch",
         "Report stack traces for all threads on all nodes.");
@@ -144,6 +152,14 @@ public class RegisterV3Api extends AbstractRegister {
         "POST /3/Frames/{frame_id}/export", FramesHandler.class, "export",
         "Export a Frame to the given path with optional overwrite.");
 
+    RequestServer.registerEndpoint("saveFrameSnapshot",
+        "POST /3/Frames/{frame_id}/save", FramesHandler.class, "saveSnapshot",
+        "Save a Frame into a binary snapshot in the given directory, the snapshot can be loaded without re-parsing.");
+
+    RequestServer.registerEndpoint("loadFrameSnapshot",
+        "POST /3/Frames/load", FramesHandler.class, "loadSnapshot",
+        "Load a Frame from a binary snapshot directory.");
+
     RequestServer.registerEndpoint("frameColumnSummary",
         "GET /3/Frames/{frame_id}/columns/{column}/summary", FramesHandler.class, "columnSummary",
         "Return the summary metrics for a column, e.g. min, max, mean, sigma, percentiles, etc.");
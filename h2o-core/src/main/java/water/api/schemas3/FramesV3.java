@@ -37,6 +37,9 @@ public class FramesV3 extends RequestSchemaV3<Frames, FramesV3> {
   @API(help="Number of part files to use (1=single file,-1=automatic)",json=false)
   public int num_parts = 1;
 
+  @API(help="Output format (csv, or parquet if the Parquet extension is available)",json=false)
+  public String format = "csv";
+
   @API(help="Job for export file",direction=API.Direction.OUTPUT)
   public JobV3 job;
 
@@ -28,4 +28,10 @@ public class ImportSQLTableV99 extends RequestSchemaV3<Iced,ImportSQLTableV99> {
   @API(help = "optimize")
   public boolean optimize = true;
 
+  @API(help = "Numeric or date column to split the import into range partitions read in parallel")
+  public String partition_column;
+
+  @API(help = "SQL condition the imported rows have to satisfy (WHERE clause without the WHERE keyword)")
+  public String filter;
+
 }
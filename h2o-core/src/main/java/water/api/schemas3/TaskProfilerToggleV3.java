@@ -0,0 +1,13 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.api.API;
+
+public class TaskProfilerToggleV3 extends RequestSchemaV3<Iced, TaskProfilerToggleV3> {
+
+  @API(help="Turn the MRTask profiler on (true) or off (false) on all nodes", direction=API.Direction.INOUT)
+  public boolean enabled;
+
+  @API(help="Track the bytes allocated by map calls as well (costs two more calls into the JVM per map call)", direction=API.Direction.INOUT)
+  public boolean allocations;
+}
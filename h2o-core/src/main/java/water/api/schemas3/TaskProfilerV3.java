@@ -0,0 +1,86 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.TaskProfiler;
+import water.api.API;
+
+public class TaskProfilerV3 extends RequestSchemaV3<Iced, TaskProfilerV3> {
+
+  public static class TaskProfileV3 extends SchemaV3<Iced, TaskProfileV3> {
+    @API(help="MRTask class", direction=API.Direction.OUTPUT)
+    public String task;
+
+    @API(help="Number of node-local executions of the task", direction=API.Direction.OUTPUT)
+    public long invocations;
+
+    @API(help="Number of map calls", direction=API.Direction.OUTPUT)
+    public long maps;
+
+    @API(help="Cumulative time spent in map calls (millis)", direction=API.Direction.OUTPUT)
+    public double map_ms;
+
+    @API(help="Cumulative time spent in reduce calls (millis)", direction=API.Direction.OUTPUT)
+    public double reduce_ms;
+
+    @API(help="Cumulative time spent waiting for results of remote nodes (millis)", direction=API.Direction.OUTPUT)
+    public double network_ms;
+
+    @API(help="Bytes of results received from remote nodes", direction=API.Direction.OUTPUT)
+    public long network_bytes;
+
+    @API(help="Cumulative time forked work spent waiting in F/J queues (millis)", direction=API.Direction.OUTPUT)
+    public double queue_wait_ms;
+
+    @API(help="Rows processed by map calls", direction=API.Direction.OUTPUT)
+    public long rows;
+
+    @API(help="Rows processed per second of map time", direction=API.Direction.OUTPUT)
+    public double rows_per_sec;
+
+    @API(help="Bytes allocated by map calls (-1 if not tracked, see POST /3/Profiler/tasks/toggle)", direction=API.Direction.OUTPUT)
+    public long alloc_bytes;
+
+    @API(help="Chunk classes processed by map calls", direction=API.Direction.OUTPUT)
+    public String[] chunk_types;
+
+    @API(help="Bytes of Chunks processed by map calls, per Chunk class", direction=API.Direction.OUTPUT)
+    public long[] chunk_bytes;
+
+    public TaskProfileV3 fillFromProfile(TaskProfiler.TaskProfile p) {
+      task = p._task;
+      invocations = p._invocations;
+      maps = p._maps;
+      map_ms = p._mapNanos / 1e6;
+      reduce_ms = p._reduceNanos / 1e6;
+      network_ms = p._networkNanos / 1e6;
+      network_bytes = p._networkBytes;
+      queue_wait_ms = p._queueNanos / 1e6;
+      rows = p._rows;
+      rows_per_sec = p.rowsPerSecond();
+      alloc_bytes = TaskProfiler.allocationsSupported() ? p._allocBytes : -1;
+      chunk_types = p._chunkTypes;
+      chunk_bytes = p._chunkBytes;
+      return this;
+    }
+  }
+
+  public static class TaskProfilerNodeV3 extends SchemaV3<Iced, TaskProfilerNodeV3> {
+    @API(help="Node name", direction=API.Direction.OUTPUT)
+    public String node_name;
+
+    @API(help="Profiles of the MRTasks executed on the node", direction=API.Direction.OUTPUT)
+    public TaskProfileV3[] tasks;
+  }
+
+  @API(help="Reset the counters after they are collected")
+  public boolean reset;
+
+  @API(help="Per-node profiles", direction=API.Direction.OUTPUT)
+  public TaskProfilerNodeV3[] nodes;
+
+  @API(help="Profiles aggregated over all nodes, sorted by map time", direction=API.Direction.OUTPUT)
+  public TaskProfileV3[] tasks;
+
+  @API(help="Aggregated profiles in the folded stacks format of flame graph tools (time in microseconds)", direction=API.Direction.OUTPUT)
+  public String flamegraph;
+}
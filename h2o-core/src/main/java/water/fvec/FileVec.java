@@ -5,9 +5,14 @@ import water.util.Log;
 import water.util.MathUtils;
 import water.util.UnsafeUtils;
 
+import java.util.Random;
+
 public abstract class FileVec extends ByteVec {
   long _len;                    // File length
   final byte _be;
+  /** Identifies this import of the file: a file imported again at the same
+   *  path gets the same keys, but a new id */
+  public final long _importId = new Random().nextLong();
 
   // Returns String with path for given key.
   public static String getPathForKey(Key k) {
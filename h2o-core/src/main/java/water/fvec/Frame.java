@@ -449,7 +449,7 @@ public class Frame extends Lockable<Frame> {
   public Vec[] bulkRollups() {
     Futures fs = new Futures();
     Vec[] vecs = vecs();
-    for(Vec v : vecs)  v.startRollupStats(fs);
+    Vec.startRollupStats(vecs, fs, false);
     fs.blockForPending();
     return vecs;
   }
@@ -1297,15 +1297,18 @@ public class Frame extends Lockable<Frame> {
    *  Last column is a bit vec indicating whether or not to take the row.
    */
   public static class DeepSelect extends MRTask<DeepSelect> {
+    /** A row is taken if its predicate truncates to 1; NAs are not taken */
+    public static boolean isSelected(double pred) { return (int)pred == 1; }
+
     @Override public void map( Chunk[] chks, NewChunk [] nchks ) {
       Chunk pred =  chks[chks.length - 1];
-      int[] ids = pred.getIntegers(new int[pred._len],0,pred._len,0);
-      int zeros = 0;
-      for(int i = 0; i < ids.length; ++i)
-        if(ids[i] == 1){
-          ids[i-zeros] = i;
-        } else zeros++;
-      ids = Arrays.copyOf(ids,ids.length-zeros);
+      double[] vals = pred.getDoubles(new double[pred._len],0,pred._len);
+      int[] ids = new int[vals.length];
+      int n = 0;
+      for(int i = 0; i < vals.length; ++i)
+        if(isSelected(vals[i]))
+          ids[n++] = i;
+      ids = Arrays.copyOf(ids,n);
       for (int c = 0; c < chks.length-1; ++c)
         chks[c].extractRows(nchks[c], ids);
     }
@@ -1360,6 +1363,19 @@ public class Frame extends Lockable<Frame> {
   }
 
   public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts) {
+    return export(fr, path, frameName, overwrite, nParts, ExportFormatService.CSV);
+  }
+
+  /** Export the frame into one or more files of the given format.  Formats other than CSV are provided by
+   *  extensions, see {@link ExportFormatProvider}; part files of binary formats are written in parallel
+   *  by the nodes holding their chunks.
+   *  @param format Name of the format, null for CSV
+   *  @return Job exporting the frame */
+  public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts, String format) {
+    if (! ExportFormatService.isCSV(format) && ExportFormatService.INSTANCE.getByName(format) == null) {
+      throw new H2OIllegalArgumentException("format", "exportFrame", "Unknown export format " + format +
+              ", available formats: " + Arrays.toString(ExportFormatService.INSTANCE.getAllFormatNames()));
+    }
     boolean forceSingle = nParts == 1;
     // Validate input
     if (forceSingle) {
@@ -1376,10 +1392,28 @@ public class Frame extends Lockable<Frame> {
       }
     }
     Job job =  new Job<>(fr._key, "water.fvec.Frame", "Export dataset");
-    FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(fr, path, frameName, overwrite, job, nParts);
+    FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(fr, path, frameName, overwrite, job, nParts, format);
     return job.start(t, fr.anyVec().nChunks());
   }
 
+  /** Save this Frame into a binary snapshot, it can be loaded back without
+   *  re-parsing the original data.  See {@link FrameSnapshot}.
+   *  @param path Directory accessible from all nodes
+   *  @param overwrite Overwrite an existing snapshot in the directory
+   *  @return Job saving the snapshot */
+  public Job saveSnapshot(String path, boolean overwrite) {
+    return FrameSnapshot.save(this, path, overwrite);
+  }
+
+  /** Load a Frame saved by {@link #saveSnapshot(String, boolean)}.  Chunks
+   *  are memory-mapped and paged in lazily on first touch.
+   *  @param path Snapshot directory accessible from all nodes
+   *  @param key Key of the loaded Frame
+   *  @return Job loading the Frame */
+  public static Job<Frame> loadSnapshot(String path, Key<Frame> key) {
+    return FrameSnapshot.load(path, key);
+  }
+
   /** Convert this Frame to a CSV (in an {@link InputStream}), that optionally
    *  is compatible with R 3.1's recent change to read.csv()'s behavior.
    *
@@ -0,0 +1,426 @@
+package water.fvec;
+
+import jsr166y.CountedCompleter;
+import water.*;
+import water.exceptions.H2OIllegalArgumentException;
+import water.persist.PersistSnapshot;
+import water.util.Log;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Native binary snapshot of a Frame - allows to save a Frame and to load it back (eg. after a cluster restart)
+ * without re-parsing the original data.
+ * <p>
+ * A snapshot is a directory on a file system shared by all nodes (eg. NFS), it contains:
+ * <ul>
+ *   <li>{@code frame.meta} - column names, types, domains, the row layout (espc) and RollupStats of all columns</li>
+ *   <li>{@code node-NNNNN-PPPP.chunks} - already compressed Chunk bytes written by node NNNNN, a node splits its data
+ *       into part files of at most {@link #PART_SIZE} bytes</li>
+ *   <li>{@code node-NNNNN.index} - location (part, offset, length) and Chunk class of every Chunk written by node NNNNN</li>
+ * </ul>
+ * Saving is parallel: every node writes the Chunks it is home for. Loading is parallel as well: every node reads
+ * all the indices and installs the Chunks it is home for (in the new cluster) as Values backed by the memory-mapped
+ * part files (see {@link PersistSnapshot}). No Chunk is read or decoded during the load, the bytes are paged in on the
+ * first touch of the Chunk. RollupStats are restored as well and don't need to be recomputed.
+ * <p>
+ * The cluster loading the snapshot can have a different size than the cluster which saved it.
+ */
+public class FrameSnapshot {
+
+  static final String META_FILE = "frame.meta";
+  static final int PART_SIZE = 1 << 30;
+
+  private static final int MAGIC = 0x48324f53; // "H2OS"
+  private static final int VERSION = 1;
+  private static final Pattern INDEX_FILE = Pattern.compile("node-\\d{5}\\.index");
+  private static final Pattern SNAPSHOT_FILE = Pattern.compile("frame\\.meta|node-\\d{5}(-\\d{4}\\.chunks|\\.index)");
+
+  /**
+   * Saves a Frame into a snapshot directory.
+   *
+   * @param fr Frame to save, all Vecs need to be regular (not wrapped) Vecs
+   * @param path target directory, needs to be accessible from all nodes
+   * @param overwrite overwrite an existing snapshot stored in the same directory
+   * @return job saving the Frame
+   */
+  public static Job save(Frame fr, String path, boolean overwrite) {
+    for (Vec v : fr.vecs())
+      if (v.getClass() != Vec.class)
+        throw new H2OIllegalArgumentException(path, "saveSnapshot", "Frame " + fr._key + " contains derived Vec "
+            + v._key + " (" + v.getClass().getSimpleName() + "), make a deep copy of the Frame first.");
+    File dir = new File(path);
+    File[] existing = listSnapshotFiles(dir);
+    if (existing.length > 0) {
+      if (!overwrite)
+        throw new H2OIllegalArgumentException(path, "saveSnapshot", "Directory " + path + " already contains a snapshot!");
+      Log.warn("Snapshot in " + path + " exists, but will be overwritten!");
+      for (File f : existing)
+        if (!f.delete())
+          throw new H2OIllegalArgumentException(path, "saveSnapshot", "Cannot delete " + f);
+    }
+    if (!dir.mkdirs() && !dir.isDirectory())
+      throw new H2OIllegalArgumentException(path, "saveSnapshot", "Cannot create directory " + path);
+    Job job = new Job<>(fr._key, Frame.class.getName(), "Save frame snapshot");
+    return job.start(new SaveDriver(fr, dir.getAbsolutePath(), job), fr.anyVec().nChunks());
+  }
+
+  /**
+   * Loads a Frame from a snapshot directory.
+   *
+   * @param path snapshot directory, needs to be accessible from all nodes
+   * @param destKey destination key of the Frame
+   * @return job loading the Frame
+   */
+  public static Job<Frame> load(String path, Key<Frame> destKey) {
+    File dir = new File(path);
+    Meta meta;
+    try {
+      meta = readMeta(new File(dir, META_FILE));
+    } catch (IOException e) {
+      throw new H2OIllegalArgumentException(path, "loadSnapshot", "Cannot read snapshot in " + path + ": " + e.getMessage());
+    }
+    Job<Frame> job = new Job<>(destKey, Frame.class.getName(), "Load frame snapshot");
+    return job.start(new LoadDriver(dir.getAbsolutePath(), meta, job), 1);
+  }
+
+  private static File[] listSnapshotFiles(File dir) {
+    File[] files = dir.listFiles(new FilenameFilter() {
+      @Override public boolean accept(File d, String name) { return SNAPSHOT_FILE.matcher(name).matches(); }
+    });
+    return files != null ? files : new File[0];
+  }
+
+  private static String indexName(int node) { return String.format("node-%05d.index", node); }
+  private static String partName(int node, int part) { return String.format("node-%05d-%04d.chunks", node, part); }
+
+  // ------------------------------------------------------------------------
+  // Metadata
+
+  /** Frame metadata stored in frame.meta */
+  private static class Meta extends Iced<Meta> {
+    String[] _names;
+    byte[] _types;
+    String[][] _domains;
+    long[] _espc;
+    byte[][] _rollups; // Serialized RollupStats, null if not available
+  }
+
+  private static void writeMeta(File f, Meta m) throws IOException {
+    try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+      os.writeInt(MAGIC);
+      os.writeInt(VERSION);
+      os.writeInt(m._names.length);
+      for (int i = 0; i < m._names.length; i++) {
+        os.writeUTF(m._names[i]);
+        os.writeByte(m._types[i]);
+        String[] dom = m._domains[i];
+        os.writeInt(dom == null ? -1 : dom.length);
+        if (dom != null)
+          for (String level : dom)
+            os.writeUTF(level);
+        byte[] rs = m._rollups[i];
+        os.writeInt(rs == null ? -1 : rs.length);
+        if (rs != null)
+          os.write(rs);
+      }
+      os.writeInt(m._espc.length);
+      for (long l : m._espc)
+        os.writeLong(l);
+    }
+  }
+
+  private static Meta readMeta(File f) throws IOException {
+    try (DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+      checkHeader(is, f);
+      int ncols = is.readInt();
+      Meta m = new Meta();
+      m._names = new String[ncols];
+      m._types = new byte[ncols];
+      m._domains = new String[ncols][];
+      m._rollups = new byte[ncols][];
+      for (int i = 0; i < ncols; i++) {
+        m._names[i] = is.readUTF();
+        m._types[i] = is.readByte();
+        int ndom = is.readInt();
+        if (ndom >= 0) {
+          m._domains[i] = new String[ndom];
+          for (int j = 0; j < ndom; j++)
+            m._domains[i][j] = is.readUTF();
+        }
+        int nrs = is.readInt();
+        if (nrs >= 0) {
+          m._rollups[i] = new byte[nrs];
+          is.readFully(m._rollups[i]);
+        }
+      }
+      m._espc = new long[is.readInt()];
+      for (int i = 0; i < m._espc.length; i++)
+        m._espc[i] = is.readLong();
+      return m;
+    }
+  }
+
+  private static void checkHeader(DataInputStream is, File f) throws IOException {
+    if (is.readInt() != MAGIC)
+      throw new IOException(f + " is not a frame snapshot file");
+    int version = is.readInt();
+    if (version != VERSION)
+      throw new IOException("Unsupported version " + version + " of frame snapshot file " + f);
+  }
+
+  // ------------------------------------------------------------------------
+  // Saving
+
+  private static class SaveDriver extends H2O.H2OCountedCompleter<SaveDriver> {
+    final Frame _fr;
+    final String _dir;
+    final Job _job;
+
+    SaveDriver(Frame fr, String dir, Job job) { _fr = fr; _dir = dir; _job = job; }
+
+    @Override public void compute2() {
+      _fr.read_lock(_job._key);
+      Vec[] vecs = _fr.vecs();
+      Futures fs = new Futures();
+      Vec.startRollupStats(vecs, fs, false);
+      fs.blockForPending();
+      new SaveTask(_dir, _job._key).doAll(_fr);
+      Meta m = new Meta();
+      m._names = _fr.names();
+      m._types = new byte[vecs.length];
+      m._domains = new String[vecs.length][];
+      m._rollups = new byte[vecs.length][];
+      for (int i = 0; i < vecs.length; i++) {
+        m._types[i] = vecs[i].get_type();
+        m._domains[i] = vecs[i].domain();
+        RollupStats rs = RollupStats.getOrNull(vecs[i], vecs[i].rollupStatsKey());
+        if (rs != null)
+          m._rollups[i] = rs.write(new AutoBuffer()).buf();
+      }
+      m._espc = _fr.anyVec().espc();
+      try {
+        writeMeta(new File(_dir, META_FILE), m);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to write snapshot metadata into " + _dir, e);
+      }
+      tryComplete();
+    }
+
+    @Override public void onCompletion(CountedCompleter caller) {
+      _fr.unlock(_job);
+    }
+
+    @Override public boolean onExceptionalCompletion(Throwable t, CountedCompleter caller) {
+      _fr.unlock(_job);
+      return super.onExceptionalCompletion(t, caller);
+    }
+  }
+
+  /** Every node writes the Chunks it is home for */
+  private static class SaveTask extends MRTask<SaveTask> {
+    final String _dir;
+    final Key<Job> _jobKey;
+    transient NodeWriter _writer;
+
+    SaveTask(String dir, Key<Job> jobKey) { _dir = dir; _jobKey = jobKey; }
+
+    @Override protected void setupLocal() {
+      if (H2O.ARGS.client)
+        return;
+      try {
+        // Files of an overwritten snapshot can come back with the same path and attributes
+        H2O.getPM().getSnapshot().evict(new File(_dir));
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to access snapshot directory " + _dir, e);
+      }
+      _writer = new NodeWriter(new File(_dir), H2O.SELF.index());
+    }
+
+    @Override public void map(Chunk[] cs) {
+      try {
+        for (int i = 0; i < cs.length; i++)
+          _writer.append(i, cs[i]);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to write snapshot into " + _dir, e);
+      }
+      Job.update(1, _jobKey);
+    }
+
+    @Override protected void closeLocal() {
+      if (_writer == null)
+        return;
+      try {
+        _writer.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to write snapshot index into " + _dir, e);
+      }
+    }
+  }
+
+  /** Appends Chunks into the part files of a node and collects their index, shared by all local map calls */
+  private static final class NodeWriter {
+    private final File _dir;
+    private final int _node;
+    private final ArrayList<String> _classes = new ArrayList<>();
+    private final HashMap<String, Integer> _classIds = new HashMap<>();
+    private int[] _entries = new int[6 * 64]; // col, cidx, part, offset, length, class
+    private int _nentries;
+    private OutputStream _out;
+    private int _part = -1;
+    private int _off;
+
+    NodeWriter(File dir, int node) { _dir = dir; _node = node; }
+
+    synchronized void append(int col, Chunk c) throws IOException {
+      byte[] mem = c.asBytes();
+      if (_out == null || (_off > 0 && (long) _off + mem.length > PART_SIZE))
+        nextPart();
+      _out.write(mem);
+      Integer cls = _classIds.get(c.getClass().getName());
+      if (cls == null) {
+        cls = _classes.size();
+        _classes.add(c.getClass().getName());
+        _classIds.put(c.getClass().getName(), cls);
+      }
+      if (6 * (_nentries + 1) > _entries.length)
+        _entries = Arrays.copyOf(_entries, _entries.length << 1);
+      int e = 6 * _nentries++;
+      _entries[e] = col;
+      _entries[e + 1] = c.cidx();
+      _entries[e + 2] = _part;
+      _entries[e + 3] = _off;
+      _entries[e + 4] = mem.length;
+      _entries[e + 5] = cls;
+      _off += mem.length;
+    }
+
+    private void nextPart() throws IOException {
+      if (_out != null)
+        _out.close();
+      _part++;
+      _off = 0;
+      _out = new BufferedOutputStream(new FileOutputStream(new File(_dir, partName(_node, _part))), 1 << 20);
+    }
+
+    synchronized void close() throws IOException {
+      if (_out != null)
+        _out.close();
+      try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(
+          new FileOutputStream(new File(_dir, indexName(_node)))))) {
+        os.writeInt(MAGIC);
+        os.writeInt(VERSION);
+        os.writeInt(_part + 1);
+        for (int p = 0; p <= _part; p++)
+          os.writeUTF(partName(_node, p));
+        os.writeInt(_classes.size());
+        for (String cls : _classes)
+          os.writeUTF(cls);
+        os.writeInt(_nentries);
+        for (int i = 0; i < 6 * _nentries; i++)
+          os.writeInt(_entries[i]);
+      }
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Loading
+
+  private static class LoadDriver extends H2O.H2OCountedCompleter<LoadDriver> {
+    final String _dir;
+    final Meta _meta;
+    final Job<Frame> _job;
+
+    LoadDriver(String dir, Meta meta, Job<Frame> job) { _dir = dir; _meta = meta; _job = job; }
+
+    @Override public void compute2() {
+      Meta m = _meta;
+      int ncols = m._names.length;
+      Key<Vec>[] keys = new Vec.VectorGroup().addVecs(ncols);
+      LoadTask lt = new LoadTask(_dir, keys).doAllNodes();
+      long expected = (long) ncols * (m._espc.length - 1);
+      if (lt._installed != expected)
+        throw new IllegalStateException("Snapshot in " + _dir + " is incomplete, expected " + expected
+            + " chunks but found " + lt._installed);
+      int rowLayout = Vec.ESPC.rowLayout(keys[0], m._espc);
+      Vec[] vecs = new Vec[ncols];
+      Futures fs = new Futures();
+      for (int i = 0; i < ncols; i++) {
+        vecs[i] = new Vec(keys[i], rowLayout, m._domains[i], m._types[i]);
+        DKV.put(vecs[i], fs);
+      }
+      fs.blockForPending();
+      for (int i = 0; i < ncols; i++)
+        if (m._rollups[i] != null)
+          DKV.put(vecs[i].rollupStatsKey(), RollupStats.makeMutating().read(new AutoBuffer(m._rollups[i])), fs);
+      fs.blockForPending();
+      Frame fr = new Frame(_job._result, m._names, vecs);
+      DKV.put(fr);
+      _job.update(1);
+      tryComplete();
+    }
+  }
+
+  /** Every node installs the Chunks it is home for (in the current cloud), Chunk data are not touched */
+  private static class LoadTask extends MRTask<LoadTask> {
+    final String _dir;
+    final Key<Vec>[] _vecKeys;
+    long _installed;
+
+    LoadTask(String dir, Key<Vec>[] vecKeys) { _dir = dir; _vecKeys = vecKeys; }
+
+    @Override protected void setupLocal() {
+      if (H2O.ARGS.client)
+        return;
+      File dir = new File(_dir);
+      File[] indices = dir.listFiles(new FilenameFilter() {
+        @Override public boolean accept(File d, String name) { return INDEX_FILE.matcher(name).matches(); }
+      });
+      if (indices == null)
+        throw new RuntimeException("Snapshot directory " + _dir + " is not accessible from node " + H2O.SELF);
+      PersistSnapshot snap = H2O.getPM().getSnapshot();
+      Futures fs = new Futures();
+      try {
+        for (File index : indices)
+          _installed += install(dir, index, snap, fs);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to load snapshot from " + _dir, e);
+      }
+      fs.blockForPending();
+    }
+
+    private int install(File dir, File index, PersistSnapshot snap, Futures fs) throws IOException {
+      try (DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(index)))) {
+        checkHeader(is, index);
+        File[] parts = new File[is.readInt()];
+        for (int p = 0; p < parts.length; p++)
+          parts[p] = new File(dir, is.readUTF());
+        short[] types = new short[is.readInt()];
+        for (int c = 0; c < types.length; c++)
+          types[c] = (short) TypeMap.onIce(is.readUTF());
+        int nentries = is.readInt();
+        int installed = 0;
+        for (int e = 0; e < nentries; e++) {
+          int col = is.readInt(), cidx = is.readInt(), part = is.readInt();
+          int off = is.readInt(), len = is.readInt(), cls = is.readInt();
+          Key ckey = Vec.chunkKey(_vecKeys[col], cidx);
+          if (!ckey.home())
+            continue;
+          snap.register(ckey, parts[part], off, len);
+          Value val = new Value(ckey, len, null, types[cls], Value.SNAP);
+          val.setDsk(); // Data are in the snapshot file
+          DKV.put(ckey, val, fs);
+          installed++;
+        }
+        return installed;
+      }
+    }
+
+    @Override public void reduce(LoadTask lt) { _installed += lt._installed; }
+  }
+
+}
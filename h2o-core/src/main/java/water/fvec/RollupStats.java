@@ -13,7 +13,12 @@ import water.parser.BufferedString;
 import water.util.ArrayUtils;
 import water.util.Log;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
 
 /** A class to compute the rollup stats.  These are computed lazily, thrown
  *  away if the Vec is written into, and then recomputed lazily.  Error to ask
@@ -184,6 +189,8 @@ final class RollupStats extends Iced {
         checksum=new RollupStatsHelpers(this).numericChunkRollup((C8Chunk) c, start, checksum);
       else if (c instanceof C8DChunk)
         checksum=new RollupStatsHelpers(this).numericChunkRollup((C8DChunk) c, start, checksum);
+      else if (c instanceof CXIChunk && (c.hasFloat() || ((CXIChunk) c)._val_sz <= 4))
+        checksum=new RollupStatsHelpers(this).numericChunkRollup((CXIChunk) c, start, checksum);
       else
         checksum=new RollupStatsHelpers(this).numericChunkRollup(c, start, checksum);
 
@@ -253,6 +260,35 @@ final class RollupStats extends Iced {
     return _maxs[_maxs.length-1];
   }
 
+  // Final touches to the rollups of a Vec, once reduced over all its chunks
+  private static RollupStats postGlobal(RollupStats rs, Vec vec) {
+    if( rs == null )
+      rs = new RollupStats(0);
+    else {
+      rs._sigma = Math.sqrt(rs._sigma/(rs._rows-1));
+      if (rs._rows == 1) rs._sigma = 0;
+      if (rs._rows < 5) for (int i=0; i<5-rs._rows; i++) {  // Fix PUBDEV-150 for files under 5 rows
+        rs._maxs[4-i] = Double.NaN;
+        rs._mins[4-i] = Double.NaN;
+      }
+    }
+    // mean & sigma not allowed on more than 2 classes; for 2 classes the assumption is that it's true/false
+    String[] ss = vec.domain();
+    if( vec.isCategorical() && ss.length > 2 )
+      rs._mean = rs._sigma = Double.NaN;
+    if( ss != null ) {
+      long dsz = (2/*hdr*/+1/*len*/+ss.length)*8;  // Size of base domain array
+      for( String s : vec.domain() )
+        if( s != null )
+          dsz += 2*s.length() + (2/*hdr*/+1/*value*/+1/*hash*/+2/*hdr*/+1/*len*/)*8;
+      rs._size += dsz;             // Account for domain size in Vec size
+      // Account for Chunk key size
+      int keysize = (2/*hdr*/+1/*kb*/+1/*hash*/+2/*hdr*/+1/*len*/)*8+ vec._key._kb.length;
+      rs._size += vec.nChunks()*(keysize*4/*key+value ptr in DKV, plus 50% fill rate*/);
+    }
+    return rs;
+  }
+
   private static class Roll extends MRTask<Roll> {
     final Key _rskey;
     RollupStats _rs;
@@ -263,33 +299,7 @@ final class RollupStats extends Iced {
     Roll( H2OCountedCompleter cmp, Key rskey ) { super(cmp); _rskey=rskey; }
     @Override public void map( Chunk c ) { _rs = new RollupStats(0).map(c); }
     @Override public void reduce( Roll roll ) { _rs.reduce(roll._rs); }
-    @Override public void postGlobal() {
-      if( _rs == null )
-        _rs = new RollupStats(0);
-      else {
-        _rs._sigma = Math.sqrt(_rs._sigma/(_rs._rows-1));
-        if (_rs._rows == 1) _rs._sigma = 0;
-        if (_rs._rows < 5) for (int i=0; i<5-_rs._rows; i++) {  // Fix PUBDEV-150 for files under 5 rows
-          _rs._maxs[4-i] = Double.NaN;
-          _rs._mins[4-i] = Double.NaN;
-        }
-      }
-      // mean & sigma not allowed on more than 2 classes; for 2 classes the assumption is that it's true/false
-      Vec vec = _fr.anyVec();
-      String[] ss = vec.domain();
-      if( vec.isCategorical() && ss.length > 2 )
-        _rs._mean = _rs._sigma = Double.NaN;
-      if( ss != null ) {
-        long dsz = (2/*hdr*/+1/*len*/+ss.length)*8;  // Size of base domain array
-        for( String s : vec.domain() )
-          if( s != null )
-            dsz += 2*s.length() + (2/*hdr*/+1/*value*/+1/*hash*/+2/*hdr*/+1/*len*/)*8;
-        _rs._size += dsz;             // Account for domain size in Vec size
-        // Account for Chunk key size
-        int keysize = (2/*hdr*/+1/*kb*/+1/*hash*/+2/*hdr*/+1/*len*/)*8+ vec._key._kb.length;
-        _rs._size += vec.nChunks()*(keysize*4/*key+value ptr in DKV, plus 50% fill rate*/);
-      }
-    }
+    @Override public void postGlobal() { _rs = RollupStats.postGlobal(_rs, _fr.anyVec()); }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
     @Override public boolean logVerbose() { return false; }
 
@@ -357,7 +367,88 @@ final class RollupStats extends Iced {
   // Histogram base & stride
   double h_base() { return _mins[0]; }
   double h_stride() { return h_stride(_bins.length); }
-  private double h_stride(int nbins) { return (_maxs[0]-_mins[0]+(_isInt?1:0))/nbins; }
+  double h_stride(int nbins) { return (_maxs[0]-_mins[0]+(_isInt?1:0))/nbins; }
+
+  // Histogram of a chunk
+  private static long[] histo( Chunk c, double base, double stride, long[] bins ) {
+    for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) ) {
+      double d = c.atd(i);
+      if( !Double.isNaN(d) ) bins[idx(d,base,stride,bins)]++;
+    }
+    // Sparse?  We skipped all the zeros; do them now
+    if( c.isSparseZero() )
+      bins[idx(0.0,base,stride,bins)] += (c._len - c.sparseLenZero());
+    return bins;
+  }
+  private static int idx( double d, double base, double stride, long[] bins ) { int idx = (int)((d-base)/stride); return Math.min(idx,bins.length-1); }
+
+  // Histograms of all NAs, non-math or constant Vecs need no pass over the data
+  private boolean trivialHisto( Vec vec ) {
+    // All NAs or non-math; histogram has zero bins
+    if (_naCnt == vec.length() || vec.isUUID()) {
+      _bins = new long[0];
+      return true;
+    }
+    // Constant: use a single bin
+    final long rows = vec.length() - _naCnt;
+    assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + _naCnt;
+    if (_maxs[0] - _mins[0] == 0) {
+      _bins = new long[]{rows};
+      return true;
+    }
+    return false;
+  }
+
+  // Number of bins: MAX_SIZE by default.  For integers, bins for each unique int
+  // - unless the count gets too high; allow a very high count for categoricals.
+  private int histoBins( Vec vec ) {
+    double span = _maxs[0] - _mins[0];
+    int nbins = MAX_SIZE;
+    if (_isInt && span < Integer.MAX_VALUE) {
+      nbins = (int) span + 1;      // 1 bin per int
+      int lim = vec.isCategorical() ? Categorical.MAX_CATEGORICAL_COUNT : MAX_SIZE;
+      nbins = Math.min(lim, nbins); // Cap nbins at sane levels
+    }
+    return nbins;
+  }
+
+  // Set the histogram and compute the percentiles from it
+  private void setHisto( long[] bins, Vec vec ) {
+    final long rows = vec.length() - _naCnt;
+    long sum = ArrayUtils.sum(bins);
+    assert sum == rows:"expected " + rows + " rows, got " + sum;
+    _bins = bins;
+    _pctiles = new double[Vec.PERCENTILES.length];
+    int j = 0;                 // Histogram bin number
+    int k = 0;                 // The next non-zero bin after j
+    long hsum = 0;             // Rolling histogram sum
+    double base = h_base();
+    double stride = h_stride();
+    double lastP = -1.0;       // any negative value to pass assert below first time
+    for (int i = 0; i < Vec.PERCENTILES.length; i++) {
+      final double P = Vec.PERCENTILES[i];
+      assert P >= 0 && P <= 1 && P >= lastP;   // rely on increasing percentiles here. If P has dup then strange but accept, hence >= not >
+      lastP = P;
+      double pdouble = 1.0 + P * (rows - 1);   // following stats:::quantile.default type 7
+      long pint = (long) pdouble;          // 1-based into bin vector
+      double h = pdouble - pint;           // any fraction h to linearly interpolate between?
+      assert P != 1 || (h == 0.0 && pint == rows);  // i.e. max
+      while (hsum < pint) hsum += _bins[j++];
+      // j overshot by 1 bin; we added _bins[j-1] and this goes from too low to either exactly right or too big
+      // pint now falls in bin j-1 (the ++ happened even when hsum==pint), so grab that bin value now
+      _pctiles[i] = base + stride * (j - 1);
+      if (h > 0 && pint == hsum) {
+        // linearly interpolate between adjacent non-zero bins
+        //      i) pint is the last of (j-1)'s bin count (>1 when either duplicates exist in input, or stride makes dups at lower accuracy)
+        // AND ii) h>0 so we do need to find the next non-zero bin
+        if (k < j) k = j; // if j jumped over the k needed for the last P, catch k up to j
+        // Saves potentially winding k forward over the same zero stretch many times
+        while (_bins[k] == 0) k++;  // find the next non-zero bin
+        _pctiles[i] += h * stride * (k - j + 1);
+      } // otherwise either h==0 and we know which bin, or fraction is between two positions that fall in the same bin
+      // this guarantees we are within one bin of the exact answer; i.e. within (max-min)/MAX_SIZE
+    }
+  }
 
   // Compute expensive histogram
   private static class Histo extends MRTask<Histo> {
@@ -365,17 +456,7 @@ final class RollupStats extends Iced {
     final int _nbins;            // Inputs
     long[] _bins;                // Outputs
     Histo( H2OCountedCompleter cmp, RollupStats rs, int nbins ) { super(cmp);_base = rs.h_base(); _stride = rs.h_stride(nbins); _nbins = nbins; }
-    @Override public void map( Chunk c ) {
-      _bins = new long[_nbins];
-      for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) ) {
-        double d = c.atd(i);
-        if( !Double.isNaN(d) ) _bins[idx(d)]++;
-      }
-      // Sparse?  We skipped all the zeros; do them now
-      if( c.isSparseZero() )
-        _bins[idx(0.0)] += (c._len - c.sparseLenZero());
-    }
-    private int idx( double d ) { int idx = (int)((d-_base)/_stride); return Math.min(idx,_bins.length-1); }
+    @Override public void map( Chunk c ) { _bins = histo(c, _base, _stride, new long[_nbins]); }
 
     @Override public void reduce( Histo h ) { ArrayUtils.add(_bins,h._bins); }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
@@ -485,65 +566,266 @@ final class RollupStats extends Iced {
     }
 
     final void computeHisto(final RollupStats rs, Vec vec, final Value nnn) {
-      // All NAs or non-math; histogram has zero bins
-      if (rs._naCnt == vec.length() || vec.isUUID()) {
-        rs._bins = new long[0];
-        installResponse(nnn, rs);
-        return;
+      if (!rs.trivialHisto(vec)) {
+        Histo histo = new Histo(null, rs, rs.histoBins(vec)).doAll(vec);
+        rs.setHisto(histo._bins, vec);
+      }
+      installResponse(nnn, rs);
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  // Rollups of many Vecs at once.  Starting the rollups of every Vec of a wide
+  // frame launches an MRTask per column, each scanning only its own column;
+  // instead the Vecs lacking rollups are claimed on the home nodes of their
+  // rollups keys, exactly as ComputeRollupsTask would claim them, and are
+  // computed together by one pass over the rows of all the claimed Vecs (plus
+  // one more pass for the histograms).  While claimed, the rollups of a Vec
+  // are in the computing state, so a concurrent RollupStats.get or start of
+  // the same Vec waits for the results like for any other computation.
+
+  /** Start the rollups of all the Vecs lacking them, see {@link #start} */
+  static void startAll(Vec[] vecs, Futures fs, boolean computeHisto) {
+    ArrayList<Vec> bulk = new ArrayList<>();
+    HashSet<Key> seen = new HashSet<>();
+    for( Vec vec : vecs ) {
+      if( vec instanceof InteractionWrappedVec || !seen.add(vec._key) ) continue;
+      if( DKV.get(vec._key)== null )
+        throw new RuntimeException("Rollups not possible, because Vec was deleted: "+vec._key);
+      RollupStats rs = getOrNull(vec,vec.rollupStatsKey());
+      if( rs != null && (!computeHisto || vec.isString() || rs.hasHisto()) ) continue; // Nothing to compute
+      if( bulk.isEmpty() || vec.isCompatibleWith(bulk.get(0)) ) bulk.add(vec);
+      else start(vec,fs,computeHisto);
+    }
+    if( bulk.size() < 2 ) {
+      for( Vec vec : bulk ) start(vec,fs,computeHisto);
+      return;
+    }
+    fs.add(H2O.submitTask(new BulkRollups(bulk.toArray(new Vec[bulk.size()]),computeHisto)));
+  }
+
+  // Stands in for the task computing the rollups of a claimed Vec, on the home
+  // node of the rollups key; it is never run, only completed once the results
+  // (or nothing, on failure) are installed.  Tagged with the id of the
+  // BulkRollups which claimed the rollups.
+  private static final class Latch extends CountedCompleter {
+    final long _owner;
+    Latch( long owner ) { _owner = owner; }
+    @Override public void compute() { }
+  }
+
+  // Computing-state values of the rollups claimed on this node, by rollups key
+  private static final NonBlockingHashMap<Key,Value> _claims = new NonBlockingHashMap<>();
+
+  private static class BulkRollups extends H2OCountedCompleter<BulkRollups> {
+    private final Vec[] _vecs;
+    private final boolean _computeHisto;
+    private final long _owner = new Random().nextLong(); // Tags the claims of this task
+
+    BulkRollups(Vec[] vecs, boolean computeHisto) { _vecs = vecs; _computeHisto = computeHisto; }
+
+    @Override public void compute2() {
+      // Claim the rollups keys, one RPC per home node
+      HashMap<H2ONode,ArrayList<Integer>> homes = new HashMap<>();
+      for( int i=0; i<_vecs.length; i++ ) {
+        H2ONode home = _vecs[i].rollupStatsKey().home_node();
+        ArrayList<Integer> idxs = homes.get(home);
+        if( idxs == null ) homes.put(home, idxs = new ArrayList<>());
+        idxs.add(i);
+      }
+      boolean[] claimed = new boolean[_vecs.length];
+      Futures fs = new Futures();
+      RollupStats[] rss = null;
+      boolean done = false;
+      try {
+        for( Map.Entry<H2ONode,ArrayList<Integer>> e : homes.entrySet() ) {
+          ArrayList<Integer> idxs = e.getValue();
+          Key[] rsKeys = new Key[idxs.size()];
+          boolean[] histos = new boolean[idxs.size()];
+          for( int j=0; j<rsKeys.length; j++ ) {
+            Vec vec = _vecs[idxs.get(j)];
+            rsKeys[j] = vec.rollupStatsKey();
+            histos[j] = _computeHisto && !vec.isString();
+          }
+          boolean[] cs = new RPC<>(e.getKey(),new ClaimRollups(rsKeys,histos,_owner)).call().get()._claimed;
+          for( int j=0; j<cs.length; j++ ) claimed[idxs.get(j)] = cs[j];
+        }
+        ArrayList<Vec> mine = new ArrayList<>();
+        for( int i=0; i<_vecs.length; i++ )
+          if( claimed[i] ) mine.add(_vecs[i]);
+          else start(_vecs[i],fs,_computeHisto); // Computed by someone else (or mutating), wait for it
+        Vec[] vecs = mine.toArray(new Vec[mine.size()]);
+        if( vecs.length > 0 ) rss = compute(vecs);
+        done = true;
+      } finally {
+        // On failure, release every claim made so far, including the ones of
+        // a ClaimRollups which failed midway, else the waiters hang forever
+        install(homes, claimed, done ? rss : null, !done);
       }
-      // Constant: use a single bin
-      double span = rs._maxs[0] - rs._mins[0];
-      final long rows = vec.length() - rs._naCnt;
-      assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + rs._naCnt;
-      if (span == 0) {
-        rs._bins = new long[]{rows};
-        installResponse(nnn, rs);
-        return;
+      fs.blockForPending();
+      tryComplete();
+    }
+
+    private RollupStats[] compute(Vec[] vecs) {
+      RollupStats[] rss = new RollAll().doAll(new Frame(vecs))._rss;
+      for( int i=0; i<vecs.length; i++ )
+        rss[i]._checksum ^= vecs[i].length();
+      if( !_computeHisto ) return rss;
+      ArrayList<Integer> idxs = new ArrayList<>();
+      for( int i=0; i<vecs.length; i++ )
+        if( !vecs[i].isString() && !rss[i].trivialHisto(vecs[i]) ) idxs.add(i);
+      if( idxs.isEmpty() ) return rss;
+      Vec[] hvecs = new Vec[idxs.size()];
+      double[] bases = new double[hvecs.length], strides = new double[hvecs.length];
+      int[] nbins = new int[hvecs.length];
+      for( int j=0; j<hvecs.length; j++ ) {
+        RollupStats rs = rss[idxs.get(j)];
+        hvecs[j] = vecs[idxs.get(j)];
+        nbins[j] = rs.histoBins(hvecs[j]);
+        bases[j] = rs.h_base();
+        strides[j] = rs.h_stride(nbins[j]);
       }
-      // Number of bins: MAX_SIZE by default.  For integers, bins for each unique int
-      // - unless the count gets too high; allow a very high count for categoricals.
-      int nbins = MAX_SIZE;
-      if (rs._isInt && span < Integer.MAX_VALUE) {
-        nbins = (int) span + 1;      // 1 bin per int
-        int lim = vec.isCategorical() ? Categorical.MAX_CATEGORICAL_COUNT : MAX_SIZE;
-        nbins = Math.min(lim, nbins); // Cap nbins at sane levels
+      long[][] bins = new HistoAll(bases,strides,nbins).doAll(new Frame(hvecs))._bins;
+      for( int j=0; j<hvecs.length; j++ )
+        rss[idxs.get(j)].setHisto(bins[j],hvecs[j]);
+      return rss;
+    }
+
+    // Install the results on the home nodes, or release the claims if the
+    // computation failed; if failed, all the keys are released as the claims
+    // made by a failed ClaimRollups are unknown
+    private void install(HashMap<H2ONode,ArrayList<Integer>> homes, boolean[] claimed, RollupStats[] rss, boolean failed) {
+      int[] pos = new int[_vecs.length]; // Position of a claimed Vec in rss
+      for( int i=0, p=0; i<_vecs.length; i++ )
+        if( claimed[i] ) pos[i] = p++;
+      ArrayList<RPC<InstallRollups>> rpcs = new ArrayList<>();
+      for( Map.Entry<H2ONode,ArrayList<Integer>> e : homes.entrySet() ) {
+        ArrayList<Key> rsKeys = new ArrayList<>();
+        ArrayList<RollupStats> results = new ArrayList<>();
+        for( int i : e.getValue() )
+          if( claimed[i] || failed ) {
+            rsKeys.add(_vecs[i].rollupStatsKey());
+            results.add(rss == null ? null : rss[pos[i]]);
+          }
+        if( rsKeys.isEmpty() ) continue;
+        rpcs.add(new RPC<>(e.getKey(),new InstallRollups(rsKeys.toArray(new Key[rsKeys.size()]),
+                                                         results.toArray(new RollupStats[results.size()]),_owner)).call());
       }
-      Histo histo = new Histo(null, rs, nbins).doAll(vec);
-      long sum = ArrayUtils.sum(histo._bins);
-      assert sum == rows:"expected " + rows + " rows, got " + sum;
-      rs._bins = histo._bins;
-      // Compute percentiles from histogram
-      rs._pctiles = new double[Vec.PERCENTILES.length];
-      int j = 0;                 // Histogram bin number
-      int k = 0;                 // The next non-zero bin after j
-      long hsum = 0;             // Rolling histogram sum
-      double base = rs.h_base();
-      double stride = rs.h_stride();
-      double lastP = -1.0;       // any negative value to pass assert below first time
-      for (int i = 0; i < Vec.PERCENTILES.length; i++) {
-        final double P = Vec.PERCENTILES[i];
-        assert P >= 0 && P <= 1 && P >= lastP;   // rely on increasing percentiles here. If P has dup then strange but accept, hence >= not >
-        lastP = P;
-        double pdouble = 1.0 + P * (rows - 1);   // following stats:::quantile.default type 7
-        long pint = (long) pdouble;          // 1-based into bin vector
-        double h = pdouble - pint;           // any fraction h to linearly interpolate between?
-        assert P != 1 || (h == 0.0 && pint == rows);  // i.e. max
-        while (hsum < pint) hsum += rs._bins[j++];
-        // j overshot by 1 bin; we added _bins[j-1] and this goes from too low to either exactly right or too big
-        // pint now falls in bin j-1 (the ++ happened even when hsum==pint), so grab that bin value now
-        rs._pctiles[i] = base + stride * (j - 1);
-        if (h > 0 && pint == hsum) {
-          // linearly interpolate between adjacent non-zero bins
-          //      i) pint is the last of (j-1)'s bin count (>1 when either duplicates exist in input, or stride makes dups at lower accuracy)
-          // AND ii) h>0 so we do need to find the next non-zero bin
-          if (k < j) k = j; // if j jumped over the k needed for the last P, catch k up to j
-          // Saves potentially winding k forward over the same zero stretch many times
-          while (rs._bins[k] == 0) k++;  // find the next non-zero bin
-          rs._pctiles[i] += h * stride * (k - j + 1);
-        } // otherwise either h==0 and we know which bin, or fraction is between two positions that fall in the same bin
-        // this guarantees we are within one bin of the exact answer; i.e. within (max-min)/MAX_SIZE
+      for( RPC<InstallRollups> rpc : rpcs ) {
+        try {
+          rpc.get();
+        } catch( RuntimeException e ) {
+          if( !failed ) throw e;
+          Log.err(e);           // Do not hide the original failure
+        }
       }
-      installResponse(nnn, rs);
     }
   }
+
+  // Runs on the home node of the rollups keys: moves every key lacking rollups
+  // (or a requested histogram) to the computing state
+  private static class ClaimRollups extends DTask<ClaimRollups> {
+    final Key[] _rsKeys;
+    final boolean[] _histos;
+    final long _owner;
+    boolean[] _claimed;
+
+    ClaimRollups(Key[] rsKeys, boolean[] histos, long owner) { _rsKeys = rsKeys; _histos = histos; _owner = owner; }
+
+    @Override public void compute2() {
+      _claimed = new boolean[_rsKeys.length];
+      Futures fs = new Futures();
+      for( int i=0; i<_rsKeys.length; i++ ) {
+        Key rsKey = _rsKeys[i];
+        assert rsKey.home();
+        Value v = DKV.get(rsKey);
+        RollupStats rs = v == null ? null : v.<RollupStats>get();
+        if( rs != null && !(rs.isReady() && _histos[i] && !rs.hasHisto()) ) continue; // Computing, mutating or done
+        RollupStats computing = RollupStats.makeComputing();
+        computing._tsk = new Latch(_owner);
+        Value nnn = new Value(rsKey,computing);
+        if( DKV.DputIfMatch(rsKey,nnn,v,fs) == v ) {
+          _claims.put(rsKey,nnn);
+          _claimed[i] = true;
+        }
+      }
+      fs.blockForPending();
+      tryComplete();
+    }
+  }
+
+  // Runs on the home node of the rollups keys: replaces the claims by the
+  // results, unless the Vec was modified meanwhile, and wakes up the waiters
+  private static class InstallRollups extends DTask<InstallRollups> {
+    final Key[] _rsKeys;
+    final RollupStats[] _rss;   // Null entries release the claims
+    final long _owner;
+
+    InstallRollups(Key[] rsKeys, RollupStats[] rss, long owner) { _rsKeys = rsKeys; _rss = rss; _owner = owner; }
+
+    @Override public void compute2() {
+      Futures fs = new Futures();
+      Value[] nnns = new Value[_rsKeys.length];
+      for( int i=0; i<_rsKeys.length; i++ ) {
+        RollupStats rs = _rss[i];
+        assert rs == null || rs.isReady();
+        Value nnn = _claims.get(_rsKeys[i]);
+        if( nnn == null || ((Latch)nnn.<RollupStats>get()._tsk)._owner != _owner ) {
+          // Releasing after a failure: this key was not claimed, or by someone else
+          assert rs == null : "Rollups of " + _rsKeys[i] + " were not claimed";
+          continue;
+        }
+        _claims.remove(_rsKeys[i],nnn);
+        nnns[i] = nnn;
+        // Fails if the Vec is being modified; the rollups are then recomputed on demand
+        DKV.DputIfMatch(_rsKeys[i], rs == null ? null : new Value(_rsKeys[i],rs), nnn, fs);
+      }
+      fs.blockForPending();
+      for( Value nnn : nnns )
+        if( nnn != null ) ((Latch)nnn.<RollupStats>get()._tsk).complete(null);
+      tryComplete();
+    }
+  }
+
+  // Rollups of all the columns of a frame, in one pass
+  private static class RollAll extends MRTask<RollAll> {
+    RollupStats[] _rss;
+
+    @Override
+    protected boolean modifiesVolatileVecs(){return false;}
+
+    @Override public void map( Chunk[] cs ) {
+      _rss = new RollupStats[cs.length];
+      for( int i=0; i<cs.length; i++ )
+        _rss[i] = new RollupStats(0).map(cs[i]);
+    }
+    @Override public void reduce( RollAll roll ) {
+      if( _rss == null ) _rss = roll._rss;
+      else if( roll._rss != null )
+        for( int i=0; i<_rss.length; i++ ) _rss[i].reduce(roll._rss[i]);
+    }
+    @Override public void postGlobal() {
+      if( _rss == null ) _rss = new RollupStats[_fr.numCols()];
+      for( int i=0; i<_rss.length; i++ ) _rss[i] = RollupStats.postGlobal(_rss[i], _fr.vec(i));
+    }
+    // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
+    @Override public boolean logVerbose() { return false; }
+  }
+
+  // Histograms of all the columns of a frame, in one pass
+  private static class HistoAll extends MRTask<HistoAll> {
+    final double[] _bases, _strides; // Inputs
+    final int[] _nbins;              // Inputs
+    long[][] _bins;                  // Outputs
+    HistoAll( double[] bases, double[] strides, int[] nbins ) { _bases = bases; _strides = strides; _nbins = nbins; }
+    @Override public void map( Chunk[] cs ) {
+      _bins = new long[cs.length][];
+      for( int i=0; i<cs.length; i++ )
+        _bins[i] = histo(cs[i], _bases[i], _strides[i], new long[_nbins[i]]);
+    }
+    @Override public void reduce( HistoAll h ) {
+      for( int i=0; i<_bins.length; i++ ) ArrayUtils.add(_bins[i],h._bins[i]);
+    }
+    @Override public boolean logVerbose() { return false; }
+  }
 }
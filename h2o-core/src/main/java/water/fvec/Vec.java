@@ -848,6 +848,17 @@ public class Vec extends Keyed<Vec> {
    */
   public void startRollupStats(Futures fs, boolean doHisto) { RollupStats.start(this,fs,doHisto); }
 
+  /**
+   * Start the rollup stats (and histograms, if requested) of all the given Vecs lacking them.  Unlike calling
+   * {@link #startRollupStats(Futures, boolean)} on every Vec, which runs one pass over the data per Vec, the rollups
+   * of all the Vecs with a compatible layout are computed together in a single pass (plus one for the histograms).
+   *
+   * @param vecs Vecs to compute the rollups of
+   * @param fs Futures allow to wait for this task to finish.
+   * @param doHisto Also compute histograms
+   */
+  public static void startRollupStats(Vec[] vecs, Futures fs, boolean doHisto) { RollupStats.startAll(vecs,fs,doHisto); }
+
   /** A high-quality 64-bit checksum of the Vec's content, useful for
    *  establishing dataset identity.
    *  @return Checksum of the Vec's content  */
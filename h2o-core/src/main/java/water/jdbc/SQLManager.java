@@ -6,7 +6,6 @@ import water.parser.BufferedString;
 import water.parser.ParseDataset;
 import water.util.Log;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.util.concurrent.ArrayBlockingQueue;
 
@@ -17,7 +16,19 @@ public class SQLManager {
   final static String TEMP_TABLE_NAME = "table_for_h2o_import";
   //upper bound on number of connections to database
   final static int MAX_CONNECTIONS = 100;
-  
+  //fetch size of the partition queries
+  final static int FETCH_SIZE = 10000;
+
+  //how values of a column are read from the result set
+  final static byte SQL_REAL = 0;
+  final static byte SQL_INT = 1;
+  final static byte SQL_BOOL = 2;
+  final static byte SQL_STR = 3;
+  final static byte SQL_DATE = 4;
+  final static byte SQL_TIME = 5;
+  final static byte SQL_TIMESTAMP = 6;
+  final static byte SQL_BAD = 7;
+
   /**
    * @param connection_url (Input) 
    * @param table (Input)
@@ -30,8 +41,33 @@ public class SQLManager {
   public static Job<Frame> importSqlTable(final String connection_url, String table, final String select_query,
                                           final String username, final String password, final String columns,
                                           boolean optimize) {
-    
-    
+    return importSqlTable(connection_url, table, select_query, username, password, columns, optimize, null, null);
+  }
+
+  /**
+   * Import a SQL table, optionally partitioned by the range of a numeric or date column.
+   *
+   * Without a partition column the table is read in pages using LIMIT/OFFSET queries, one page per chunk.  With a
+   * partition column the [min, max] range of the column is split into equally wide partitions, each partition is
+   * read with a single range query by the node that is home to its chunk; rows with a NULL in the partition column
+   * go to the first partition.
+   *
+   * @param connection_url (Input)
+   * @param table (Input)
+   * @param select_query (Input)
+   * @param username (Input)
+   * @param password (Input)
+   * @param columns (Input) columns to import (projection pushed to the database)
+   * @param optimize (Input)
+   * @param partition_column (Input) numeric or date column to partition the import by, null to use LIMIT/OFFSET pages
+   * @param filter (Input) SQL condition the imported rows have to satisfy (pushed to the database), null for all rows
+   */
+  public static Job<Frame> importSqlTable(final String connection_url, String table, final String select_query,
+                                          final String username, final String password, final String columns,
+                                          boolean optimize, final String partition_column, String filter) {
+    final String where = filter == null || filter.trim().isEmpty() ? "" : " WHERE (" + filter + ")";
+    final boolean partitioned = partition_column != null && !partition_column.trim().isEmpty();
+
     Connection conn = null;
     Statement stmt = null;
     ResultSet rs = null;
@@ -51,6 +87,8 @@ public class SQLManager {
     long numRow = 0;
     final String[] columnNames;
     final byte[] columnH2OTypes;
+    final byte[] columnSQLTypes;
+    Object partitionMin = null, partitionMax = null;
     try {
       conn = DriverManager.getConnection(connection_url, username, password);
       stmt = conn.createStatement();
@@ -68,9 +106,39 @@ public class SQLManager {
         //tables with this name are assumed to be created here temporarily and are dropped
         throw new IllegalArgumentException("The specified table cannot be named: " + SQLManager.TEMP_TABLE_NAME);
       }
-      //get number of rows. check for negative row count
-      if (numRow <= 0) {
-        rs = stmt.executeQuery("SELECT COUNT(1) FROM " + table);
+      if (partitioned) {
+        //get range of the partition column together with the number of rows
+        rs = stmt.executeQuery("SELECT MIN(" + partition_column + "), MAX(" + partition_column + "), COUNT(1) FROM " +
+                table + where);
+        rs.next();
+        switch (rs.getMetaData().getColumnType(1)) {
+          case Types.DATE:
+          case Types.TIMESTAMP:
+            partitionMin = rs.getTimestamp(1);
+            partitionMax = rs.getTimestamp(2);
+            break;
+          case Types.NUMERIC:
+          case Types.REAL:
+          case Types.DOUBLE:
+          case Types.FLOAT:
+          case Types.DECIMAL:
+          case Types.INTEGER:
+          case Types.TINYINT:
+          case Types.SMALLINT:
+          case Types.BIGINT:
+            partitionMin = rs.getDouble(1);
+            if (rs.wasNull()) partitionMin = null;
+            partitionMax = rs.getDouble(2);
+            if (rs.wasNull()) partitionMax = null;
+            break;
+          default:
+            throw new IllegalArgumentException("Partition column " + partition_column + " has to be numeric or date, " +
+                    "but is " + rs.getMetaData().getColumnTypeName(1));
+        }
+        numRow = rs.getLong(3);
+      } else if (numRow <= 0 || !where.isEmpty()) {
+        //get number of rows. check for negative row count
+        rs = stmt.executeQuery("SELECT COUNT(1) FROM " + table + where);
         rs.next();
         numRow = rs.getLong(1);
       }
@@ -84,6 +152,7 @@ public class SQLManager {
 
       columnNames = new String[numCol];
       columnH2OTypes = new byte[numCol];
+      columnSQLTypes = new byte[numCol];
 
       rs.next();
       for (int i = 0; i < numCol; i++) {
@@ -96,6 +165,7 @@ public class SQLManager {
           case Types.FLOAT:
           case Types.DECIMAL:
             columnH2OTypes[i] = Vec.T_NUM;
+            columnSQLTypes[i] = SQL_REAL;
             realcols += 1;
             break;
           case Types.INTEGER:
@@ -103,11 +173,13 @@ public class SQLManager {
           case Types.SMALLINT:
           case Types.BIGINT:
             columnH2OTypes[i] = Vec.T_NUM;
+            columnSQLTypes[i] = SQL_INT;
             intcols += 1;
             break;
           case Types.BIT:
           case Types.BOOLEAN:
             columnH2OTypes[i] = Vec.T_NUM;
+            columnSQLTypes[i] = SQL_BOOL;
             bincols += 1;
             break;
           case Types.VARCHAR:
@@ -117,17 +189,28 @@ public class SQLManager {
           case Types.LONGVARCHAR:
           case Types.LONGNVARCHAR:
             columnH2OTypes[i] = Vec.T_STR;
+            columnSQLTypes[i] = SQL_STR;
             stringcols += 1;
             break;
           case Types.DATE:
+            columnH2OTypes[i] = Vec.T_TIME;
+            columnSQLTypes[i] = SQL_DATE;
+            timecols += 1;
+            break;
           case Types.TIME:
+            columnH2OTypes[i] = Vec.T_TIME;
+            columnSQLTypes[i] = SQL_TIME;
+            timecols += 1;
+            break;
           case Types.TIMESTAMP:
             columnH2OTypes[i] = Vec.T_TIME;
+            columnSQLTypes[i] = SQL_TIMESTAMP;
             timecols += 1;
             break;
           default:
             Log.warn("Unsupported column type: " + rsmd.getColumnTypeName(i + 1));
             columnH2OTypes[i] = Vec.T_BAD;
+            columnSQLTypes[i] = SQL_BAD;
         }
       }
 
@@ -178,45 +261,128 @@ public class SQLManager {
     final Job<Frame> j = new Job(destination_key, Frame.class.getName(), "Import SQL Table");
 
     final String finalTable = table;
+    final SqlTableToH2OFrame task;
+    final Vec template;
+    if (partitioned) {
+      //one chunk (of a single template row) per partition; the partitions themselves may have any number of rows
+      int nParts = partitionMin == null ? 1 : _v.nChunks();
+      _v.remove();
+      template = makeCon(0, nParts, 0, false);
+      task = new SqlTableToH2OFrame(connection_url, finalTable, needFetchClause, username, password, columns, where,
+              columnSQLTypes, nParts, j, partition_column, partitionMin, partitionMax);
+      Log.info("Number of partitions of column " + partition_column + ": " + nParts);
+    } else {
+      template = _v;
+      task = new SqlTableToH2OFrame(connection_url, finalTable, needFetchClause, username, password, columns, where,
+              columnSQLTypes, _v.nChunks(), j, null, null, null);
+    }
     H2O.H2OCountedCompleter work = new H2O.H2OCountedCompleter() {
       @Override
       public void compute2() {
-        Frame fr = new SqlTableToH2OFrame(connection_url, finalTable, needFetchClause, username, password, columns, 
-                numCol, _v.nChunks(), j).doAll(columnH2OTypes, _v)
+        Frame fr = task.doAll(columnH2OTypes, template)
                 .outputFrame(destination_key, columnNames, null);
         DKV.put(fr);
-        _v.remove();
+        template.remove();
         ParseDataset.logParseResults(fr);
         if (finalTable.equals(SQLManager.TEMP_TABLE_NAME)) 
           dropTempTable(connection_url, username, password);
         tryComplete();
       }
     };
-    j.start(work, _v.nChunks());
+    j.start(work, template.nChunks());
     
     return j;
   }
 
-  private static class SqlTableToH2OFrame extends MRTask<SqlTableToH2OFrame> {
-    final String _url, _table, _user, _password, _columns;
-    final int _numCol, _nChunks;
+  /** Append the current row of the result set to the chunks, using the typed getters of the result set. */
+  static void readRow(ResultSet rs, byte[] sqlTypes, NewChunk[] ncs) throws SQLException {
+    for (int i = 0; i < ncs.length; i++) {
+      final int col = i + 1;
+      switch (sqlTypes[i]) {
+        case SQL_REAL: {
+          double d = rs.getDouble(col);
+          if (rs.wasNull()) ncs[i].addNA();
+          else ncs[i].addNum(d);
+          break;
+        }
+        case SQL_INT: {
+          long l = rs.getLong(col);
+          if (rs.wasNull()) ncs[i].addNA();
+          else ncs[i].addNum(l, 0);
+          break;
+        }
+        case SQL_BOOL: {
+          boolean b = rs.getBoolean(col);
+          if (rs.wasNull()) ncs[i].addNA();
+          else ncs[i].addNum(b ? 1 : 0, 0);
+          break;
+        }
+        case SQL_STR: {
+          String str = rs.getString(col);
+          if (str == null) ncs[i].addNA();
+          else ncs[i].addStr(new BufferedString(str));
+          break;
+        }
+        case SQL_DATE: {
+          Date d = rs.getDate(col);
+          if (d == null) ncs[i].addNA();
+          else ncs[i].addNum(d.getTime(), 0);
+          break;
+        }
+        case SQL_TIME: {
+          Time t = rs.getTime(col);
+          if (t == null) ncs[i].addNA();
+          else ncs[i].addNum(t.getTime(), 0);
+          break;
+        }
+        case SQL_TIMESTAMP: {
+          Timestamp t = rs.getTimestamp(col);
+          if (t == null) ncs[i].addNA();
+          else ncs[i].addNum(t.getTime(), 0);
+          break;
+        }
+        default:
+          ncs[i].addNA();
+      }
+    }
+  }
+
+  static class SqlTableToH2OFrame extends MRTask<SqlTableToH2OFrame> {
+    final String _url, _table, _user, _password, _columns, _where;
+    final byte[] _sqlTypes;
+    final int _nChunks;
     final boolean _needFetchClause;
     final Job _job;
+    // Partitioned import: column and its range, in epoch millis for a date column; null column if the table is read
+    // in pages, NaN range if the column has no values
+    final String _partitionColumn;
+    final boolean _partitionByTime;
+    final double _partitionMin, _partitionMax;
 
     transient ArrayBlockingQueue<Connection> sqlConn;
 
     public SqlTableToH2OFrame(String url, String table, boolean needFetchClause, String user, String password, 
-                              String columns, int numCol, int nChunks, Job job) {
+                              String columns, String where, byte[] sqlTypes, int nChunks, Job job,
+                              String partitionColumn, Object partitionMin, Object partitionMax) {
       _url = url;
       _table = table;
       _needFetchClause = needFetchClause;
       _user = user;
       _password = password;
       _columns = columns;
-      _numCol = numCol;
+      _where = where;
+      _sqlTypes = sqlTypes;
       _nChunks = nChunks;
       _job = job;
+      _partitionColumn = partitionColumn;
+      _partitionByTime = partitionMin instanceof Timestamp;
+      _partitionMin = toPartitionBound(partitionMin);
+      _partitionMax = toPartitionBound(partitionMax);
+    }
 
+    private static double toPartitionBound(Object bound) {
+      if (bound == null) return Double.NaN;
+      return bound instanceof Timestamp ? ((Timestamp) bound).getTime() : (Double) bound;
     }
 
     @Override
@@ -238,69 +404,30 @@ public class SQLManager {
     @Override
     public void map(Chunk[] cs, NewChunk[] ncs) {
       if (isCancelled() || _job != null && _job.stop_requested()) return;
-      //fetch data from sql table with limit and offset
       Connection conn = null;
-      Statement stmt = null;
+      PreparedStatement stmt = null;
       ResultSet rs = null;
       Chunk c0 = cs[0];
-      String sqlText = "SELECT " + _columns + " FROM " + _table;
-      if (_needFetchClause)
-        sqlText += " OFFSET " + c0.start() + " ROWS FETCH NEXT " + c0._len + " ROWS ONLY";
-      else
-        sqlText += " LIMIT " + c0._len + " OFFSET " + c0.start();
       try {
         conn = sqlConn.take();
-        stmt = conn.createStatement();
-        //set fetch size for best performance
-        stmt.setFetchSize(c0._len);
-        rs = stmt.executeQuery(sqlText);
+        if (_partitionColumn != null) {
+          //fetch a single partition with a range query
+          stmt = partitionQuery(conn, c0.cidx());
+          stmt.setFetchSize(FETCH_SIZE);
+        } else {
+          //fetch data from sql table with limit and offset
+          String sqlText = "SELECT " + _columns + " FROM " + _table + _where;
+          if (_needFetchClause)
+            sqlText += " OFFSET " + c0.start() + " ROWS FETCH NEXT " + c0._len + " ROWS ONLY";
+          else
+            sqlText += " LIMIT " + c0._len + " OFFSET " + c0.start();
+          stmt = conn.prepareStatement(sqlText);
+          //set fetch size for best performance
+          stmt.setFetchSize(c0._len);
+        }
+        rs = stmt.executeQuery();
         while (rs.next()) {
-          for (int i = 0; i < _numCol; i++) {
-            Object res = rs.getObject(i + 1);
-            if (res == null) ncs[i].addNA();
-            else {
-              switch (res.getClass().getSimpleName()) {
-                case "Double":
-                  ncs[i].addNum((double) res);
-                  break;
-                case "Integer":
-                  ncs[i].addNum((long) (int) res, 0);
-                  break;
-                case "Long":
-                  ncs[i].addNum((long) res, 0);
-                  break;
-                case "Float":
-                  ncs[i].addNum((double) (float) res);
-                  break;
-                case "Short":
-                  ncs[i].addNum((long) (short) res, 0);
-                  break;
-                case "Byte":
-                  ncs[i].addNum((long) (byte) res, 0);
-                  break;
-                case "BigDecimal":
-                  ncs[i].addNum(((BigDecimal) res).doubleValue());
-                  break;
-                case "Boolean":
-                  ncs[i].addNum(((boolean) res ? 1 : 0), 0);
-                  break;
-                case "String":
-                  ncs[i].addStr(new BufferedString((String) res));
-                  break;
-                case "Date":
-                  ncs[i].addNum(((Date) res).getTime(), 0);
-                  break;
-                case "Time":
-                  ncs[i].addNum(((Time) res).getTime(), 0);
-                  break;
-                case "Timestamp":
-                  ncs[i].addNum(((Timestamp) res).getTime(), 0);
-                  break;
-                default:
-                  ncs[i].addNA();
-              }
-            }
-          }
+          readRow(rs, _sqlTypes, ncs);
         }
       } catch (SQLException ex) {
         throw new RuntimeException("SQLException: " + ex.getMessage() + "\nFailed to read SQL data");
@@ -334,6 +461,35 @@ public class SQLManager {
       if (_job != null) _job.update(1);
     }
 
+    // Query of the rows of partition p: min + p*step <= column < min + (p+1)*step; the last partition includes the max
+    // and the first one the NULLs
+    private PreparedStatement partitionQuery(Connection conn, int p) throws SQLException {
+      StringBuilder sb = new StringBuilder("SELECT ").append(_columns).append(" FROM ").append(_table);
+      sb.append(_where.isEmpty() ? " WHERE " : _where + " AND ");
+      if (Double.isNaN(_partitionMin)) {
+        // no values in the partition column, single partition
+        sb.append("1 = 1");
+        return conn.prepareStatement(sb.toString());
+      }
+      sb.append("(").append(_partitionColumn).append(" >= ? AND ").append(_partitionColumn);
+      sb.append(p == _nChunks - 1 ? " <= ?" : " < ?");
+      if (p == 0) sb.append(" OR ").append(_partitionColumn).append(" IS NULL");
+      sb.append(")");
+      PreparedStatement stmt = conn.prepareStatement(sb.toString());
+      if (_partitionByTime) {
+        long min = (long) _partitionMin, max = (long) _partitionMax;
+        double step = (double) (max - min) / _nChunks;
+        stmt.setTimestamp(1, new Timestamp(p == 0 ? min : min + (long) (p * step)));
+        stmt.setTimestamp(2, new Timestamp(p == _nChunks - 1 ? max : min + (long) ((p + 1) * step)));
+      } else {
+        double min = _partitionMin, max = _partitionMax;
+        double step = (max - min) / _nChunks;
+        stmt.setDouble(1, p == 0 ? min : min + p * step);
+        stmt.setDouble(2, p == _nChunks - 1 ? max : min + (p + 1) * step);
+      }
+      return stmt;
+    }
+
     @Override
     protected void closeLocal() {
       try {
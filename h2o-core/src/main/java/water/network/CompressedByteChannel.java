@@ -0,0 +1,170 @@
+package water.network;
+
+import water.AutoBuffer;
+import water.util.LZ4Codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * A wrapper around the TCP channels carrying big {@link AutoBuffer}s, which
+ * compresses the written bytes with the {@link LZ4Codec}.
+ *
+ * Each write is shipped as blocks of at most {@link AutoBuffer#TCP_BUF_SIZ}
+ * bytes (the AutoBuffers already batch their writes into buffers of this size),
+ * each block is framed as: raw length (4B), wire length (4B), wire bytes.  A
+ * block is only compressed when it is big enough and its estimated entropy is
+ * low enough, and it is stored as-is when compression does not make it
+ * smaller (wire length == raw length).  Small messages do not go through here
+ * at all, they are sent by UDP or batched over TCP_SMALL channels.
+ *
+ * Compression is negotiated per connection when the channel is opened: the
+ * sender offers it, the receiver accepts it only when enabled on its side too.
+ */
+public class CompressedByteChannel implements ByteChannel {
+  public static final String PROP_ENABLED = SYSTEM_PROP_PREFIX + "tcp.compression";
+  public static final String PROP_MIN_BYTES = SYSTEM_PROP_PREFIX + "tcp.compression.min_bytes";
+  public static final String PROP_MAX_ENTROPY = SYSTEM_PROP_PREFIX + "tcp.compression.max_entropy";
+
+  public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(PROP_ENABLED, "false"));
+  // Blocks smaller than this are not worth compressing
+  static final int MIN_BYTES = Integer.getInteger(PROP_MIN_BYTES, 4096);
+  // Blocks with a higher estimated entropy (bits per byte) are not compressed
+  static final double MAX_ENTROPY = Double.parseDouble(System.getProperty(PROP_MAX_ENTROPY, "7.5"));
+  // Sample every 16th byte of a block to estimate its entropy
+  private static final int ENTROPY_STRIDE = 16;
+
+  private static final int HEADER = 8;
+  private static final int BLOCK = AutoBuffer.TCP_BUF_SIZ;
+
+  // Cumulative node-wide counters, see WaterMeterIo
+  public static final AtomicLong SENT_RAW_BYTES = new AtomicLong();
+  public static final AtomicLong SENT_WIRE_BYTES = new AtomicLong();
+  public static final AtomicLong RECEIVED_RAW_BYTES = new AtomicLong();
+  public static final AtomicLong RECEIVED_WIRE_BYTES = new AtomicLong();
+  public static final AtomicLong COMPRESSED_BLOCKS = new AtomicLong();
+  public static final AtomicLong STORED_BLOCKS = new AtomicLong();
+
+  private final ByteChannel _chan;
+
+  // Write side, allocated on the first write
+  private LZ4Codec _codec;
+  private byte[] _raw, _out;
+
+  // Read side, allocated on the first read: decoded bytes _dec[_decPos,_decLim)
+  private byte[] _dec, _wire;
+  private int _decPos, _decLim;
+  private final ByteBuffer _hdr = ByteBuffer.allocate(HEADER).order(ByteOrder.nativeOrder());
+
+  CompressedByteChannel(ByteChannel chan) { _chan = chan; }
+
+  /** Sender side, after the channel header asking for compression was written:
+   *  wait for the answer of the receiver.
+   *  @return the channel to write to */
+  public static ByteChannel offer(ByteChannel chan) throws IOException {
+    ByteBuffer bb = ByteBuffer.allocate(1);
+    while( bb.hasRemaining() )
+      if( chan.read(bb) < 0 ) throw new EOFException("Channel closed while negotiating compression");
+    return bb.get(0) == 1 ? new CompressedByteChannel(chan) : chan;
+  }
+
+  /** Receiver side, after the channel header asking for compression was read:
+   *  accept it if compression is enabled here too.
+   *  @return the channel to read from */
+  public static ByteChannel accept(ByteChannel chan) throws IOException {
+    ByteBuffer bb = ByteBuffer.allocate(1);
+    bb.put(0, (byte) (ENABLED ? 1 : 0));
+    while( bb.hasRemaining() )
+      chan.write(bb);
+    return ENABLED ? new CompressedByteChannel(chan) : chan;
+  }
+
+  /** @return the wrapped channel */
+  public ByteChannel channel() { return _chan; }
+
+  @Override public int write(ByteBuffer src) throws IOException {
+    if( _codec == null ) {
+      _codec = new LZ4Codec();
+      _raw = new byte[BLOCK];
+      _out = new byte[HEADER + LZ4Codec.maxCompressedLength(BLOCK)];
+    }
+    final int n = src.remaining();
+    while( src.hasRemaining() ) {
+      int len = Math.min(src.remaining(), BLOCK);
+      src.get(_raw, 0, len);
+      int wire = len;
+      if( len >= MIN_BYTES && LZ4Codec.entropy(_raw, 0, len, ENTROPY_STRIDE) <= MAX_ENTROPY )
+        wire = _codec.compress(_raw, 0, len, _out, HEADER);
+      if( wire < len ) COMPRESSED_BLOCKS.incrementAndGet();
+      else {                    // Store as-is
+        wire = len;
+        System.arraycopy(_raw, 0, _out, HEADER, len);
+        STORED_BLOCKS.incrementAndGet();
+      }
+      ByteBuffer bb = ByteBuffer.wrap(_out, 0, HEADER + wire).order(ByteOrder.nativeOrder());
+      bb.putInt(0, len).putInt(4, wire);
+      while( bb.hasRemaining() )
+        _chan.write(bb);
+      SENT_RAW_BYTES.addAndGet(len);
+      SENT_WIRE_BYTES.addAndGet(HEADER + wire);
+    }
+    return n;
+  }
+
+  @Override public int read(ByteBuffer dst) throws IOException {
+    if( _decPos == _decLim && !readBlock() ) return -1;
+    int n = Math.min(dst.remaining(), _decLim - _decPos);
+    dst.put(_dec, _decPos, n);
+    _decPos += n;
+    return n;
+  }
+
+  // Read and decode the next block; false on a clean end-of-stream
+  private boolean readBlock() throws IOException {
+    if( _dec == null ) {
+      _dec = new byte[BLOCK];
+      _wire = new byte[BLOCK];
+    }
+    _hdr.clear();
+    if( !readFully(_hdr, true) ) return false;
+    int raw = _hdr.getInt(0), wire = _hdr.getInt(4);
+    if( raw <= 0 || raw > BLOCK || wire <= 0 || wire > raw )
+      throw new IOException("Corrupted compressed block header: raw=" + raw + ", wire=" + wire);
+    if( wire == raw ) {         // Stored block
+      readFully(ByteBuffer.wrap(_dec, 0, raw), false);
+    } else {
+      readFully(ByteBuffer.wrap(_wire, 0, wire), false);
+      try {
+        if( LZ4Codec.decompress(_wire, 0, wire, _dec, 0, raw) != raw )
+          throw new IOException("Corrupted compressed block: short of its " + raw + " bytes");
+      } catch( IllegalArgumentException e ) {
+        throw new IOException(e);
+      }
+    }
+    _decPos = 0;
+    _decLim = raw;
+    RECEIVED_RAW_BYTES.addAndGet(raw);
+    RECEIVED_WIRE_BYTES.addAndGet(HEADER + wire);
+    return true;
+  }
+
+  private boolean readFully(ByteBuffer bb, boolean eofOk) throws IOException {
+    while( bb.hasRemaining() ) {
+      if( _chan.read(bb) < 0 ) {
+        if( eofOk && bb.position() == 0 ) return false;
+        throw new EOFException("Channel closed in the middle of a compressed block");
+      }
+    }
+    return true;
+  }
+
+  @Override public boolean isOpen() { return _chan.isOpen(); }
+
+  @Override public void close() throws IOException { _chan.close(); }
+}
@@ -0,0 +1,422 @@
+package water.parser;
+
+import water.H2O;
+import water.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Gzip decompressing stream which overlaps reading and decompressing of the input with the parsing
+ * of the already decompressed data.
+ * <p>
+ * Input is consumed by a dedicated reader thread, the decompressed data are handed over to the parser
+ * in order through a bounded queue. Files in the BGZF format (blocked gzip as produced by {@code bgzip},
+ * a sequence of gzip members each carrying its compressed size in the "BC" extra subfield) are split into
+ * batches of members by the reader and the batches are decompressed in parallel by a pool of inflater threads.
+ * The inflater pool is shared by all the files parsed on this node, so is the pool of reader threads.
+ * Any other gzip input (single or multi-member) cannot be split without decompressing it, it is decompressed
+ * sequentially by the reader thread, the parser is still not blocked by decompression.
+ * <p>
+ * When the underlying stream is a {@link water.fvec.ByteVec} stream, {@link #chunkIndexStream()} provides
+ * the back-channel read of the input chunk index (see {@link Parser#streamParseZip}). The index reported is
+ * the one the raw stream had when the reader started reading the data currently consumed by the parser (not the
+ * one of the reader thread). Before any data was consumed it is the index of the first block, which is what a
+ * {@link GZIPInputStream} reading its header reports (1 for a ByteVec stream).
+ */
+final class ParallelGzipInputStream extends InputStream {
+
+  /** Number of threads decompressing BGZF blocks on a node, 0 disables pipelined decompression */
+  static final String PROP_THREADS = SYSTEM_PROP_PREFIX + "parse.gzip.threads";
+
+  static final int BATCH_SIZE = 1 << 20;  // Compressed bytes decompressed by a single task
+  static final int PREFETCH_SIZE = 1 << 20;  // Decompressed bytes per block of the sequential mode
+  static final int MAX_PENDING = 16;  // Max number of blocks queued per file, each holds up to ~BATCH_SIZE of input
+
+  private static final Block EOF = new Block(null, null, -1);
+
+  // Node-wide pools, created on the first use
+  private static ThreadPoolExecutor INFLATERS;
+  private static ExecutorService READERS;
+
+  private final InputStream _raw;  // Only touched by the reader thread
+  private final boolean _chunkIndexed;
+  private final ArrayBlockingQueue<Block> _queue;
+  private final Future<?> _reader;
+  private volatile boolean _closed;
+
+  // Consumer state
+  private byte[] _cur;
+  private int _pos;
+  private boolean _eof;
+  private boolean _started;
+  private int _cidx;
+
+  /**
+   * @param raw gzip compressed input
+   * @param nthreads number of BGZF batches of this file to decompress ahead of the parser
+   * @param chunkIndexed true if the raw stream implements the back-channel read of the chunk index
+   */
+  ParallelGzipInputStream(InputStream raw, int nthreads, boolean chunkIndexed) {
+    if (nthreads <= 0)
+      throw new IllegalArgumentException("Number of decompression threads needs to be positive, got: " + nthreads);
+    _raw = raw;
+    _chunkIndexed = chunkIndexed;
+    _queue = new ArrayBlockingQueue<>(Math.min(2 * nthreads + 2, MAX_PENDING));
+    _reader = readers().submit(new Runnable() {
+      @Override public void run() { readAll(); }
+    });
+  }
+
+  /** Configured number of decompression threads of the node (defaults to the number of F/J threads) */
+  static int decompressionThreads() {
+    return Integer.getInteger(PROP_THREADS, H2O.ARGS.nthreads);
+  }
+
+  private static synchronized ThreadPoolExecutor inflaters() {
+    if (INFLATERS == null) {
+      int nthreads = Math.max(1, decompressionThreads());
+      INFLATERS = new ThreadPoolExecutor(nthreads, nthreads, 10, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new DaemonFactory("GzipInflater"));
+      INFLATERS.allowCoreThreadTimeOut(true);
+    }
+    return INFLATERS;
+  }
+
+  // One reader per file being parsed, bounded by the number of concurrent parse tasks of the node
+  private static synchronized ExecutorService readers() {
+    if (READERS == null)
+      READERS = Executors.newCachedThreadPool(new DaemonFactory("GzipReader"));
+    return READERS;
+  }
+
+  /** Piece of decompressed data, either already available or being decompressed by an inflater */
+  private static final class Block {
+    final byte[] _data;
+    final Future<byte[]> _future;
+    final int _cidx;
+    final Throwable _err;
+    Block(byte[] data, Future<byte[]> future, int cidx) { _data = data; _future = future; _cidx = cidx; _err = null; }
+    Block(Throwable err) { _data = null; _future = null; _cidx = -1; _err = err; }
+
+    byte[] data() throws IOException, InterruptedException {
+      if (_err != null)
+        throw _err instanceof IOException ? (IOException) _err : new IOException(_err);
+      if (_future == null)
+        return _data;
+      try {
+        return _future.get();
+      } catch (ExecutionException e) {
+        Throwable t = e.getCause();
+        throw t instanceof IOException ? (IOException) t : new IOException(t);
+      }
+    }
+  }
+
+  /** Back-channel view of this stream, reports the chunk index of the data currently consumed */
+  InputStream chunkIndexStream() {
+    if (!_chunkIndexed)
+      throw new IllegalStateException("Underlying stream doesn't provide chunk indices");
+    return new InputStream() {
+      @Override public int read() throws IOException { return ParallelGzipInputStream.this.read(); }
+      @Override public int read(byte[] b, int off, int len) throws IOException {
+        if (b != null)
+          return ParallelGzipInputStream.this.read(b, off, len);
+        if (!_started)
+          advance(); // The index is only known once the reader read the first block
+        return _cidx;
+      }
+      @Override public int available() throws IOException { return ParallelGzipInputStream.this.available(); }
+      @Override public void close() { ParallelGzipInputStream.this.close(); }
+    };
+  }
+
+  @Override public int read() throws IOException {
+    if (!advance())
+      return -1;
+    return _cur[_pos++] & 0xFF;
+  }
+
+  @Override public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0)
+      return 0;
+    if (!advance())
+      return -1;
+    len = Math.min(len, _cur.length - _pos);
+    System.arraycopy(_cur, _pos, b, off, len);
+    _pos += len;
+    return len;
+  }
+
+  /** Returns a positive number as long as there are more data (blocks until the next block is decompressed) */
+  @Override public int available() throws IOException {
+    return advance() ? _cur.length - _pos : 0;
+  }
+
+  @Override public void close() {
+    if (_closed)
+      return;
+    _closed = true;
+    _reader.cancel(true);
+    Block b;
+    while ((b = _queue.poll()) != null)
+      if (b._future != null)
+        b._future.cancel(true);
+  }
+
+  private boolean advance() throws IOException {
+    while (_cur == null || _pos >= _cur.length) {
+      if (_eof || _closed)
+        return false;
+      try {
+        Block b = _queue.take();
+        if (b == EOF) {
+          _eof = true;
+          return false;
+        }
+        _started = true;
+        _cur = b.data();
+        _pos = 0;
+        if (b._cidx >= 0)
+          _cidx = b._cidx;
+      } catch (InterruptedException e) {
+        throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+      }
+    }
+    return true;
+  }
+
+  // ------------------------------------------------------------------------
+  // Reader thread
+
+  private void readAll() {
+    try {
+      readBgzf();
+      publish(EOF);
+    } catch (InterruptedException | InterruptedIOException e) {
+      // Closed by the consumer
+    } catch (Throwable t) {
+      if (!_closed) {
+        Log.debug("Reading of gzip stream failed", t);
+        try {
+          publish(new Block(t));
+        } catch (InterruptedException e) {
+          // Closed by the consumer
+        }
+      }
+    } finally {
+      try {
+        _raw.close();
+      } catch (IOException e) {
+        Log.trace("Failed to close gzip input", e);
+      }
+    }
+  }
+
+  private void publish(Block b) throws InterruptedException {
+    if (!_closed)
+      _queue.put(b);
+  }
+
+  private int chunkIndex() {
+    if (!_chunkIndexed)
+      return -1;
+    try {
+      return _raw.read(null, 0, 0); // Also frees the already read chunks of a ByteVec
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Splits the input into BGZF blocks and submits them for decompression in batches, falls back to the
+   * sequential decompression at the first gzip member which is not a BGZF block.
+   */
+  private void readBgzf() throws IOException, InterruptedException {
+    boolean first = true;
+    Batch batch = new Batch();
+    while (!_closed) {
+      if (batch._members.isEmpty())
+        batch._cidx = chunkIndex();
+      byte[] head = new byte[12];
+      int n = readFully(_raw, head, 0, head.length);
+      if (n == 0)
+        break; // Regular end of input
+      boolean gzip = n >= 4 && (head[0] & 0xFF) == 0x1f && (head[1] & 0xFF) == 0x8b && head[2] == 8;
+      if (!gzip && !first)
+        break; // Trailing garbage is ignored, same as GZIPInputStream does
+      if (!gzip || n < head.length || head[3] != 4 /*FEXTRA only*/) {
+        submit(batch);
+        readSequential(head, n);
+        return;
+      }
+      int xlen = (head[10] & 0xFF) | (head[11] & 0xFF) << 8;
+      byte[] extra = new byte[xlen];
+      if (readFully(_raw, extra, 0, xlen) < xlen)
+        throw new EOFException("Unexpected end of gzip header");
+      int bsize = bgzfBlockSize(extra);
+      if (bsize < 0) { // Regular gzip member
+        submit(batch);
+        byte[] h = new byte[head.length + xlen];
+        System.arraycopy(head, 0, h, 0, head.length);
+        System.arraycopy(extra, 0, h, head.length, xlen);
+        readSequential(h, h.length);
+        return;
+      }
+      int clen = bsize - head.length - xlen; // Compressed data, CRC32 and ISIZE
+      if (clen < 8)
+        throw new ZipException("Corrupt BGZF block size: " + bsize);
+      byte[] member = new byte[clen];
+      if (readFully(_raw, member, 0, clen) < clen)
+        throw new EOFException("Unexpected end of BGZF block");
+      batch.add(member);
+      if (batch._clen >= BATCH_SIZE) {
+        submit(batch);
+        batch = new Batch();
+      }
+      first = false;
+    }
+    submit(batch);
+  }
+
+  private void submit(Batch batch) throws InterruptedException {
+    if (batch._members.isEmpty())
+      return;
+    publish(new Block(null, inflaters().submit(batch), batch._cidx));
+  }
+
+  private void readSequential(byte[] head, int n) throws IOException, InterruptedException {
+    int cidx = chunkIndex();
+    InputStream is = new GZIPInputStream(new SequenceInputStream(new ByteArrayInputStream(head, 0, n), _raw), 1 << 16);
+    boolean first = true;
+    while (!_closed) {
+      byte[] bits = new byte[PREFETCH_SIZE];
+      int len = readFully(is, bits, 0, bits.length);
+      if (len == 0 && !first)
+        break;
+      // An empty first block still carries the chunk index
+      publish(new Block(len == bits.length ? bits : Arrays.copyOf(bits, len), null, cidx));
+      if (len < bits.length)
+        break;
+      first = false;
+      cidx = chunkIndex();
+    }
+  }
+
+  /** @return total size of the BGZF block (BSIZE + 1), or -1 if the extra field doesn't have the "BC" subfield */
+  static int bgzfBlockSize(byte[] extra) {
+    int off = 0;
+    while (off + 4 <= extra.length) {
+      int slen = (extra[off + 2] & 0xFF) | (extra[off + 3] & 0xFF) << 8;
+      if (extra[off] == 'B' && extra[off + 1] == 'C' && slen == 2 && off + 6 <= extra.length)
+        return ((extra[off + 4] & 0xFF) | (extra[off + 5] & 0xFF) << 8) + 1;
+      off += 4 + slen;
+    }
+    return -1;
+  }
+
+  private static int readFully(InputStream is, byte[] b, int off, int len) throws IOException {
+    int n = 0;
+    while (n < len) {
+      int r = is.read(b, off + n, len - n);
+      if (r < 0)
+        break;
+      n += r;
+    }
+    return n;
+  }
+
+  /** Consecutive BGZF blocks decompressed together by one inflater thread */
+  private static final class Batch implements Callable<byte[]> {
+    final ArrayList<byte[]> _members = new ArrayList<>();
+    int _cidx;  // Chunk index of the raw stream before the first member was read
+    int _clen;
+    long _ulen;
+
+    void add(byte[] member) throws ZipException {
+      int isize = isize(member);
+      if (isize < 0)
+        throw new ZipException("Corrupt BGZF block: negative size " + isize);
+      _members.add(member);
+      _clen += member.length;
+      _ulen += isize;
+      if (_ulen > Integer.MAX_VALUE)
+        throw new ZipException("BGZF batch too large");
+    }
+
+    @Override public byte[] call() throws IOException {
+      byte[] out = new byte[(int) _ulen];
+      Inflater inf = new Inflater(true);
+      CRC32 crc = new CRC32();
+      try {
+        int pos = 0;
+        for (byte[] m : _members) {
+          int isize = isize(m);
+          inf.reset();
+          inf.setInput(m, 0, m.length - 8);
+          int n = 0;
+          while (n < isize && !inf.finished()) {
+            int r = inf.inflate(out, pos + n, isize - n);
+            if (r == 0 && (inf.needsInput() || inf.needsDictionary()))
+              break;
+            n += r;
+          }
+          if (n != isize)
+            throw new ZipException("Corrupt BGZF block: expected " + isize + " bytes, got " + n);
+          crc.reset();
+          crc.update(out, pos, isize);
+          if ((int) crc.getValue() != le4(m, m.length - 8))
+            throw new ZipException("Corrupt BGZF block: CRC mismatch");
+          pos += isize;
+        }
+        return out;
+      } catch (DataFormatException e) {
+        throw new ZipException("Corrupt BGZF block: " + e.getMessage());
+      } finally {
+        inf.end();
+      }
+    }
+
+    private static int isize(byte[] member) { return le4(member, member.length - 4); }
+
+    private static int le4(byte[] b, int off) {
+      return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+    }
+  }
+
+  private static final class DaemonFactory implements ThreadFactory {
+    private final String _prefix;
+    private final AtomicInteger _cnt = new AtomicInteger();
+    DaemonFactory(String prefix) { _prefix = prefix; }
+    @Override public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, _prefix + "-" + _cnt.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }
+  }
+
+}
@@ -763,8 +763,19 @@ public final class ParseDataset {
         }
         case GZIP: {
           InputStream bvs = vec.openStream(_jobKey);
-          // Zipped file; no parallel decompression;
-          _dout[_lo] = streamParse(new GZIPInputStream(bvs), localSetup, makeDout(localSetup,chunkStartIdx,vec.nChunks()),bvs);
+          int nthreads = ParallelGzipInputStream.decompressionThreads();
+          if (nthreads > 0) {
+            // Decompression runs ahead of the parser; BGZF blocks are decompressed in parallel
+            ParallelGzipInputStream gis = new ParallelGzipInputStream(bvs, nthreads, true);
+            try {
+              _dout[_lo] = streamParse(gis, localSetup, makeDout(localSetup,chunkStartIdx,vec.nChunks()),gis.chunkIndexStream());
+            } finally {
+              gis.close();
+            }
+          } else {
+            // Zipped file; no parallel decompression;
+            _dout[_lo] = streamParse(new GZIPInputStream(bvs), localSetup, makeDout(localSetup,chunkStartIdx,vec.nChunks()),bvs);
+          }
           _errors = _dout[_lo].removeErrors();
           // set this node as the one which processed all the chunks
           chunksAreLocal(vec,chunkStartIdx,key);
@@ -976,7 +987,7 @@ public final class ParseDataset {
     // get all rollups started in parallell, otherwise this takes ages!
     Futures fs = new Futures();
     Vec[] vecArr = fr.vecs();
-    for(Vec v:vecArr)  v.startRollupStats(fs);
+    Vec.startRollupStats(vecArr, fs, false);
     fs.blockForPending();
 
     int namelen = 0;
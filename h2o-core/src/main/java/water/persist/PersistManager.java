@@ -2,12 +2,14 @@ package water.persist;
 
 import water.H2O;
 import water.Key;
+import water.MemoryManager;
 import water.MRTask;
 import water.Value;
 import water.exceptions.H2OIllegalArgumentException;
 import water.fvec.UploadFileVec;
 import water.util.FileUtils;
 import water.util.Log;
+import water.util.PrettyPrint;
 import water.persist.Persist.PersistEntry;
 
 import java.io.*;
@@ -35,6 +37,10 @@ public class PersistManager {
    * layer forwards the request through HDFS API. */
   final static String PROP_ENABLE_HDFS_FALLBACK = SYSTEM_PROP_PREFIX + "persist.enable.hdfs.fallback";
 
+  /** Property which enables the segmented (log-structured, memory-mapped) ice store for user-mode swapping,
+   * by default every swapped Value is stored in its own file. */
+  final static String PROP_ICE_SEGMENTED = SYSTEM_PROP_PREFIX + "persist.ice.segmented";
+
   /** Persistence schemes; used as file prefixes eg "hdfs://some_hdfs_path/some_file" */
   public static class Schemes {
     public static final String FILE = "file";
@@ -52,6 +58,9 @@ public class PersistManager {
       delete_count = new AtomicLong();
       load_count = new AtomicLong();
       load_bytes = new AtomicLong();
+      load_hit_count = new AtomicLong();
+      load_miss_count = new AtomicLong();
+      load_time_nanos = new AtomicLong();
     }
 
     public AtomicLong store_count;
@@ -59,6 +68,9 @@ public class PersistManager {
     public AtomicLong delete_count;
     public AtomicLong load_count;
     public AtomicLong load_bytes;
+    public AtomicLong load_hit_count;
+    public AtomicLong load_miss_count;
+    public AtomicLong load_time_nanos;
   }
 
   private Persist[] I;
@@ -100,10 +112,10 @@ public class PersistManager {
     boolean windowsPath = iceRoot.toString().matches("^[a-zA-Z]:.*");
 
     if (windowsPath) {
-      ice = new PersistFS(new File(iceRoot.toString()));
+      ice = makeIce(new File(iceRoot.toString()));
     }
     else if ((iceRoot.getScheme() == null) || Schemes.FILE.equals(iceRoot.getScheme())) {
-      ice = new PersistFS(new File(iceRoot.getPath()));
+      ice = makeIce(new File(iceRoot.getPath()));
     }
     else if( Schemes.HDFS.equals(iceRoot.getScheme()) ) {
       Log.err("HDFS ice_root not yet supported.  Exiting.");
@@ -125,6 +137,7 @@ public class PersistManager {
 
     I[Value.ICE ] = ice;
     I[Value.NFS ] = new PersistNFS();
+    I[Value.SNAP] = new PersistSnapshot();
 
     try {
       Class klass = Class.forName("water.persist.PersistHdfs");
@@ -146,6 +159,25 @@ public class PersistManager {
     }
   }
 
+  private static Persist makeIce(File root) {
+    return makeIce(root, MemoryManager.OFFHEAP, useSegmentedIce());
+  }
+
+  static Persist makeIce(File root, boolean offHeap, boolean segmented) {
+    if (offHeap && segmented)
+      throw new IllegalArgumentException("Off-heap swapping (-D" + MemoryManager.PROP_OFFHEAP + ") " +
+              "cannot be combined with the segmented ice store (-D" + PROP_ICE_SEGMENTED + "), enable only one of them");
+    if (offHeap) {
+      Log.info("Using off-heap memory as a spill tier for user-mode swapping, off-heap budget: " + PrettyPrint.bytes(MemoryManager.OFFHEAP_MAX));
+      return new PersistOffHeap(root);
+    }
+    if (segmented) {
+      Log.info("Using segmented ice store for user-mode swapping");
+      return new PersistSegmentedFS(root);
+    }
+    return new PersistFS(root);
+  }
+
   public void store(int backend, Value v) throws IOException {
     stats[backend].store_count.incrementAndGet();
     I[backend].store(v);
@@ -157,15 +189,26 @@ public class PersistManager {
   }
 
   public byte[] load(int backend, Value v) throws IOException {
-    stats[backend].load_count.incrementAndGet();
+    PersistStatsEntry s = stats[backend];
+    s.load_count.incrementAndGet();
+    long start = System.nanoTime();
     byte[] arr = I[backend].load(v);
-    stats[backend].load_bytes.addAndGet(arr.length);
+    s.load_time_nanos.addAndGet(System.nanoTime() - start);
+    if (arr == null) {
+      s.load_miss_count.incrementAndGet();
+      return null;
+    }
+    s.load_hit_count.incrementAndGet();
+    s.load_bytes.addAndGet(arr.length);
     return arr;
   }
 
   /** Get the current Persist flavor for user-mode swapping. */
   public Persist getIce() { return I[Value.ICE]; }
 
+  /** Get the backend of Chunks reloaded from frame snapshots. */
+  public PersistSnapshot getSnapshot() { return (PersistSnapshot) I[Value.SNAP]; }
+
   /** Convert given URI into a specific H2O key representation.
    *
    * The representation depends on persistent backend, since it will
@@ -575,4 +618,8 @@ public class PersistManager {
   static boolean useHdfsAsFallback() {
     return System.getProperty(PROP_ENABLE_HDFS_FALLBACK, "true").equals("true");
   }
+
+  static boolean useSegmentedIce() {
+    return System.getProperty(PROP_ICE_SEGMENTED, "false").equals("true");
+  }
 }
@@ -0,0 +1,135 @@
+package water.persist;
+
+import water.Key;
+import water.MemoryManager;
+import water.Value;
+import water.util.Log;
+import water.util.UnsafeUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistence backend for user-mode swapping which keeps spilled Values in off-heap (native) memory.
+ * <p>
+ * Chunks spilled by the Cleaner are copied into memory regions allocated by {@link MemoryManager#mallocOffHeap(long)};
+ * when the Cleaner drops their heap copy under memory pressure, reloading them is a plain memory copy. Chunks
+ * in use are always on the heap, all Chunk accessors work over a heap byte[]. The regions are freed explicitly
+ * when a Value is deleted or overwritten, so the off-heap usage is always known exactly.
+ * <p>
+ * Once the off-heap budget is exhausted Values are stored on disk (see {@link PersistFS}). All other
+ * (non-swapping) operations are inherited from {@link PersistFS} as well.
+ */
+final class PersistOffHeap extends PersistFS {
+
+  private final long _maxBytes;
+  private final AtomicLong _usedBytes = new AtomicLong();
+  private final ConcurrentHashMap<Key, Region> _regions = new ConcurrentHashMap<>();
+  // Values which did not fit into the budget and were stored on disk
+  private final Set<Key> _onDisk = Collections.newSetFromMap(new ConcurrentHashMap<Key, Boolean>());
+
+  PersistOffHeap(File root) {
+    this(root, MemoryManager.OFFHEAP_MAX);
+  }
+
+  PersistOffHeap(File root, long maxBytes) {
+    super(root);
+    if (maxBytes < 0)
+      throw new IllegalArgumentException("Off-heap budget cannot be negative, got: " + maxBytes);
+    _maxBytes = maxBytes;
+  }
+
+  /** Off-heap copy of a Value; the memory is only accessed while holding the lock of the region */
+  private static final class Region {
+    private long _address;
+    private final int _len;
+    Region(long address, int len) { _address = address; _len = len; }
+
+    synchronized byte[] read(int len) {
+      if (_address == 0 || _len < len)
+        return null; // Freed by a racing delete
+      byte[] m = MemoryManager.malloc1(len);
+      UnsafeUtils.copyFromNative(_address, m, 0, len);
+      return m;
+    }
+
+    synchronized void free() {
+      if (_address == 0)
+        return;
+      MemoryManager.freeOffHeap(_address, _len);
+      _address = 0;
+    }
+  }
+
+  @Override public byte[] load(Value v) throws IOException {
+    Region r = _regions.get(v._key);
+    if (r != null) {
+      byte[] m = r.read(v._max);
+      if (m != null)
+        return m;
+    }
+    return _onDisk.contains(v._key) ? super.load(v) : null;
+  }
+
+  @Override public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad(); // we are not single threaded anymore
+    if( m != null && m.length != v._max ) {
+      Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
+      v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
+    }
+    long address = m == null || m.length == 0 ? 0 : reserve(m.length);
+    if (address == 0) { // Empty or out of the off-heap budget
+      release(_regions.remove(v._key));
+      _onDisk.add(v._key);
+      super.store(v);
+      return;
+    }
+    UnsafeUtils.copyToNative(m, 0, address, m.length);
+    release(_regions.put(v._key, new Region(address, m.length)));
+    if (_onDisk.remove(v._key)) // Older copy did not fit into the budget
+      super.delete(v);
+  }
+
+  @Override public void delete(Value v) {
+    release(_regions.remove(v._key));
+    if (_onDisk.remove(v._key))
+      super.delete(v);
+  }
+
+  @Override public void cleanUp() {
+    for (Key k : _regions.keySet())
+      release(_regions.remove(k));
+    _onDisk.clear();
+    super.cleanUp();
+  }
+
+  /** Number of bytes currently held in off-heap memory by this store */
+  long usedBytes() { return _usedBytes.get(); }
+
+  /** Number of Values currently stored on disk by this store */
+  int onDiskCount() { return _onDisk.size(); }
+
+  private long reserve(int len) {
+    if (_usedBytes.addAndGet(len) > _maxBytes) {
+      _usedBytes.addAndGet(-len);
+      return 0;
+    }
+    long address = MemoryManager.mallocOffHeap(len);
+    if (address == 0)
+      _usedBytes.addAndGet(-len);
+    return address;
+  }
+
+  private void release(Region r) {
+    if (r == null)
+      return;
+    r.free();
+    _usedBytes.addAndGet(-r._len);
+  }
+
+}
@@ -0,0 +1,230 @@
+package water.persist;
+
+import water.Key;
+import water.Value;
+import water.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Persistence backend for user-mode swapping which stores all spilled Values in a small number of large,
+ * memory-mapped, append-only segment files instead of one file per Value (see {@link PersistFS}).
+ * <p>
+ * Location of every stored Value is kept in an in-memory index (Key -&gt; segment, offset, length). Values
+ * are only ever appended to the active segment, a full segment is sealed and never written again. Deleted
+ * (or overwritten) Values leave dead bytes behind, a sealed segment is compacted (live Values are moved
+ * to the active segment and the segment file is removed) once the ratio of dead bytes reaches
+ * {@link #COMPACTION_THRESHOLD}.
+ * <p>
+ * Loading is lock-free: segments are never unmapped explicitly and their content is never modified after
+ * a Value was appended, a slice of the mapped segment thus stays valid even if the segment is compacted
+ * concurrently. All index mutations (store, delete, compaction) are serialized on the store instance.
+ * <p>
+ * All other (non-swapping) operations are inherited from {@link PersistFS}.
+ */
+final class PersistSegmentedFS extends PersistFS {
+
+  /** Size of a segment file in bytes */
+  final static String PROP_SEGMENT_SIZE = SYSTEM_PROP_PREFIX + "persist.ice.segment.size";
+  final static int DEFAULT_SEGMENT_SIZE = 256 << 20;
+
+  /** Sealed segment is compacted when this fraction of its bytes belongs to deleted Values */
+  final static double COMPACTION_THRESHOLD = 0.5;
+
+  private final int _segmentSize;
+  private final File _segDir;
+  private final ConcurrentHashMap<Key, Record> _index = new ConcurrentHashMap<>();
+
+  // All fields below are guarded by `this`
+  private final ArrayList<Segment> _segments = new ArrayList<>();
+  private Segment _active;
+  private int _nextSegmentId;
+  private long _compactions;
+
+  PersistSegmentedFS(File root) {
+    this(root, Integer.getInteger(PROP_SEGMENT_SIZE, DEFAULT_SEGMENT_SIZE));
+  }
+
+  PersistSegmentedFS(File root, int segmentSize) {
+    super(root);
+    if (segmentSize <= 0)
+      throw new IllegalArgumentException("Segment size needs to be positive, got: " + segmentSize);
+    _segmentSize = segmentSize;
+    _segDir = new File(_dir, "segments");
+  }
+
+  /** Location of a stored Value, immutable */
+  private static final class Record {
+    final Segment _seg;
+    final int _off;
+    final int _len;
+    Record(Segment seg, int off, int len) { _seg = seg; _off = off; _len = len; }
+  }
+
+  private static final class Segment {
+    final int _id;
+    final File _file;
+    final MappedByteBuffer _buf;
+    final HashSet<Key> _keys = new HashSet<>(); // Keys with a record in this segment (some might be stale)
+    int _end;  // Append position
+    long _dead; // Bytes of deleted/overwritten Values
+
+    Segment(int id, File file, int size) throws IOException {
+      _id = id;
+      _file = file;
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(size);
+        // Mapping stays valid after the channel is closed
+        _buf = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+      }
+    }
+
+    int remaining() { return _buf.capacity() - _end; }
+
+    int append(byte[] m, int len) {
+      int off = _end;
+      ByteBuffer bb = _buf.duplicate();
+      bb.position(off);
+      bb.put(m, 0, len);
+      _end += len;
+      return off;
+    }
+
+    ByteBuffer slice(int off, int len) {
+      ByteBuffer bb = _buf.duplicate();
+      bb.limit(off + len).position(off);
+      return bb.slice();
+    }
+  }
+
+  /** Returns a read-only view of the stored bytes of a Value (a slice of the mapped segment) without copying,
+   *  or null if the Value is not stored. */
+  ByteBuffer loadBuffer(Value v) {
+    Record r = _index.get(v._key);
+    if (r == null || r._len < v._max)
+      return null;
+    return r._seg.slice(r._off, v._max).asReadOnlyBuffer();
+  }
+
+  @Override public byte[] load(Value v) throws IOException {
+    ByteBuffer bb = loadBuffer(v);
+    if (bb == null) { // Should be fully on disk...
+      // or it's a racey delete of a spilled value
+      assert !v.isPersisted() : v._max + " " + v._key;
+      return null; // No value
+    }
+    byte[] b = new byte[bb.remaining()];
+    bb.get(b);
+    return b;
+  }
+
+  @Override public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad(); // we are not single threaded anymore
+    if( m != null && m.length != v._max ) {
+      Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
+      v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
+    }
+    if (m == null)
+      throw new IOException("No data to store for " + v._key);
+    synchronized (this) {
+      append(v._key, m, m.length);
+    }
+  }
+
+  @Override public void delete(Value v) {
+    synchronized (this) {
+      Record r = _index.remove(v._key);
+      if (r != null)
+        release(r);
+    }
+  }
+
+  @Override public void cleanUp() {
+    synchronized (this) {
+      _index.clear();
+      _segments.clear();
+      _active = null;
+    }
+    super.cleanUp();
+  }
+
+  /** Number of segment files currently in use */
+  synchronized int segmentCount() { return _segments.size(); }
+
+  /** Number of compactions performed so far */
+  synchronized long compactionCount() { return _compactions; }
+
+  // Guarded by `this`
+  private void append(Key k, byte[] m, int len) throws IOException {
+    Segment s = _active;
+    if (s == null || s.remaining() < len) {
+      Segment sealed = s;
+      s = _active = newSegment(Math.max(_segmentSize, len));
+      if (sealed != null)
+        maybeCompact(sealed); // Sealing the active segment makes it eligible for compaction
+    }
+    int off = s.append(m, len);
+    s._keys.add(k);
+    Record old = _index.put(k, new Record(s, off, len));
+    if (old != null)
+      release(old);
+  }
+
+  // Guarded by `this`
+  private void release(Record r) {
+    Segment s = r._seg;
+    s._dead += r._len;
+    if (s != _active)
+      maybeCompact(s);
+  }
+
+  // Guarded by `this`
+  private void maybeCompact(Segment s) {
+    if (s._dead < COMPACTION_THRESHOLD * s._end)
+      return;
+    if (!_segments.contains(s))
+      return; // Already compacted
+    _segments.remove(s);
+    try {
+      for (Key k : s._keys) {
+        Record r = _index.get(k);
+        if (r == null || r._seg != s)
+          continue; // Deleted or overwritten
+        ByteBuffer bb = s.slice(r._off, r._len);
+        byte[] m = new byte[r._len];
+        bb.get(m);
+        append(k, m, r._len); // Replaces the index record, releases the old one
+      }
+      _compactions++;
+    } catch (IOException e) {
+      Log.err("Compaction of ice segment " + s._file + " failed", e);
+      _segments.add(s); // Keep the segment - live records are still pointing to it
+      return;
+    }
+    s._keys.clear();
+    if (!s._file.delete())
+      Log.warn("Unable to delete compacted ice segment " + s._file);
+  }
+
+  // Guarded by `this`
+  private Segment newSegment(int size) throws IOException {
+    if (!_segDir.mkdirs() && !_segDir.exists())
+      throw new IOException("mkdirs failed making " + _segDir);
+    int id = _nextSegmentId++;
+    Segment s = new Segment(id, new File(_segDir, String.format("segment-%08d.ice", id)), size);
+    _segments.add(s);
+    return s;
+  }
+
+}
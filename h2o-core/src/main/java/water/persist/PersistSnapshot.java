@@ -0,0 +1,167 @@
+package water.persist;
+
+import water.H2O;
+import water.Key;
+import water.Value;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistence backend for Chunks of frames reloaded from a snapshot (see {@link water.fvec.FrameSnapshot}).
+ * <p>
+ * Snapshot files are memory-mapped and the Chunk Values are installed without any data, the bytes of a Chunk
+ * are copied out of the mapping on the first touch (and again whenever the Cleaner dropped them from the heap).
+ * Snapshot files are read-only, a modified Chunk becomes a regular (ICE) Value.
+ * <p>
+ * The location of every installed Chunk is kept in a node-local index, only the home node of a Chunk
+ * registers it. Mappings are shared by the Chunks of the same file, a file is identified by its path and its
+ * attributes (size, modification time, inode) so a snapshot overwritten in place is mapped again. A mapping is
+ * dropped when the last Chunk backed by it is deleted.
+ */
+public final class PersistSnapshot extends Persist {
+
+  private final ConcurrentHashMap<Key, Location> _index = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<FileId, Mapping> _files = new ConcurrentHashMap<>();
+
+  /** Location of the Chunk bytes in a mapped snapshot file, immutable */
+  private static final class Location {
+    final Mapping _map;
+    final int _off;
+    final int _len;
+    Location(Mapping map, int off, int len) { _map = map; _off = off; _len = len; }
+  }
+
+  /** Mapped snapshot file and the number of Values backed by it */
+  private static final class Mapping {
+    final FileId _id;
+    final MappedByteBuffer _buf;
+    final AtomicInteger _refs = new AtomicInteger();
+    Mapping(FileId id, MappedByteBuffer buf) { _id = id; _buf = buf; }
+  }
+
+  /** Identity of a file: a file rewritten at the same path is a different file */
+  private static final class FileId {
+    final String _path;
+    final long _size;
+    final long _mtime;
+    final Object _inode; // null if not supported by the file system
+    FileId(File file) throws IOException {
+      BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+      _path = file.getCanonicalPath();
+      _size = attrs.size();
+      _mtime = attrs.lastModifiedTime().toMillis();
+      _inode = attrs.fileKey();
+    }
+    @Override public boolean equals(Object o) {
+      if (!(o instanceof FileId)) return false;
+      FileId id = (FileId) o;
+      return _path.equals(id._path) && _size == id._size && _mtime == id._mtime
+          && (_inode == null ? id._inode == null : _inode.equals(id._inode));
+    }
+    @Override public int hashCode() { return _path.hashCode() * 31 + (int) (_mtime ^ (_mtime >>> 32)); }
+  }
+
+  /**
+   * Registers bytes of a snapshot file as the backing storage of the given key.
+   *
+   * @param k key of the Value (typically a Chunk key)
+   * @param file snapshot file, mapped on first use
+   * @param off offset of the Value bytes in the file
+   * @param len number of bytes
+   */
+  public void register(Key k, File file, int off, int len) throws IOException {
+    Mapping map = map(file);
+    if (off < 0 || len < 0 || off + len > map._buf.capacity())
+      throw new IOException("Invalid location " + off + "+" + len + " in snapshot file " + file);
+    map._refs.incrementAndGet();
+    Location old = _index.put(k, new Location(map, off, len));
+    if (old != null)
+      release(old);
+  }
+
+  private Mapping map(File file) throws IOException {
+    FileId id = new FileId(file);
+    Mapping map = _files.get(id);
+    if (map != null)
+      return map;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      // Mapping stays valid after the channel is closed
+      map = new Mapping(id, raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+    }
+    Mapping old = _files.putIfAbsent(id, map);
+    return old != null ? old : map;
+  }
+
+  private void release(Location l) {
+    if (l._map._refs.decrementAndGet() == 0)
+      _files.remove(l._map._id, l._map);
+  }
+
+  /**
+   * Stops sharing the mappings of the files in the given directory with the Values registered later, called before
+   * a snapshot is overwritten. Values already registered keep their mapping.
+   */
+  public void evict(File dir) throws IOException {
+    String path = dir.getCanonicalPath();
+    for (FileId id : _files.keySet())
+      if (path.equals(new File(id._path).getParent()))
+        _files.remove(id);
+  }
+
+  /** Number of Values currently backed by snapshot files on this node */
+  public int size() { return _index.size(); }
+
+  /** Number of snapshot files currently mapped and shared on this node */
+  public int mappedFiles() { return _files.size(); }
+
+  @Override public byte[] load(Value v) throws IOException {
+    Location l = _index.get(v._key);
+    if (l == null || l._len < v._max)
+      throw new IOException("Snapshot data of " + v._key + " are not available on this node");
+    ByteBuffer bb = l._map._buf.duplicate();
+    bb.position(l._off);
+    byte[] b = new byte[v._max];
+    bb.get(b);
+    return b;
+  }
+
+  @Override public void store(Value v) {
+    throw H2O.fail("Snapshot files are read-only, cannot store " + v._key);
+  }
+
+  @Override public void delete(Value v) {
+    Location l = _index.remove(v._key);
+    if (l != null)
+      release(l);
+  }
+
+  @Override public void cleanUp() {
+    _index.clear();
+    _files.clear();
+  }
+
+  @Override public Key uriToKey(URI uri) {
+    throw H2O.unimpl();
+  }
+
+  @Override public ArrayList<String> calcTypeaheadMatches(String filter, int limit) {
+    throw H2O.unimpl();
+  }
+
+  @Override public void importFiles(String path, String pattern, ArrayList<String> files, ArrayList<String> keys,
+                                    ArrayList<String> fails, ArrayList<String> dels) {
+    throw H2O.unimpl();
+  }
+
+}
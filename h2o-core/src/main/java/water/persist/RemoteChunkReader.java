@@ -0,0 +1,416 @@
+package water.persist;
+
+import water.*;
+import water.H2O.H2OCountedCompleter;
+import water.fvec.FileVec;
+import water.fvec.Vec;
+import water.util.FileUtils;
+import water.util.Log;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Read layer under the {@link FileVec} chunks of remote files (HDFS, S3), which turns the loads of single chunks
+ * into fewer and larger ranged reads.
+ * <p>
+ * A load of a chunk also reads the following chunks of the file homed on this node in the same ranged read (up to
+ * {@link #PROP_MAX_READ} bytes), and starts reading the next {@link #PROP_PREFETCH} chunks homed on this node in
+ * the background, so that they are ready by the time the parser gets to them. Every chunk read is kept in a bounded
+ * local-disk block cache under the ice root with LRU eviction: the chunks read ahead wait there until they are
+ * loaded, and a chunk whose bytes were dropped by the Cleaner is loaded again from the local disk instead of the
+ * remote store.
+ * <p>
+ * A chunk is never read twice at the same time, a load of a chunk which is being read (ahead) waits for that read.
+ * Without the block cache (size 0) chunks are read one by one, exactly as requested.
+ * <p>
+ * The blocks are identified by the import of the file ({@link FileVec#_importId}) and its chunk size besides the
+ * chunk key, which only depends on the path: a file changed and imported again is never served from stale blocks.
+ * The blocks of a file are dropped from the cache when its chunks are removed, see {@link #evict(Key)}.
+ */
+public final class RemoteChunkReader {
+
+  /** Enables the coalescing of reads, the read-ahead and the block cache */
+  public static final String PROP_ENABLED = SYSTEM_PROP_PREFIX + "persist.remote.readahead";
+  /** Number of the chunks homed on this node which are read ahead of the chunk being loaded */
+  public static final String PROP_PREFETCH = SYSTEM_PROP_PREFIX + "persist.remote.prefetch";
+  /** Maximal size of a single ranged read, in bytes */
+  public static final String PROP_MAX_READ = SYSTEM_PROP_PREFIX + "persist.remote.max.read";
+  /** Size of the local-disk block cache, in bytes */
+  public static final String PROP_CACHE_SIZE = SYSTEM_PROP_PREFIX + "persist.remote.cache.size";
+
+  static final int DEFAULT_PREFETCH = 4;
+  static final int DEFAULT_MAX_READ = 32 << 20;
+  static final long DEFAULT_CACHE_SIZE = 4L << 30;
+
+  /** Ranged reads of a remote backend */
+  public interface RangeReader {
+    /**
+     * Reads len bytes of a remote file, starting at the given file offset
+     * @param k Key of the file, or of the first chunk being read (the offset is always relative to the file)
+     */
+    void read(Key k, long off, byte[] dst, int dstOff, int len) throws IOException;
+  }
+
+  private final String _name;
+  private final RangeReader _reader;
+  private final File _dir;
+  private final long _cacheSize;
+  private final int _prefetch;
+  private final int _maxRead;
+
+  // Chunks being read, removed once their bytes are in the block cache
+  private final ConcurrentHashMap<BlockId, Block> _reading = new ConcurrentHashMap<>();
+
+  // Block cache; all fields below are guarded by _cache
+  private final LinkedHashMap<BlockId, CachedBlock> _cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long _cached;
+  private long _nextFile;
+  private boolean _dirReady;
+
+  private final AtomicLong _remoteReads = new AtomicLong();
+  private final AtomicLong _remoteBytes = new AtomicLong();
+  private final AtomicLong _cacheHits = new AtomicLong();
+
+  /**
+   * @param name Name of the backend, the block cache is kept in its own directory
+   * @param reader Ranged reads of the backend
+   * @return reader configured by the system properties
+   */
+  public static RemoteChunkReader make(String name, RangeReader reader) {
+    File dir = new File(localIceRoot(), "remote" + H2O.API_PORT + File.separator + name);
+    if (!Boolean.parseBoolean(System.getProperty(PROP_ENABLED, "true")))
+      return new RemoteChunkReader(name, reader, dir, 0, 0, 0);
+    return new RemoteChunkReader(name, reader, dir,
+            Long.getLong(PROP_CACHE_SIZE, DEFAULT_CACHE_SIZE),
+            Integer.getInteger(PROP_PREFETCH, DEFAULT_PREFETCH),
+            Integer.getInteger(PROP_MAX_READ, DEFAULT_MAX_READ));
+  }
+
+  RemoteChunkReader(String name, RangeReader reader, File dir, long cacheSize, int prefetch, int maxRead) {
+    _name = name;
+    _reader = reader;
+    _dir = dir;
+    _cacheSize = Math.max(cacheSize, 0);
+    _prefetch = _cacheSize > 0 ? Math.max(prefetch, 0) : 0;
+    _maxRead = _cacheSize > 0 ? maxRead : 0;
+  }
+
+  // Local directory of the ice root, the ice root itself might not be local
+  private static File localIceRoot() {
+    if (H2O.ICE_ROOT == null)
+      return new File(H2O.DEFAULT_ICE_ROOT());
+    if (H2O.ICE_ROOT.toString().matches("^[a-zA-Z]:.*"))
+      return new File(H2O.ICE_ROOT.toString());
+    if (H2O.ICE_ROOT.getScheme() == null || PersistManager.Schemes.FILE.equals(H2O.ICE_ROOT.getScheme()))
+      return new File(H2O.ICE_ROOT.getPath());
+    return new File(H2O.DEFAULT_ICE_ROOT());
+  }
+
+  /** Number of ranged reads issued to the backend */
+  public long remoteReads() { return _remoteReads.get(); }
+  /** Number of bytes read from the backend */
+  public long remoteBytes() { return _remoteBytes.get(); }
+  /** Number of chunks loaded from the block cache */
+  public long cacheHits() { return _cacheHits.get(); }
+
+  /**
+   * Loads the bytes of a Value of the backend. Chunks of a {@link FileVec} go through the block cache and trigger
+   * the read-ahead, any other Value is simply read.
+   */
+  public byte[] load(Value v) throws IOException {
+    Key k = v._key;
+    if (!k.isChunkKey() || _cacheSize == 0) {
+      byte[] b = MemoryManager.malloc1(v._max);
+      readRange(k, k.isChunkKey() ? FileVec.chunkOffset(k) : 0, b, 0, b.length);
+      return b;
+    }
+    FileVec vec = (FileVec) Vec.getVecKey(k).get();
+    int cidx = (int) (FileVec.chunkOffset(k) / vec._chunkSize);
+    byte[] b = load(vec, cidx);
+    assert b.length == v._max : "Chunk " + k + " has " + v._max + " bytes, read " + b.length;
+    readAhead(vec, cidx);
+    return b;
+  }
+
+  private byte[] load(FileVec vec, int cidx) throws IOException {
+    BlockId id = new BlockId(vec, cidx);
+    while (true) {
+      Block blk = _reading.get(id);
+      if (blk != null) {
+        byte[] b = blk.get();
+        if (b != null) return b;
+        continue; // Read ahead failed, read it again
+      }
+      byte[] b = cached(id);
+      if (b != null) return b;
+      ArrayList<Block> run = new ArrayList<>();
+      if (!claim(vec, cidx, run)) continue; // Lost a race with another read, wait for it
+      for (int i = cidx + 1; i < vec.nChunks() && claimNext(vec, i, run); i++) ;
+      IOException ioe = fetch(vec, run);
+      if (ioe != null) throw ioe;
+      return run.get(0).get();
+    }
+  }
+
+  // Starts the reads of the next chunks homed on this node, which are neither cached nor being read
+  private void readAhead(FileVec vec, int cidx) {
+    if (_prefetch == 0) return;
+    int nchks = vec.nChunks();
+    int end = (int) Math.min(nchks, cidx + 1 + (long) _prefetch * H2O.CLOUD.size());
+    int found = 0;
+    ArrayList<Block> run = new ArrayList<>();
+    for (int i = cidx + 1; i < end && found < _prefetch; i++) {
+      Key k = vec.chunkKey(i);
+      if (!k.home()) continue;
+      found++;
+      if (!run.isEmpty() && run.get(run.size() - 1)._cidx == i - 1 && claimNext(vec, i, run)) continue;
+      submit(vec, run);
+      run = new ArrayList<>();
+      if (!isCached(new BlockId(vec, i))) claim(vec, i, run);
+    }
+    submit(vec, run);
+  }
+
+  private void submit(final FileVec vec, final ArrayList<Block> run) {
+    if (run.isEmpty()) return;
+    H2O.submitTask(new H2OCountedCompleter() {
+      @Override public void compute2() {
+        IOException ioe = fetch(vec, run);
+        if (ioe != null)
+          Log.debug("Read ahead of " + vec._key + " failed, the chunks will be read on demand: " + ioe);
+        tryComplete();
+      }
+    });
+  }
+
+  // Claims the read of a chunk
+  private boolean claim(FileVec vec, int cidx, ArrayList<Block> run) {
+    Block blk = new Block(new BlockId(vec, cidx), cidx, chunkLen(vec, cidx));
+    if (_reading.putIfAbsent(blk._id, blk) != null) return false;
+    if (isCached(blk._id)) { // Read completed meanwhile
+      blk.done(null);
+      _reading.remove(blk._id, blk);
+      return false;
+    }
+    run.add(blk);
+    return true;
+  }
+
+  // Claims the read of the chunk following a run of chunks, if it can be read together with the run
+  private boolean claimNext(FileVec vec, int cidx, ArrayList<Block> run) {
+    assert run.get(run.size() - 1)._cidx == cidx - 1;
+    if (!vec.chunkKey(cidx).home() || isCached(new BlockId(vec, cidx))) return false;
+    long len = 0;
+    for (Block blk : run) len += blk._len;
+    return len + chunkLen(vec, cidx) <= _maxRead && claim(vec, cidx, run);
+  }
+
+  private static int chunkLen(FileVec vec, int cidx) {
+    return (int) (cidx < vec.nChunks() - 1 ? vec._chunkSize : vec.length() - (long) cidx * vec._chunkSize);
+  }
+
+  // Reads a run of claimed chunks in one ranged read and caches them; never throws, the error is returned
+  private IOException fetch(FileVec vec, ArrayList<Block> run) {
+    Block first = run.get(0);
+    int len = 0;
+    for (Block blk : run) len += blk._len;
+    IOException ioe = null;
+    byte[] buf = null;
+    try {
+      buf = MemoryManager.malloc1(len);
+      readRange(first._id._key, (long) first._cidx * vec._chunkSize, buf, 0, len);
+    } catch (IOException e) {
+      ioe = e;
+    } catch (RuntimeException e) {
+      ioe = new IOException(e);
+    }
+    for (int i = 0, off = 0; i < run.size(); off += run.get(i++)._len) {
+      Block blk = run.get(i);
+      byte[] b = null;
+      if (ioe == null) {
+        b = run.size() == 1 ? buf : Arrays.copyOfRange(buf, off, off + blk._len);
+        cache(blk._id, b);
+      }
+      // Cache first, a load which misses the Block finds the bytes in the cache
+      blk.done(b);
+      _reading.remove(blk._id, blk);
+    }
+    return ioe;
+  }
+
+  private void readRange(Key k, long off, byte[] dst, int dstOff, int len) throws IOException {
+    _remoteReads.incrementAndGet();
+    _remoteBytes.addAndGet(len);
+    _reader.read(k, off, dst, dstOff, len);
+  }
+
+  private boolean isCached(BlockId k) {
+    synchronized (_cache) {
+      return _cache.containsKey(k);
+    }
+  }
+
+  private byte[] cached(BlockId k) {
+    CachedBlock cb;
+    synchronized (_cache) {
+      cb = _cache.get(k);
+    }
+    if (cb == null) return null;
+    byte[] b = MemoryManager.malloc1(cb._len);
+    try (FileInputStream s = new FileInputStream(cb._file)) {
+      int off = 0;
+      while (off < b.length) {
+        int n = s.read(b, off, b.length - off);
+        if (n < 0) throw new EOFException();
+        off += n;
+      }
+    } catch (IOException e) { // Evicted meanwhile, or broken
+      synchronized (_cache) {
+        if (_cache.get(k) == cb) {
+          _cache.remove(k);
+          _cached -= cb._len;
+        }
+      }
+      return null;
+    }
+    _cacheHits.incrementAndGet();
+    return b;
+  }
+
+  private void cache(BlockId k, byte[] b) {
+    if (b.length > _cacheSize) return;
+    File f;
+    synchronized (_cache) {
+      if (!_dirReady) {
+        FileUtils.delete(_dir); // Left behind by a previous run
+        if (!_dir.mkdirs() && !_dir.isDirectory()) {
+          Log.warn("Cannot create the block cache directory " + _dir + ", remote reads of " + _name + " are not cached");
+          return;
+        }
+        _dirReady = true;
+      }
+      f = new File(_dir, "blk" + _nextFile++);
+    }
+    try (FileOutputStream s = new FileOutputStream(f)) {
+      s.write(b);
+    } catch (IOException e) {
+      Log.warn("Cannot write the block cache file " + f + ": " + e);
+      f.delete();
+      return;
+    }
+    synchronized (_cache) {
+      CachedBlock old = _cache.put(k, new CachedBlock(f, b.length));
+      if (old != null) {
+        _cached -= old._len;
+        old._file.delete();
+      }
+      _cached += b.length;
+      Iterator<Map.Entry<BlockId, CachedBlock>> it = _cache.entrySet().iterator();
+      while (_cached > _cacheSize && it.hasNext()) {
+        CachedBlock cb = it.next().getValue();
+        it.remove();
+        _cached -= cb._len;
+        cb._file.delete();
+      }
+    }
+  }
+
+  /** Drops the cached blocks of a file, all imports of it included */
+  public void evict(Key vecKey) {
+    synchronized (_cache) {
+      Iterator<Map.Entry<BlockId, CachedBlock>> it = _cache.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<BlockId, CachedBlock> e = it.next();
+        if (!Vec.getVecKey(e.getKey()._key).equals(vecKey)) continue;
+        it.remove();
+        _cached -= e.getValue()._len;
+        e.getValue()._file.delete();
+      }
+    }
+  }
+
+  /** Number of blocks in the cache */
+  int cachedBlocks() {
+    synchronized (_cache) {
+      return _cache.size();
+    }
+  }
+
+  /** Drops the block cache */
+  public void clear() {
+    synchronized (_cache) {
+      for (CachedBlock cb : _cache.values())
+        cb._file.delete();
+      _cache.clear();
+      _cached = 0;
+    }
+  }
+
+  // A chunk of an import of a file, with a given chunk size
+  private static final class BlockId {
+    final Key _key;
+    final long _importId;
+    final int _chunkSize;
+
+    BlockId(FileVec vec, int cidx) { _key = vec.chunkKey(cidx); _importId = vec._importId; _chunkSize = vec._chunkSize; }
+
+    @Override public boolean equals(Object o) {
+      if (!(o instanceof BlockId)) return false;
+      BlockId id = (BlockId) o;
+      return _importId == id._importId && _chunkSize == id._chunkSize && _key.equals(id._key);
+    }
+
+    @Override public int hashCode() { return _key.hashCode() ^ (int) (_importId ^ (_importId >>> 32)) ^ _chunkSize; }
+  }
+
+  private static final class CachedBlock {
+    final File _file;
+    final int _len;
+    CachedBlock(File file, int len) { _file = file; _len = len; }
+  }
+
+  // A chunk being read
+  private static final class Block {
+    final BlockId _id;
+    final int _cidx;
+    final int _len;
+    private final CountDownLatch _done = new CountDownLatch(1);
+    private volatile byte[] _bytes;
+
+    Block(BlockId id, int cidx, int len) { _id = id; _cidx = cidx; _len = len; }
+
+    void done(byte[] b) {
+      _bytes = b;
+      _done.countDown();
+    }
+
+    // Bytes of the chunk, null if the read failed
+    byte[] get() {
+      boolean interrupted = false;
+      while (true) {
+        try {
+          _done.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) Thread.currentThread().interrupt();
+      return _bytes;
+    }
+  }
+}
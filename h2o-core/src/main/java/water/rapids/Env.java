@@ -400,6 +400,11 @@ public class Env extends Iced {
     throw new IllegalArgumentException("Name lookup of '" + id + "' failed");
   }
 
+  /** Built-in primitive of the given name, or null; ignores any variables shadowing the name */
+  static AstPrimitive builtin(String id) {
+    return PRIMS.get(id);
+  }
+
   public String expand(String id) {
     return id.startsWith("$")? id.substring(1) + "~" + _ses.id() : id;
   }
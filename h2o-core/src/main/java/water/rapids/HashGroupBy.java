@@ -0,0 +1,449 @@
+package water.rapids;
+
+import water.*;
+import water.fvec.AppendableVec;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.rapids.ast.prims.mungers.AstGroup;
+import water.util.Log;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Distributed hash aggregation for the group-by of {@link AstGroup}.
+ * <p>
+ * {@link AstGroup.GBTask} keeps every group as an object in a hashtable which ends up on every node, so a group-by
+ * with many millions of groups is limited by the heap and the GC of a single node.  Here the groups live in
+ * open-addressing tables of primitive arrays and are spread over the cloud:
+ * <ol>
+ *   <li>The partitions of the groups are ranges of the whole group key, split at the quantiles of the distinct keys
+ *   in a sample of the rows (see {@link SampleKeys}).  Keys seen more than once in the sample count once, so the
+ *   partitions hold about as many groups each, whatever the distribution of the rows or of the first column; NAs
+ *   sort first.  Equal splitters are dropped, a group-by with few distinct keys gets fewer partitions.</li>
+ *   <li>Every chunk aggregates its rows into small tables, one per partition, and merges them into the tables of its
+ *   node.</li>
+ *   <li>Every node moves its table of a partition to the node owning that partition, the same way
+ *   {@link SplitByMSBLocal} routes the MSBs of a sort.</li>
+ *   <li>The owners merge the tables of all the nodes, in parallel for all the partitions, sort the groups of a
+ *   partition and write them as the chunk of the partition in the result.  As the partitions are ranges of the
+ *   group key, the result is sorted the same way as the one of {@link AstGroup}.</li>
+ * </ol>
+ * Group-bys with few groups are left to {@link AstGroup.GBTask}, see {@link #useHashGroupBy}.
+ */
+public class HashGroupBy {
+  /** Set to false to always use the hashtable of groups of {@link AstGroup} */
+  public static final String PROP_HASH_GROUPBY = SYSTEM_PROP_PREFIX + "rapids.groupby.hash";
+  /** Smallest estimated number of groups for which the distributed hash aggregation is used */
+  public static final String PROP_HASH_GROUPBY_MIN_GROUPS = SYSTEM_PROP_PREFIX + "rapids.groupby.hash.minGroups";
+  private static final boolean HASH_GROUPBY = Boolean.parseBoolean(System.getProperty(PROP_HASH_GROUPBY, "true"));
+  private static final long MIN_GROUPS = Long.parseLong(System.getProperty(PROP_HASH_GROUPBY_MIN_GROUPS, "100000"));
+
+  static final int NPARTS = 256;  // Max partitions of the groups, one output chunk each
+  static final int SAMPLE_PER_PART = 64; // Sampled rows per partition to pick the splitters
+
+  /**
+   * @return true if the group-by should be done by {@link #groupBy}, i.e. if it has group-by columns and may have
+   * many groups
+   */
+  public static boolean useHashGroupBy(Frame fr, int[] gbCols) {
+    return HASH_GROUPBY && gbCols.length > 0 && estimateGroups(fr, gbCols) >= MIN_GROUPS;
+  }
+
+  // Upper bound of the number of groups, from the rollups of the group-by columns
+  static long estimateGroups(Frame fr, int[] gbCols) {
+    long nrows = fr.numRows();
+    double groups = 1;
+    for (int col : gbCols) {
+      Vec v = fr.vec(col);
+      double levels;
+      if (v.isBad()) levels = 0;
+      else if (v.isCategorical()) levels = v.cardinality();
+      else if (v.isInt()) levels = v.max() - v.min() + 1;
+      else levels = nrows;
+      if (v.naCnt() > 0) levels++; // NA is a group too
+      groups *= levels;
+      if (groups >= nrows) return nrows;
+    }
+    return (long) groups;
+  }
+
+  /**
+   * Group the rows of 'fr' by the 'gbCols' columns and reduce every group with 'aggs'.
+   *
+   * @param fcnames Names of the aggregate columns of the result
+   * @return a frame with a row per group, sorted by the group-by columns with NAs first: the group-by columns followed
+   * by a column per aggregate
+   */
+  public static Frame groupBy(Frame fr, int[] gbCols, AstGroup.AGG[] aggs, String[] fcnames) {
+    long start = System.currentTimeMillis();
+    Frame gbFr = new Frame(fr.vecs(gbCols)); // Only the group-by columns are sampled
+    double[] splitters = splitters(new SampleKeys(NPARTS * SAMPLE_PER_PART, gbFr.anyVec().nChunks()).doAll(gbFr),
+            gbCols.length, NPARTS);
+    final int nparts = splitters.length / gbCols.length + 1;
+    String prefix = "__hash_groupby__" + Key.make().toString();
+    new PartialAggregate(prefix, gbCols, aggs, splitters, nparts).doAll(fr);
+    Log.info("Hash Group By partial aggregation into " + nparts + " partitions done in " + (System.currentTimeMillis() - start) / 1000. + " (s)");
+
+    final int nCols = gbCols.length + aggs.length;
+    String[] names = new String[nCols];
+    String[][] domains = new String[nCols][];
+    for (int i = 0; i < gbCols.length; i++) {
+      names[i] = fr.name(gbCols[i]);
+      domains[i] = fr.domains()[gbCols[i]];
+    }
+    System.arraycopy(fcnames, 0, names, gbCols.length, fcnames.length);
+    Key<Vec>[] keys = new Vec.VectorGroup().addVecs(nCols);
+    long[] espc = new long[nparts];   // Shared by all the output vecs
+    AppendableVec[] avs = new AppendableVec[nCols];
+    for (int i = 0; i < nCols; i++)
+      avs[i] = new AppendableVec(keys[i], espc, Vec.T_NUM, 0);
+
+    RPC[] merges = new RPC[nparts];
+    for (int msb = 0; msb < nparts; msb++)
+      merges[msb] = new RPC<>(SplitByMSBLocal.ownerOfMSB(msb), new MergePartition(prefix, msb, gbCols.length, aggs, avs)).call();
+    long ngrps = 0;
+    for (int msb = 0; msb < nparts; msb++)
+      ngrps += espc[msb] = ((MergePartition) merges[msb].get())._nrows;
+    for (int i = 0; i < nCols; i++)
+      avs[i].setDomain(domains[i]);
+    Frame f = new Frame(names, AppendableVec.closeAll(avs));
+    Log.info("Hash Group By of " + ngrps + " groups done in " + (System.currentTimeMillis() - start) / 1000. + " (s)");
+    return f;
+  }
+
+  // Order of the group keys at keys1[o1..o1+nkeys) and keys2[o2..o2+nkeys), NaN is least; the order of AstGroup
+  static int compareKeys(double[] keys1, int o1, double[] keys2, int o2, int nkeys) {
+    for (int i = 0; i < nkeys; i++) {
+      double d1 = keys1[o1 + i], d2 = keys2[o2 + i];
+      if (Double.isNaN(d1) && !Double.isNaN(d2)) return -1;
+      if (!Double.isNaN(d1) && Double.isNaN(d2)) return 1;
+      if (d1 != d2) return d1 < d2 ? -1 : 1;
+    }
+    return 0;
+  }
+
+  // Up to maxParts-1 increasing splitters, nkeys doubles each, at the quantiles of the distinct sampled keys
+  static double[] splitters(SampleKeys sample, final int nkeys, int maxParts) {
+    final double[] keys = sample._keys;
+    Integer[] order = new Integer[sample._n];
+    for (int i = 0; i < order.length; i++) order[i] = i;
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer k1, Integer k2) { return compareKeys(keys, k1 * nkeys, keys, k2 * nkeys, nkeys); }
+    });
+    int ndistinct = 0;
+    for (int i = 0; i < order.length; i++)
+      if (i == 0 || compareKeys(keys, order[i - 1] * nkeys, keys, order[i] * nkeys, nkeys) != 0)
+        order[ndistinct++] = order[i];
+    int nparts = Math.min(maxParts, ndistinct);
+    double[] res = new double[Math.max(0, nparts - 1) * nkeys];
+    for (int p = 1; p < nparts; p++) // Distinct keys, so the splitters are strictly increasing
+      System.arraycopy(keys, order[(int) ((long) p * ndistinct / nparts)] * nkeys, res, (p - 1) * nkeys, nkeys);
+    return res;
+  }
+
+  // Partition of a group: the number of splitters less than or equal to its key; monotonic in the group order
+  static int partition(double[] key, double[] splitters, int nkeys) {
+    int lo = 0, hi = splitters.length / nkeys;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (compareKeys(splitters, mid * nkeys, key, 0, nkeys) <= 0) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  static Key partitionKey(String prefix, int msb, int node) {
+    return Key.make(prefix + "_MSB" + msb + "_node" + node,
+            (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(msb));
+  }
+
+  // --------------------------------------------------------------------------
+  // Open-addressing table of groups, with the group keys and the reduction
+  // states of the aggregates packed in primitive arrays
+  static final class GroupTable extends Iced<GroupTable> {
+    final int _nkeys;           // Group-by columns
+    final int _width;           // Doubles of reduction state per group
+    final int _naggs;
+    int _size;                  // Number of groups
+    double[] _keys;             // Group keys, _nkeys per group
+    double[] _ds;               // Reduction states, _width per group
+    long[] _ns;                 // Row counts, _naggs per group
+
+    // Only needed to add groups, i.e. not in the tables sent to the owner of a partition
+    private final transient AstGroup.AGG[] _aggs;
+    private final transient int[] _offs;  // Offset of the state of each aggregate
+    private final transient double[] _init;
+    private transient int[] _slots;       // Group index+1 per slot, 0 for an empty slot
+
+    GroupTable(int nkeys, AstGroup.AGG[] aggs) {
+      _nkeys = nkeys;
+      _naggs = aggs.length;
+      _aggs = aggs;
+      _offs = new int[aggs.length];
+      int width = 0;
+      for (int a = 0; a < aggs.length; a++) {
+        _offs[a] = width;
+        width += aggs[a]._width;
+      }
+      _width = width;
+      _init = new double[width];
+      for (int a = 0; a < aggs.length; a++)
+        System.arraycopy(aggs[a].initVal(), 0, _init, _offs[a], aggs[a]._width);
+      int cap = 8;
+      _keys = new double[cap * nkeys];
+      _ds = new double[cap * width];
+      _ns = new long[cap * aggs.length];
+      _slots = new int[2 * cap];
+    }
+
+    // Index of the group with the key at keys[off..off+_nkeys), added if absent
+    int add(double[] keys, int off) {
+      if (_size == _slots.length >> 1) grow();
+      int mask = _slots.length - 1;
+      for (int s = hash(keys, off, _nkeys) & mask; ; s = (s + 1) & mask) {
+        int g = _slots[s] - 1;
+        if (g < 0) {
+          g = _size++;
+          System.arraycopy(keys, off, _keys, g * _nkeys, _nkeys);
+          System.arraycopy(_init, 0, _ds, g * _width, _width);
+          _slots[s] = g + 1;
+          return g;
+        }
+        if (sameKey(g, keys, off)) return g;
+      }
+    }
+
+    // Reduce row 'row' of the chunks into group g
+    void accumulate(int g, Chunk[] cs, int row) {
+      for (int a = 0; a < _naggs; a++)
+        _aggs[a].op(_ds, g * _width + _offs[a], _ns, g * _naggs + a, cs[_aggs[a]._col].atd(row));
+    }
+
+    // Merge all the groups of another table with the same layout
+    void merge(GroupTable t) {
+      assert t._nkeys == _nkeys && t._width == _width && t._naggs == _naggs;
+      for (int g = 0; g < t._size; g++) {
+        int d = add(t._keys, g * _nkeys);
+        for (int a = 0; a < _naggs; a++)
+          _aggs[a].merge(_ds, d * _width + _offs[a], _ns, d * _naggs + a,
+                  t._ds, g * _width + _offs[a], t._ns[g * _naggs + a]);
+      }
+    }
+
+    // Drop the unused capacity before the table is sent; no group can be added after
+    void trim() {
+      _keys = Arrays.copyOf(_keys, _size * _nkeys);
+      _ds = Arrays.copyOf(_ds, _size * _width);
+      _ns = Arrays.copyOf(_ns, _size * _naggs);
+      _slots = null;
+    }
+
+    double postPass(int g, int a) {
+      return _aggs[a].postPass(_ds, g * _width + _offs[a], _ns[g * _naggs + a]);
+    }
+
+    // Groups in the order of their keys, NaN is least
+    Integer[] sortedGroups() {
+      Integer[] order = new Integer[_size];
+      for (int g = 0; g < _size; g++) order[g] = g;
+      Arrays.sort(order, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer g1, Integer g2) { return compareKeys(_keys, g1 * _nkeys, _keys, g2 * _nkeys, _nkeys); }
+      });
+      return order;
+    }
+
+    private boolean sameKey(int g, double[] keys, int off) {
+      int o = g * _nkeys;
+      for (int i = 0; i < _nkeys; i++) // Same equality as AstGroup.G: NaNs are equal, -0.0 is not 0.0
+        if (Double.doubleToLongBits(_keys[o + i]) != Double.doubleToLongBits(keys[off + i])) return false;
+      return true;
+    }
+
+    private void grow() {
+      int cap = _slots.length;  // Doubled capacity
+      _keys = Arrays.copyOf(_keys, cap * _nkeys);
+      _ds = Arrays.copyOf(_ds, cap * _width);
+      _ns = Arrays.copyOf(_ns, cap * _naggs);
+      _slots = new int[2 * cap];
+      int mask = _slots.length - 1;
+      for (int g = 0; g < _size; g++) {
+        int s = hash(_keys, g * _nkeys, _nkeys) & mask;
+        while (_slots[s] != 0) s = (s + 1) & mask;
+        _slots[s] = g + 1;
+      }
+    }
+
+    private static int hash(double[] keys, int off, int len) {
+      long h = 0xcbf29ce484222325L;
+      for (int i = 0; i < len; i++)
+        h = (h ^ Double.doubleToLongBits(keys[off + i])) * 0x100000001b3L;
+      // Doubles are lousy hashes; mix up the bits some
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      return (int) h;
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  // Group keys of evenly spaced rows of every chunk of the group-by columns, to pick the splitters of the partitions
+  static class SampleKeys extends MRTask<SampleKeys> {
+    private final int _perChunk;
+    int _nkeys;                 // Group-by columns
+    double[] _keys;             // Sampled keys, _nkeys doubles each
+    int _n;                     // Number of sampled keys
+
+    SampleKeys(int size, int nchunks) {
+      _perChunk = Math.max(1, (size + nchunks - 1) / Math.max(1, nchunks));
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      int len = cs[0]._len;
+      int n = Math.min(len, _perChunk);
+      _nkeys = cs.length;
+      _keys = new double[n * _nkeys];
+      for (int i = 0; i < n; i++) {
+        int row = (int) ((long) i * len / n);
+        for (int c = 0; c < _nkeys; c++)
+          _keys[i * _nkeys + c] = cs[c].atd(row);
+      }
+      _n = n;
+    }
+
+    @Override
+    public void reduce(SampleKeys mrt) {
+      if (mrt._n == 0) return;
+      if (_n == 0) {
+        _nkeys = mrt._nkeys;
+        _keys = mrt._keys;
+        _n = mrt._n;
+        return;
+      }
+      double[] keys = Arrays.copyOf(_keys, (_n + mrt._n) * _nkeys);
+      System.arraycopy(mrt._keys, 0, keys, _n * _nkeys, mrt._n * _nkeys);
+      _keys = keys;
+      _n += mrt._n;
+    }
+
+    @Override
+    protected void postGlobal() {
+      if (_keys == null) _keys = new double[0];
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  // Aggregates the rows of every chunk into per-partition tables, merged into
+  // the tables of the node, which are then moved to the owners of the partitions
+  private static class PartialAggregate extends MRTask<PartialAggregate> {
+    private final String _prefix;
+    private final int[] _gbCols;
+    private final AstGroup.AGG[] _aggs;
+    private final double[] _splitters;
+    private final int _nparts;
+    private transient GroupTable[] _tables; // Shared per-node partitions
+
+    PartialAggregate(String prefix, int[] gbCols, AstGroup.AGG[] aggs, double[] splitters, int nparts) {
+      _prefix = prefix;
+      _gbCols = gbCols;
+      _aggs = aggs;
+      _splitters = splitters;
+      _nparts = nparts;
+    }
+
+    @Override
+    protected void setupLocal() {
+      _tables = new GroupTable[_nparts];
+      for (int p = 0; p < _nparts; p++)
+        _tables[p] = new GroupTable(_gbCols.length, _aggs);
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      GroupTable[] tables = new GroupTable[_nparts]; // Groups found in this Chunk
+      double[] key = new double[_gbCols.length];
+      for (int row = 0; row < cs[0]._len; row++) {
+        for (int c = 0; c < key.length; c++)
+          key[c] = cs[_gbCols[c]].atd(row);
+        int p = partition(key, _splitters, key.length);
+        GroupTable t = tables[p];
+        if (t == null) t = tables[p] = new GroupTable(key.length, _aggs);
+        t.accumulate(t.add(key, 0), cs, row);
+      }
+      // Racy update of the node-local tables, one partition at a time
+      for (int p = 0; p < _nparts; p++)
+        if (tables[p] != null)
+          synchronized (_tables[p]) {
+            _tables[p].merge(tables[p]);
+          }
+    }
+
+    @Override
+    protected void closeLocal() {
+      // Need dontCache==true, so the tables do not remain both locally and on the owners
+      Futures fs = new Futures();
+      for (int p = 0; p < _nparts; p++)
+        if (_tables[p]._size > 0) {
+          _tables[p].trim();
+          DKV.put(partitionKey(_prefix, p, H2O.SELF.index()), _tables[p], fs, true);
+        }
+      fs.blockForPending();
+      _tables = null;
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  // Runs on the owner of a partition: merges the tables of all the nodes and
+  // writes the sorted groups as the chunk of the partition
+  private static class MergePartition extends DTask<MergePartition> {
+    private final String _prefix;
+    private final int _msb, _nkeys;
+    private final AstGroup.AGG[] _aggs;
+    private final AppendableVec[] _avs;
+    long _nrows;                // Groups in this partition
+
+    MergePartition(String prefix, int msb, int nkeys, AstGroup.AGG[] aggs, AppendableVec[] avs) {
+      _prefix = prefix;
+      _msb = msb;
+      _nkeys = nkeys;
+      _aggs = aggs;
+      _avs = avs;
+    }
+
+    @Override
+    public void compute2() {
+      GroupTable t = new GroupTable(_nkeys, _aggs);
+      for (int n = 0; n < H2O.CLOUD.size(); n++) {
+        Key k = partitionKey(_prefix, _msb, n);
+        GroupTable nt = DKV.getGet(k);
+        if (nt == null) continue;
+        DKV.remove(k);
+        t.merge(nt);
+      }
+      // Every partition writes its chunk, even if empty, so the chunks of the result have no gaps
+      NewChunk[] ncs = new NewChunk[_avs.length];
+      for (int i = 0; i < ncs.length; i++)
+        ncs[i] = new NewChunk(_avs[i], _msb);
+      for (int g : t.sortedGroups()) {
+        int j;
+        for (j = 0; j < _nkeys; j++) // The Group Key, as a row
+          ncs[j].addNum(t._keys[g * _nkeys + j]);
+        for (int a = 0; a < _aggs.length; a++)
+          ncs[j++].addNum(t.postPass(g, a));
+      }
+      Futures fs = new Futures();
+      for (NewChunk nc : ncs)
+        nc.close(fs);
+      fs.blockForPending();
+      _nrows = t._size;
+      tryComplete();
+    }
+  }
+}
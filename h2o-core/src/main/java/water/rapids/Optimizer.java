@@ -0,0 +1,68 @@
+package water.rapids;
+
+import water.rapids.ast.AstExec;
+import water.rapids.ast.AstFusedExec;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.ast.params.AstId;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Plan phase of Rapids: rewrites a parsed expression before it is executed.
+ * <p>
+ * Every maximal tree of element-wise operators (arithmetic, comparisons, math functions, ifelse) is replaced
+ * by an {@link AstFusedExec}, together with a column projection, a row filter or a sum/min/max consuming it.
+ * For example {@code (+ (* a b) (log c))} is computed in a single pass over the columns of a, b and c instead of
+ * three passes with two temporary Frames.  Single operators are left as they are, as are bodies of functions.
+ * <p>
+ * The rewrite is purely syntactic, the fused expression checks the actual operands at execution time and falls
+ * back to the regular operators if they cannot be fused.  Fusion can be disabled by setting the system property
+ * {@link #PROP_FUSION} to false.
+ */
+public class Optimizer {
+
+  public static final String PROP_FUSION = SYSTEM_PROP_PREFIX + "rapids.fusion";
+  private static final boolean FUSION = Boolean.parseBoolean(System.getProperty(PROP_FUSION, "true"));
+
+  private Optimizer() {}
+
+  /**
+   * Optimize a parsed Rapids expression; the AST is modified in place.
+   * @param ast expression to optimize
+   * @return optimized expression
+   */
+  public static AstRoot optimize(AstRoot ast) {
+    return FUSION ? fuse(ast, false) : ast;
+  }
+
+  // Replace roots of fusible trees by AstFusedExec; inFusedTree is true for nodes below such a root
+  private static AstRoot fuse(AstRoot ast, boolean inFusedTree) {
+    if (!(ast instanceof AstExec) || ast instanceof AstFusedExec) return ast;
+    AstRoot[] asts = ((AstExec) ast)._asts;
+    boolean root = !inFusedTree && isFusible(ast) && hasElementwiseOperand(asts);
+    for (int i = 1; i < asts.length; i++)
+      asts[i] = fuse(asts[i], (root || inFusedTree) && isFusible(asts[i]));
+    return root ? new AstFusedExec(asts) : ast;
+  }
+
+  private static boolean isFusible(AstRoot ast) {
+    AstPrimitive prim = builtin(ast);
+    return prim != null && AstFusedExec.isFusible(prim);
+  }
+
+  private static boolean hasElementwiseOperand(AstRoot[] asts) {
+    for (int i = 1; i < asts.length; i++) {
+      AstPrimitive prim = builtin(asts[i]);
+      if (prim != null && AstFusedExec.isElementwise(prim)) return true;
+    }
+    return false;
+  }
+
+  // Built-in primitive applied by the expression, or null
+  private static AstPrimitive builtin(AstRoot ast) {
+    if (!(ast instanceof AstExec)) return null;
+    AstRoot[] asts = ((AstExec) ast)._asts;
+    return asts.length > 0 && asts[0] instanceof AstId ? Env.builtin(asts[0].str()) : null;
+  }
+}
@@ -35,6 +35,8 @@ import java.util.Set;
  * <p> Variables are lexically scoped inside 'let' expressions or at the top-level
  * looked-up in the DKV directly (and must refer to a known type that is valid
  * on the execution stack).
+ *
+ * <p> Before execution, trees of element-wise operators are fused by the {@link Optimizer}.
  */
 public class Rapids {
   private final String _str;  // Statement to parse and execute
@@ -60,7 +62,7 @@ public class Rapids {
     Session session = new Session();
     try {
       H2O.incrementActiveRapidsCounter();
-      AstRoot ast = Rapids.parse(rapids);
+      AstRoot ast = Optimizer.optimize(Rapids.parse(rapids));
       Val val = session.exec(ast, null);
       // Any returned Frame has it's REFCNT raised by +1, and the end(val) call
       // will account for that, copying Vecs as needed so that the returned
@@ -86,7 +88,7 @@ public class Rapids {
     try {
       H2O.incrementActiveRapidsCounter();
 
-      AstRoot ast = Rapids.parse(rapids);
+      AstRoot ast = Optimizer.optimize(Rapids.parse(rapids));
       // Synchronize the session, to stop back-to-back overlapping Rapids calls
       // on the same session, which Flow sometimes does
       synchronized (session) {
@@ -0,0 +1,606 @@
+package water.rapids.ast;
+
+import water.Iced;
+import water.Key;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.Val;
+import water.rapids.ast.params.AstId;
+import water.rapids.ast.prims.math.AstUniOp;
+import water.rapids.ast.prims.mungers.AstColSlice;
+import water.rapids.ast.prims.mungers.AstRowSlice;
+import water.rapids.ast.prims.operators.*;
+import water.rapids.ast.prims.reducers.AstMax;
+import water.rapids.ast.prims.reducers.AstMin;
+import water.rapids.ast.prims.reducers.AstRollupOp;
+import water.rapids.ast.prims.reducers.AstSum;
+import water.rapids.vals.ValFrame;
+import water.rapids.vals.ValNum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Fused function application, created by {@link water.rapids.Optimizer} for a tree of element-wise operators
+ * (see {@link #isElementwise(AstPrimitive)}), optionally consumed by a column projection, a row filter or a reducer.
+ * <p>
+ * Instead of running an MRTask and materializing a temporary Frame for every operator, the tree is evaluated into
+ * an expression over the input Vecs which is computed by a single MRTask, a Chunk at a time.  Types are only known
+ * at execution time: an operator is fused only if its operands are numbers or numeric Frames with the same row
+ * layout, otherwise it falls back to its regular implementation (with any fused operands materialized first).
+ * Only the Vecs referenced by the final expression are read, columns dropped by a projection are never computed.
+ */
+public class AstFusedExec extends AstExec {
+
+  public AstFusedExec() {
+    this((AstRoot[]) null);
+  }
+
+  public AstFusedExec(AstRoot[] asts) {
+    super(asts);
+  }
+
+  /** Operators computing each output element from the elements of the same row (and column) of the operands */
+  public static boolean isElementwise(AstPrimitive prim) {
+    // Logical && and || short-circuit on scalars, keep their evaluation order
+    return (prim instanceof AstBinOp && !(prim instanceof AstLAnd) && !(prim instanceof AstLOr)) ||
+        prim instanceof AstUniOp || prim instanceof AstIfElse;
+  }
+
+  /** Operators which can be evaluated as a part of a fused expression */
+  public static boolean isFusible(AstPrimitive prim) {
+    return isElementwise(prim) || prim instanceof AstColSlice || prim instanceof AstRowSlice ||
+        prim instanceof AstSum || prim instanceof AstMin || prim instanceof AstMax;
+  }
+
+  @Override
+  public Val exec(Env env) {
+    AstPrimitive prim = fusible(this, env);
+    if (prim == null)           // Operator name is shadowed by a variable
+      return super.exec(env);
+    try (Env.StackHelp stk = env.stk()) {
+      Fusion fusion = new Fusion(env, stk);
+      Term res = fusion.apply(prim, _asts);
+      return env.returning(res._lazy != null ? new ValFrame(fusion.materialize(res._lazy)) : res._val);
+    }
+  }
+
+  // The fusible primitive applied by the given expression, or null
+  private static AstPrimitive fusible(AstRoot ast, Env env) {
+    if (!(ast instanceof AstExec)) return null;
+    AstRoot[] asts = ((AstExec) ast)._asts;
+    if (!(asts[0] instanceof AstId)) return null;
+    Val fun = env.lookup(asts[0].str());
+    if (!fun.isFun() || !isFusible(fun.getFun())) return null;
+    AstPrimitive prim = fun.getFun();
+    int nargs = prim.nargs();
+    return nargs == asts.length || (nargs == -1 && asts.length == 2) ? prim : null;
+  }
+
+  // True if the expression has no side effects (and so it can be evaluated even if not needed)
+  private static boolean isPure(AstRoot ast, Env env) {
+    if (ast instanceof AstParameter) return true;
+    if (!(ast instanceof AstExec)) return false;
+    AstRoot[] asts = ((AstExec) ast)._asts;
+    if (!(asts[0] instanceof AstId)) return false;
+    try {
+      Val fun = env.lookup(asts[0].str());
+      if (!fun.isFun() || !(isElementwise(fun.getFun()) || fun.getFun() instanceof AstColSlice)) return false;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    for (int i = 1; i < asts.length; i++)
+      if (!isPure(asts[i], env)) return false;
+    return true;
+  }
+
+  /** Value of an operand: either a regular value or an expression not computed yet */
+  private static final class Term {
+    final Val _val;
+    final Lazy _lazy;
+
+    Term(Val val) { _val = val; _lazy = null; }
+
+    Term(Lazy lazy) { _val = null; _lazy = lazy; }
+  }
+
+  /** Not yet computed Frame: one expression per column, all over Vecs with the same row layout */
+  private static final class Lazy {
+    final Expr[] _cols;
+    final String[] _names;      // Null for the default column names
+    final Vec _anyVec;          // Any of the referenced Vecs
+
+    Lazy(Expr[] cols, String[] names, Vec anyVec) { _cols = cols; _names = names; _anyVec = anyVec; }
+
+    int numCols() { return _cols.length; }
+
+    String name(int i) { return _names == null ? Frame.defaultColName(i) : _names[i]; }
+
+    boolean compatible(Lazy l) { return _anyVec.isCompatibleWith(l._anyVec); }
+  }
+
+  /** State of a single fused evaluation */
+  private static final class Fusion {
+    final Env _env;
+    final Env.StackHelp _stk;   // Keeps all operands alive till the fused expression is computed
+    final ArrayList<Vec> _inputs = new ArrayList<>();
+    final HashMap<Key, Integer> _inputIdx = new HashMap<>();
+
+    Fusion(Env env, Env.StackHelp stk) { _env = env; _stk = stk; }
+
+    Term apply(AstPrimitive prim, AstRoot[] asts) {
+      if (prim instanceof AstBinOp) return binOp((AstBinOp) prim, asts);
+      if (prim instanceof AstUniOp) return uniOp((AstUniOp) prim, asts);
+      if (prim instanceof AstIfElse) return ifElse((AstIfElse) prim, asts);
+      if (prim instanceof AstColSlice) return colSlice((AstColSlice) prim, asts);
+      if (prim instanceof AstRowSlice) return rowSlice((AstRowSlice) prim, asts);
+      return rollup((AstRollupOp) prim, asts);
+    }
+
+    // Evaluate an operand, fusing it if possible
+    Term operand(AstRoot ast) {
+      AstPrimitive prim = fusible(ast, _env);
+      if (prim == null) return new Term(_stk.track(ast.exec(_env)));
+      Term t = apply(prim, ((AstExec) ast)._asts);
+      return t._lazy != null ? t : new Term(_stk.track(_env.returning(t._val)));
+    }
+
+    // Regular value of an operand, computing it if needed
+    Val value(Term t) {
+      if (t._lazy == null) return t._val;
+      return _stk.track(_env.returning(new ValFrame(materialize(t._lazy))));
+    }
+
+    // Expression of an operand, or null if the operand is not a numeric Frame
+    Lazy lazy(Term t) {
+      if (t._lazy != null) return t._lazy;
+      if (!t._val.isFrame()) return null;
+      Frame fr = t._val.getFrame();
+      Vec[] vecs = fr.vecs();
+      if (vecs.length == 0) return null;
+      for (Vec vec : vecs)
+        if (!vec.isNumeric() || !vec.isCompatibleWith(vecs[0])) return null;
+      Expr[] cols = new Expr[vecs.length];
+      for (int i = 0; i < vecs.length; i++)
+        cols[i] = new ColExpr(input(vecs[i]));
+      return new Lazy(cols, fr.names(), vecs[0]);
+    }
+
+    int input(Vec vec) {
+      Integer idx = _inputIdx.get(vec._key);
+      if (idx == null) {
+        _inputIdx.put(vec._key, idx = _inputs.size());
+        _inputs.add(vec);
+      }
+      return idx;
+    }
+
+    // Fall back to the regular implementation of the operator, passing in the already evaluated operands
+    Term eager(AstPrimitive prim, AstRoot[] asts, Term... operands) {
+      AstRoot[] args = asts.clone();
+      for (int i = 0; i < operands.length; i++)
+        args[i + 1] = new AstValue(value(operands[i]));
+      return new Term(prim.apply(_env, _stk, args));
+    }
+
+    Term binOp(AstBinOp op, AstRoot[] asts) {
+      Term l = operand(asts[1]);
+      Term r = operand(asts[2]);
+      Lazy ll = lazy(l), rl = lazy(r);
+      if (ll != null && rl != null) {
+        int ln = ll.numCols(), rn = rl.numCols();
+        if (ll.compatible(rl) && (ln == rn || ln == 1 || rn == 1)) {
+          Expr[] cols = new Expr[Math.max(ln, rn)];
+          for (int i = 0; i < cols.length; i++)
+            cols[i] = new BinExpr(op, ll._cols[ln == 1 ? 0 : i], rl._cols[rn == 1 ? 0 : i]);
+          // A single column is widened to the other Frame and takes its names
+          return new Term(new Lazy(cols, ln == 1 && rn > 1 ? rl._names : ll._names, ll._anyVec));
+        }
+      } else if (ll != null && r._val.isNum()) {
+        Expr d = new NumExpr(r._val.getNum());
+        Expr[] cols = new Expr[ll.numCols()];
+        for (int i = 0; i < cols.length; i++)
+          cols[i] = new BinExpr(op, ll._cols[i], d);
+        // Comparisons with a scalar produce default column names
+        boolean noNames = op instanceof AstEq || op instanceof AstNe;
+        return new Term(new Lazy(cols, noNames ? null : ll._names, ll._anyVec));
+      } else if (rl != null && l._val.isNum()) {
+        Expr d = new NumExpr(l._val.getNum());
+        Expr[] cols = new Expr[rl.numCols()];
+        for (int i = 0; i < cols.length; i++)
+          cols[i] = new BinExpr(op, d, rl._cols[i]);
+        return new Term(new Lazy(cols, rl._names, rl._anyVec));
+      }
+      return eager(op, asts, l, r);
+    }
+
+    Term uniOp(AstUniOp op, AstRoot[] asts) {
+      Term x = operand(asts[1]);
+      Lazy xl = lazy(x);
+      if (xl == null) return eager(op, asts, x);
+      Expr[] cols = new Expr[xl.numCols()];
+      String[] names = new String[cols.length];
+      for (int i = 0; i < cols.length; i++) {
+        cols[i] = new UniExpr(op, xl._cols[i]);
+        names[i] = op.str() + "(" + xl.name(i) + ")";
+      }
+      return new Term(new Lazy(cols, names, xl._anyVec));
+    }
+
+    Term ifElse(AstIfElse op, AstRoot[] asts) {
+      Term t = operand(asts[1]);
+      Lazy tl = lazy(t);
+      // A Frame test evaluates both sides anyway, unless the test is all zeros (or non-zeros).  It is safe to
+      // evaluate them upfront only if they have no side effects.
+      if (tl == null || !isPure(asts[2], _env) || !isPure(asts[3], _env))
+        return eager(op, asts, t);
+      Term y = operand(asts[2]);
+      Term n = operand(asts[3]);
+      Expr[] ys = branch(tl, y), ns = branch(tl, n);
+      if (ys == null || ns == null) return eager(op, asts, t, y, n);
+      Expr[] cols = new Expr[tl.numCols()];
+      for (int i = 0; i < cols.length; i++)
+        cols[i] = new IfElseExpr(tl._cols[i], ys[i], ns[i]);
+      return new Term(new Lazy(cols, null, tl._anyVec));
+    }
+
+    // Per-column expressions of an if-else side, or null if it cannot be fused
+    Expr[] branch(Lazy test, Term side) {
+      Lazy sl = lazy(side);
+      Expr[] res = new Expr[test.numCols()];
+      if (sl != null) {
+        if (sl.numCols() != res.length || !sl.compatible(test)) return null;
+        return sl._cols;
+      }
+      if (!side._val.isNum()) return null;
+      Arrays.fill(res, new NumExpr(side._val.getNum()));
+      return res;
+    }
+
+    Term colSlice(AstColSlice op, AstRoot[] asts) {
+      Term x = operand(asts[1]);
+      if (x._lazy == null || !(asts[2] instanceof AstParameter)) return eager(op, asts, x);
+      Lazy xl = x._lazy;
+      String[] names = new String[xl.numCols()];
+      for (int i = 0; i < names.length; i++)
+        names[i] = xl.name(i);
+      int[] cols = AstColSlice.col_select(names, (AstParameter) asts[2]);
+      boolean[] seen = new boolean[names.length];
+      for (int col : cols) {
+        if (seen[col]) return eager(op, asts, x); // Repeated columns
+        seen[col] = true;
+      }
+      if (cols.length == 0) return eager(op, asts, x);
+      // Projection: expressions of the dropped columns are never computed
+      Expr[] exprs = new Expr[cols.length];
+      String[] pnames = new String[cols.length];
+      for (int i = 0; i < cols.length; i++) {
+        exprs[i] = xl._cols[cols[i]];
+        pnames[i] = names[cols[i]];
+      }
+      return new Term(new Lazy(exprs, pnames, xl._anyVec));
+    }
+
+    Term rowSlice(AstRowSlice op, AstRoot[] asts) {
+      AstPrimitive pred = fusible(asts[2], _env);
+      if (pred == null || !isElementwise(pred))
+        return eager(op, asts, operand(asts[1]));
+      Frame fr = value(operand(asts[1])).getFrame();
+      Term p = operand(asts[2]);
+      Lazy pl = lazy(p);
+      if (pl != null && pl.numCols() == 1 && fr.numCols() > 0 && fr.numRows() > 0 &&
+          fr.anyVec().isCompatibleWith(pl._anyVec))
+        return new Term(new ValFrame(filter(fr, pl._cols[0])));
+      Frame predVec = value(p).getFrame();
+      if (predVec.numCols() != 1)
+        throw new IllegalArgumentException("Conditional Row Slicing Expression evaluated to " + predVec.numCols() + " columns.  Must be a boolean Vec.");
+      return new Term(new ValFrame(fr.deepSlice(predVec, null)));
+    }
+
+    Term rollup(AstRollupOp op, AstRoot[] asts) {
+      Term x = operand(asts[1]);
+      // Plain Frames use the (cached) RollupStats
+      if (x._lazy == null || x._lazy._anyVec.length() == 0) return eager(op, asts, x);
+      Lazy xl = x._lazy;
+      Expr[] exprs = compact(xl._cols);
+      ReduceTask rt = new ReduceTask(exprs).doAll(compactInputs(xl._cols));
+      if (rt._hasNA) return new Term(new ValNum(Double.NaN));
+      long len = xl._anyVec.length();
+      double d = rt.rup(op, 0, len);
+      for (int i = 1; i < exprs.length; i++)
+        d = op.op(d, rt.rup(op, i, len));
+      return new Term(new ValNum(d));
+    }
+
+    Frame materialize(Lazy l) {
+      Expr[] exprs = compact(l._cols);
+      return new ComputeTask(exprs).doAll(exprs.length, Vec.T_NUM, compactInputs(l._cols)).outputFrame(l._names, null);
+    }
+
+    // Rows of the Frame matching the predicate; same as Frame#deepSlice with a predicate Vec
+    Frame filter(Frame fr, Expr pred) {
+      Frame in = new Frame(fr.names(), fr.vecs().clone());
+      HashMap<Key, Integer> frIdx = new HashMap<>();
+      for (int i = 0; i < fr.numCols(); i++)
+        frIdx.put(fr.vec(i)._key, i);
+      boolean[] used = new boolean[_inputs.size()];
+      pred.inputs(used);
+      int[] map = new int[used.length];
+      for (int i = 0; i < used.length; i++) {
+        if (!used[i]) continue;
+        Integer idx = frIdx.get(_inputs.get(i)._key);
+        if (idx == null) {        // Predicate reads a column not in the Frame
+          idx = in.numCols();
+          in.add("predicate" + i, _inputs.get(i));
+        }
+        map[i] = idx;
+      }
+      return new FilterTask(pred.remap(map), fr.numCols()).doAll(fr.types(), in).outputFrame(fr.names(), fr.domains());
+    }
+
+    // Expressions reading only the referenced inputs, see compactInputs
+    Expr[] compact(Expr[] exprs) {
+      int[] map = inputMap(exprs);
+      Expr[] res = new Expr[exprs.length];
+      for (int i = 0; i < exprs.length; i++)
+        res[i] = exprs[i].remap(map);
+      return res;
+    }
+
+    Frame compactInputs(Expr[] exprs) {
+      int[] map = inputMap(exprs);
+      Frame fr = new Frame();
+      for (int i = 0; i < map.length; i++)
+        if (map[i] >= 0) fr.add("C" + (map[i] + 1), _inputs.get(i));
+      return fr;
+    }
+
+    // Mapping of referenced inputs to their position among the referenced inputs; -1 if not referenced
+    private int[] inputMap(Expr[] exprs) {
+      boolean[] used = new boolean[_inputs.size()];
+      for (Expr e : exprs)
+        e.inputs(used);
+      int[] map = new int[used.length];
+      for (int i = 0, j = 0; i < used.length; i++)
+        map[i] = used[i] ? j++ : -1;
+      return map;
+    }
+  }
+
+  /** An already evaluated operand, passed to the regular implementation of an operator */
+  private static class AstValue extends AstRoot {
+    private final Val _val;
+
+    AstValue(Val val) { _val = val; }
+
+    @Override
+    public String str() { return _val.toString(); }
+
+    @Override
+    public String example() { return null; }
+
+    @Override
+    public String description() { return null; }
+
+    @Override
+    public Val exec(Env env) { return env.returning(_val); }
+  }
+
+  /** Expression computed a Chunk at a time */
+  private static abstract class Expr extends Iced<Expr> {
+    /** Values of all rows; the returned array is owned (and can be modified) by the caller */
+    abstract double[] eval(Chunk[] cs, int len);
+
+    /** Marks the inputs (Chunk indices) read by this expression */
+    abstract void inputs(boolean[] used);
+
+    /** Copy of this expression reading input map[i] instead of input i */
+    abstract Expr remap(int[] map);
+  }
+
+  private static class ColExpr extends Expr {
+    private final int _col;
+
+    ColExpr(int col) { _col = col; }
+
+    @Override
+    double[] eval(Chunk[] cs, int len) { return cs[_col].getDoubles(new double[len], 0, len); }
+
+    @Override
+    void inputs(boolean[] used) { used[_col] = true; }
+
+    @Override
+    Expr remap(int[] map) { return new ColExpr(map[_col]); }
+  }
+
+  private static class NumExpr extends Expr {
+    private final double _d;
+
+    NumExpr(double d) { _d = d; }
+
+    @Override
+    double[] eval(Chunk[] cs, int len) {
+      double[] res = new double[len];
+      Arrays.fill(res, _d);
+      return res;
+    }
+
+    @Override
+    void inputs(boolean[] used) {}
+
+    @Override
+    Expr remap(int[] map) { return this; }
+  }
+
+  private static class UniExpr extends Expr {
+    private final AstUniOp _op;
+    private final Expr _x;
+
+    UniExpr(AstUniOp op, Expr x) { _op = op; _x = x; }
+
+    @Override
+    double[] eval(Chunk[] cs, int len) {
+      double[] res = _x.eval(cs, len);
+      for (int i = 0; i < len; i++)
+        res[i] = _op.op(res[i]);
+      return res;
+    }
+
+    @Override
+    void inputs(boolean[] used) { _x.inputs(used); }
+
+    @Override
+    Expr remap(int[] map) { return new UniExpr(_op, _x.remap(map)); }
+  }
+
+  private static class BinExpr extends Expr {
+    private final AstBinOp _op;
+    private final Expr _l, _r;
+
+    BinExpr(AstBinOp op, Expr l, Expr r) { _op = op; _l = l; _r = r; }
+
+    @Override
+    double[] eval(Chunk[] cs, int len) {
+      double[] res = _l.eval(cs, len);
+      double[] r = _r.eval(cs, len);
+      for (int i = 0; i < len; i++)
+        res[i] = _op.op(res[i], r[i]);
+      return res;
+    }
+
+    @Override
+    void inputs(boolean[] used) { _l.inputs(used); _r.inputs(used); }
+
+    @Override
+    Expr remap(int[] map) { return new BinExpr(_op, _l.remap(map), _r.remap(map)); }
+  }
+
+  private static class IfElseExpr extends Expr {
+    private final Expr _test, _yes, _no;
+
+    IfElseExpr(Expr test, Expr yes, Expr no) { _test = test; _yes = yes; _no = no; }
+
+    @Override
+    double[] eval(Chunk[] cs, int len) {
+      double[] res = _test.eval(cs, len);
+      double[] yes = _yes.eval(cs, len);
+      double[] no = _no.eval(cs, len);
+      for (int i = 0; i < len; i++)
+        res[i] = Double.isNaN(res[i]) ? Double.NaN : res[i] == 0 ? no[i] : yes[i];
+      return res;
+    }
+
+    @Override
+    void inputs(boolean[] used) { _test.inputs(used); _yes.inputs(used); _no.inputs(used); }
+
+    @Override
+    Expr remap(int[] map) { return new IfElseExpr(_test.remap(map), _yes.remap(map), _no.remap(map)); }
+  }
+
+  private static class ComputeTask extends MRTask<ComputeTask> {
+    private final Expr[] _exprs;
+
+    ComputeTask(Expr[] exprs) { _exprs = exprs; }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      int len = cs[0]._len;
+      for (int c = 0; c < ncs.length; c++) {
+        double[] vals = _exprs[c].eval(cs, len);
+        NewChunk nc = ncs[c];
+        for (int i = 0; i < len; i++)
+          nc.addNum(vals[i]);
+      }
+    }
+  }
+
+  private static class FilterTask extends MRTask<FilterTask> {
+    private final Expr _pred;
+    private final int _ncols;
+
+    FilterTask(Expr pred, int ncols) { _pred = pred; _ncols = ncols; }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      assert ncs.length == _ncols;
+      double[] pred = _pred.eval(cs, cs[0]._len);
+      int[] ids = new int[pred.length];
+      int n = 0;
+      for (int i = 0; i < pred.length; i++)
+        if (Frame.DeepSelect.isSelected(pred[i])) ids[n++] = i;
+      ids = Arrays.copyOf(ids, n);
+      for (int c = 0; c < ncs.length; c++)
+        cs[c].extractRows(ncs[c], ids);
+    }
+  }
+
+  /** Per-column rollups of the expressions, following the RollupStats: infinities are left out of the min, the max
+   *  and the mean, and the sum is the mean times the number of rows (see {@link AstRollupOp#rup(Vec)}) */
+  private static class ReduceTask extends MRTask<ReduceTask> {
+    private final Expr[] _exprs;
+    long[] _rows;               // Count of finite values
+    double[] _sums, _mins, _maxs;
+    boolean _hasNA;
+
+    ReduceTask(Expr[] exprs) { _exprs = exprs; }
+
+    @Override
+    public void map(Chunk[] cs) {
+      int len = cs[0]._len;
+      int n = _exprs.length;
+      _rows = new long[n];
+      _sums = new double[n];
+      _mins = new double[n];
+      _maxs = new double[n];
+      Arrays.fill(_mins, Double.POSITIVE_INFINITY);
+      Arrays.fill(_maxs, Double.NEGATIVE_INFINITY);
+      for (int c = 0; c < n && !_hasNA; c++) {
+        double[] vals = _exprs[c].eval(cs, len);
+        for (int i = 0; i < len; i++) {
+          double d = vals[i];
+          if (Double.isNaN(d)) {
+            _hasNA = true;
+            break;
+          }
+          if (Double.isInfinite(d)) continue;
+          _rows[c]++;
+          _sums[c] += d;
+          if (d < _mins[c]) _mins[c] = d;
+          if (d > _maxs[c]) _maxs[c] = d;
+        }
+      }
+    }
+
+    @Override
+    public void reduce(ReduceTask rt) {
+      _hasNA |= rt._hasNA;
+      if (_rows == null) {
+        _rows = rt._rows;
+        _sums = rt._sums;
+        _mins = rt._mins;
+        _maxs = rt._maxs;
+        return;
+      }
+      if (rt._rows == null) return;
+      for (int c = 0; c < _rows.length; c++) {
+        _rows[c] += rt._rows[c];
+        _sums[c] += rt._sums[c];
+        _mins[c] = Math.min(_mins[c], rt._mins[c]);
+        _maxs[c] = Math.max(_maxs[c], rt._maxs[c]);
+      }
+    }
+
+    // Same as op.rup() over the RollupStats of the computed column c of len rows
+    double rup(AstRollupOp op, int c, long len) {
+      if (op instanceof AstSum) return _rows[c] == 0 ? 0 : _sums[c] / _rows[c] * len;
+      if (_rows[c] == 0) return Double.NaN;     // Only infinities: RollupStats have no min nor max either
+      return op instanceof AstMin ? _mins[c] : _maxs[c];
+    }
+  }
+
+}
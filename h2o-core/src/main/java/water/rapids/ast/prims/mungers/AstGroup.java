@@ -8,6 +8,7 @@ import water.fvec.Frame;
 import water.fvec.NewChunk;
 import water.fvec.Vec;
 import water.rapids.Env;
+import water.rapids.HashGroupBy;
 import water.rapids.Val;
 import water.rapids.ast.AstRoot;
 import water.rapids.vals.ValFrame;
@@ -15,7 +16,6 @@ import water.rapids.vals.ValFun;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.params.AstNum;
 import water.rapids.ast.params.AstNumList;
-import water.util.ArrayUtils;
 import water.util.IcedHashMap;
 import water.util.Log;
 
@@ -36,87 +36,90 @@ import java.util.Arrays;
 public class AstGroup extends AstPrimitive {
   public enum NAHandling {ALL, RM, IGNORE}
 
-  // Functions handled by GroupBy
+  // Functions handled by GroupBy.  The reduction state of a function is a
+  // run of initVal().length doubles, starting at an offset so that the states
+  // of many groups can be packed in a single array.
   public enum FCN {
     nrow() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0]++;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off]++;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     mean() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off] / n;
       }
     },
     sum() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     sumSquares() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     var() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
-        d0s[1] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
+        d0s[off + 1] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
+        d0s[off0 + 1] += d1s[off1 + 1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        double numerator = ds[0] - ds[1] * ds[1] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        double numerator = ds[off] - ds[off + 1] * ds[off + 1] / n;
         if (Math.abs(numerator) < 1e-5) numerator = 0;
         return numerator / (n - 1);
       }
@@ -128,19 +131,20 @@ public class AstGroup extends AstPrimitive {
     },
     sdev() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
-        d0s[1] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
+        d0s[off + 1] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
+        d0s[off0 + 1] += d1s[off1 + 1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        double numerator = ds[0] - ds[1] * ds[1] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        double numerator = ds[off] - ds[off + 1] * ds[off + 1] / n;
         if (Math.abs(numerator) < 1e-5) numerator = 0;
         return Math.sqrt(numerator / (n - 1));
       }
@@ -152,18 +156,18 @@ public class AstGroup extends AstPrimitive {
     },
     min() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] = Math.min(d0s[0], d1);
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] = Math.min(d0s[off], d1);
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        op(d0s, d1s[0]);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        op(d0s, off0, d1s[off1]);
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
 
       @Override
@@ -173,18 +177,18 @@ public class AstGroup extends AstPrimitive {
     },
     max() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] = Math.max(d0s[0], d1);
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] = Math.max(d0s[off], d1);
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        op(d0s, d1s[0]);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        op(d0s, off0, d1s[off1]);
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
 
       @Override
@@ -194,18 +198,22 @@ public class AstGroup extends AstPrimitive {
     },
     mode() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[(int) d1]++;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off + (int) d1]++;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        for (int i = 0; i < len; i++)
+          d0s[off0 + i] += d1s[off1 + i];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ArrayUtils.maxIndex(ds);
+      public double postPass(double ds[], int off, int len, long n) {
+        int idx = 0;            // First of the most frequent levels
+        for (int i = 1; i < len; i++)
+          if (ds[off + i] > ds[off + idx]) idx = i;
+        return idx;
       }
 
       @Override
@@ -214,11 +222,23 @@ public class AstGroup extends AstPrimitive {
       }
     },;
 
-    public abstract void op(double[] d0, double d1);
+    public abstract void op(double[] d0s, int off, double d1);
 
-    public abstract void atomic_op(double[] d0, double[] d1);
+    public abstract void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len);
 
-    public abstract double postPass(double ds[], long n);
+    public abstract double postPass(double ds[], int off, int len, long n);
+
+    public void op(double[] d0, double d1) {
+      op(d0, 0, d1);
+    }
+
+    public void atomic_op(double[] d0, double[] d1) {
+      atomic_op(d0, 0, d1, 0, d0.length);
+    }
+
+    public double postPass(double ds[], long n) {
+      return postPass(ds, 0, ds.length, n);
+    }
 
     public double[] initVal(int maxx) {
       return new double[]{0};
@@ -265,6 +285,20 @@ public class AstGroup extends AstPrimitive {
       aggs[(idx - 3) / 3] = new AGG(fcn, agg_col, na, (int) fr.vec(agg_col).max() + 1);
     }
 
+    // Names of the aggregate columns of the output
+    String[] fcnames = new String[aggs.length];
+    for (int i = 0; i < aggs.length; i++) {
+      if(aggs[i]._fcn.toString() != "nrow") {
+        fcnames[i] = aggs[i]._fcn.toString() + "_" + fr.name(aggs[i]._col);
+      }else{
+        fcnames[i] = aggs[i]._fcn.toString();
+      }
+    }
+
+    // Many groups: aggregate them distributed, without a hashtable of all the groups on every node
+    if (HashGroupBy.useHashGroupBy(fr, gbCols))
+      return new ValFrame(HashGroupBy.groupBy(fr, gbCols, aggs, fcnames));
+
     // do the group by work now
     IcedHashMap<G, String> gss = doGroups(fr, gbCols, aggs);
     final G[] grps = gss.keySet().toArray(new G[gss.size()]);
@@ -293,15 +327,6 @@ public class AstGroup extends AstPrimitive {
       });
 
     // Build the output!
-    String[] fcnames = new String[aggs.length];
-    for (int i = 0; i < aggs.length; i++) {
-      if(aggs[i]._fcn.toString() != "nrow") {
-        fcnames[i] = aggs[i]._fcn.toString() + "_" + fr.name(aggs[i]._col);
-      }else{
-        fcnames[i] = aggs[i]._fcn.toString();
-      }
-    }
-
     MRTask mrfill = new MRTask() {
       @Override
       public void map(Chunk[] c, NewChunk[] ncs) {
@@ -380,12 +405,14 @@ public class AstGroup extends AstPrimitive {
     public final int _col;
     final NAHandling _na;
     final int _maxx;            // Largest integer this column
+    public final int _width;    // Number of doubles in the reduction state
 
     public AGG(FCN fcn, int col, NAHandling na, int maxx) {
       _fcn = fcn;
       _col = col;
       _na = na;
       _maxx = maxx;
+      _width = fcn.initVal(maxx).length;
     }
 
     // Update the array pair {ds[i],ns[i]} with d1.
@@ -410,6 +437,22 @@ public class AstGroup extends AstPrimitive {
     public double[] initVal() {
       return _fcn.initVal(_maxx);
     }
+
+    // Same as op() above, on a reduction state packed at offset 'off' of ds
+    public void op(double[] ds, int off, long[] ns, int i, double d1) {
+      if (!Double.isNaN(d1) || _na == NAHandling.ALL) _fcn.op(ds, off, d1);
+      if (!Double.isNaN(d1) || _na == NAHandling.IGNORE) ns[i]++;
+    }
+
+    // Merge the packed state {d1s[off1],n1} into {d0s[off0],ns[i]}; not atomic
+    public void merge(double[] d0s, int off0, long[] ns, int i, double[] d1s, int off1, long n1) {
+      _fcn.atomic_op(d0s, off0, d1s, off1, _width);
+      ns[i] += n1;
+    }
+
+    public double postPass(double[] ds, int off, long n) {
+      return _fcn.postPass(ds, off, _width, n);
+    }
   }
 
   // --------------------------------------------------------------------------
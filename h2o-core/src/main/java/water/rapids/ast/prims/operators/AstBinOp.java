@@ -170,11 +170,13 @@ abstract public class AstBinOp extends AstPrimitive {
     Frame res = new MRTask() {
       @Override
       public void map(Chunk[] chks, NewChunk[] cress) {
+        double[] vals = new double[chks[0]._len];
         for (int c = 0; c < chks.length; c++) {
           Chunk chk = chks[c];
           NewChunk cres = cress[c];
+          chk.getDoubles(vals, 0, chk._len);
           for (int i = 0; i < chk._len; i++)
-            cres.addNum(op(d, chk.atd(i)));
+            cres.addNum(op(d, vals[i]));
         }
       }
     }.doAll(fr.numCols(), Vec.T_NUM, fr).outputFrame(fr._names, null);
@@ -188,11 +190,13 @@ abstract public class AstBinOp extends AstPrimitive {
     Frame res = new MRTask() {
       @Override
       public void map(Chunk[] chks, NewChunk[] cress) {
+        double[] vals = new double[chks[0]._len];
         for (int c = 0; c < chks.length; c++) {
           Chunk chk = chks[c];
           NewChunk cres = cress[c];
+          chk.getDoubles(vals, 0, chk._len);
           for (int i = 0; i < chk._len; i++)
-            cres.addNum(op(chk.atd(i), d));
+            cres.addNum(op(vals[i], d));
         }
       }
     }.doAll(fr.numCols(), Vec.T_NUM, fr).outputFrame(fr._names, null);
@@ -317,6 +321,7 @@ abstract public class AstBinOp extends AstPrimitive {
         BufferedString lfstr = new BufferedString();
         BufferedString rtstr = new BufferedString();
         assert (cress.length << 1) == chks.length;
+        double[] lvals = null, rvals = null;
         for (int c = 0; c < cress.length; c++) {
           Chunk clf = chks[c];
           Chunk crt = chks[c + cress.length];
@@ -324,9 +329,16 @@ abstract public class AstBinOp extends AstPrimitive {
           if (clf.vec().isString())
             for (int i = 0; i < clf._len; i++)
               cres.addNum(str_op(clf.atStr(lfstr, i), crt.atStr(rtstr, i)));
-          else
+          else {
+            if (lvals == null) {
+              lvals = new double[clf._len];
+              rvals = new double[clf._len];
+            }
+            clf.getDoubles(lvals, 0, clf._len);
+            crt.getDoubles(rvals, 0, crt._len);
             for (int i = 0; i < clf._len; i++)
-              cres.addNum(op(clf.atd(i), crt.atd(i)));
+              cres.addNum(op(lvals[i], rvals[i]));
+          }
         }
       }
     }.doAll(lf.numCols(), Vec.T_NUM, new Frame(lf).add(rt)).outputFrame(lf._names, null);
@@ -340,14 +352,17 @@ abstract public class AstBinOp extends AstPrimitive {
     Frame res = new MRTask() {
       @Override
       public void map(Chunk[] chks, NewChunk[] cress) {
+        double[] vals = new double[chks[0]._len];
         for (int c = 0; c < cress.length; c++) {
           Chunk clf = chks[c];
           NewChunk cres = cress[c];
-          for (int r = 0; r < clf._len; ++r) {
-            if (clf.vec().isString())
+          if (clf.vec().isString()) {
+            for (int r = 0; r < clf._len; ++r)
               cres.addNum(Double.NaN); // TODO: improve
-            else
-              cres.addNum(op(clf.atd(r), rawRow[c]));
+          } else {
+            clf.getDoubles(vals, 0, clf._len);
+            for (int r = 0; r < clf._len; ++r)
+              cres.addNum(op(vals[r], rawRow[c]));
           }
         }
       }
@@ -371,11 +386,14 @@ abstract public class AstBinOp extends AstPrimitive {
       public void map(Chunk[] chks, NewChunk[] cress) {
         assert cress.length == chks.length - 1;
         Chunk clf = chks[cress.length];
+        double[] lvals = clf.getDoubles(new double[clf._len], 0, clf._len); // shared by all columns
+        double[] rvals = new double[clf._len];
         for (int c = 0; c < cress.length; c++) {
           Chunk crt = chks[c];
           NewChunk cres = cress[c];
+          crt.getDoubles(rvals, 0, crt._len);
           for (int i = 0; i < clf._len; i++)
-            cres.addNum(op(clf.atd(i), crt.atd(i)));
+            cres.addNum(op(lvals[i], rvals[i]));
         }
       }
     }.doAll(fr.numCols(), Vec.T_NUM, rt).outputFrame(fr._names, null);
@@ -391,11 +409,14 @@ abstract public class AstBinOp extends AstPrimitive {
       public void map(Chunk[] chks, NewChunk[] cress) {
         assert cress.length == chks.length - 1;
         Chunk crt = chks[cress.length];
+        double[] rvals = crt.getDoubles(new double[crt._len], 0, crt._len); // shared by all columns
+        double[] lvals = new double[crt._len];
         for (int c = 0; c < cress.length; c++) {
           Chunk clf = chks[c];
           NewChunk cres = cress[c];
+          clf.getDoubles(lvals, 0, clf._len);
           for (int i = 0; i < clf._len; i++)
-            cres.addNum(op(clf.atd(i), crt.atd(i)));
+            cres.addNum(op(lvals[i], rvals[i]));
         }
       }
     }.doAll(fr.numCols(), Vec.T_NUM, lf).outputFrame(fr._names, null);
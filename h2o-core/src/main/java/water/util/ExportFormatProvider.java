@@ -0,0 +1,37 @@
+package water.util;
+
+import water.Job;
+import water.fvec.Frame;
+
+import java.io.IOException;
+
+/**
+ * Provider of an additional (binary) format of {@link Frame#export}.  CSV is built in; other formats are
+ * discovered by {@link ExportFormatService} and are usually contributed by optional modules.
+ */
+public abstract class ExportFormatProvider {
+
+  /** Name of the format, as given by the user (case insensitive) */
+  public abstract String name();
+
+  /** Extension of the part files of a multi-part export, e.g. ".parquet" */
+  public String partExtension() { return ""; }
+
+  /**
+   * Write consecutive chunks of the frame into a single file.
+   *
+   * Called on the home node of the first chunk; chunks of a multi-part export are written in parallel
+   * by the home nodes of the parts.  The implementation should report progress by calling
+   * {@code job.update(1)} after every chunk and stop if {@code job.stop_requested()}.
+   *
+   * @param fr frame to export
+   * @param firstChunk index of the first chunk of the part
+   * @param nChunks number of chunks of the part
+   * @param path output file
+   * @param overwrite overwrite an existing file
+   * @param job export job
+   * @return number of bytes written, or -1 if not known
+   */
+  public abstract long writePart(Frame fr, int firstChunk, int nChunks, String path, boolean overwrite, Job job)
+          throws IOException;
+}
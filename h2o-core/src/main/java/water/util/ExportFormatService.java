@@ -0,0 +1,50 @@
+package water.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Service to manage optional export formats.
+ */
+public final class ExportFormatService {
+  public static final String CSV = "csv";
+
+  public static ExportFormatService INSTANCE = new ExportFormatService();
+
+  /** Service loader.
+   *
+   * Instances of ServiceLoader are not safe for use by multiple concurrent threads - all usages of the loader
+   * are protected by synchronized block.
+   */
+  private final ServiceLoader<ExportFormatProvider> loader;
+
+  public ExportFormatService() {
+    loader = ServiceLoader.load(ExportFormatProvider.class);
+  }
+
+  /** Names of all the available formats, including the built-in CSV */
+  synchronized public String[] getAllFormatNames() {
+    List<String> names = new ArrayList<>();
+    names.add(CSV);
+    for (ExportFormatProvider efp : loader) {
+      names.add(efp.name());
+    }
+    return names.toArray(new String[names.size()]);
+  }
+
+  /** Provider of the given format, null for CSV or for an unknown format */
+  synchronized public ExportFormatProvider getByName(String name) {
+    if (name != null)
+      for (ExportFormatProvider efp : loader) {
+        if (efp.name().equalsIgnoreCase(name)) {
+          return efp;
+        }
+      }
+    return null;
+  }
+
+  public static boolean isCSV(String name) {
+    return name == null || name.isEmpty() || CSV.equalsIgnoreCase(name);
+  }
+}
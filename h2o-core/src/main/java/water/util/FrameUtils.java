@@ -297,15 +297,21 @@ public class FrameUtils {
     final String _frameName;
     final boolean _overwrite;
     final Job _j;
+    final String _format; // null for CSV, otherwise name of an ExportFormatProvider
     int _nParts;
 
     public ExportTaskDriver(Frame frame, String path, String frameName, boolean overwrite, Job j, int nParts) {
+      this(frame, path, frameName, overwrite, j, nParts, null);
+    }
+
+    public ExportTaskDriver(Frame frame, String path, String frameName, boolean overwrite, Job j, int nParts, String format) {
       _frame = frame;
       _path = path;
       _frameName = frameName;
       _overwrite = overwrite;
       _j = j;
       _nParts = nParts;
+      _format = ExportFormatService.isCSV(format) ? null : format;
     }
 
     @Override
@@ -314,8 +320,12 @@ public class FrameUtils {
       if (_nParts == 1) {
         // Single file export, the file should be created by the node that was asked to export the data
         // (this is for non-distributed filesystems, we want the file to go to the local filesystem of the node)
-        Frame.CSVStream is = new Frame.CSVStream(_frame, true, false);
-        exportCSVStream(is, _path, 0);
+        if (_format == null) {
+          Frame.CSVStream is = new Frame.CSVStream(_frame, true, false);
+          exportCSVStream(is, _path, 0);
+        } else {
+          exportPart(_path, 0, _frame.anyVec().nChunks(), false);
+        }
         tryComplete();
       } else {
         // Multi-part export
@@ -340,16 +350,23 @@ public class FrameUtils {
     }
 
     private int calculateNParts() {
-      EstimateSizeTask estSize = new EstimateSizeTask().dfork(_frame).getResult();
-      Log.debug("Estimator result: ", estSize);
+      long size;
+      if (_format == null) {
+        EstimateSizeTask estSize = new EstimateSizeTask().dfork(_frame).getResult();
+        Log.debug("Estimator result: ", estSize);
+        size = estSize._size;
+      } else {
+        // binary formats are about as compact as the compressed chunks
+        size = _frame.byteSize();
+      }
       // the goal is to not to create too small part files (and too many files), ideal part file size is one HDFS block
-      int nParts = Math.max((int) (estSize._size / DEFAULT_TARGET_PART_SIZE), H2O.CLOUD.size() + 1);
+      int nParts = Math.max((int) (size / DEFAULT_TARGET_PART_SIZE), H2O.CLOUD.size() + 1);
       if (nParts > AUTO_PARTS_MAX) {
         Log.debug("Recommended number of part files (" + nParts + ") exceeds maximum limit " + AUTO_PARTS_MAX + ". " +
                 "Number of part files is limited to avoid slow downs when importing back to H2O."); // @tomk
         nParts = AUTO_PARTS_MAX;
       }
-      Log.info("For file of estimated size " + estSize + "B determined number of parts: " + _nParts);
+      Log.info("For file of estimated size " + size + "B determined number of parts: " + nParts);
       return nParts;
     }
 
@@ -431,6 +448,23 @@ public class FrameUtils {
       }
     }
 
+    private void exportPart(String path, int firstChkIdx, int nChunks, boolean isPartFile) {
+      ExportFormatProvider format = ExportFormatService.INSTANCE.getByName(_format);
+      if (format == null) {
+        throw new IllegalStateException("Export format " + _format + " is not available on node " + H2O.SELF);
+      }
+      if (isPartFile) {
+        path += format.partExtension();
+      }
+      try {
+        long written = format.writePart(_frame, firstChkIdx, nChunks, path, _overwrite, _j);
+        Log.info("Written " + (written >= 0 ? written + " bytes" : nChunks + " chunks") + " of key '" + _frameName +
+                "' to " + path + " in " + _format + " format.");
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
     class PartExportTask extends MRTask<PartExportTask> {
       final String[] _colNames;
       final int _length;
@@ -449,8 +483,13 @@ public class FrameUtils {
         }
         int partIdx = anyChunk.cidx() / _length;
         String partPath = _path + "/part-m-" + String.valueOf(100000 + partIdx).substring(1);
-        Frame.CSVStream is = new Frame.CSVStream(cs, _colNames, _length, false);
-        exportCSVStream(is, partPath, anyChunk.cidx());
+        if (_format == null) {
+          Frame.CSVStream is = new Frame.CSVStream(cs, _colNames, _length, false);
+          exportCSVStream(is, partPath, anyChunk.cidx());
+        } else {
+          int nChunks = Math.min(_length, _fr.anyVec().nChunks() - anyChunk.cidx());
+          exportPart(partPath, anyChunk.cidx(), nChunks, true);
+        }
       }
 
       @Override
@@ -0,0 +1,165 @@
+package water.util;
+
+import java.util.Arrays;
+
+/**
+ * Pure Java block compressor writing the LZ4 block format: a sequence of
+ * literal runs and back-references (2 bytes offset) into the last 64KB of the
+ * block, found with a single hash table probe.  It favors speed over ratio; the
+ * point is to trade a few CPU cycles for less bytes on the wire.
+ *
+ * An instance holds its hash table and is not thread-safe; decompression is
+ * stateless.
+ */
+public class LZ4Codec {
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;     // The last 5 bytes of a block are always literals
+  private static final int MF_LIMIT = 12;         // The last match must start at least 12 bytes before the end
+  private static final int MIN_LENGTH = MF_LIMIT + 1;
+  private static final int MAX_DISTANCE = 65535;
+  private static final int ML_MASK = 15, RUN_MASK = 15;
+  private static final int HASH_LOG = 12;
+  private static final int SKIP_TRIGGER = 6;      // Search faster through incompressible data
+
+  private final int[] _table = new int[1 << HASH_LOG];
+
+  /** Worst case size of a compressed block of len bytes. */
+  public static int maxCompressedLength(int len) { return len + len / 255 + 16; }
+
+  /** Compress len bytes of src from off into dst from doff; dst must have
+   *  room for {@link #maxCompressedLength(int)} bytes.
+   *  @return the compressed length */
+  public int compress(byte[] src, int off, int len, byte[] dst, int doff) {
+    final int end = off + len;
+    int anchor = off, sp = off, dp = doff;
+    if (len >= MIN_LENGTH) {
+      Arrays.fill(_table, -1);
+      final int mflimit = end - MF_LIMIT;
+      final int matchlimit = end - LAST_LITERALS;
+      int searches = 1 << SKIP_TRIGGER;
+      while (sp < mflimit) {
+        int seq = readInt(src, sp);
+        int h = hash(seq);
+        int ref = _table[h];
+        _table[h] = sp;
+        if (ref < 0 || sp - ref > MAX_DISTANCE || readInt(src, ref) != seq) {
+          sp += searches++ >>> SKIP_TRIGGER;
+          continue;
+        }
+        searches = 1 << SKIP_TRIGGER;
+        // Extend the match backwards over the pending literals, then forwards
+        while (sp > anchor && ref > off && src[sp - 1] == src[ref - 1]) { sp--; ref--; }
+        int mlen = MIN_MATCH;
+        while (sp + mlen < matchlimit && src[sp + mlen] == src[ref + mlen]) mlen++;
+        dp = writeLiterals(src, anchor, sp - anchor, dst, dp, mlen - MIN_MATCH);
+        int offset = sp - ref;
+        dst[dp++] = (byte) offset;
+        dst[dp++] = (byte) (offset >>> 8);
+        if (mlen - MIN_MATCH >= ML_MASK) dp = writeLength(mlen - MIN_MATCH - ML_MASK, dst, dp);
+        sp += mlen;
+        anchor = sp;
+      }
+    }
+    // Last sequence, literals only
+    dp = writeLiterals(src, anchor, end - anchor, dst, dp, 0);
+    return dp - doff;
+  }
+
+  /** Decompress the clen bytes block of src from off into dst from doff,
+   *  writing at most dlen bytes.
+   *  @return the decompressed length
+   *  @throws IllegalArgumentException on a malformed block */
+  public static int decompress(byte[] src, int off, int clen, byte[] dst, int doff, int dlen) {
+    final int send = off + clen, dend = doff + dlen;
+    int sp = off, dp = doff;
+    while (true) {
+      if (sp >= send) throw new IllegalArgumentException("Malformed LZ4 block: missing token at " + (sp - off));
+      int token = src[sp++] & 0xFF;
+      // Literals
+      int run = token >>> 4;
+      if (run == RUN_MASK) {
+        int b;
+        do {
+          if (sp >= send) throw new IllegalArgumentException("Malformed LZ4 block: truncated literal length");
+          run += (b = src[sp++] & 0xFF);
+        } while (b == 255);
+      }
+      if (run > send - sp || run > dend - dp)
+        throw new IllegalArgumentException("Malformed LZ4 block: " + run + " literals overflow the block");
+      System.arraycopy(src, sp, dst, dp, run);
+      sp += run;
+      dp += run;
+      if (sp == send) break;    // Last sequence has no match
+      // Match
+      if (send - sp < 2) throw new IllegalArgumentException("Malformed LZ4 block: truncated offset");
+      int offset = (src[sp] & 0xFF) | (src[sp + 1] & 0xFF) << 8;
+      sp += 2;
+      if (offset == 0 || offset > dp - doff)
+        throw new IllegalArgumentException("Malformed LZ4 block: offset " + offset + " out of the block");
+      int mlen = token & ML_MASK;
+      if (mlen == ML_MASK) {
+        int b;
+        do {
+          if (sp >= send) throw new IllegalArgumentException("Malformed LZ4 block: truncated match length");
+          mlen += (b = src[sp++] & 0xFF);
+        } while (b == 255);
+      }
+      mlen += MIN_MATCH;
+      if (mlen > dend - dp)
+        throw new IllegalArgumentException("Malformed LZ4 block: match of " + mlen + " bytes overflows the block");
+      int ref = dp - offset;
+      if (offset >= mlen) {
+        System.arraycopy(dst, ref, dst, dp, mlen);
+        dp += mlen;
+      } else {                  // Overlapping copy, repeats the last offset bytes
+        for (int i = 0; i < mlen; i++) dst[dp++] = dst[ref++];
+      }
+    }
+    return dp - doff;
+  }
+
+  /** Estimated order-0 entropy in bits per byte, sampling every stride-th byte.
+   *  Near 8 for already compressed or random data, which is not worth the
+   *  compression effort. */
+  public static double entropy(byte[] src, int off, int len, int stride) {
+    int[] hist = new int[256];
+    int n = 0;
+    for (int i = off; i < off + len; i += stride, n++) hist[src[i] & 0xFF]++;
+    double e = 0;
+    for (int c : hist)
+      if (c > 0) {
+        double p = (double) c / n;
+        e -= p * Math.log(p);
+      }
+    return e / Math.log(2);
+  }
+
+  // Token, literal run length & literals; the match length nibble goes in the token
+  private static int writeLiterals(byte[] src, int off, int run, byte[] dst, int dp, int mlen) {
+    int token = dp++;
+    if (run >= RUN_MASK) {
+      dst[token] = (byte) (RUN_MASK << 4);
+      dp = writeLength(run - RUN_MASK, dst, dp);
+    } else {
+      dst[token] = (byte) (run << 4);
+    }
+    dst[token] |= (byte) Math.min(mlen, ML_MASK);
+    System.arraycopy(src, off, dst, dp, run);
+    return dp + run;
+  }
+
+  private static int writeLength(int len, byte[] dst, int dp) {
+    while (len >= 255) {
+      dst[dp++] = (byte) 255;
+      len -= 255;
+    }
+    dst[dp++] = (byte) len;
+    return dp;
+  }
+
+  private static int readInt(byte[] b, int i) {
+    return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+  }
+
+  private static int hash(int seq) { return (seq * -1640531535) >>> (32 - HASH_LOG); }
+}
@@ -22,4 +22,12 @@ public class UnsafeUtils {
 
   public static void copyMemory( byte[] srcBase, long srcOff, byte[] dstBase, long dstOff, long len )
   { _unsafe.copyMemory(srcBase,_Bbase+srcOff,dstBase,_Bbase+dstOff,len); }
+
+  // Off-heap (native) memory, allocated and freed explicitly by the MemoryManager
+  public static long allocateMemory( long bytes ) { return _unsafe.allocateMemory(bytes); }
+  public static void freeMemory( long address ) { _unsafe.freeMemory(address); }
+  public static void copyToNative( byte[] src, int srcOff, long dstAddress, long len )
+  { _unsafe.copyMemory(src,_Bbase+srcOff,null,dstAddress,len); }
+  public static void copyFromNative( long srcAddress, byte[] dst, int dstOff, long len )
+  { _unsafe.copyMemory(null,srcAddress,dst,_Bbase+dstOff,len); }
 }
@@ -3,6 +3,7 @@ package water.util;
 import water.*;
 import water.api.API;
 import water.api.schemas3.SchemaV3;
+import water.network.CompressedByteChannel;
 import water.persist.PersistManager;
 
 public class WaterMeterIo extends Iced {
@@ -25,6 +26,35 @@ public class WaterMeterIo extends Iced {
 
     @API(help="Cumulative loaded bytes", direction = API.Direction.OUTPUT)
     public long load_bytes;
+
+    @API(help="Number of load events which found the stored value", direction = API.Direction.OUTPUT)
+    public long load_hit_count;
+
+    @API(help="Number of load events which didn't find the stored value", direction = API.Direction.OUTPUT)
+    public long load_miss_count;
+
+    @API(help="Cumulative time spent in load events (nanoseconds)", direction = API.Direction.OUTPUT)
+    public long load_time_nanos;
+  }
+
+  public static class TcpStatsEntry extends SchemaV3<Iced, TcpStatsEntry> {
+    @API(help="Cumulative bytes sent over compressed TCP channels, before compression", direction = API.Direction.OUTPUT)
+    public long sent_raw_bytes;
+
+    @API(help="Cumulative bytes sent over compressed TCP channels, on the wire", direction = API.Direction.OUTPUT)
+    public long sent_wire_bytes;
+
+    @API(help="Cumulative bytes received over compressed TCP channels, after decompression", direction = API.Direction.OUTPUT)
+    public long received_raw_bytes;
+
+    @API(help="Cumulative bytes received over compressed TCP channels, on the wire", direction = API.Direction.OUTPUT)
+    public long received_wire_bytes;
+
+    @API(help="Number of sent blocks which were compressed", direction = API.Direction.OUTPUT)
+    public long compressed_blocks;
+
+    @API(help="Number of sent blocks which were too small, of too high entropy or not compressible", direction = API.Direction.OUTPUT)
+    public long stored_blocks;
   }
 
   // Input
@@ -32,6 +62,7 @@ public class WaterMeterIo extends Iced {
 
   // Output
   public IoStatsEntry persist_stats[];
+  public TcpStatsEntry tcp_stats;
 
   public void doIt(boolean aggregateAllNodes) {
     if (! aggregateAllNodes) {
@@ -48,6 +79,7 @@ public class WaterMeterIo extends Iced {
           persist_stats[j] = new IoStatsEntry();
           persist_stats[j].backend    = io.persist_stats[j].backend;
         }
+        tcp_stats = new TcpStatsEntry();
       }
 
       for (int j = 0; j < persist_stats.length; j++) {
@@ -56,7 +88,17 @@ public class WaterMeterIo extends Iced {
         persist_stats[j].delete_count += io.persist_stats[j].delete_count;
         persist_stats[j].load_count += io.persist_stats[j].load_count;
         persist_stats[j].load_bytes += io.persist_stats[j].load_bytes;
+        persist_stats[j].load_hit_count += io.persist_stats[j].load_hit_count;
+        persist_stats[j].load_miss_count += io.persist_stats[j].load_miss_count;
+        persist_stats[j].load_time_nanos += io.persist_stats[j].load_time_nanos;
       }
+
+      tcp_stats.sent_raw_bytes += io.tcp_stats.sent_raw_bytes;
+      tcp_stats.sent_wire_bytes += io.tcp_stats.sent_wire_bytes;
+      tcp_stats.received_raw_bytes += io.tcp_stats.received_raw_bytes;
+      tcp_stats.received_wire_bytes += io.tcp_stats.received_wire_bytes;
+      tcp_stats.compressed_blocks += io.tcp_stats.compressed_blocks;
+      tcp_stats.stored_blocks += io.tcp_stats.stored_blocks;
     }
   }
 
@@ -68,17 +110,19 @@ public class WaterMeterIo extends Iced {
     new RPC<>(node, t).call().get();
     Log.trace("IO GetTask completed to node " + idx);
     persist_stats = t._persist_stats;
+    tcp_stats = t._tcp_stats;
   }
 
   private static class GetTask extends DTask<GetTask> {
     private IoStatsEntry _persist_stats[];
+    private TcpStatsEntry _tcp_stats;
 
-    public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; }
+    public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; _tcp_stats = null; }
 
     @Override public void compute2() {
       PersistManager.PersistStatsEntry s[] = H2O.getPM().getStats();
 
-      int[] backendsToQuery = new int[] {Value.NFS, Value.HDFS, Value.S3, Value.ICE};
+      int[] backendsToQuery = new int[] {Value.NFS, Value.HDFS, Value.S3, Value.ICE, Value.SNAP};
       _persist_stats = new IoStatsEntry[backendsToQuery.length];
       for (int i = 0; i < _persist_stats.length; i++) {
         int j = backendsToQuery[i];
@@ -97,6 +141,9 @@ public class WaterMeterIo extends Iced {
           case Value.NFS:
             dest_e.backend = "local";
             break;
+          case Value.SNAP:
+            dest_e.backend = "snapshot";
+            break;
           default:
             throw H2O.fail();
         }
@@ -106,9 +153,20 @@ public class WaterMeterIo extends Iced {
         dest_e.delete_count = src_e.delete_count.get();
         dest_e.load_count = src_e.load_count.get();
         dest_e.load_bytes = src_e.load_bytes.get();
+        dest_e.load_hit_count = src_e.load_hit_count.get();
+        dest_e.load_miss_count = src_e.load_miss_count.get();
+        dest_e.load_time_nanos = src_e.load_time_nanos.get();
       }
 
-      int[] backendsToZeroCheck = new int[] {0, 5, 6, 7};
+      _tcp_stats = new TcpStatsEntry();
+      _tcp_stats.sent_raw_bytes = CompressedByteChannel.SENT_RAW_BYTES.get();
+      _tcp_stats.sent_wire_bytes = CompressedByteChannel.SENT_WIRE_BYTES.get();
+      _tcp_stats.received_raw_bytes = CompressedByteChannel.RECEIVED_RAW_BYTES.get();
+      _tcp_stats.received_wire_bytes = CompressedByteChannel.RECEIVED_WIRE_BYTES.get();
+      _tcp_stats.compressed_blocks = CompressedByteChannel.COMPRESSED_BLOCKS.get();
+      _tcp_stats.stored_blocks = CompressedByteChannel.STORED_BLOCKS.get();
+
+      int[] backendsToZeroCheck = new int[] {0, 6, 7};
       for (int j : backendsToZeroCheck) {
         PersistManager.PersistStatsEntry src_e = s[j];
         assert(src_e.store_count.get() == 0);
@@ -1,9 +1,12 @@
 package hex;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import org.junit.*;
 import water.*;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
 import water.util.ArrayUtils;
 
 public class AUCTest extends TestUtil {
@@ -89,6 +92,113 @@ public class AUCTest extends TestUtil {
     fr.remove();
   }
 
+  @Test public void testAUCSketch() {
+    java.util.Random rng = new java.util.Random(0xA0C);
+    int n = 100000;
+    double[] probs = new double[n], actls = new double[n];
+    AUCSketch sketch = new AUCSketch(), left = new AUCSketch(), rite = new AUCSketch();
+    for( int i=0; i<n; i++ ) {
+      actls[i] = rng.nextInt(2);
+      probs[i] = 1/(1+Math.exp(-(actls[i]+rng.nextGaussian())));
+      sketch.perRow(probs[i],(int)actls[i],1);
+      (i < n/3 ? left : rite).perRow(probs[i],(int)actls[i],1);
+    }
+    double exact = AUC2.perfectAUC(probs,actls);
+    Assert.assertEquals(exact, sketch.auc(), sketch.aucErrorBound());
+    Assert.assertTrue(sketch.aucErrorBound() < 1e-3);
+    // Merging is exact, the split of the rows doesn't matter
+    left.reduce(rite);
+    Assert.assertEquals(sketch.auc(), left.auc(), 1e-12);
+    Assert.assertEquals(sketch.prAuc(), left.prAuc(), 1e-12);
+
+    AUC2 auc = new AUC2(sketch, Double.NaN);
+    Assert.assertEquals(sketch.auc(), auc._auc, 0);
+    Assert.assertEquals(sketch.prAuc(), auc.pr_auc(), 0);
+    Assert.assertTrue(auc._nBins <= AUC2.NBINS);
+    Assert.assertEquals(n, auc._p+auc._n, 1e-6);
+
+    GainsLift gl = new GainsLift(sketch);
+    gl.exec();
+    Assert.assertEquals(n, ArrayUtils.sum(gl.observations));
+    Assert.assertNotNull(gl.createTwoDimTable());
+  }
+
+  @Test public void testExactAUC() {
+    // Ties; the data is sorted by Merge.sort, which decides the chunks of the sorted frame
+    double probs[] = new double[]{1e-8,1e-7,1e-6,1e-5,1e-4,1e-3,1e-3,1e-3,1e-3,1e-3,1e-3,1e-3,1e-3,1e-3,1e-3,1e-2,1e-1};
+    double actls[] = new double[]{   0,   0,    1,   1,   1,  1,   0,   1,   0,   1,   0,   1,   0,   1,   1,   1,   1};
+    Frame fr = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withColNames("probs", "actls")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, probs)
+              .withDataForCol(1, actls)
+              .withChunkLayout(3, 4, 5, 5)
+              .build();
+      Assert.assertEquals(AUC2.perfectAUC(probs,actls), AUC2.exactAUC(fr.vec("probs"), fr.vec("actls"), null), 1e-12);
+    } finally {
+      if( fr != null ) fr.remove();
+    }
+    // Weights count as repeated rows
+    Frame wfr = null;
+    try {
+      wfr = new TestFrameBuilder()
+              .withColNames("probs", "actls", "weights")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, ard(0.1, 0.2, 0.2, 0.4, 0.7))
+              .withDataForCol(1, ard(0, 1, 0, 0, 1))
+              .withDataForCol(2, ard(1, 2, 1, 3, 1))
+              .build();
+      double expected = AUC2.perfectAUC(ard(0.1, 0.2, 0.2, 0.2, 0.4, 0.4, 0.4, 0.7), ard(0, 1, 1, 0, 0, 0, 0, 1));
+      Assert.assertEquals(expected, AUC2.exactAUC(wfr.vec("probs"), wfr.vec("actls"), wfr.vec("weights")), 1e-12);
+    } finally {
+      if( wfr != null ) wfr.remove();
+    }
+  }
+
+  @Test public void testExactAUCChunks() {
+    // Sorted predictions: ties across chunk boundaries, a chunk holding a single group of ties
+    // and a chunk of skipped rows between two tied predictions
+    double probs[] = ard(0.1, 0.2, 0.2,  0.2, 0.2,  0.2, 0.3, 0.3,  0.3, 0.5,  Double.NaN, Double.NaN,  0.5, 0.9);
+    double actls[] = ard(  0,   1,   0,    1,   0,    0,   1,   0,    1,   0,           0,          0,    1,   1);
+    double wghts[] = ard(  1,   2,   1,    1,   3,    1,   1,   2,    1,   1,           1,          1,    2,   1);
+    Frame fr = null;
+    Vec ones = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withColNames("probs", "actls", "weights")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, probs)
+              .withDataForCol(1, actls)
+              .withDataForCol(2, wghts)
+              .withChunkLayout(3, 2, 3, 2, 2, 2)
+              .build();
+      Assert.assertEquals(6, fr.anyVec().nChunks());
+      ArrayList<Double> ps = new ArrayList<>(), as = new ArrayList<>(), wps = new ArrayList<>(), was = new ArrayList<>();
+      for( int i=0; i<probs.length; i++ ) {
+        if( Double.isNaN(probs[i]) ) continue;
+        ps.add(probs[i]);  as.add(actls[i]);
+        for( int w=0; w<wghts[i]; w++ ) { wps.add(probs[i]);  was.add(actls[i]); }
+      }
+      ones = fr.anyVec().makeCon(1);
+      double auc = new AUC2.ExactAUCTask().doAll(fr.vec("probs"), fr.vec("actls"), ones).auc();
+      Assert.assertEquals(AUC2.perfectAUC(toArray(ps), toArray(as)), auc, 1e-12);
+      // Weights count as repeated rows
+      double wauc = new AUC2.ExactAUCTask().doAll(fr.vec("probs"), fr.vec("actls"), fr.vec("weights")).auc();
+      Assert.assertEquals(AUC2.perfectAUC(toArray(wps), toArray(was)), wauc, 1e-12);
+    } finally {
+      if( fr != null ) fr.remove();
+      if( ones != null ) ones.remove();
+    }
+  }
+
+  private static double[] toArray(ArrayList<Double> ds) {
+    double[] res = new double[ds.size()];
+    for( int i=0; i<res.length; i++ ) res[i] = ds.get(i);
+    return res;
+  }
+
   private static double doAUC(double probs[], double actls[]) {
     double rows[][] = new double[probs.length][];
     for( int i=0; i<probs.length; i++ )
@@ -0,0 +1,70 @@
+package water;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.util.IcedInt;
+
+import java.util.Arrays;
+import java.util.ServiceLoader;
+
+import static org.junit.Assert.*;
+
+public class PregeneratedIcerTest extends TestUtil {
+
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  // Test classes do not get pre-generated Icers, this one is woven on top of the pre-generated Icer of IcedInt
+  static class IcedIntPair extends IcedInt {
+    int _other;
+    IcedIntPair(int v, int other) { super(v); _other = other; }
+  }
+
+  @Test public void testStaticTypeIds() {
+    Assume.assumeTrue(Weaver.PREGENERATED);
+    String[] clazzes = TypeMap.staticClasses();
+    assertEquals(TypeMap.STATIC_TYPES_HASH, Arrays.hashCode(clazzes));
+    int n = 0;
+    for (IcerIndex idx : ServiceLoader.load(IcerIndex.class)) {
+      for (String c : idx.classes()) {
+        int id = TypeMap.onIce(c);
+        assertTrue(c + " has no static type id", id < clazzes.length);
+        assertEquals(c, clazzes[id]);
+      }
+      n++;
+    }
+    assertTrue("No index of pre-generated Icers", n > 0);
+  }
+
+  @Test public void testMd5SkipStaticTypeIds() {
+    boolean md5skip = H2O.ARGS.md5skip;
+    try {
+      H2O.ARGS.md5skip = true;
+      // Jars from different builds may have different pre-generated Icers, only the bootstrap ids are static
+      assertArrayEquals(TypeMap.BOOTSTRAP_CLASSES, TypeMap.staticClasses());
+    } finally {
+      H2O.ARGS.md5skip = md5skip;
+    }
+  }
+
+  @Test public void testPregeneratedIcer() {
+    Assume.assumeTrue(Weaver.PREGENERATED);
+    Icer icer = TypeMap.getIcer(new IcedInt(42));
+    assertSame(icer.getClass(), Weaver.pregenerated(IcedInt.class.getName() + "$Icer", IcedInt.class));
+    assertEquals(TypeMap.onIce(IcedInt.class.getName()), icer.frozenType());
+
+    IcedInt ii = new AutoBuffer(new AutoBuffer().put(new IcedInt(42)).buf()).get(IcedInt.class);
+    assertEquals(42, ii._val);
+    assertEquals("{\"_val\":42}", new IcedInt(42).toJsonString());
+  }
+
+  @Test public void testWovenSubclass() {
+    Icer icer = TypeMap.getIcer(new IcedIntPair(1, 2));
+    assertNull(Weaver.pregenerated(IcedIntPair.class.getName() + "$Icer", IcedIntPair.class));
+    assertTrue(TypeMap.getIcer(new IcedInt(1)).getClass().isInstance(icer));
+
+    IcedIntPair p = new AutoBuffer(new AutoBuffer().put(new IcedIntPair(3, 4)).buf()).get(IcedIntPair.class);
+    assertEquals(3, p._val);
+    assertEquals(4, p._other);
+  }
+}
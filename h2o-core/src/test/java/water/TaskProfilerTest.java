@@ -0,0 +1,124 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class TaskProfilerTest extends TestUtil {
+
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  private static class SumTask extends MRTask<SumTask> {
+    double _sum;
+    @Override public void map(Chunk c) {
+      for (int i = 0; i < c._len; i++)
+        _sum += c.atd(i);
+    }
+    @Override public void reduce(SumTask mrt) { _sum += mrt._sum; }
+  }
+
+  private static TaskProfiler.TaskProfile find(TaskProfiler.TaskProfile[] ps, Class<?> clz) {
+    for (TaskProfiler.TaskProfile p : ps)
+      if (clz.getName().equals(p._task))
+        return p;
+    return null;
+  }
+
+  @Test public void testCollect() {
+    boolean wasEnabled = TaskProfiler.enabled();
+    Frame fr = null;
+    try {
+      new TaskProfiler.Toggle(true, false).doAllNodes();
+      assertTrue(TaskProfiler.enabled());
+      fr = new TestFrameBuilder()
+          .withName("profiledFrame")
+          .withColNames("x")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ard(1, 2, 3, 4, 5, 6))
+          .withChunkLayout(2, 1, 3)
+          .build();
+      TaskProfiler.reset();
+      assertEquals(21, new SumTask().doAll(fr)._sum, 0);
+
+      TaskProfiler.TaskProfile p = find(TaskProfiler.snapshot(), SumTask.class);
+      assertNotNull(p);
+      assertEquals(3, p._maps);
+      assertEquals(6, p._rows);
+      assertTrue(p._invocations > 0);
+      assertTrue(p._mapNanos > 0);
+      assertTrue(p._chunkTypes.length > 0);
+
+      TaskProfiler.Collector c = new TaskProfiler.Collector(true).doAllNodes();
+      TaskProfiler.TaskProfile agg = find(TaskProfiler.aggregate(c._nodeProfiles), SumTask.class);
+      assertNotNull(agg);
+      assertEquals(6, agg._rows);
+      assertTrue(TaskProfiler.toFoldedStacks(new TaskProfiler.TaskProfile[]{agg})
+          .startsWith("MRTask;" + SumTask.class.getName() + ";map "));
+
+      // Counters were reset by the collector
+      assertNull(find(TaskProfiler.snapshot(), SumTask.class));
+    } finally {
+      new TaskProfiler.Toggle(wasEnabled, false).doAllNodes();
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testToggle() {
+    boolean wasEnabled = TaskProfiler.enabled();
+    Frame fr = null;
+    try {
+      fr = new TestFrameBuilder()
+          .withName("toggledFrame")
+          .withColNames("x")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ard(1, 2, 3))
+          .withChunkLayout(1, 2)
+          .build();
+      new TaskProfiler.Toggle(false, false).doAllNodes();
+      assertFalse(TaskProfiler.enabled());
+      new TaskProfiler.Collector(true).doAllNodes();
+      assertEquals(6, new SumTask().doAll(fr)._sum, 0);
+      assertNull(find(TaskProfiler.snapshot(), SumTask.class)); // nothing recorded while off
+
+      new TaskProfiler.Toggle(true, false).doAllNodes();
+      assertTrue(TaskProfiler.enabled());
+      assertEquals(6, new SumTask().doAll(fr)._sum, 0);
+      TaskProfiler.TaskProfile agg = find(TaskProfiler.aggregate(new TaskProfiler.Collector(true).doAllNodes()._nodeProfiles), SumTask.class);
+      assertNotNull(agg);
+      assertEquals(2, agg._maps);
+      assertEquals(3, agg._rows);
+    } finally {
+      new TaskProfiler.Toggle(wasEnabled, false).doAllNodes();
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testAggregate() {
+    TaskProfiler.TaskProfile p1 = new TaskProfiler.TaskProfile();
+    p1._task = "T";
+    p1._maps = 2;
+    p1._mapNanos = 2000;
+    p1._chunkTypes = new String[]{"C1Chunk"};
+    p1._chunkBytes = new long[]{10};
+    TaskProfiler.TaskProfile p2 = new TaskProfiler.TaskProfile();
+    p2._task = "T";
+    p2._maps = 3;
+    p2._mapNanos = 3000;
+    p2._chunkTypes = new String[]{"C8DChunk", "C1Chunk"};
+    p2._chunkBytes = new long[]{80, 5};
+    TaskProfiler.TaskProfile[] agg = TaskProfiler.aggregate(new TaskProfiler.TaskProfile[][]{{p1}, null, {p2}});
+    assertEquals(1, agg.length);
+    assertEquals(5, agg[0]._maps);
+    assertEquals(5000, agg[0]._mapNanos);
+    assertArrayEquals(new String[]{"C1Chunk", "C8DChunk"}, agg[0]._chunkTypes);
+    assertArrayEquals(new long[]{15, 80}, agg[0]._chunkBytes);
+    assertEquals(2, p1._maps); // inputs are not modified
+    assertEquals("MRTask;T;map 5\n", TaskProfiler.toFoldedStacks(agg));
+  }
+
+}
@@ -0,0 +1,132 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.*;
+import water.exceptions.H2OIllegalArgumentException;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class FrameSnapshotTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private static Frame makeFrame() {
+    return makeFrame(ard(1.5, Double.NaN, -3.25, 0, 1e10, 7));
+  }
+
+  private static Frame makeFrame(double[] nums) {
+    return new TestFrameBuilder()
+        .withName("snapshotSource")
+        .withColNames("cat", "num", "str", "int")
+        .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_STR, Vec.T_NUM)
+        .withDataForCol(0, ar("a", "b", "a", null, "c", "b"))
+        .withDataForCol(1, nums)
+        .withDataForCol(2, ar("x", "yy", null, "zzz", "", "w"))
+        .withDataForCol(3, ard(1, 2, 3, 4, 5, 6))
+        .withChunkLayout(2, 1, 3)
+        .build();
+  }
+
+  @Test public void testSaveLoad() throws Exception {
+    Frame fr = null, loaded = null;
+    try {
+      fr = makeFrame();
+      File dir = tmpFolder.newFolder("snapshot");
+      fr.saveSnapshot(dir.getPath(), false).get();
+      assertTrue(new File(dir, FrameSnapshot.META_FILE).exists());
+
+      Key<Frame> key = Key.make("snapshotLoaded");
+      loaded = Frame.loadSnapshot(dir.getPath(), key).get();
+      assertEquals(key, loaded._key);
+      assertArrayEquals(fr.names(), loaded.names());
+      assertArrayEquals(fr.anyVec().espc(), loaded.anyVec().espc());
+      for (int i = 0; i < fr.numCols(); i++) {
+        assertEquals(fr.vec(i).get_type(), loaded.vec(i).get_type());
+        assertArrayEquals(fr.vec(i).domain(), loaded.vec(i).domain());
+      }
+      // Chunks are installed without data and paged in on first touch
+      assertTrue(DKV.get(loaded.vec(1).chunkKey(2)).isPersisted());
+      // RollupStats are restored, not recomputed
+      assertNotNull(RollupStats.getOrNull(loaded.vec(1), loaded.vec(1).rollupStatsKey()));
+      assertEquals(fr.vec(1).mean(), loaded.vec(1).mean(), 0);
+      assertEquals(fr.vec(1).naCnt(), loaded.vec(1).naCnt());
+      assertTrue(isBitIdentical(fr, loaded));
+    } finally {
+      if (fr != null) fr.delete();
+      if (loaded != null) loaded.delete();
+    }
+  }
+
+  @Test public void testOverwrite() throws Exception {
+    Frame fr = null;
+    try {
+      fr = makeFrame();
+      File dir = tmpFolder.newFolder("snapshot_overwrite");
+      fr.saveSnapshot(dir.getPath(), false).get();
+      try {
+        fr.saveSnapshot(dir.getPath(), false);
+        fail("Existing snapshot shouldn't be overwritten");
+      } catch (H2OIllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("already contains a snapshot"));
+      }
+      fr.saveSnapshot(dir.getPath(), true).get();
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testOverwriteReload() throws Exception {
+    Frame fr1 = null, fr2 = null, loaded1 = null, loaded2 = null;
+    try {
+      fr1 = makeFrame();
+      File dir = tmpFolder.newFolder("snapshot_reload");
+      fr1.saveSnapshot(dir.getPath(), false).get();
+      loaded1 = Frame.loadSnapshot(dir.getPath(), Key.<Frame>make()).get();
+      assertTrue(isBitIdentical(fr1, loaded1));
+      // Same layout and sizes, different data
+      fr2 = makeFrame(ard(2.5, Double.NaN, -4.25, 1, 2e10, 8));
+      fr2.saveSnapshot(dir.getPath(), true).get();
+      loaded2 = Frame.loadSnapshot(dir.getPath(), Key.<Frame>make()).get();
+      assertTrue(isBitIdentical(fr2, loaded2));
+      assertEquals(2.5, loaded2.vec(1).at(0), 0);
+    } finally {
+      if (fr1 != null) fr1.delete();
+      if (fr2 != null) fr2.delete();
+      if (loaded1 != null) loaded1.delete();
+      if (loaded2 != null) loaded2.delete();
+    }
+  }
+
+  @Test public void testDeleteLoaded() throws Exception {
+    Frame fr = null, loaded = null;
+    try {
+      fr = makeFrame();
+      File dir = tmpFolder.newFolder("snapshot_delete");
+      fr.saveSnapshot(dir.getPath(), false).get();
+      int before = H2O.getPM().getSnapshot().size();
+      int mappedBefore = H2O.getPM().getSnapshot().mappedFiles();
+      loaded = Frame.loadSnapshot(dir.getPath(), Key.<Frame>make()).get();
+      assertEquals(before + fr.numCols() * fr.anyVec().nChunks(), H2O.getPM().getSnapshot().size());
+      assertTrue(H2O.getPM().getSnapshot().mappedFiles() > mappedBefore);
+      loaded.delete();
+      loaded = null;
+      assertEquals(before, H2O.getPM().getSnapshot().size());
+      // The mapping is dropped with the last Chunk backed by it
+      assertEquals(mappedBefore, H2O.getPM().getSnapshot().mappedFiles());
+    } finally {
+      if (fr != null) fr.delete();
+      if (loaded != null) loaded.delete();
+    }
+  }
+
+}
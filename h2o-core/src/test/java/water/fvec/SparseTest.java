@@ -75,6 +75,13 @@ public class SparseTest extends TestUtil {
       if(Double.isNaN(vals[i])){
           Assert.assertEquals(NA,x[i],0);
       } else Assert.assertEquals(vals[i],x[i],0);
+    // test a sub-range
+    Arrays.fill(x,0);
+    c.getDoubles(x,128,512,NA);
+    for(int i = 128; i < 512; ++i)
+      if(Double.isNaN(vals[i])){
+        Assert.assertEquals(NA,x[i-128],0);
+      } else Assert.assertEquals(vals[i],x[i-128],0);
     // test sparse doubles
     if(isSparse) {
       int[] ids = new int[x.length];
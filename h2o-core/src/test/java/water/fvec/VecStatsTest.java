@@ -4,7 +4,9 @@ import static org.junit.Assert.*;
 import org.junit.*;
 
 import java.util.Random;
+import water.DKV;
 import water.Futures;
+import water.Scope;
 import water.TestUtil;
 import water.Key;
 
@@ -71,4 +73,82 @@ public class VecStatsTest extends TestUtil {
     vec.remove();
 
   }
+
+  @Test public void testBulkRollups() {
+    Scope.enter();
+    try {
+      Frame[] frs = new Frame[2];
+      for( int i = 0; i < frs.length; i++ )
+        frs[i] = new TestFrameBuilder()
+            .withColNames("num", "int", "cat", "const", "na", "str")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_CAT, Vec.T_NUM, Vec.T_NUM, Vec.T_STR)
+            .withDataForCol(0, ard(1.5, -2, Double.NaN, 0, 7.25, 3, 1e3, -0.5))
+            .withDataForCol(1, ard(1, 2, 3, 0, 0, 5, Double.NaN, 8))
+            .withDataForCol(2, ar("a", "b", null, "a", "c", "b", "a", "a"))
+            .withDataForCol(3, ard(4, 4, 4, 4, 4, 4, 4, 4))
+            .withDataForCol(4, ard(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN))
+            .withDataForCol(5, ar("x", "y", null, "x", "z", "w", "v", "u"))
+            .withChunkLayout(3, 3, 2)
+            .build();
+      // All the rollups of the first frame in a single pass, of the second one one Vec at a time
+      Futures fs = new Futures();
+      Vec.startRollupStats(frs[0].vecs(), fs, true);
+      fs.blockForPending();
+      for( int c = 0; c < frs[0].numCols(); c++ ) {
+        Vec bulk = frs[0].vec(c), single = frs[1].vec(c);
+        RollupStats rs = RollupStats.getOrNull(bulk, bulk.rollupStatsKey());
+        assertNotNull("Rollups of " + frs[0].name(c) + " not installed", rs);
+        assertEquals(!bulk.isString(), rs.hasHisto());
+        assertEquals(single.naCnt(), bulk.naCnt());
+        assertEquals(single.nzCnt(), bulk.nzCnt());
+        assertEquals(single.isInt(), bulk.isInt());
+        assertEquals(single.checksum(), bulk.checksum());
+        assertEquals(single.byteSize(), bulk.byteSize());
+        assertArrayEquals(single.mins(), bulk.mins(), 0);
+        assertArrayEquals(single.maxs(), bulk.maxs(), 0);
+        assertEquals(single.mean(), bulk.mean(), 1e-12);
+        assertEquals(single.sigma(), bulk.sigma(), 1e-12);
+        if( !bulk.isString() ) {
+          assertArrayEquals(single.bins(), bulk.bins());
+          assertArrayEquals(single.pctiles(), bulk.pctiles(), 0);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(timeout = 60000) public void testBulkRollupsFailure() {
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+          .withColNames("a", "b")
+          .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+          .withDataForCol(0, ard(1, 2, 3, 4, 5, 6, 7, 8))
+          .withDataForCol(1, ard(8, 7, 6, 5, 4, 3, 2, 1))
+          .withChunkLayout(3, 3, 2)
+          .build();
+      Vec a = fr.vec("a"), b = fr.vec("b");
+      // A missing chunk makes the pass over the claimed Vecs fail
+      Key ckey = b.chunkKey(1);
+      Chunk c = DKV.get(ckey).get();
+      DKV.remove(ckey);
+      boolean failed = false;
+      try {
+        Futures fs = new Futures();
+        Vec.startRollupStats(fr.vecs(), fs, true);
+        fs.blockForPending();
+      } catch (RuntimeException | AssertionError e) {
+        failed = true;
+      }
+      assertTrue("Expected the rollups to fail", failed);
+      // The claims were released: the rollups are computed again instead of waiting forever
+      assertNull(RollupStats.getOrNull(a, a.rollupStatsKey()));
+      assertEquals(4.5, a.mean(), 0);
+      DKV.put(ckey, c);
+      assertEquals(4.5, b.mean(), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
 }
@@ -0,0 +1,170 @@
+package water.jdbc;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import static org.junit.Assert.*;
+
+public class SQLManagerTest extends TestUtil {
+
+  // The import runs on the home nodes of the chunks: all the nodes of the test cloud (local JVMs) need to reach the
+  // same database, the first one opening the file serves it to the others
+  private static final String URL = "jdbc:h2:" + new File(System.getProperty("java.io.tmpdir"),
+      "h2o_sqlmanagertest_" + System.nanoTime()).getAbsolutePath() + ";AUTO_SERVER=TRUE";
+  private static final String USER = "sa";
+  private static final String PASSWORD = "";
+  private static final long T0 = 1483228800000L; // 2017-01-01
+
+  @BeforeClass
+  public static void setup() throws SQLException {
+    stall_till_cloudsize(1);
+    createTable("test_table", 1000);
+  }
+
+  @AfterClass
+  public static void cleanup() throws SQLException {
+    try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+         Statement stmt = conn.createStatement()) {
+      stmt.executeUpdate("DROP ALL OBJECTS DELETE FILES");
+    }
+  }
+
+  // id = 0..n-1, x = id / 2 (NULL for every 10th row), s = "s" + id % 3, d = T0 + id hours (NULL for every 7th row)
+  private static void createTable(String table, int n) throws SQLException {
+    try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+         Statement stmt = conn.createStatement()) {
+      stmt.executeUpdate("CREATE TABLE " + table + " (id INT, x DOUBLE, s VARCHAR(10), d TIMESTAMP)");
+      try (PreparedStatement insert = conn.prepareStatement("INSERT INTO " + table + " VALUES (?, ?, ?, ?)")) {
+        for (int i = 0; i < n; i++) {
+          insert.setInt(1, i);
+          if (i % 10 == 0) insert.setNull(2, java.sql.Types.DOUBLE); else insert.setDouble(2, i / 2.0);
+          insert.setString(3, "s" + i % 3);
+          if (i % 7 == 0) insert.setNull(4, java.sql.Types.TIMESTAMP); else insert.setTimestamp(4, new Timestamp(T0 + i * 3600000L));
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+    }
+  }
+
+  private static Frame importTable(String columns, String partitionColumn, String filter) {
+    return SQLManager.importSqlTable(URL, "test_table", "", USER, PASSWORD, columns, false, partitionColumn, filter).get();
+  }
+
+  private static void checkTable(Frame fr, long expectedRows) {
+    try {
+      assertArrayEquals(ar("ID", "X", "S", "D"), fr.names());
+      assertArrayEquals(new byte[]{Vec.T_NUM, Vec.T_NUM, Vec.T_STR, Vec.T_TIME}, fr.types());
+      assertEquals(expectedRows, fr.numRows());
+      // rows may come in any order, check them by their id
+      Vec id = fr.vec("ID"), x = fr.vec("X"), d = fr.vec("D");
+      long idSum = 0;
+      for (long r = 0; r < fr.numRows(); r++) {
+        long i = id.at8(r);
+        idSum += i;
+        if (i % 10 == 0) assertTrue(x.isNA(r)); else assertEquals(i / 2.0, x.at(r), 0);
+        assertEquals("s" + i % 3, fr.vec("S").stringAt(r));
+        if (i % 7 == 0) assertTrue(d.isNA(r)); else assertEquals(T0 + i * 3600000L, d.at8(r));
+      }
+      assertEquals(expectedRows * (expectedRows - 1) / 2, idSum);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testImportPaged() {
+    checkTable(importTable("*", null, null), 1000);
+  }
+
+  @Test
+  public void testImportPartitionedByNumber() {
+    checkTable(importTable("*", "x", null), 1000);
+  }
+
+  @Test
+  public void testImportPartitionedByDate() {
+    checkTable(importTable("*", "d", null), 1000);
+  }
+
+  @Test
+  public void testPartitionedTaskSerialization() {
+    // The task is shipped to the other nodes: the range of the partition column has to survive serialization
+    Timestamp min = new Timestamp(T0), max = new Timestamp(T0 + 999 * 3600000L);
+    SQLManager.SqlTableToH2OFrame t = new SQLManager.SqlTableToH2OFrame(URL, "test_table", false, USER, PASSWORD, "*", "",
+            new byte[0], 4, null, "d", min, max);
+    t = new AutoBuffer(new AutoBuffer().put(t).buf()).get();
+    assertTrue(t._partitionByTime);
+    assertEquals(T0, (long) t._partitionMin);
+    assertEquals(max.getTime(), (long) t._partitionMax);
+
+    t = new SQLManager.SqlTableToH2OFrame(URL, "test_table", false, USER, PASSWORD, "*", "", new byte[0], 4, null,
+            "x", 0.5, 499.5);
+    t = new AutoBuffer(new AutoBuffer().put(t).buf()).get();
+    assertFalse(t._partitionByTime);
+    assertEquals(0.5, t._partitionMin, 0);
+    assertEquals(499.5, t._partitionMax, 0);
+
+    t = new SQLManager.SqlTableToH2OFrame(URL, "test_table", false, USER, PASSWORD, "*", "", new byte[0], 1, null,
+            "x", null, null);
+    t = new AutoBuffer(new AutoBuffer().put(t).buf()).get();
+    assertTrue(Double.isNaN(t._partitionMin));
+  }
+
+  @Test
+  public void testFilterPushDown() {
+    checkTable(importTable("*", null, "id < 500"), 500);
+    checkTable(importTable("*", "id", "id < 500"), 500);
+  }
+
+  @Test
+  public void testProjectionPushDown() {
+    Frame fr = importTable("id, s", "id", "s = 's1'");
+    try {
+      assertArrayEquals(ar("ID", "S"), fr.names());
+      assertEquals(333, fr.numRows());
+      for (long r = 0; r < fr.numRows(); r++)
+        assertEquals(1, fr.vec("ID").at8(r) % 3);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test @Ignore("Speed/perf test, not intended as a pre-push junit test")
+  public void benchmarkImport() throws SQLException {
+    final int n = 2000000;
+    createTable("bench_table", n);
+    try {
+      for (String partitionColumn : new String[]{null, "id"}) {
+        long start = System.currentTimeMillis();
+        Frame fr = SQLManager.importSqlTable(URL, "bench_table", "", USER, PASSWORD, "*", false, partitionColumn, null).get();
+        long time = System.currentTimeMillis() - start;
+        assertEquals(n, fr.numRows());
+        Log.info("Import of " + n + " rows " + (partitionColumn == null ? "with LIMIT/OFFSET" : "partitioned by " + partitionColumn) +
+                ": " + time + "ms (" + fr.anyVec().nChunks() + " chunks)");
+        fr.delete();
+      }
+    } finally {
+      try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+           Statement stmt = conn.createStatement()) {
+        stmt.executeUpdate("DROP TABLE bench_table");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+package water.network;
+
+import org.junit.Test;
+import water.AutoBuffer;
+import water.util.LZ4Codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompressedByteChannelTest {
+
+  // In-memory channel: reads what was written to it
+  private static class LoopbackChannel implements ByteChannel {
+    final ByteArrayOutputStream _out = new ByteArrayOutputStream();
+    final WritableByteChannel _w = Channels.newChannel(_out);
+    ReadableByteChannel _r;
+    @Override public int write(ByteBuffer src) throws IOException { return _w.write(src); }
+    @Override public int read(ByteBuffer dst) throws IOException {
+      if (_r == null) _r = Channels.newChannel(new ByteArrayInputStream(_out.toByteArray()));
+      return _r.read(dst);
+    }
+    @Override public boolean isOpen() { return true; }
+    @Override public void close() {}
+  }
+
+  private static byte[] roundTrip(byte[] data, int writeSize) throws IOException {
+    LoopbackChannel loop = new LoopbackChannel();
+    CompressedByteChannel chan = new CompressedByteChannel(loop);
+    for (int off = 0; off < data.length; off += writeSize) {
+      ByteBuffer bb = ByteBuffer.allocateDirect(Math.min(writeSize, data.length - off));
+      bb.put(data, off, bb.capacity()).flip();
+      assertEquals(bb.capacity(), chan.write(bb));
+    }
+    ByteBuffer res = ByteBuffer.allocate(data.length);
+    while (res.hasRemaining()) assertTrue(chan.read(res) > 0);
+    assertEquals(-1, chan.read(ByteBuffer.allocate(1)));
+    return res.array();
+  }
+
+  @Test public void testCompressible() throws IOException {
+    Random rng = new Random(0xCAFE);
+    byte[] data = new byte[3 * AutoBuffer.TCP_BUF_SIZ + 123];
+    for (int i = 0; i < data.length; i++) data[i] = (byte) (rng.nextInt(8) == 0 ? rng.nextInt(4) : 0);
+    long blocks = CompressedByteChannel.COMPRESSED_BLOCKS.get();
+    long raw = CompressedByteChannel.SENT_RAW_BYTES.get(), wire = CompressedByteChannel.SENT_WIRE_BYTES.get();
+    assertArrayEquals(data, roundTrip(data, AutoBuffer.TCP_BUF_SIZ));
+    assertEquals(blocks + 3, CompressedByteChannel.COMPRESSED_BLOCKS.get()); // The 123 bytes tail is too small
+    assertEquals(data.length, CompressedByteChannel.SENT_RAW_BYTES.get() - raw);
+    assertTrue(CompressedByteChannel.SENT_WIRE_BYTES.get() - wire < data.length / 2);
+  }
+
+  @Test public void testStored() throws IOException {
+    // Random bytes have a too high entropy, small writes are too small: both are sent as-is
+    byte[] data = new byte[AutoBuffer.TCP_BUF_SIZ];
+    new Random(42).nextBytes(data);
+    long blocks = CompressedByteChannel.STORED_BLOCKS.get();
+    assertArrayEquals(data, roundTrip(data, AutoBuffer.TCP_BUF_SIZ));
+    assertEquals(blocks + 1, CompressedByteChannel.STORED_BLOCKS.get());
+
+    byte[] zeros = new byte[1000];
+    blocks = CompressedByteChannel.STORED_BLOCKS.get();
+    assertArrayEquals(zeros, roundTrip(zeros, 100));
+    assertEquals(blocks + 10, CompressedByteChannel.STORED_BLOCKS.get());
+  }
+
+  @Test public void testCodec() {
+    Random rng = new Random(7);
+    LZ4Codec codec = new LZ4Codec();
+    for (int n : new int[]{0, 1, 12, 13, 100, 1000, 65536}) {
+      for (int kind = 0; kind < 3; kind++) {
+        byte[] src = new byte[n];
+        for (int i = 0; i < n; i++)
+          src[i] = (byte) (kind == 0 ? rng.nextInt(256) : kind == 1 ? rng.nextInt(3) : i % 7);
+        byte[] dst = new byte[LZ4Codec.maxCompressedLength(n)];
+        int clen = codec.compress(src, 0, n, dst, 0);
+        byte[] res = new byte[n];
+        assertEquals(n, LZ4Codec.decompress(dst, 0, clen, res, 0, n));
+        assertArrayEquals(src, res);
+      }
+    }
+    byte[] rep = new byte[100];
+    Arrays.fill(rep, (byte) 1);
+    byte[] dst = new byte[LZ4Codec.maxCompressedLength(rep.length)];
+    int clen = new LZ4Codec().compress(rep, 0, rep.length, dst, 0);
+    try {
+      LZ4Codec.decompress(dst, 0, clen, new byte[50], 0, 50);
+      fail("Expected a malformed block");
+    } catch (IllegalArgumentException ignore) {}
+  }
+}
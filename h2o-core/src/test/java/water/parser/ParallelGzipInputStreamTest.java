@@ -0,0 +1,184 @@
+package water.parser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.*;
+
+public class ParallelGzipInputStreamTest {
+
+  private static final int BGZF_BLOCK = 65280;
+
+  @Test
+  public void testBgzf() throws IOException {
+    byte[] data = randomText(5 << 20);
+    assertArrayEquals(data, readAll(new ParallelGzipInputStream(new ByteArrayInputStream(bgzf(data)), 4, false)));
+  }
+
+  @Test
+  public void testPlainGzip() throws IOException {
+    byte[] data = randomText(3 << 20);
+    assertArrayEquals(data, readAll(new ParallelGzipInputStream(new ByteArrayInputStream(gzip(data)), 4, false)));
+  }
+
+  @Test
+  public void testMultiMemberGzip() throws IOException {
+    byte[] data = randomText(1 << 20);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    bos.write(gzip(Arrays.copyOf(data, 100)));
+    bos.write(gzip(Arrays.copyOfRange(data, 100, data.length)));
+    assertArrayEquals(data, readAll(new ParallelGzipInputStream(new ByteArrayInputStream(bos.toByteArray()), 4, false)));
+  }
+
+  @Test
+  public void testBgzfFollowedByRegularMember() throws IOException {
+    byte[] data = randomText(1 << 20);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    bos.write(bgzf(Arrays.copyOf(data, 100000)));
+    bos.write(gzip(Arrays.copyOfRange(data, 100000, data.length)));
+    assertArrayEquals(data, readAll(new ParallelGzipInputStream(new ByteArrayInputStream(bos.toByteArray()), 2, false)));
+  }
+
+  @Test
+  public void testEmptyBgzf() throws IOException {
+    assertEquals(0, readAll(new ParallelGzipInputStream(new ByteArrayInputStream(bgzf(new byte[0])), 2, false)).length);
+  }
+
+  @Test(expected = ZipException.class)
+  public void testCorruptBgzf() throws IOException {
+    byte[] bits = bgzf(randomText(1 << 20));
+    bits[bits.length / 2] ^= 0x55;
+    readAll(new ParallelGzipInputStream(new ByteArrayInputStream(bits), 4, false));
+  }
+
+  @Test
+  public void testChunkIndex() throws IOException {
+    byte[] data = randomText(3 << 20);
+    checkChunkIndex(bgzf(data), data);
+    checkChunkIndex(gzip(data), data);
+  }
+
+  private static void checkChunkIndex(byte[] bits, byte[] data) throws IOException {
+    ChunkedStream raw = new ChunkedStream(bits, 1 << 16);
+    ParallelGzipInputStream pis = new ParallelGzipInputStream(raw, 4, true);
+    InputStream bvs = pis.chunkIndexStream();
+    assertEquals(1, bvs.read(null, 0, 0)); // Same as after GZIPInputStream read the header
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    byte[] buf = new byte[7777];
+    int cidx = 1;
+    while (bvs.available() > 0) {
+      bos.write(buf, 0, bvs.read(buf, 0, buf.length));
+      int c = bvs.read(null, 0, 0);
+      assertTrue(c >= cidx && c <= raw.nChunks());
+      cidx = c;
+    }
+    bvs.close();
+    assertArrayEquals(data, bos.toByteArray());
+    assertTrue(cidx > 1);
+  }
+
+  /** Mimics the back-channel read of the chunk index of a ByteVec stream: number of chunks loaded so far */
+  private static class ChunkedStream extends InputStream {
+    private final byte[] _bits;
+    private final int _chunkSize;
+    private int _pos, _loaded = 1;
+    ChunkedStream(byte[] bits, int chunkSize) { _bits = bits; _chunkSize = chunkSize; }
+    int nChunks() { return (_bits.length + _chunkSize - 1) / _chunkSize; }
+    @Override public int read() throws IOException { throw new UnsupportedOperationException(); }
+    @Override public int read(byte[] b, int off, int len) {
+      if (b == null)
+        return _loaded;
+      if (_pos >= _bits.length)
+        return -1;
+      if (_pos == _loaded * _chunkSize)
+        _loaded++;
+      len = Math.min(len, Math.min(_loaded * _chunkSize, _bits.length) - _pos);
+      System.arraycopy(_bits, _pos, b, off, len);
+      _pos += len;
+      return len;
+    }
+  }
+
+  @Test
+  public void testBgzfBlockSize() {
+    assertEquals(1001, ParallelGzipInputStream.bgzfBlockSize(new byte[]{'B', 'C', 2, 0, (byte) 0xe8, 0x03}));
+    assertEquals(7, ParallelGzipInputStream.bgzfBlockSize(new byte[]{'X', 'Y', 1, 0, 0, 'B', 'C', 2, 0, 6, 0}));
+    assertEquals(-1, ParallelGzipInputStream.bgzfBlockSize(new byte[]{'X', 'Y', 2, 0, 0, 0}));
+  }
+
+  private static byte[] readAll(InputStream is) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    byte[] buf = new byte[7777];
+    while (is.available() > 0) {
+      int n = is.read(buf, 0, buf.length);
+      if (n < 0) break;
+      bos.write(buf, 0, n);
+    }
+    assertEquals(-1, is.read());
+    is.close();
+    return bos.toByteArray();
+  }
+
+  static byte[] randomText(int len) {
+    Random r = new Random(0xCAFE);
+    byte[] data = new byte[len];
+    for (int i = 0; i < len; i++)
+      data[i] = (byte) (i % 80 == 79 ? '\n' : '0' + r.nextInt(10));
+    return data;
+  }
+
+  static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (GZIPOutputStream gos = new GZIPOutputStream(bos)) {
+      gos.write(data);
+    }
+    return bos.toByteArray();
+  }
+
+  /** Same layout as produced by bgzip, including the terminating empty block */
+  static byte[] bgzf(byte[] data) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    for (int off = 0; off < data.length; off += BGZF_BLOCK)
+      writeBgzfBlock(bos, data, off, Math.min(BGZF_BLOCK, data.length - off));
+    writeBgzfBlock(bos, data, 0, 0);
+    return bos.toByteArray();
+  }
+
+  private static void writeBgzfBlock(OutputStream os, byte[] data, int off, int len) throws IOException {
+    Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    def.setInput(data, off, len);
+    def.finish();
+    byte[] comp = new byte[len + 1024];
+    int clen = 0;
+    while (!def.finished())
+      clen += def.deflate(comp, clen, comp.length - clen);
+    def.end();
+    CRC32 crc = new CRC32();
+    crc.update(data, off, len);
+    int bsize = 18 + clen + 8 - 1;
+    os.write(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+        (byte) bsize, (byte) (bsize >> 8)});
+    os.write(comp, 0, clen);
+    writeInt(os, (int) crc.getValue());
+    writeInt(os, len);
+  }
+
+  private static void writeInt(OutputStream os, int v) throws IOException {
+    os.write(v);
+    os.write(v >> 8);
+    os.write(v >> 16);
+    os.write(v >> 24);
+  }
+
+}
@@ -5,6 +5,9 @@ import static water.parser.DefaultParserProviders.XLS_INFO;
 
 import org.junit.*;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
 
 import water.*;
 import water.fvec.Vec;
@@ -73,4 +76,64 @@ public class ParseCompressedAndXLSTest extends TestUtil {
       if( k1 != null ) k1.delete();
     }
   }
+
+  @Test public void testGzipChunkLayout() throws IOException {
+    final int rows = 60000;
+    byte[] csv = csv(rows);
+    File plain = tmpFile(ParallelGzipInputStreamTest.gzip(csv));
+    File bgzf = tmpFile(ParallelGzipInputStreamTest.bgzf(csv));
+    try {
+      checkGzipParse(rows, plain);
+      checkGzipParse(rows, bgzf);
+      checkGzipParse(rows, plain, bgzf); // Output chunks of the files must not overlap
+    } finally {
+      plain.delete();
+      bgzf.delete();
+    }
+  }
+
+  private static void checkGzipParse(int rows, File... files) {
+    final int chunkSize = 1 << 16;
+    Key[] keys = new Key[files.length];
+    int maxChunks = 0;
+    for (int i = 0; i < files.length; i++) {
+      keys[i] = NFSFileVec.make(files[i])._key;
+      maxChunks += (files[i].length() + chunkSize - 1) / chunkSize;
+    }
+    ParseSetup ps = ParseSetup.guessSetup(keys, false, ParseSetup.HAS_HEADER);
+    ps._chunk_size = chunkSize;
+    Frame fr = ParseDataset.parse(Key.make(), keys, true, ps);
+    try {
+      assertEquals(rows * files.length, fr.numRows());
+      // One output chunk per input chunk at most, several per file
+      Vec a = fr.vec("a");
+      assertTrue(a.nChunks() > 2 * files.length);
+      assertTrue(a.nChunks() <= maxChunks);
+      for (int c = 0; c < a.nChunks(); c++)
+        assertTrue(a.espc()[c] <= a.espc()[c + 1]);
+      for (long r = 0; r < fr.numRows(); r++)
+        assertEquals(r % rows, a.at8(r));
+    } finally {
+      fr.delete();
+    }
+  }
+
+  private static byte[] csv(int rows) {
+    Random rng = new Random(0xBEEF);
+    StringBuilder sb = new StringBuilder("a,b,c\n");
+    for (int r = 0; r < rows; r++)
+      sb.append(r).append(',').append(rng.nextInt()).append(',').append(rng.nextDouble()).append('\n');
+    return sb.toString().getBytes();
+  }
+
+  private static File tmpFile(byte[] bits) throws IOException {
+    File f = File.createTempFile("parse_gzip", ".csv.gz");
+    FileOutputStream os = new FileOutputStream(f);
+    try {
+      os.write(bits);
+    } finally {
+      os.close();
+    }
+    return f;
+  }
 }
@@ -0,0 +1,116 @@
+package water.persist;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.MemoryManager;
+import water.TestUtil;
+import water.Value;
+
+import static org.junit.Assert.*;
+import static water.persist.PersistTestUtil.makeValue;
+
+public class PersistOffHeapTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass
+  static public void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testStoreLoadDelete() throws Exception {
+    PersistOffHeap p = new PersistOffHeap(tmpFolder.newFolder(), 1 << 20);
+    long offHeapBefore = MemoryManager.offHeapUsed();
+    try {
+      Value[] vals = new Value[10];
+      for (int i = 0; i < vals.length; i++) {
+        vals[i] = makeValue("offheap_key_" + i, 100 + i, (byte) i);
+        p.store(vals[i]);
+        vals[i].setDsk();
+      }
+      assertEquals(1045, p.usedBytes());
+      assertEquals(offHeapBefore + 1045, MemoryManager.offHeapUsed());
+      for (int i = 0; i < vals.length; i++)
+        assertArrayEquals(vals[i].memOrLoad(), p.load(vals[i]));
+
+      p.delete(vals[3]);
+      assertEquals(1045 - 103, p.usedBytes());
+    } finally {
+      p.cleanUp();
+    }
+    assertEquals(0, p.usedBytes());
+    assertEquals(offHeapBefore, MemoryManager.offHeapUsed());
+  }
+
+  @Test
+  public void testDiskFallback() throws Exception {
+    PersistOffHeap p = new PersistOffHeap(tmpFolder.newFolder(), 250);
+    try {
+      Value[] vals = new Value[3];
+      for (int i = 0; i < vals.length; i++) {
+        vals[i] = makeValue("offheap_fallback_key_" + i, 100, (byte) (i + 1));
+        p.store(vals[i]);
+        vals[i].setDsk();
+      }
+      assertEquals(200, p.usedBytes()); // the last value didn't fit and was written to disk
+      for (int i = 0; i < vals.length; i++)
+        assertArrayEquals(vals[i].memOrLoad(), p.load(vals[i]));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+  @Test
+  public void testNoStaleDiskCopy() throws Exception {
+    PersistOffHeap p = new PersistOffHeap(tmpFolder.newFolder(), 150);
+    try {
+      Value v1 = makeValue("offheap_stale_key", 200, (byte) 1);
+      p.store(v1);
+      v1.setDsk();
+      assertEquals(1, p.onDiskCount()); // does not fit into the budget
+      Value v2 = makeValue("offheap_stale_key", 100, (byte) 2);
+      p.store(v2);
+      v2.setDsk();
+      assertEquals(0, p.onDiskCount()); // the older copy is gone from the disk
+      assertEquals(100, p.usedBytes());
+      assertArrayEquals(v2.memOrLoad(), p.load(v2));
+
+      p.delete(v2);
+      assertEquals(0, p.usedBytes());
+      assertNull(p.load(v1));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+  @Test
+  public void testOverwrite() throws Exception {
+    PersistOffHeap p = new PersistOffHeap(tmpFolder.newFolder(), 1 << 16);
+    try {
+      Value v1 = makeValue("offheap_overwrite_key", 50, (byte) 1);
+      p.store(v1);
+      Value v2 = makeValue("offheap_overwrite_key", 60, (byte) 2);
+      p.store(v2);
+      v2.setDsk();
+      assertEquals(60, p.usedBytes());
+      assertArrayEquals(v2.memOrLoad(), p.load(v2));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+  @Test
+  public void testMakeIce() throws Exception {
+    assertTrue(PersistManager.makeIce(tmpFolder.newFolder(), true, false) instanceof PersistOffHeap);
+    assertTrue(PersistManager.makeIce(tmpFolder.newFolder(), false, true) instanceof PersistSegmentedFS);
+    assertEquals(PersistFS.class, PersistManager.makeIce(tmpFolder.newFolder(), false, false).getClass());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeIceConflictingOptions() throws Exception {
+    PersistManager.makeIce(tmpFolder.newFolder(), true, true);
+  }
+
+}
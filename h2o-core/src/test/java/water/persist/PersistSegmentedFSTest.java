@@ -0,0 +1,87 @@
+package water.persist;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.TestUtil;
+import water.Value;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+import static water.persist.PersistTestUtil.makeValue;
+
+public class PersistSegmentedFSTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass
+  static public void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testStoreLoadDelete() throws Exception {
+    PersistSegmentedFS p = new PersistSegmentedFS(tmpFolder.newFolder(), 1024);
+    try {
+      Value[] vals = new Value[10];
+      for (int i = 0; i < vals.length; i++) {
+        vals[i] = makeValue("seg_key_" + i, 100 + i, (byte) i);
+        p.store(vals[i]);
+        vals[i].setDsk();
+      }
+      assertEquals(2, p.segmentCount()); // 1045 bytes don't fit into a single segment
+      for (int i = 0; i < vals.length; i++)
+        assertArrayEquals(vals[i].memOrLoad(), p.load(vals[i]));
+
+      ByteBuffer bb = p.loadBuffer(vals[3]);
+      assertTrue(bb.isReadOnly());
+      assertEquals(vals[3]._max, bb.remaining());
+      assertEquals(3, bb.get(0));
+
+      p.delete(vals[3]);
+      assertNull(p.loadBuffer(vals[3]));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    PersistSegmentedFS p = new PersistSegmentedFS(tmpFolder.newFolder(), 1000);
+    try {
+      Value[] vals = new Value[30];
+      for (int i = 0; i < vals.length; i++) {
+        vals[i] = makeValue("compact_key_" + i, 100, (byte) (i + 1));
+        p.store(vals[i]);
+        vals[i].setDsk();
+      }
+      assertEquals(3, p.segmentCount());
+      // delete most of the values in the first (sealed) segment
+      for (int i = 0; i < 6; i++)
+        p.delete(vals[i]);
+      assertEquals(1, p.compactionCount());
+      assertEquals(3, p.segmentCount()); // first segment is gone, a new one was created for the moved values
+      for (int i = 6; i < vals.length; i++)
+        assertArrayEquals(vals[i].memOrLoad(), p.load(vals[i]));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+  @Test
+  public void testOverwrite() throws Exception {
+    PersistSegmentedFS p = new PersistSegmentedFS(tmpFolder.newFolder(), 1 << 16);
+    try {
+      Value v1 = makeValue("overwrite_key", 50, (byte) 1);
+      p.store(v1);
+      Value v2 = makeValue("overwrite_key", 60, (byte) 2);
+      p.store(v2);
+      v2.setDsk();
+      assertArrayEquals(v2.memOrLoad(), p.load(v2));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+}
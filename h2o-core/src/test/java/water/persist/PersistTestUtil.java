@@ -0,0 +1,20 @@
+package water.persist;
+
+import org.junit.Ignore;
+import water.Key;
+import water.TypeMap;
+import water.Value;
+
+@Ignore("Support for tests of the ice stores, but no actual tests here")
+public class PersistTestUtil {
+
+  /** Byte array Value of the given length, its first byte is the fill */
+  static Value makeValue(String key, int len, byte fill) {
+    byte[] mem = new byte[len];
+    for (int i = 0; i < len; i++)
+      mem[i] = (byte) (fill + i);
+    mem[0] = fill;
+    return new Value(Key.make(key), len, mem, TypeMap.PRIM_B, Value.ICE);
+  }
+
+}
@@ -0,0 +1,198 @@
+package water.persist;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.Key;
+import water.TestUtil;
+import water.fvec.NFSFileVec;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RemoteChunkReaderTest extends TestUtil {
+
+  private static final int CHUNK_SIZE = 1000;
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass
+  static public void setup() { stall_till_cloudsize(1); }
+
+  /** Stands in for a remote store, serves the ranged reads from a local file */
+  private static class FileRangeReader implements RemoteChunkReader.RangeReader {
+    final File _file;
+    FileRangeReader(File file) { _file = file; }
+    @Override public void read(Key k, long off, byte[] dst, int dstOff, int len) throws IOException {
+      assert k.isChunkKey();
+      try (RandomAccessFile f = new RandomAccessFile(_file, "r")) {
+        f.seek(off);
+        f.readFully(dst, dstOff, len);
+      }
+    }
+  }
+
+  private byte[] makeFile(File f, int len) throws IOException { return makeFile(f, len, 42); }
+
+  private byte[] makeFile(File f, int len, long seed) throws IOException {
+    byte[] data = new byte[len];
+    new Random(seed).nextBytes(data);
+    try (FileOutputStream s = new FileOutputStream(f)) {
+      s.write(data);
+    }
+    return data;
+  }
+
+  private static void assertChunk(byte[] data, int cidx, byte[] b) {
+    int from = cidx * CHUNK_SIZE;
+    assertArrayEquals(Arrays.copyOfRange(data, from, Math.min(from + CHUNK_SIZE, data.length)), b);
+  }
+
+  @Test
+  public void testCoalescedReads() throws Exception {
+    File f = tmpFolder.newFile();
+    byte[] data = makeFile(f, 9 * CHUNK_SIZE + 500);
+    NFSFileVec vec = NFSFileVec.make(f);
+    try {
+      vec.setChunkSize(CHUNK_SIZE);
+      assertEquals(10, vec.nChunks());
+      RemoteChunkReader r = new RemoteChunkReader("test", new FileRangeReader(f), tmpFolder.newFolder(),
+              1 << 20, 0, 4 * CHUNK_SIZE);
+      for (int i = 0; i < vec.nChunks(); i++)
+        assertChunk(data, i, r.load(vec.chunkIdx(i)));
+      assertEquals(3, r.remoteReads()); // chunks 0-3, 4-7 and 8-9
+      assertEquals(data.length, r.remoteBytes());
+      assertEquals(7, r.cacheHits());
+      r.clear();
+    } finally {
+      vec.remove();
+    }
+  }
+
+  @Test
+  public void testReadAhead() throws Exception {
+    File f = tmpFolder.newFile();
+    byte[] data = makeFile(f, 10 * CHUNK_SIZE);
+    NFSFileVec vec = NFSFileVec.make(f);
+    try {
+      vec.setChunkSize(CHUNK_SIZE);
+      RemoteChunkReader r = new RemoteChunkReader("test", new FileRangeReader(f), tmpFolder.newFolder(),
+              1 << 20, 3, CHUNK_SIZE);
+      for (int i = 0; i < vec.nChunks(); i++)
+        assertChunk(data, i, r.load(vec.chunkIdx(i)));
+      // Every chunk was read exactly once, either ahead or on demand
+      assertEquals(10, r.remoteReads());
+      assertEquals(data.length, r.remoteBytes());
+      // Loaded again from the block cache
+      for (int i = 0; i < vec.nChunks(); i++)
+        assertChunk(data, i, r.load(vec.chunkIdx(i)));
+      assertEquals(10, r.remoteReads());
+      r.clear();
+    } finally {
+      vec.remove();
+    }
+  }
+
+  @Test
+  public void testLRUEviction() throws Exception {
+    File f = tmpFolder.newFile();
+    byte[] data = makeFile(f, 3 * CHUNK_SIZE);
+    NFSFileVec vec = NFSFileVec.make(f);
+    try {
+      vec.setChunkSize(CHUNK_SIZE);
+      RemoteChunkReader r = new RemoteChunkReader("test", new FileRangeReader(f), tmpFolder.newFolder(),
+              2 * CHUNK_SIZE, 0, CHUNK_SIZE);
+      for (int i = 0; i < 3; i++)
+        assertChunk(data, i, r.load(vec.chunkIdx(i)));
+      assertEquals(3, r.remoteReads());
+      assertChunk(data, 2, r.load(vec.chunkIdx(2)));
+      assertEquals(1, r.cacheHits());
+      assertChunk(data, 0, r.load(vec.chunkIdx(0))); // Evicted, read again (and evicts chunk 1)
+      assertEquals(4, r.remoteReads());
+      assertChunk(data, 1, r.load(vec.chunkIdx(1)));
+      assertEquals(5, r.remoteReads());
+      r.clear();
+    } finally {
+      vec.remove();
+    }
+  }
+
+  @Test
+  public void testReimportChangedFile() throws Exception {
+    File f = tmpFolder.newFile();
+    byte[] data = makeFile(f, 4 * CHUNK_SIZE, 1);
+    RemoteChunkReader r = new RemoteChunkReader("test", new FileRangeReader(f), tmpFolder.newFolder(),
+            1 << 20, 0, CHUNK_SIZE);
+    NFSFileVec vec = NFSFileVec.make(f);
+    try {
+      vec.setChunkSize(CHUNK_SIZE);
+      for (int i = 0; i < vec.nChunks(); i++)
+        assertChunk(data, i, r.load(vec.chunkIdx(i)));
+    } finally {
+      vec.remove();
+    }
+    // Same path and length, same keys: the blocks of the previous import are not served
+    data = makeFile(f, 4 * CHUNK_SIZE, 2);
+    vec = NFSFileVec.make(f);
+    try {
+      vec.setChunkSize(CHUNK_SIZE);
+      for (int i = 0; i < vec.nChunks(); i++)
+        assertChunk(data, i, r.load(vec.chunkIdx(i)));
+      assertEquals(8, r.remoteReads());
+      assertEquals(0, r.cacheHits());
+      r.clear();
+    } finally {
+      vec.remove();
+    }
+  }
+
+  @Test
+  public void testEvict() throws Exception {
+    File f = tmpFolder.newFile();
+    byte[] data = makeFile(f, 4 * CHUNK_SIZE);
+    NFSFileVec vec = NFSFileVec.make(f);
+    try {
+      vec.setChunkSize(CHUNK_SIZE);
+      RemoteChunkReader r = new RemoteChunkReader("test", new FileRangeReader(f), tmpFolder.newFolder(),
+              1 << 20, 0, CHUNK_SIZE);
+      for (int i = 0; i < vec.nChunks(); i++)
+        assertChunk(data, i, r.load(vec.chunkIdx(i)));
+      assertEquals(4, r.cachedBlocks());
+      r.evict(Key.make("other"));
+      assertEquals(4, r.cachedBlocks());
+      r.evict(vec._key);
+      assertEquals(0, r.cachedBlocks());
+      assertChunk(data, 0, r.load(vec.chunkIdx(0)));
+      assertEquals(5, r.remoteReads());
+      r.clear();
+    } finally {
+      vec.remove();
+    }
+  }
+
+  @Test
+  public void testWithoutCache() throws Exception {
+    File f = tmpFolder.newFile();
+    byte[] data = makeFile(f, 4 * CHUNK_SIZE);
+    NFSFileVec vec = NFSFileVec.make(f);
+    try {
+      vec.setChunkSize(CHUNK_SIZE);
+      RemoteChunkReader r = new RemoteChunkReader("test", new FileRangeReader(f), tmpFolder.newFolder(),
+              0, 3, 4 * CHUNK_SIZE);
+      for (int i = 0; i < vec.nChunks(); i++)
+        assertChunk(data, i, r.load(vec.chunkIdx(i)));
+      assertEquals(4, r.remoteReads());
+      assertEquals(0, r.cacheHits());
+    } finally {
+      vec.remove();
+    }
+  }
+}
@@ -6,8 +6,12 @@ import org.junit.Test;
 import water.DKV;
 import water.Key;
 import water.Keyed;
+import water.Scope;
 import water.TestUtil;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.ast.prims.mungers.AstGroup;
 import water.rapids.vals.ValFrame;
 
 public class GroupByTest extends TestUtil {
@@ -234,6 +238,109 @@ public class GroupByTest extends TestUtil {
   }    
 
 
+  @Test public void testHashGroupBy() {
+    try {
+      Scope.enter();
+      Frame fr = parse_test_file(Key.make("hex"),"smalldata/junit/cars.csv");
+      Scope.track(fr);
+      String[] fcns = new String[]{"nrow","mean","mean","mean","sum","sumSquares","var","sdev","min","max"};
+      int[] cols = new int[]{0,1,1,1,1,1,1,1,1,1};
+      String[] nas = new String[]{"all","all","rm","ignore","rm","rm","rm","rm","rm","rm"};
+      chkHashGroupBy(fr, new int[]{7}, fcns, cols, nas);    // Group-By on year
+      chkHashGroupBy(fr, new int[]{2,7}, fcns, cols, nas);  // Group-By on cylinders and year
+      chkHashGroupBy(fr, new int[]{1}, fcns, cols, nas);    // Group-By on economy, with NAs
+
+      fr = parse_test_file(Key.make("iris"),"smalldata/iris/iris_wheader.csv");
+      Scope.track(fr);
+      chkHashGroupBy(fr, new int[]{1}, new String[]{"mode","nrow"}, new int[]{4,0}, new String[]{"all","all"});
+
+      // NAs in several group-by columns, groups spread over several chunks
+      fr = new TestFrameBuilder()
+          .withName("gbNA")
+          .withColNames("A", "B", "C")
+          .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_NUM)
+          .withDataForCol(0, ard(Double.NaN, 1, -2, 1, Double.NaN, 1e6, -2, 1, 3.5, Double.NaN))
+          .withDataForCol(1, ar("a", "b", null, "b", "a", "c", null, "a", "c", "a"))
+          .withDataForCol(2, ard(1, 2, 3, 4, 5, 6, 7, Double.NaN, 9, 10))
+          .withChunkLayout(3, 3, 2, 2)
+          .build();
+      chkHashGroupBy(fr, new int[]{0,1}, fcns, new int[]{2,2,2,2,2,2,2,2,2,2}, nas);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testHashGroupByPartitions() {
+    Frame res = null, res2 = null;
+    try {
+      Scope.enter();
+      // The first group-by column has 2 levels, the groups are told apart by the second one
+      int nrows = 2000;
+      String[] a = new String[nrows];
+      double[] b = new double[nrows], c = new double[nrows];
+      for( int i=0; i<nrows; i++ ) {
+        a[i] = i % 2 == 0 ? "a" : "b";
+        b[i] = i / 2 + 0.5;
+        c[i] = i;
+      }
+      Frame fr = new TestFrameBuilder()
+          .withName("gbSkew")
+          .withColNames("A", "B", "C")
+          .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+          .withDataForCol(0, a)
+          .withDataForCol(1, b)
+          .withDataForCol(2, c)
+          .withChunkLayout(500, 500, 500, 500)
+          .build();
+      Scope.track(fr);
+      chkHashGroupBy(fr, new int[]{0,1}, new String[]{"nrow","sum"}, new int[]{0,2}, new String[]{"all","all"});
+
+      AstGroup.AGG[] aggs = new AstGroup.AGG[]{new AstGroup.AGG(AstGroup.FCN.nrow, 0, AstGroup.NAHandling.ALL, 0)};
+      res = HashGroupBy.groupBy(fr, new int[]{0,1}, aggs, new String[]{"nrow"});
+      Assert.assertEquals(nrows, res.numRows());
+      Vec v = res.anyVec();
+      Assert.assertTrue(v.nChunks() > 2);
+      for( int i=0; i<v.nChunks(); i++ ) // Partitions hold similar numbers of groups, none is empty
+        Assert.assertTrue(v.chunkForChunkIdx(i)._len > nrows / v.nChunks() / 4);
+
+      // Few distinct keys: no more partitions than keys
+      res2 = HashGroupBy.groupBy(fr, new int[]{0}, aggs, new String[]{"nrow"});
+      Assert.assertEquals(2, res2.numRows());
+      Assert.assertEquals(2, res2.anyVec().nChunks());
+    } finally {
+      if( res != null ) res.delete();
+      if( res2 != null ) res2.delete();
+      Scope.exit();
+    }
+  }
+
+  // Compare the distributed hash group-by with the hashtable of groups of AstGroup
+  private void chkHashGroupBy( Frame fr, int[] gbCols, String[] fcns, int[] cols, String[] nas ) {
+    StringBuilder sb = new StringBuilder("(GB ").append(fr._key).append(" [");
+    for( int i=0; i<gbCols.length; i++ ) sb.append(i==0 ? "" : " ").append(gbCols[i]);
+    sb.append("]");
+    AstGroup.AGG[] aggs = new AstGroup.AGG[fcns.length];
+    String[] fcnames = new String[fcns.length];
+    for( int i=0; i<fcns.length; i++ ) {
+      sb.append(" ").append(fcns[i]).append(" ").append(cols[i]).append(" \"").append(nas[i]).append("\"");
+      aggs[i] = new AstGroup.AGG(AstGroup.FCN.valueOf(fcns[i]), cols[i],
+                                 AstGroup.NAHandling.valueOf(nas[i].toUpperCase()), (int)fr.vec(cols[i]).max()+1);
+      fcnames[i] = fcns[i].equals("nrow") ? fcns[i] : fcns[i]+"_"+fr.name(cols[i]);
+    }
+    sb.append(")");
+    Frame expected = null, actual = null;
+    try {
+      expected = Rapids.exec(sb.toString()).getFrame(); // Few groups, done by AstGroup.GBTask
+      actual = HashGroupBy.groupBy(fr, gbCols, aggs, fcnames);
+      Assert.assertArrayEquals(expected.names(), actual.names());
+      Assert.assertArrayEquals(expected.domains(), actual.domains());
+      Assert.assertTrue(isIdenticalUpToRelTolerance(expected, actual, 1e-10));
+    } finally {
+      if( expected != null ) expected.delete();
+      if( actual != null ) actual.delete();
+    }
+  }
+
   private void chkDim( Frame fr, int col, int row ) {
     Assert.assertEquals(col,fr.numCols());
     Assert.assertEquals(row,fr.numRows());
@@ -0,0 +1,159 @@
+package water.rapids;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.ast.AstExec;
+import water.rapids.ast.AstFusedExec;
+import water.rapids.ast.AstRoot;
+
+import static org.junit.Assert.*;
+
+public class OptimizerTest extends TestUtil {
+
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  private static Frame makeFrame(String name) {
+    return new TestFrameBuilder()
+        .withName(name)
+        .withColNames("a", "b", "c", "cat")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_CAT)
+        .withDataForCol(0, ard(1, 2, 3, 4, 5, 6, 7))
+        .withDataForCol(1, ard(0.5, -1, 2.25, 0, 3, Double.NaN, 1e3))
+        .withDataForCol(2, ard(1, 10, 100, Double.NaN, 0.1, 2, 3))
+        .withDataForCol(3, ar("x", "y", "x", "z", null, "y", "x"))
+        .withChunkLayout(2, 3, 2)
+        .build();
+  }
+
+  // Reference result: the expression evaluated without the optimizer
+  private static Val execEager(String rapids) {
+    Session ses = new Session();
+    try {
+      return ses.end(ses.exec(Rapids.parse(rapids), null));
+    } catch (Throwable ex) {
+      throw ses.endQuietly(ex);
+    }
+  }
+
+  private static void assertFusedSameAsEager(String rapids) {
+    assertTrue(rapids, Optimizer.optimize(Rapids.parse(rapids)) instanceof AstFusedExec);
+    Val eager = execEager(rapids);
+    Val fused = Rapids.exec(rapids);
+    try {
+      assertEquals(rapids, eager.type(), fused.type());
+      if (eager.isFrame()) {
+        assertArrayEquals(rapids, eager.getFrame().names(), fused.getFrame().names());
+        assertTrue(rapids, isBitIdentical(eager.getFrame(), fused.getFrame()));
+      } else
+        assertEquals(rapids, eager.getNum(), fused.getNum(), 1e-10);
+    } finally {
+      if (eager.isFrame()) eager.getFrame().delete();
+      if (fused.isFrame()) fused.getFrame().delete();
+    }
+  }
+
+  @Test public void testElementwise() {
+    Frame fr = makeFrame("fusion.hex");
+    try {
+      assertFusedSameAsEager("(+ (* (cols fusion.hex 'a') (cols fusion.hex 'b')) (log (cols fusion.hex 'c')))");
+      assertFusedSameAsEager("(- (* (cols fusion.hex [0 1 2]) 2) (/ 1 (cols fusion.hex [0 1 2])))");
+      assertFusedSameAsEager("(sqrt (abs (- (cols fusion.hex [0 1]) (cols fusion.hex 'c'))))");
+      assertFusedSameAsEager("(== (+ (cols fusion.hex 'a') 1) 3)");
+      assertFusedSameAsEager("(ifelse (> (cols fusion.hex 'a') 2) (* (cols fusion.hex 'b') 10) -1)");
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testConsumers() {
+    Frame fr = makeFrame("fusion.hex");
+    try {
+      assertFusedSameAsEager("(cols (+ (cols fusion.hex [0 1 2]) 1) [0 2])");
+      assertFusedSameAsEager("(cols (log (cols fusion.hex [0 1 2])) 'log(c)')");
+      assertFusedSameAsEager("(rows fusion.hex (> (+ (cols fusion.hex 'a') (cols fusion.hex 'b')) 4))");
+      assertFusedSameAsEager("(sum (* (cols fusion.hex [0 1]) 2))");
+      assertFusedSameAsEager("(sum (* (cols fusion.hex 'a') 2))");
+      assertFusedSameAsEager("(max (abs (- (cols fusion.hex 'a') 5)))");
+      assertFusedSameAsEager("(min (/ (cols fusion.hex 'c') 3))");
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testNonBooleanFilter() {
+    Frame fr = makeFrame("fusion.hex");
+    try {
+      // Rows are taken when the predicate truncates to 1, NAs are dropped
+      assertFusedSameAsEager("(rows fusion.hex (- (cols fusion.hex 'a') 0.5))");
+      assertFusedSameAsEager("(rows fusion.hex (+ (cols fusion.hex 'b') 0.5))");
+      Frame res = Rapids.exec("(rows fusion.hex (- (cols fusion.hex 'a') 0.5))").getFrame();
+      try {
+        assertEquals(1, res.numRows());
+        assertEquals(2, res.vec("a").at(0), 0); // predicate 1.5
+      } finally {
+        res.delete();
+      }
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testInfinities() {
+    Frame fr = new TestFrameBuilder()
+        .withName("fusion_inf.hex")
+        .withColNames("a", "b")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+        .withDataForCol(0, ard(1, Double.POSITIVE_INFINITY, -2, Double.NEGATIVE_INFINITY, 5, 6, 7))
+        .withDataForCol(1, ard(0.5, 1, Double.POSITIVE_INFINITY, 2, -1, 3, 4))
+        .withChunkLayout(2, 3, 2)
+        .build();
+    try {
+      // Infinities are left out of the min, the max and the mean, the sum is the mean times the number of rows
+      assertFusedSameAsEager("(sum (* (cols fusion_inf.hex 'a') 2))");
+      assertFusedSameAsEager("(sum (+ (cols fusion_inf.hex [0 1]) 1))");
+      assertFusedSameAsEager("(min (- (cols fusion_inf.hex [0 1]) 1))");
+      assertFusedSameAsEager("(max (* (cols fusion_inf.hex 'b') -1))");
+      // Only infinities
+      assertFusedSameAsEager("(sum (/ (abs (cols fusion_inf.hex 'a')) 0))");
+      assertFusedSameAsEager("(max (/ (abs (cols fusion_inf.hex 'a')) 0))");
+      assertEquals(17.0 / 5 * 7, Rapids.exec("(sum (* (cols fusion_inf.hex 'a') 1))").getNum(), 1e-10);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testFallback() {
+    Frame fr = makeFrame("fusion.hex");
+    try {
+      // Categorical column is not fused, regular operators turn it into NAs
+      assertFusedSameAsEager("(+ (* fusion.hex 2) 1)");
+      // A single column is widened to the other Frame
+      assertFusedSameAsEager("(* (+ (cols fusion.hex [0 1]) 1) (cols fusion.hex 'c'))");
+      try {
+        Rapids.exec("(+ (* (cols fusion.hex [0 1]) 2) (cols fusion.hex [0 1 2]))");
+        fail("Frames with different number of columns should be rejected");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Frames must have same columns, found 2 columns and 3 columns.", e.getMessage());
+      }
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testPlan() {
+    AstRoot single = Optimizer.optimize(Rapids.parse("(+ fusion.hex 1)"));
+    assertFalse(single instanceof AstFusedExec);
+    AstRoot nested = Optimizer.optimize(Rapids.parse("(tmp= tmp (+ (* a b) (log c)))"));
+    assertFalse(nested instanceof AstFusedExec);
+    assertTrue(((AstExec) nested)._asts[2] instanceof AstFusedExec);
+    // Operands of a fused tree are not fused separately
+    AstRoot tree = Optimizer.optimize(Rapids.parse("(+ (* a (- b 1)) 2)"));
+    assertTrue(tree instanceof AstFusedExec);
+    assertFalse(((AstExec) tree)._asts[1] instanceof AstFusedExec);
+  }
+
+}
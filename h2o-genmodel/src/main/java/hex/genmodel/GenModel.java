@@ -204,6 +204,24 @@ public abstract class GenModel implements IGenModel, IGeneratedModel, Serializab
     throw new UnsupportedOperationException("`offset` column is not supported");
   }
 
+  /** Scores a batch of rows given in a column-oriented layout: {@code columns[c][r]} holds the value of feature
+   *  {@code c} in row {@code r}. The predictions of row {@code r} are loaded into the re-used temp array
+   *  {@code preds[r]}, the array of all predictions is returned. Like {@link #score0(double[], double[])}, the
+   *  input data might be modified (eg. by imputation of missing values).
+   *
+   *  The default implementation scores the batch row by row, subclasses are expected to override it with
+   *  an implementation that takes advantage of the columnar layout (eg. by iterating tree-major or
+   *  coefficient-major over the whole batch). The results have to be identical to row-by-row scoring. */
+  public double[][] score0(double[][] columns, int nrows, double[][] preds) {
+    double[] row = new double[columns.length];
+    for (int r = 0; r < nrows; r++) {
+      for (int c = 0; c < columns.length; c++)
+        row[c] = columns[c][r];
+      preds[r] = score0(row, preds[r]);
+    }
+    return preds;
+  }
+
   /** Subclasses implement calibration of class probabilities. The input is array of
    *  predictions returned by the scoring function (score0). Supports classification
    *  models that were trained with calibration enabled. Original probabilities
@@ -63,6 +63,37 @@ public class GlmMojoModel extends GlmMojoModelBase {
     return preds;
   }
 
+  @Override
+  double[][] glmScore0(double[][] columns, int nrows, double[][] preds) {
+    // preds[r][0] is used to accumulate the linear predictor
+    for (int r = 0; r < nrows; ++r)
+      preds[r][0] = 0.0;
+
+    addCatCoefficients(columns, nrows, 0, preds, 0);
+
+    int noff = _catOffsets[_cats] - _cats;
+    for (int i = _cats; i < _beta.length - 1 - noff; ++i) {
+      double b = _beta[noff + i];
+      double[] col = columns[i];
+      for (int r = 0; r < nrows; ++r)
+        preds[r][0] += b * col[r];
+    }
+    double intercept = _beta[_beta.length - 1];
+
+    for (int r = 0; r < nrows; ++r) {
+      double[] p = preds[r];
+      double mu = _linkFn.eval(p[0] + intercept); // reduce intercept
+      if (_binomial) {
+        p[0] = (mu >= _defaultThreshold) ? 1 : 0; // threshold given by ROC
+        p[1] = 1.0 - mu; // class 0
+        p[2] =       mu; // class 1
+      } else {
+        p[0] = mu;
+      }
+    }
+    return preds;
+  }
+
   /**
    * Applies GLM coefficients to a given row of data to calculate
    * feature contributions.
@@ -34,6 +34,21 @@ abstract class GlmMojoModelBase extends MojoModel {
 
   abstract double[] glmScore0(double[] data, double[] preds);
 
+  @Override
+  public final double[][] score0(double[][] columns, int nrows, double[][] preds) {
+    if (_meanImputation)
+      imputeMissingWithMeans(columns, nrows);
+
+    return glmScore0(columns, nrows, preds);
+  }
+
+  /**
+   * Scores a batch of rows coefficient-major: each coefficient is applied to all rows of the batch before
+   * moving to the next coefficient. The linear predictors are accumulated in the same order as in
+   * {@link #glmScore0(double[], double[])}, the results are thus identical to row-by-row scoring.
+   */
+  abstract double[][] glmScore0(double[][] columns, int nrows, double[][] preds);
+
   private void imputeMissingWithMeans(double[] data) {
     for (int i = 0; i < _cats; ++i)
       if (Double.isNaN(data[i])) data[i] = _catModes[i];
@@ -41,4 +56,49 @@ abstract class GlmMojoModelBase extends MojoModel {
       if (Double.isNaN(data[i + _cats])) data[i + _cats] = _numMeans[i];
   }
 
+  private void imputeMissingWithMeans(double[][] columns, int nrows) {
+    for (int i = 0; i < _cats; ++i) {
+      double[] col = columns[i];
+      for (int r = 0; r < nrows; ++r)
+        if (Double.isNaN(col[r])) col[r] = _catModes[i];
+    }
+    for (int i = 0; i < _nums; ++i) {
+      double[] col = columns[i + _cats];
+      for (int r = 0; r < nrows; ++r)
+        if (Double.isNaN(col[r])) col[r] = _numMeans[i];
+    }
+  }
+
+  /**
+   * Adds the coefficients of categorical columns to the linear predictors of a batch of rows.
+   *
+   * @param betaOffset offset of the coefficients (used by multinomial models)
+   * @param eta linear predictors, {@code eta[r][k]} is updated for row {@code r}
+   */
+  final void addCatCoefficients(double[][] columns, int nrows, int betaOffset, double[][] eta, int k) {
+    if (!_useAllFactorLevels) { // skip level 0 of all factors
+      for (int i = 0; i < _catOffsets.length - 1; ++i) {
+        double[] col = columns[i];
+        for (int r = 0; r < nrows; ++r) if (col[r] != 0) {
+          int ival = (int) col[r] - 1;
+          if (ival != col[r] - 1) throw new IllegalArgumentException("categorical value out of range");
+          ival += _catOffsets[i];
+          if (ival < _catOffsets[i + 1])
+            eta[r][k] += _beta[ival + betaOffset];
+        }
+      }
+    } else { // do not skip any levels
+      for (int i = 0; i < _catOffsets.length - 1; ++i) {
+        double[] col = columns[i];
+        for (int r = 0; r < nrows; ++r) {
+          int ival = (int) col[r];
+          if (ival != col[r]) throw new IllegalArgumentException("categorical value out of range");
+          ival += _catOffsets[i];
+          if (ival < _catOffsets[i + 1])
+            eta[r][k] += _beta[ival + betaOffset];
+        }
+      }
+    }
+  }
+
 }
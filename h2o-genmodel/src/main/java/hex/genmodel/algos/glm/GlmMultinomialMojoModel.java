@@ -45,6 +45,32 @@ public class GlmMultinomialMojoModel extends GlmMojoModelBase {
         preds[c+1] += _beta[noff+i + c*P]*data[i];
       preds[c+1] += _beta[(P-1) + c*P]; // reduce intercept
     }
+    return softmax(preds);
+  }
+
+  @Override
+  double[][] glmScore0(double[][] columns, int nrows, double[][] preds) {
+    for (int r = 0; r < nrows; ++r)
+      java.util.Arrays.fill(preds[r], 0, _nclasses + 1, 0);
+    for (int c = 0; c < _nclasses; ++c) {
+      if (_cats > 0)
+        addCatCoefficients(columns, nrows, c*P, preds, c + 1);
+      for (int i = 0; i < _nums; ++i) {
+        double b = _beta[noff+i + c*P];
+        double[] col = columns[i];
+        for (int r = 0; r < nrows; ++r)
+          preds[r][c+1] += b*col[r];
+      }
+      double intercept = _beta[(P-1) + c*P];
+      for (int r = 0; r < nrows; ++r)
+        preds[r][c+1] += intercept; // reduce intercept
+    }
+    for (int r = 0; r < nrows; ++r)
+      softmax(preds[r]);
+    return preds;
+  }
+
+  private static double[] softmax(double[] preds) {
     double max_row = 0;
     for (int c = 1; c < preds.length; ++c) if (preds[c] > max_row) max_row = preds[c];
     double sum_exp = 0;
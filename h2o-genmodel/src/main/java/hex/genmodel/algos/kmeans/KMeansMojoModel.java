@@ -23,4 +23,63 @@ public class KMeansMojoModel extends MojoModel {
     return preds;
   }
 
+  /**
+   * Scores a batch of rows center-major: distances of all rows to a given center are computed column by column
+   * before moving to the next center. Mirrors {@link #KMeans_closest(double[][], double[], String[][])}.
+   */
+  @Override
+  public double[][] score0(double[][] columns, int nrows, double[][] preds) {
+    final int ncols = columns.length;
+    if (_standardize) {
+      for (int c = 0; c < ncols; c++) {
+        double[] col = columns[c];
+        for (int r = 0; r < nrows; r++)
+          col[r] = Kmeans_preprocessData(col[r], c, _means, _mults, _modes);
+      }
+    }
+    double[] minSqr = new double[nrows];
+    int[] min = new int[nrows];
+    java.util.Arrays.fill(minSqr, Double.MAX_VALUE);
+    java.util.Arrays.fill(min, -1);
+    double[] sqr = new double[nrows];
+    int[] pts = new int[nrows];
+    for (int cluster = 0; cluster < _centers.length; cluster++) {
+      double[] center = _centers[cluster];
+      java.util.Arrays.fill(sqr, 0);
+      java.util.Arrays.fill(pts, ncols);
+      for (int c = 0; c < center.length; c++) {
+        double[] col = columns[c];
+        double cv = center[c];
+        if (_domains[c] != null) { // Categorical?
+          for (int r = 0; r < nrows; r++) {
+            double d = col[r];
+            if (Double.isNaN(d)) pts[r]--;
+            else if (d != cv) sqr[r] += 1.0; // Manhattan distance
+          }
+        } else { // Euclidean distance
+          for (int r = 0; r < nrows; r++) {
+            double d = col[r];
+            if (Double.isNaN(d)) pts[r]--;
+            else {
+              double delta = d - cv;
+              sqr[r] += delta * delta;
+            }
+          }
+        }
+      }
+      for (int r = 0; r < nrows; r++) {
+        double s = sqr[r];
+        if (0 < pts[r] && pts[r] < ncols)
+          s *= ncols / pts[r];
+        if (s < minSqr[r]) { // Record nearest cluster center
+          min[r] = cluster;
+          minSqr[r] = s;
+        }
+      }
+    }
+    for (int r = 0; r < nrows; r++)
+      preds[r][0] = min[r];
+    return preds;
+  }
+
 }
@@ -0,0 +1,302 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.utils.ByteBufferWrapper;
+
+import java.util.Arrays;
+
+/**
+ * Tree compiled from the compressed {@code byte[]} representation into primitive "struct-of-arrays" form.
+ *
+ * The compressed tree is decoded exactly once (at MOJO load time) and scoring then only walks flat arrays,
+ * no variable-width node headers or bitsets are re-parsed per row. The walk reproduces the decision logic of
+ * {@link SharedTreeMojoModel#scoreTree(byte[], double[], int, boolean, String[][])} (MOJO version "1.20") exactly,
+ * including the quirks of the byte interpreter, so the predictions are bit-for-bit identical.
+ *
+ * Node `n` is described by entries `n` of the arrays below. Child references are node indices when non-negative,
+ * a negative reference `r` points to a leaf with the value {@code _leaves[~r]}.
+ */
+public final class FlatTree {
+  private static final int NsdNaVsRest = NaSplitDir.NAvsREST.value();
+  private static final int NsdNaLeft = NaSplitDir.NALeft.value();
+  private static final int NsdLeft = NaSplitDir.Left.value();
+
+  static final byte SPLIT_NUMERIC = 0;
+  static final byte SPLIT_BITSET = 1;
+  static final byte SPLIT_NA_VS_REST = 2;
+
+  private int _root;            // Reference to the root (either a node or a leaf)
+  private int[] _col;           // Column to split on
+  private byte[] _type;         // Type of the split (SPLIT_NUMERIC, SPLIT_BITSET or SPLIT_NA_VS_REST)
+  private boolean[] _naLeft;    // Direction of NAs (and of values outside of the bitset range / column domain)
+  private float[] _splitVal;    // Split value for numeric splits
+  private int[] _bitset;        // Bitset used to check the range of the value (-1 if no range check is done)
+  private int[] _domLen;        // Cardinality of the split column (-1 for numeric columns)
+  private int[] _left;          // Left child reference
+  private int[] _right;         // Right child reference
+  private float[] _leaves;      // Leaf values
+
+  // Bitsets, all expanded into a single shared byte array
+  private int[] _bsBitoff;
+  private int[] _bsNbits;
+  private int[] _bsByteoff;
+  private byte[] _bsBits;
+
+  private int _nnodes;
+  private int _nleaves;
+  private int _nbitsets;
+  private int _nbsbytes;
+
+  private FlatTree() {}
+
+  /**
+   * Compiles a tree stored in the compressed format of MOJO version "1.20".
+   *
+   * @param tree compressed tree
+   * @param nclasses number of classes of the model
+   * @param domains domains of the model (used for the out-of-domain check of categorical values)
+   * @return flat representation of the tree
+   */
+  public static FlatTree compile(byte[] tree, int nclasses, String[][] domains) {
+    FlatTree ft = new FlatTree();
+    ft._col = new int[16];
+    ft._type = new byte[16];
+    ft._naLeft = new boolean[16];
+    ft._splitVal = new float[16];
+    ft._bitset = new int[16];
+    ft._domLen = new int[16];
+    ft._left = new int[16];
+    ft._right = new int[16];
+    ft._leaves = new float[16];
+    ft._bsBitoff = new int[4];
+    ft._bsNbits = new int[4];
+    ft._bsByteoff = new int[4];
+    ft._bsBits = new byte[16];
+    ByteBufferWrapper ab = new ByteBufferWrapper(tree);
+    ft._root = ft.compileNode(tree, ab, nclasses, domains, -1);
+    ft.trim();
+    return ft;
+  }
+
+  /**
+   * Decodes the node at the current position of the buffer (and recursively all its children).
+   *
+   * @param inheritedBs bitset most recently decoded on the path from the root (-1 if none), the byte interpreter
+   *                    keeps using it for the range check of NA-vs-REST splits
+   * @return reference to the decoded node
+   */
+  private int compileNode(byte[] tree, ByteBufferWrapper ab, int nclasses, String[][] domains, int inheritedBs) {
+    int nodeType = ab.get1U();
+    int colId = ab.get2();
+    if (colId == 65535)
+      return addLeaf(ab.get4f());
+    int naSplitDir = ab.get1U();
+    boolean naVsRest = naSplitDir == NsdNaVsRest;
+    boolean leftward = naSplitDir == NsdNaLeft || naSplitDir == NsdLeft;
+    int lmask = (nodeType & 51);
+    int equal = (nodeType & 12);  // Can be one of 0, 8, 12
+    assert equal != 4;  // no longer supported
+
+    int n = addNode();
+    _col[n] = colId;
+    _naLeft[n] = leftward;
+    _domLen[n] = domains != null && domains[colId] != null ? domains[colId].length : -1;
+    int bs = inheritedBs;
+    if (naVsRest) {
+      _type[n] = SPLIT_NA_VS_REST;
+    } else if (equal == 0) {
+      _type[n] = SPLIT_NUMERIC;
+      _splitVal[n] = ab.get4f();
+    } else {
+      _type[n] = SPLIT_BITSET;
+      if (equal == 8) {
+        bs = addBitset(tree, ab.position(), 32, 0);
+        ab.skip(4);
+      } else {
+        int bitoff = ab.get2();
+        int nbits = ab.get4();
+        bs = addBitset(tree, ab.position(), nbits, bitoff);
+        ab.skip(((nbits - 1) >> 3) + 1);
+      }
+    }
+    _bitset[n] = equal != 0 ? bs : -1;
+
+    // Left subtree (or leaf) starts after the skip-offset field
+    ByteBufferWrapper abL = new ByteBufferWrapper(tree);
+    abL.skip(ab.position());
+    if (lmask <= 3)
+      abL.skip(lmask + 1);
+    int left = (lmask & 16) != 0 ? addLeaf(abL.get4f()) : compileNode(tree, abL, nclasses, domains, bs);
+
+    // Right subtree (or leaf) starts after the whole left subtree
+    ByteBufferWrapper abR = new ByteBufferWrapper(tree);
+    abR.skip(ab.position());
+    switch (lmask) {
+      case 0:  abR.skip(abR.get1U());  break;
+      case 1:  abR.skip(abR.get2());  break;
+      case 2:  abR.skip(abR.get3());  break;
+      case 3:  abR.skip(abR.get4());  break;
+      case 16: abR.skip(nclasses < 256? 1 : 2);  break;  // Small leaf
+      case 48: abR.skip(4);  break;  // skip the prediction
+      default:
+        throw new IllegalStateException("Illegal lmask value " + lmask + " in tree " + Arrays.toString(tree));
+    }
+    int rmask = (nodeType & 0xC0) >> 2;
+    int right = (rmask & 16) != 0 ? addLeaf(abR.get4f()) : compileNode(tree, abR, nclasses, domains, bs);
+
+    _left[n] = left;
+    _right[n] = right;
+    return n;
+  }
+
+  /**
+   * Scores a single row.
+   *
+   * @param row input row
+   * @return prediction of the tree (leaf value)
+   */
+  public double score(double[] row) {
+    int n = _root;
+    while (n >= 0) {
+      double d = row[_col[n]];
+      int bs = _bitset[n];
+      int dl = _domLen[n];
+      boolean right;
+      if (Double.isNaN(d) || (bs >= 0 && !isInRange(bs, (int) d)) || (dl >= 0 && dl <= (int) d)) {
+        right = !_naLeft[n];
+      } else {
+        byte type = _type[n];
+        if (type == SPLIT_NUMERIC)
+          right = d >= _splitVal[n];
+        else if (type == SPLIT_BITSET)
+          right = contains(bs, (int) d);
+        else
+          right = false;
+      }
+      n = right ? _right[n] : _left[n];
+    }
+    return _leaves[~n];
+  }
+
+  /**
+   * Scores a batch of rows given in a column-oriented layout and adds the predictions to the given output.
+   *
+   * @param columns input data, {@code columns[c][r]} is the value of column {@code c} in row {@code r}
+   * @param nrows number of rows in the batch
+   * @param preds predictions, prediction of row {@code r} is added to {@code preds[r][k]}
+   * @param k index of the prediction to update
+   */
+  public void scoreBatch(double[][] columns, int nrows, double[][] preds, int k) {
+    if (_root < 0) {
+      double leaf = _leaves[~_root];
+      for (int r = 0; r < nrows; r++)
+        preds[r][k] += leaf;
+      return;
+    }
+    for (int r = 0; r < nrows; r++)
+      preds[r][k] += score(columns, r);
+  }
+
+  private double score(double[][] columns, int r) {
+    int n = _root;
+    while (n >= 0) {
+      double d = columns[_col[n]][r];
+      int bs = _bitset[n];
+      int dl = _domLen[n];
+      boolean right;
+      if (Double.isNaN(d) || (bs >= 0 && !isInRange(bs, (int) d)) || (dl >= 0 && dl <= (int) d)) {
+        right = !_naLeft[n];
+      } else {
+        byte type = _type[n];
+        if (type == SPLIT_NUMERIC)
+          right = d >= _splitVal[n];
+        else if (type == SPLIT_BITSET)
+          right = contains(bs, (int) d);
+        else
+          right = false;
+      }
+      n = right ? _right[n] : _left[n];
+    }
+    return _leaves[~n];
+  }
+
+  /**
+   * @return number of internal (non-leaf) nodes of the tree
+   */
+  public int nodeCount() {
+    return _nnodes;
+  }
+
+  /**
+   * @return number of leaves of the tree
+   */
+  public int leafCount() {
+    return _nleaves;
+  }
+
+  private boolean isInRange(int bs, int b) {
+    b -= _bsBitoff[bs];
+    return b >= 0 && b < _bsNbits[bs];
+  }
+
+  private boolean contains(int bs, int idx) {
+    idx -= _bsBitoff[bs];
+    return (_bsBits[_bsByteoff[bs] + (idx >> 3)] & ((byte)1 << (idx & 7))) != 0;
+  }
+
+  private int addNode() {
+    if (_nnodes == _col.length) {
+      int len = _nnodes << 1;
+      _col = Arrays.copyOf(_col, len);
+      _type = Arrays.copyOf(_type, len);
+      _naLeft = Arrays.copyOf(_naLeft, len);
+      _splitVal = Arrays.copyOf(_splitVal, len);
+      _bitset = Arrays.copyOf(_bitset, len);
+      _domLen = Arrays.copyOf(_domLen, len);
+      _left = Arrays.copyOf(_left, len);
+      _right = Arrays.copyOf(_right, len);
+    }
+    return _nnodes++;
+  }
+
+  private int addLeaf(float value) {
+    if (_nleaves == _leaves.length)
+      _leaves = Arrays.copyOf(_leaves, _nleaves << 1);
+    _leaves[_nleaves] = value;
+    return ~(_nleaves++);
+  }
+
+  private int addBitset(byte[] tree, int byteoff, int nbits, int bitoff) {
+    if (_nbitsets == _bsBitoff.length) {
+      int len = _nbitsets << 1;
+      _bsBitoff = Arrays.copyOf(_bsBitoff, len);
+      _bsNbits = Arrays.copyOf(_bsNbits, len);
+      _bsByteoff = Arrays.copyOf(_bsByteoff, len);
+    }
+    int nbytes = ((nbits - 1) >> 3) + 1;
+    if (_nbsbytes + nbytes > _bsBits.length)
+      _bsBits = Arrays.copyOf(_bsBits, Math.max(_bsBits.length << 1, _nbsbytes + nbytes));
+    System.arraycopy(tree, byteoff, _bsBits, _nbsbytes, nbytes);
+    _bsBitoff[_nbitsets] = bitoff;
+    _bsNbits[_nbitsets] = nbits;
+    _bsByteoff[_nbitsets] = _nbsbytes;
+    _nbsbytes += nbytes;
+    return _nbitsets++;
+  }
+
+  private void trim() {
+    _col = Arrays.copyOf(_col, _nnodes);
+    _type = Arrays.copyOf(_type, _nnodes);
+    _naLeft = Arrays.copyOf(_naLeft, _nnodes);
+    _splitVal = Arrays.copyOf(_splitVal, _nnodes);
+    _bitset = Arrays.copyOf(_bitset, _nnodes);
+    _domLen = Arrays.copyOf(_domLen, _nnodes);
+    _left = Arrays.copyOf(_left, _nnodes);
+    _right = Arrays.copyOf(_right, _nnodes);
+    _leaves = Arrays.copyOf(_leaves, _nleaves);
+    _bsBitoff = Arrays.copyOf(_bsBitoff, _nbitsets);
+    _bsNbits = Arrays.copyOf(_bsNbits, _nbitsets);
+    _bsByteoff = Arrays.copyOf(_bsByteoff, _nbitsets);
+    _bsBits = Arrays.copyOf(_bsBits, _nbsbytes);
+  }
+
+}
@@ -45,6 +45,12 @@ public abstract class SharedTreeMojoModel extends MojoModel {
      */
     protected byte[][] _compressed_trees_aux;
 
+    /**
+     * Trees compiled into the flat-array form (see {@link FlatTree}), indexed the same way as
+     * {@link #_compressed_trees}. When available, they are used for scoring instead of the compressed trees.
+     */
+    protected FlatTree[] _flat_trees;
+
     /**
      * GLM's beta used for calibrating output probabilities using Platt Scaling.
      */
@@ -439,6 +445,10 @@ public abstract class SharedTreeMojoModel extends MojoModel {
      */
     protected void scoreAllTrees(double[] row, double[] preds) {
         java.util.Arrays.fill(preds, 0);
+        if (_flat_trees != null) {
+            scoreAllFlatTrees(row, preds);
+            return;
+        }
         for (int i = 0; i < _ntrees_per_group; i++) {
             int k = _nclasses == 1? 0 : i + 1;
             for (int j = 0; j < _ntree_groups; j++) {
@@ -456,6 +466,68 @@ public abstract class SharedTreeMojoModel extends MojoModel {
         }
     }
 
+    /**
+     * Scores a batch of rows tree-major: every tree is applied to all rows of the batch before moving
+     * to the next tree. Only trees compiled into the flat form can be scored this way, otherwise the batch
+     * is scored row by row.
+     */
+    @Override
+    public double[][] score0(double[][] columns, int nrows, double[][] preds) {
+        if (_flat_trees == null)
+            return super.score0(columns, nrows, preds);
+        for (int r = 0; r < nrows; r++)
+            java.util.Arrays.fill(preds[r], 0);
+        for (int i = 0; i < _ntrees_per_group; i++) {
+            int k = _nclasses == 1? 0 : i + 1;
+            for (int j = 0; j < _ntree_groups; j++) {
+                FlatTree tree = _flat_trees[treeIndex(j, i)];
+                // Skip all empty trees
+                if (tree == null) continue;
+                tree.scoreBatch(columns, nrows, preds, k);
+            }
+        }
+        double[] row = new double[columns.length];
+        for (int r = 0; r < nrows; r++) {
+            for (int c = 0; c < columns.length; c++)
+                row[c] = columns[c][r];
+            unifyPreds(row, 0, preds[r]);
+        }
+        return preds;
+    }
+
+    /**
+     * Turns the raw sum of tree predictions (as produced by {@link #scoreAllTrees(double[], double[])}) into
+     * the final predictions of the model.
+     */
+    protected abstract double[] unifyPreds(double[] row, double offset, double[] preds);
+
+    private void scoreAllFlatTrees(double[] row, double[] preds) {
+        for (int i = 0; i < _ntrees_per_group; i++) {
+            int k = _nclasses == 1? 0 : i + 1;
+            for (int j = 0; j < _ntree_groups; j++) {
+                FlatTree tree = _flat_trees[treeIndex(j, i)];
+                // Skip all empty trees
+                if (tree == null) continue;
+                preds[k] += tree.score(row);
+            }
+        }
+    }
+
+    /**
+     * Compiles all (compressed) trees into the flat-array form, subsequent scoring will use the compiled trees.
+     * Only trees of the current MOJO version can be compiled, calling this method on older MOJOs has no effect.
+     */
+    public void compileTrees() {
+        if (_mojo_version == null || !_mojo_version.equals(1.2))
+            return;
+        FlatTree[] flatTrees = new FlatTree[_compressed_trees.length];
+        for (int i = 0; i < _compressed_trees.length; i++) {
+            if (_compressed_trees[i] == null) continue;
+            flatTrees[i] = FlatTree.compile(_compressed_trees[i], _nclasses, _domains);
+        }
+        _flat_trees = flatTrees;
+    }
+
     protected int treeIndex(int groupIndex, int classIndex) {
         return classIndex * _ntree_groups + groupIndex;
     }
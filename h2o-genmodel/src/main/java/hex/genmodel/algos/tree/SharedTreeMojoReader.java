@@ -8,6 +8,11 @@ import java.io.IOException;
  */
 public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extends ModelMojoReader<M> {
 
+  /**
+   * Trees are compiled into flat arrays at load time unless this property is set to false.
+   */
+  public static final String FLAT_TREES_PROPERTY = "sys.ai.h2o.genmodel.tree.flatTrees";
+
   @Override
   protected void readModelData() throws IOException {
     // In mojos v=1.0 this info wasn't saved.
@@ -37,6 +42,9 @@ public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extend
         }
       }
 
+    if (useFlatTrees())
+      _model.compileTrees();
+
     // Calibration
     String calibMethod = readkv("calib_method");
     if (calibMethod != null) {
@@ -45,4 +53,9 @@ public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extend
       _model._calib_glm_beta = readkv("calib_glm_beta", new double[0]);
     }
   }
+
+  private static boolean useFlatTrees() {
+    String flatTrees = System.getProperty(FLAT_TREES_PROPERTY);
+    return flatTrees == null || Boolean.parseBoolean(flatTrees);
+  }
 }
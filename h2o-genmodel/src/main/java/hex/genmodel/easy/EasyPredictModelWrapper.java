@@ -237,6 +237,64 @@ public class EasyPredictModelWrapper implements java.io.Serializable {
     return predict(data, m.getModelCategory());
   }
 
+  /**
+   * Make predictions on a batch of new data points.
+   *
+   * The batch is converted into a column-oriented layout once and scored with a single call to the batch scoring
+   * function of the model (see {@link GenModel#score0(double[][], int, double[][])}). The type of the returned
+   * predictions depends on the model type, the same way as in {@link #predict(RowData)}.
+   *
+   * @param data A batch of new data points.
+   * @return The predictions, one for each data point.
+   * @throws PredictException
+   */
+  public AbstractPrediction[] predictBatch(RowData[] data) throws PredictException {
+    ModelCategory mc = m.getModelCategory();
+    AbstractPrediction[] predictions = new AbstractPrediction[data.length];
+    if (! supportsBatchPrediction(mc)) {
+      for (int r = 0; r < data.length; r++)
+        predictions[r] = predict(data[r], mc);
+      return predictions;
+    }
+    validateModelCategory(mc);
+
+    int nrows = data.length;
+    int ncols = m.nfeatures();
+    double[][] columns = new double[ncols][nrows];
+    double[] rawData = new double[ncols];
+    for (int r = 0; r < nrows; r++) {
+      setToNaN(rawData);
+      fillRawData(data[r], rawData);
+      for (int c = 0; c < ncols; c++)
+        columns[c][r] = rawData[c];
+    }
+    double[][] preds = new double[nrows][m.getPredsSize(mc)];
+    preds = m.score0(columns, nrows, preds);
+
+    for (int r = 0; r < nrows; r++) {
+      switch (mc) {
+        case Binomial:
+          predictions[r] = makeBinomialPrediction(preds[r]);
+          break;
+        case Multinomial:
+          predictions[r] = makeMultinomialPrediction(preds[r]);
+          break;
+        case Clustering:
+          predictions[r] = makeClusteringPrediction(preds[r]);
+          break;
+        case Regression:
+          predictions[r] = makeRegressionPrediction(preds[r]);
+          break;
+        case DimReduction:
+          predictions[r] = makeDimReductionPrediction(preds[r]);
+          break;
+        default:
+          throw new PredictException("Unhandled model category (" + mc + ") in switch statement");
+      }
+    }
+    return predictions;
+  }
+
   /**
    * Make a prediction on a new data point using an AutoEncoder model.
    *
@@ -256,7 +314,10 @@ public class EasyPredictModelWrapper implements java.io.Serializable {
    */
   public DimReductionModelPrediction predictDimReduction(RowData data) throws PredictException {
     double[] preds = preamble(ModelCategory.DimReduction, data);
+    return makeDimReductionPrediction(preds);
+  }
 
+  private DimReductionModelPrediction makeDimReductionPrediction(double[] preds) {
     DimReductionModelPrediction p = new DimReductionModelPrediction();
     p.dimensions = preds;
 
@@ -301,7 +362,10 @@ public class EasyPredictModelWrapper implements java.io.Serializable {
    */
   public BinomialModelPrediction predictBinomial(RowData data) throws PredictException {
     double[] preds = preamble(ModelCategory.Binomial, data);
+    return makeBinomialPrediction(preds);
+  }
 
+  private BinomialModelPrediction makeBinomialPrediction(double[] preds) {
     BinomialModelPrediction p = new BinomialModelPrediction();
     double d = preds[0];
     p.labelIndex = (int) d;
@@ -325,7 +389,10 @@ public class EasyPredictModelWrapper implements java.io.Serializable {
    */
   public MultinomialModelPrediction predictMultinomial(RowData data) throws PredictException {
     double[] preds = preamble(ModelCategory.Multinomial, data);
+    return makeMultinomialPrediction(preds);
+  }
 
+  private MultinomialModelPrediction makeMultinomialPrediction(double[] preds) {
     MultinomialModelPrediction p = new MultinomialModelPrediction();
     p.classProbabilities = new double[m.getNumResponseClasses()];
     p.labelIndex = (int) preds[0];
@@ -386,7 +453,10 @@ public class EasyPredictModelWrapper implements java.io.Serializable {
    */
   public ClusteringModelPrediction predictClustering(RowData data) throws PredictException {
     double[] preds = preamble(ModelCategory.Clustering, data);
+    return makeClusteringPrediction(preds);
+  }
 
+  private ClusteringModelPrediction makeClusteringPrediction(double[] preds) {
     ClusteringModelPrediction p = new ClusteringModelPrediction();
     p.cluster = (int) preds[0];
 
@@ -402,7 +472,10 @@ public class EasyPredictModelWrapper implements java.io.Serializable {
    */
   public RegressionModelPrediction predictRegression(RowData data) throws PredictException {
     double[] preds = preamble(ModelCategory.Regression, data);
+    return makeRegressionPrediction(preds);
+  }
 
+  private RegressionModelPrediction makeRegressionPrediction(double[] preds) {
     RegressionModelPrediction p = new RegressionModelPrediction();
     p.value = preds[0];
 
@@ -483,6 +556,21 @@ public class EasyPredictModelWrapper implements java.io.Serializable {
       throw new PredictException(c + " prediction type is not supported for this model.");
   }
 
+  private boolean supportsBatchPrediction(ModelCategory mc) {
+    if (m instanceof DeepwaterMojoModel) // input rows might be images, these are not converted to columns
+      return false;
+    switch (mc) {
+      case Binomial:
+      case Multinomial:
+      case Clustering:
+      case Regression:
+      case DimReduction:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   // This should have been called predict(), because that's what it does
   private double[] preamble(ModelCategory c, RowData data) throws PredictException {
     validateModelCategory(c);
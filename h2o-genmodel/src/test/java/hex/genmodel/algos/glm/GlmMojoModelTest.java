@@ -51,6 +51,14 @@ public class GlmMojoModelTest {
       double preds[] = mojo.score0(data[i], new double[3]);
       assertArrayEquals("Predictions for row #" + i, expPreds[i], preds, 0.0000001);
     }
+
+    double[][] columns = new double[data[0].length][data.length];
+    for (int i = 0; i < data.length; i++)
+      for (int c = 0; c < data[i].length; c++)
+        columns[c][i] = data[i][c];
+    double[][] batchPreds = mojo.score0(columns, data.length, new double[data.length][3]);
+    for (int i = 0; i < data.length; i++)
+      assertArrayEquals("Batch predictions for row #" + i, expPreds[i], batchPreds[i], 0.0000001);
   }
 
   private static class ClasspathReaderBackend implements MojoReaderBackend {
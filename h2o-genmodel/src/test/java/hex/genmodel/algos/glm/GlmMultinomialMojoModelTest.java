@@ -59,6 +59,14 @@ public class GlmMultinomialMojoModelTest {
       double[] mojoPreds = mojo.score0(data[i], new double[8]);
       assertArrayEquals(expPreds[i], mojoPreds, 0.000001);
     }
+
+    double[][] columns = new double[data[0].length][data.length];
+    for (int i = 0; i < data.length; i++)
+      for (int c = 0; c < data[i].length; c++)
+        columns[c][i] = data[i][c];
+    double[][] batchPreds = mojo.score0(columns, data.length, new double[data.length][8]);
+    for (int i = 0; i < data.length; i++)
+      assertArrayEquals(expPreds[i], batchPreds[i], 0.000001);
   }
 
   private static class ClasspathReaderBackend implements MojoReaderBackend {
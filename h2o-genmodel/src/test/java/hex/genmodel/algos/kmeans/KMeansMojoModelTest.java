@@ -5,6 +5,7 @@ import hex.genmodel.MojoModel;
 import hex.genmodel.MojoReaderBackend;
 import hex.genmodel.easy.EasyPredictModelWrapper;
 import hex.genmodel.easy.RowData;
+import hex.genmodel.easy.prediction.AbstractPrediction;
 import hex.genmodel.easy.prediction.ClusteringModelPrediction;
 import org.junit.Before;
 import org.junit.Test;
@@ -49,6 +50,24 @@ public class KMeansMojoModelTest {
     }
   }
 
+  @Test
+  public void testPredictBatch() throws Exception {
+    EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(_mojo);
+    // test easy-predict
+    AbstractPrediction[] predictions = wrapper.predictBatch(_rowData);
+    assertEquals(_rowData.length, predictions.length);
+    for (int i = 0; i < predictions.length; i++)
+      assertEquals(i, ((ClusteringModelPrediction) predictions[i]).cluster);
+    // test score0
+    double[][] columns = new double[_rows[0].length][_rows.length];
+    for (int i = 0; i < _rows.length; i++)
+      for (int c = 0; c < _rows[i].length; c++)
+        columns[c][i] = _rows[i][c];
+    double[][] preds = _mojo.score0(columns, _rows.length, new double[_rows.length][1]);
+    for (int i = 0; i < _rows.length; i++)
+      assertEquals(i, preds[i][0], 0.0);
+  }
+
   private static RowData toRowData(MojoModel mojo, double[] row) {
     RowData rowData = new RowData();
     for (String name : mojo._names) {
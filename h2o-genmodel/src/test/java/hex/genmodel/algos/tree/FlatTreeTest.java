@@ -0,0 +1,119 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.ModelMojoReader;
+import hex.genmodel.MojoReaderBackend;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FlatTreeTest {
+
+  @Test
+  public void testFlatTreesMatchCompressedTrees() throws Exception {
+    SharedTreeMojoModel mojo = (SharedTreeMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend("gbm/calibrated"));
+    assertNotNull(mojo._flat_trees);
+    assertEquals(mojo._compressed_trees.length, mojo._flat_trees.length);
+
+    Random r = new Random(42);
+    double[] row = new double[mojo.nfeatures()];
+    for (int iter = 0; iter < 10000; iter++) {
+      for (int c = 0; c < row.length; c++) {
+        String[] domain = mojo.getDomainValues(c);
+        double v = domain == null ? r.nextGaussian() * 100 : r.nextInt(domain.length + 2); // includes unseen levels
+        row[c] = r.nextInt(20) == 0 ? Double.NaN : v;
+      }
+      for (int t = 0; t < mojo._compressed_trees.length; t++) {
+        double expected = SharedTreeMojoModel.scoreTree(mojo._compressed_trees[t], row, mojo.nclasses(), false, mojo._domains);
+        double actual = mojo._flat_trees[t].score(row);
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+      }
+    }
+  }
+
+  @Test
+  public void testScoreAllTreesMatchesCompressedTrees() throws Exception {
+    SharedTreeMojoModel mojo = (SharedTreeMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend("gbm/calibrated"));
+    FlatTree[] flatTrees = mojo._flat_trees;
+
+    Random r = new Random(0xDECAF);
+    double[] row = new double[mojo.nfeatures()];
+    double[] expected = new double[mojo.getPredsSize()];
+    double[] actual = new double[mojo.getPredsSize()];
+    for (int iter = 0; iter < 1000; iter++) {
+      for (int c = 0; c < row.length; c++) {
+        String[] domain = mojo.getDomainValues(c);
+        row[c] = domain == null ? r.nextGaussian() * 100 : r.nextInt(domain.length);
+      }
+      mojo._flat_trees = null;
+      mojo.score0(row, expected);
+      mojo._flat_trees = flatTrees;
+      mojo.score0(row, actual);
+      assertArrayEquals(expected, actual, 0);
+    }
+  }
+
+  @Test
+  public void testBatchScoringMatchesRowScoring() throws Exception {
+    SharedTreeMojoModel mojo = (SharedTreeMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend("gbm/calibrated"));
+
+    Random r = new Random(7);
+    int nrows = 500;
+    double[][] rows = new double[nrows][mojo.nfeatures()];
+    double[][] columns = new double[mojo.nfeatures()][nrows];
+    for (int i = 0; i < nrows; i++) {
+      for (int c = 0; c < mojo.nfeatures(); c++) {
+        String[] domain = mojo.getDomainValues(c);
+        double v = domain == null ? r.nextGaussian() * 100 : r.nextInt(domain.length);
+        rows[i][c] = columns[c][i] = r.nextInt(20) == 0 ? Double.NaN : v;
+      }
+    }
+    double[][] batchPreds = mojo.score0(columns, nrows, new double[nrows][mojo.getPredsSize()]);
+    for (int i = 0; i < nrows; i++) {
+      double[] preds = mojo.score0(rows[i], new double[mojo.getPredsSize()]);
+      assertArrayEquals(preds, batchPreds[i], 0);
+    }
+  }
+
+  private static class ClasspathReaderBackend implements MojoReaderBackend {
+    private final String _dir;
+
+    ClasspathReaderBackend(String dir) { _dir = dir; }
+
+    @Override
+    public BufferedReader getTextFile(String filename) throws IOException {
+      return new BufferedReader(new InputStreamReader(open(filename)));
+    }
+
+    @Override
+    public byte[] getBinaryFile(String filename) throws IOException {
+      InputStream is = open(filename);
+      try {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = is.read(buf)) > 0)
+          baos.write(buf, 0, n);
+        return baos.toByteArray();
+      } finally {
+        is.close();
+      }
+    }
+
+    @Override
+    public boolean exists(String name) {
+      return true;
+    }
+
+    private InputStream open(String filename) {
+      return FlatTreeTest.class.getResourceAsStream("/hex/genmodel/algos/" + _dir + "/" + filename);
+    }
+  }
+
+}
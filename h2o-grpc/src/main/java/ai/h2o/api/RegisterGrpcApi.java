@@ -3,6 +3,8 @@ package ai.h2o.api;
 import ai.h2o.api.proto.core.ClusterService;
 import ai.h2o.api.proto.core.JobService;
 import ai.h2o.api.proto.frames.CreateFrameService;
+import ai.h2o.api.proto.frames.FrameService;
+import ai.h2o.api.proto.models.ModelService;
 import io.grpc.ServerBuilder;
 
 
@@ -14,5 +16,7 @@ abstract class RegisterGrpcApi {
     sb.addService(new ClusterService());
     sb.addService(new JobService());
     sb.addService(new CreateFrameService());
+    sb.addService(new FrameService());
+    sb.addService(new ModelService());
   }
 }
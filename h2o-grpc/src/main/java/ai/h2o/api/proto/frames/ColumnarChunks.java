@@ -0,0 +1,190 @@
+package ai.h2o.api.proto.frames;
+
+import water.Futures;
+import water.Key;
+import water.fvec.AppendableVec;
+import water.fvec.Chunk;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+
+import java.util.List;
+
+/**
+ * Conversions between the chunks of a Frame and their binary columnar protobuf representation ({@link FrameChunk}).
+ */
+public abstract class ColumnarChunks {
+
+  //--------------------------------------------------------------------------------------------------------------------
+  // Frame -> protobuf
+  //--------------------------------------------------------------------------------------------------------------------
+
+  public static FrameSpec frameSpec(water.fvec.Frame fr) {
+    FrameSpec.Builder fb = FrameSpec.newBuilder();
+    if (fr._key != null)
+      fb.setFrameId(fr._key.toString());
+    for (int i = 0; i < fr.numCols(); i++)
+      fb.addColumns(columnSpec(fr.name(i), fr.vec(i)));
+    return fb.build();
+  }
+
+  public static ColumnSpec columnSpec(String name, Vec vec) {
+    ColumnSpec.Builder cb = ColumnSpec.newBuilder().setName(name).setType(columnType(vec));
+    if (vec.isCategorical())
+      for (String level : vec.domain())
+        cb.addDomain(level);
+    return cb.build();
+  }
+
+  private static ColumnType columnType(Vec vec) {
+    switch (vec.get_type()) {
+      case Vec.T_CAT: return ColumnType.CAT;
+      case Vec.T_TIME: return ColumnType.TIME;
+      case Vec.T_STR: return ColumnType.STR;
+      case Vec.T_NUM:
+      case Vec.T_BAD: return ColumnType.NUM;
+      default:
+        throw new IllegalArgumentException("Column type " + vec.get_type_str() + " is not supported");
+    }
+  }
+
+  /** Chunk {@code cidx} of all the columns of the frame */
+  public static FrameChunk.Builder frameChunk(water.fvec.Frame fr, int cidx) {
+    FrameChunk.Builder fb = FrameChunk.newBuilder().setChunkIndex(cidx);
+    Vec[] vecs = fr.vecs();
+    for (int i = 0; i < vecs.length; i++) {
+      Chunk c = vecs[i].chunkForChunkIdx(cidx);
+      if (i == 0)
+        fb.setFirstRow(c.start()).setNrows(c._len);
+      fb.addColumns(columnData(c, columnType(vecs[i])));
+    }
+    return fb;
+  }
+
+  private static ColumnData columnData(Chunk c, ColumnType type) {
+    ColumnData.Builder cb = ColumnData.newBuilder();
+    switch (type) {
+      case NUM:
+        for (int r = 0; r < c._len; r++)
+          cb.addNum(c.atd(r));
+        break;
+      case CAT:
+        for (int r = 0; r < c._len; r++)
+          cb.addCat(c.isNA(r) ? -1 : (int) c.at8(r));
+        break;
+      case TIME:
+        for (int r = 0; r < c._len; r++) {
+          if (c.isNA(r)) {
+            cb.addTime(0);
+            cb.addNaRows(r);
+          } else
+            cb.addTime(c.at8(r));
+        }
+        break;
+      case STR:
+        BufferedString tmp = new BufferedString();
+        for (int r = 0; r < c._len; r++) {
+          if (c.isNA(r)) {
+            cb.addStr("");
+            cb.addNaRows(r);
+          } else
+            cb.addStr(c.atStr(tmp, r).toString());
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported column type: " + type);
+    }
+    return cb.build();
+  }
+
+  //--------------------------------------------------------------------------------------------------------------------
+  // protobuf -> Frame
+  //--------------------------------------------------------------------------------------------------------------------
+
+  /** New (empty) vectors of the given columns, all in the same vector group */
+  public static AppendableVec[] appendableVecs(List<ColumnSpec> columns) {
+    Key<Vec>[] keys = new Vec.VectorGroup().addVecs(columns.size());
+    AppendableVec[] avs = new AppendableVec[columns.size()];
+    for (int i = 0; i < avs.length; i++) {
+      ColumnSpec col = columns.get(i);
+      avs[i] = new AppendableVec(keys[i], vecType(col.getType()));
+      if (col.getType() == ColumnType.CAT)
+        avs[i].setDomain(col.getDomainList().toArray(new String[col.getDomainCount()]));
+    }
+    return avs;
+  }
+
+  private static byte vecType(ColumnType type) {
+    switch (type) {
+      case NUM: return Vec.T_NUM;
+      case CAT: return Vec.T_CAT;
+      case TIME: return Vec.T_TIME;
+      case STR: return Vec.T_STR;
+      default:
+        throw new IllegalArgumentException("Unsupported column type: " + type);
+    }
+  }
+
+  /**
+   * Write the rows of the message as chunk {@code cidx} of the vectors.
+   * @throws IllegalArgumentException if the message does not match the columns
+   */
+  public static void writeChunk(AppendableVec[] avs, List<ColumnSpec> columns, FrameChunk chunk, int cidx, Futures fs) {
+    if (chunk.getColumnsCount() != avs.length)
+      throw new IllegalArgumentException("Chunk " + cidx + " has " + chunk.getColumnsCount() + " columns, expected " + avs.length);
+    NewChunk[] ncs = new NewChunk[avs.length];
+    for (int i = 0; i < avs.length; i++) {
+      ncs[i] = new NewChunk(avs[i], cidx);
+      fill(ncs[i], columns.get(i), chunk.getColumns(i), chunk.getNrows());
+    }
+    for (NewChunk nc : ncs)
+      nc.close(cidx, fs);
+  }
+
+  private static void fill(NewChunk nc, ColumnSpec col, ColumnData data, int nrows) {
+    int n;
+    switch (col.getType()) {
+      case NUM: n = data.getNumCount(); break;
+      case CAT: n = data.getCatCount(); break;
+      case TIME: n = data.getTimeCount(); break;
+      case STR: n = data.getStrCount(); break;
+      default: throw new IllegalArgumentException("Unsupported column type: " + col.getType());
+    }
+    if (n != nrows)
+      throw new IllegalArgumentException("Column " + col.getName() + " has " + n + " values, expected " + nrows);
+    int na = 0;   // Index into the (sorted) na_rows
+    for (int r = 0; r < nrows; r++) {
+      boolean isNA = na < data.getNaRowsCount() && data.getNaRows(na) == r;
+      if (isNA) na++;
+      switch (col.getType()) {
+        case NUM:
+          nc.addNum(data.getNum(r));
+          break;
+        case CAT:
+          int level = data.getCat(r);
+          if (level < 0) nc.addNA();
+          else if (level < col.getDomainCount()) nc.addCategorical(level);
+          else throw new IllegalArgumentException("Column " + col.getName() + " has level " + level + " out of its domain");
+          break;
+        case TIME:
+          if (isNA) nc.addNA();
+          else nc.addNum(data.getTime(r), 0);
+          break;
+        case STR:
+          if (isNA) nc.addNA();
+          else nc.addStr(data.getStr(r));
+          break;
+      }
+    }
+    if (na < data.getNaRowsCount())
+      throw new IllegalArgumentException("Column " + col.getName() + " has unsorted or out of range na_rows");
+  }
+
+  /** Names of the columns */
+  public static String[] names(List<ColumnSpec> columns) {
+    String[] names = new String[columns.size()];
+    for (int i = 0; i < names.length; i++)
+      names[i] = columns.get(i).getName();
+    return names;
+  }
+}
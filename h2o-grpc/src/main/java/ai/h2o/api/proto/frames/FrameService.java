@@ -0,0 +1,231 @@
+package ai.h2o.api.proto.frames;
+
+import ai.h2o.api.GrpcUtils;
+import io.grpc.Context;
+import io.grpc.stub.CallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import water.*;
+import water.fvec.AppendableVec;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Binary columnar upload and download of frames.
+ * <p>
+ * Frames are transferred one chunk per message, so neither side needs to hold more than a chunk in memory and no
+ * CSV needs to be written and parsed.  Uploaded chunks are written straight into the chunks of the new frame;
+ * downloads respect the flow control of the client.
+ */
+public class FrameService extends FrameGrpc.FrameImplBase {
+
+  @Override
+  public StreamObserver<FrameUpload> upload(StreamObserver<FrameInfo> responseObserver) {
+    return new FrameWriter(responseObserver);
+  }
+
+  @Override
+  public void download(FrameId request, StreamObserver<FrameChunk> responseObserver) {
+    try {
+      water.fvec.Frame fr = resolveFrame(request.getFrameId());
+      final ChunkStreamer streamer = new ChunkStreamer(fr, responseObserver);
+      // Release the frame when the client goes away before the end of the stream
+      Context.current().addListener(new Context.CancellationListener() {
+        @Override public void cancelled(Context context) { streamer.cancel(); }
+      }, DIRECT_EXECUTOR);
+      if (responseObserver instanceof CallStreamObserver) {
+        // Send the chunks as fast as the client reads them
+        ((CallStreamObserver<FrameChunk>) responseObserver).setOnReadyHandler(streamer);
+      }
+      // The transport may have become ready before the handler was installed: send what it takes now
+      streamer.run();
+    } catch (Throwable ex) {
+      GrpcUtils.sendError(ex, responseObserver, FrameChunk.class);
+    }
+  }
+
+
+
+  //--------------------------------------------------------------------------------------------------------------------
+  // Helpers
+  //--------------------------------------------------------------------------------------------------------------------
+
+  private static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override public void execute(Runnable command) { command.run(); }
+  };
+
+  private static water.fvec.Frame resolveFrame(String strId) {
+    Value val = DKV.get(Key.make(strId));
+    if (val == null) {
+      throw new IllegalArgumentException("Frame " + strId + " not found in the DKV");
+    }
+    Iced iced = val.get();
+    if (iced instanceof water.fvec.Frame) {
+      return (water.fvec.Frame) iced;
+    } else {
+      throw new IllegalArgumentException("Id " + strId + " does not reference a Frame but a " + iced.getClass());
+    }
+  }
+
+
+  /**
+   * Sends the chunks of a frame, in order.  When used as the on-ready handler of the call it sends chunks only while
+   * the transport is ready, otherwise all of them at once.  The frame is read-locked until the stream ends.
+   */
+  private static class ChunkStreamer implements Runnable {
+    private final water.fvec.Frame _fr;
+    private final StreamObserver<FrameChunk> _responseObserver;
+    private final Key<Job> _lockKey = Key.make();
+    private final int _nchunks;
+    private int _cidx;
+    private boolean _done;
+
+    ChunkStreamer(water.fvec.Frame fr, StreamObserver<FrameChunk> responseObserver) {
+      _responseObserver = responseObserver;
+      fr.read_lock(_lockKey);
+      _fr = DKV.getGet(fr._key); // Frame as of the lock
+      _nchunks = _fr.numCols() == 0 ? 0 : _fr.anyVec().nChunks();
+    }
+
+    /** Stops the stream, the client is gone */
+    synchronized void cancel() {
+      finish();
+    }
+
+    private void finish() {
+      if (_done) return;
+      _done = true;
+      _fr.unlock(_lockKey, false);
+    }
+
+    @Override
+    public synchronized void run() {
+      if (_done) return;
+      try {
+        while (_cidx < _nchunks && isReady()) {
+          FrameChunk.Builder cb = ColumnarChunks.frameChunk(_fr, _cidx);
+          if (_cidx == 0)
+            cb.setSpec(ColumnarChunks.frameSpec(_fr));
+          _responseObserver.onNext(cb.build());
+          _cidx++;
+        }
+        if (_cidx == _nchunks) {
+          if (_nchunks == 0)
+            _responseObserver.onNext(FrameChunk.newBuilder().setSpec(ColumnarChunks.frameSpec(_fr)).build());
+          finish();
+          _responseObserver.onCompleted();
+        }
+      } catch (Throwable ex) {
+        finish();
+        GrpcUtils.sendError(ex, _responseObserver, FrameChunk.class);
+      }
+    }
+
+    private boolean isReady() {
+      return !(_responseObserver instanceof CallStreamObserver) ||
+             ((CallStreamObserver<FrameChunk>) _responseObserver).isReady();
+    }
+  }
+
+
+  /**
+   * Receives the messages of an upload: the FrameSpec first, then the chunks.  Every chunk is written into the DKV
+   * as soon as it arrives; the frame itself is put into the DKV once the client completes the upload.
+   */
+  private static class FrameWriter implements StreamObserver<FrameUpload> {
+    private final StreamObserver<FrameInfo> _responseObserver;
+    private final Futures _fs = new Futures();
+    private FrameSpec _spec;
+    private AppendableVec[] _avs;
+    private int _nchunks;
+    private boolean _failed;
+
+    FrameWriter(StreamObserver<FrameInfo> responseObserver) {
+      _responseObserver = responseObserver;
+    }
+
+    @Override
+    public void onNext(FrameUpload msg) {
+      if (_failed) return;
+      try {
+        switch (msg.getPayloadCase()) {
+          case SPEC:
+            if (_spec != null)
+              throw new IllegalArgumentException("FrameSpec can only be sent once");
+            if (msg.getSpec().getColumnsCount() == 0)
+              throw new IllegalArgumentException("FrameSpec has no columns");
+            _spec = msg.getSpec();
+            _avs = ColumnarChunks.appendableVecs(_spec.getColumnsList());
+            break;
+          case CHUNK:
+            if (_spec == null)
+              throw new IllegalArgumentException("FrameSpec has to be sent before the chunks");
+            ColumnarChunks.writeChunk(_avs, _spec.getColumnsList(), msg.getChunk(), _nchunks++, _fs);
+            break;
+          default:
+            throw new IllegalArgumentException("Empty upload message");
+        }
+      } catch (Throwable ex) {
+        fail(ex);
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      Log.warn("Frame upload cancelled by the client: " + t);
+      _failed = true;
+      removeChunks();
+    }
+
+    @Override
+    public void onCompleted() {
+      if (_failed) return;
+      try {
+        if (_spec == null)
+          throw new IllegalArgumentException("No FrameSpec was sent");
+        if (_nchunks == 0) {
+          // A frame needs at least one (possibly empty) chunk
+          for (AppendableVec av : _avs)
+            new NewChunk(av, 0).close(0, _fs);
+          _nchunks = 1;
+        }
+        _fs.blockForPending();
+        Vec[] vecs = AppendableVec.closeAll(_avs);
+        String id = _spec.getFrameId();
+        Key<water.fvec.Frame> key = id.isEmpty() ? Key.<water.fvec.Frame>make() : Key.<water.fvec.Frame>make(id);
+        water.fvec.Frame fr = new water.fvec.Frame(key, ColumnarChunks.names(_spec.getColumnsList()), vecs);
+        fr.delete_and_lock();
+        fr.unlock();
+        _responseObserver.onNext(FrameInfo.newBuilder()
+            .setFrameId(key.toString())
+            .setRows(fr.numRows())
+            .setColumns(fr.numCols())
+            .setChunks(_nchunks)
+            .build());
+        _responseObserver.onCompleted();
+      } catch (Throwable ex) {
+        fail(ex);
+      }
+    }
+
+    private void fail(Throwable ex) {
+      _failed = true;
+      removeChunks();
+      GrpcUtils.sendError(ex, _responseObserver, FrameInfo.class);
+    }
+
+    // Remove the chunks written so far
+    private void removeChunks() {
+      if (_avs == null) return;
+      _fs.blockForPending();
+      Futures fs = new Futures();
+      for (AppendableVec av : _avs)
+        for (int cidx = 0; cidx < _nchunks; cidx++)
+          DKV.remove(av.chunkKey(cidx), fs);
+      fs.blockForPending();
+    }
+  }
+
+}
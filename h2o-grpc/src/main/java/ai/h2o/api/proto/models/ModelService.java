@@ -0,0 +1,124 @@
+package ai.h2o.api.proto.models;
+
+import ai.h2o.api.GrpcUtils;
+import ai.h2o.api.proto.frames.ColumnSpec;
+import ai.h2o.api.proto.frames.ColumnarChunks;
+import ai.h2o.api.proto.frames.FrameChunk;
+import io.grpc.stub.StreamObserver;
+import water.*;
+import water.fvec.AppendableVec;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.List;
+
+/**
+ * Streaming scoring: batches of rows are scored as they arrive, without a round trip through the REST API for every
+ * batch.  Each batch becomes a temporary single-chunk frame which is deleted as soon as its predictions are sent.
+ */
+public class ModelService extends ModelGrpc.ModelImplBase {
+
+  @Override
+  public StreamObserver<ScoreRequest> score(StreamObserver<ScoreResponse> responseObserver) {
+    return new Scorer(responseObserver);
+  }
+
+
+
+  //--------------------------------------------------------------------------------------------------------------------
+  // Helpers
+  //--------------------------------------------------------------------------------------------------------------------
+
+  private static hex.Model resolveModel(String strId) {
+    Value val = DKV.get(Key.make(strId));
+    if (val == null) {
+      throw new IllegalArgumentException("Model " + strId + " not found in the DKV");
+    }
+    Iced iced = val.get();
+    if (iced instanceof hex.Model) {
+      return (hex.Model) iced;
+    } else {
+      throw new IllegalArgumentException("Id " + strId + " does not reference a Model but a " + iced.getClass());
+    }
+  }
+
+
+  private static class Scorer implements StreamObserver<ScoreRequest> {
+    private final StreamObserver<ScoreResponse> _responseObserver;
+    private hex.Model _model;
+    private List<ColumnSpec> _columns;
+    private boolean _first = true;
+    private boolean _failed;
+
+    Scorer(StreamObserver<ScoreResponse> responseObserver) {
+      _responseObserver = responseObserver;
+    }
+
+    @Override
+    public void onNext(ScoreRequest msg) {
+      if (_failed) return;
+      try {
+        switch (msg.getPayloadCase()) {
+          case SPEC:
+            if (_model != null)
+              throw new IllegalArgumentException("ScoreSpec can only be sent once");
+            _model = resolveModel(msg.getSpec().getModelId());
+            _columns = msg.getSpec().getColumnsList();
+            if (_columns.isEmpty())
+              throw new IllegalArgumentException("ScoreSpec has no columns");
+            break;
+          case BATCH:
+            if (_model == null)
+              throw new IllegalArgumentException("ScoreSpec has to be sent before the batches");
+            _responseObserver.onNext(ScoreResponse.newBuilder().setPredictions(score(msg.getBatch())).build());
+            break;
+          default:
+            throw new IllegalArgumentException("Empty score request");
+        }
+      } catch (Throwable ex) {
+        _failed = true;
+        GrpcUtils.sendError(ex, _responseObserver, ScoreResponse.class);
+      }
+    }
+
+    private FrameChunk score(FrameChunk batch) {
+      Frame fr = null;
+      Frame preds = null;
+      try {
+        AppendableVec[] avs = ColumnarChunks.appendableVecs(_columns);
+        Futures fs = new Futures();
+        ColumnarChunks.writeChunk(avs, _columns, batch, 0, fs);
+        fs.blockForPending();
+        Vec[] vecs = AppendableVec.closeAll(avs);
+        fr = new Frame(Key.<Frame>make(), ColumnarChunks.names(_columns), vecs);
+        DKV.put(fr);
+        preds = _model.score(fr, null, null, false);
+        FrameChunk.Builder pb = ColumnarChunks.frameChunk(preds, 0)
+            .setChunkIndex(batch.getChunkIndex())
+            .setFirstRow(batch.getFirstRow());
+        if (_first) {
+          pb.setSpec(ColumnarChunks.frameSpec(preds).toBuilder().clearFrameId());
+          _first = false;
+        }
+        return pb.build();
+      } finally {
+        if (fr != null) fr.delete();
+        if (preds != null) preds.delete();
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      Log.warn("Scoring cancelled by the client: " + t);
+      _failed = true;
+    }
+
+    @Override
+    public void onCompleted() {
+      if (!_failed)
+        _responseObserver.onCompleted();
+    }
+  }
+
+}
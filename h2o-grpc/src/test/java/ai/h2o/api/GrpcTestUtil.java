@@ -0,0 +1,60 @@
+package ai.h2o.api;
+
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.Ignore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Ignore("Support for tests, but no actual tests here")
+public class GrpcTestUtil {
+
+  /** A service served over the in-process transport, and a channel to it */
+  public static class InProcessService {
+    public final Server _server;
+    public final ManagedChannel _channel;
+
+    public InProcessService(BindableService service) throws IOException {
+      String name = service.getClass().getSimpleName() + "_" + System.nanoTime();
+      _server = InProcessServerBuilder.forName(name).addService(service).build().start();
+      _channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    public void shutdown() {
+      _channel.shutdownNow();
+      _server.shutdownNow();
+    }
+  }
+
+  /** Collects the messages received by a call */
+  public static class Recorder<T> implements StreamObserver<T> {
+    private final List<T> _values = Collections.synchronizedList(new ArrayList<T>());
+    private final CountDownLatch _done = new CountDownLatch(1);
+    private volatile Throwable _error;
+
+    @Override public void onNext(T value) { _values.add(value); }
+
+    @Override public void onError(Throwable t) { _error = t; _done.countDown(); }
+
+    @Override public void onCompleted() { _done.countDown(); }
+
+    /** @return all the messages, once the call completed */
+    public List<T> await() throws InterruptedException {
+      if (!_done.await(60, TimeUnit.SECONDS))
+        throw new AssertionError("The call did not complete");
+      if (_error != null)
+        throw new AssertionError("The call failed", _error);
+      return _values;
+    }
+  }
+
+}
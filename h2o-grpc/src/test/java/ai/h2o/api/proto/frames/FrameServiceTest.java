@@ -0,0 +1,215 @@
+package ai.h2o.api.proto.frames;
+
+import ai.h2o.api.GrpcTestUtil.InProcessService;
+import ai.h2o.api.GrpcTestUtil.Recorder;
+import io.grpc.stub.CallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameServiceTest extends TestUtil {
+
+  @BeforeClass
+  static public void setup() { stall_till_cloudsize(1); }
+
+  private InProcessService _service;
+
+  @Before
+  public void startService() throws Exception { _service = new InProcessService(new FrameService()); }
+
+  @After
+  public void stopService() { _service.shutdown(); }
+
+  @Test
+  public void testUploadDownload() throws Exception {
+    FrameSpec spec = FrameSpec.newBuilder()
+        .setFrameId("grpc_upload.hex")
+        .addColumns(ColumnSpec.newBuilder().setName("x").setType(ColumnType.NUM))
+        .addColumns(ColumnSpec.newBuilder().setName("c").setType(ColumnType.CAT).addDomain("a").addDomain("b"))
+        .addColumns(ColumnSpec.newBuilder().setName("s").setType(ColumnType.STR))
+        .build();
+    FrameChunk[] chunks = {
+        chunk(0, 0, new double[]{1.5, Double.NaN, 3}, new int[]{0, 1, -1}, new String[]{"p", null, "q"}),
+        chunk(1, 3, new double[]{4, -5}, new int[]{1, 1}, new String[]{"r", "s"})
+    };
+    Recorder<FrameInfo> info = new Recorder<>();
+    StreamObserver<FrameUpload> upload = FrameGrpc.newStub(_service._channel).upload(info);
+    upload.onNext(FrameUpload.newBuilder().setSpec(spec).build());
+    for (FrameChunk c : chunks)
+      upload.onNext(FrameUpload.newBuilder().setChunk(c).build());
+    upload.onCompleted();
+    List<FrameInfo> infos = info.await();
+    assertEquals(1, infos.size());
+    FrameInfo fi = infos.get(0);
+    assertFalse(fi.getError().getMessage(), fi.hasError());
+    assertEquals("grpc_upload.hex", fi.getFrameId());
+    assertEquals(5, fi.getRows());
+    assertEquals(3, fi.getColumns());
+    assertEquals(2, fi.getChunks());
+
+    Frame fr = DKV.getGet("grpc_upload.hex");
+    try {
+      // The chunks of the frame are the uploaded ones
+      assertEquals(2, fr.anyVec().nChunks());
+      assertEquals(-5, fr.vec("x").at(4), 0);
+      assertTrue(fr.vec("x").isNA(1));
+      assertArrayEquals(new String[]{"a", "b"}, fr.vec("c").domain());
+      assertEquals(1, fr.vec("c").at8(1));
+      assertTrue(fr.vec("c").isNA(2));
+      assertEquals("s", fr.vec("s").stringAt(4));
+      assertTrue(fr.vec("s").isNA(1));
+
+      Iterator<FrameChunk> it = FrameGrpc.newBlockingStub(_service._channel)
+          .download(FrameId.newBuilder().setFrameId("grpc_upload.hex").build());
+      List<FrameChunk> downloaded = new ArrayList<>();
+      while (it.hasNext())
+        downloaded.add(it.next());
+      assertEquals(chunks.length, downloaded.size());
+      assertEquals(spec, downloaded.get(0).getSpec());
+      for (int i = 0; i < chunks.length; i++)
+        assertEquals(chunks[i], downloaded.get(i).toBuilder().clearSpec().build());
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testDownloadBackpressure() {
+    Frame fr = new TestFrameBuilder()
+        .withName("grpc_download.hex")
+        .withColNames("x")
+        .withVecTypes(Vec.T_NUM)
+        .withDataForCol(0, ard(1, 2, 3, 4, 5, 6))
+        .withChunkLayout(2, 2, 2)
+        .build();
+    try {
+      ThrottledObserver obs = new ThrottledObserver();
+      new FrameService().download(FrameId.newBuilder().setFrameId("grpc_download.hex").build(), obs);
+      assertNotNull(obs._onReady);
+      assertTrue(obs._chunks.isEmpty()); // Nothing is sent till the transport is ready
+      for (int i = 0; i < 3; i++) {
+        obs._ready = true;
+        obs._onReady.run();
+        assertEquals(i + 1, obs._chunks.size()); // The transport is full again after every chunk
+        assertEquals(i, obs._chunks.get(i).getChunkIndex());
+        assertEquals(2 * i + 1, obs._chunks.get(i).getColumns(0).getNum(0), 0);
+      }
+      assertTrue(obs._chunks.get(0).hasSpec());
+      assertTrue(obs._completed);
+      obs._ready = true;
+      obs._onReady.run();
+      assertEquals(3, obs._chunks.size());
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testDownloadChunks() {
+    Frame fr = new TestFrameBuilder()
+        .withName("grpc_download_chunks.hex")
+        .withColNames("x", "s")
+        .withVecTypes(Vec.T_NUM, Vec.T_STR)
+        .withDataForCol(0, ard(1, 2, 3, 4, 5, 6, 7, 8, 9))
+        .withDataForCol(1, ar("a", "b", "c", "d", "e", "f", "g", "h", "i"))
+        .withChunkLayout(2, 1, 3, 1, 2)
+        .build();
+    try {
+      // Sent by the real in-process transport, the client reads all the chunks at once
+      Iterator<FrameChunk> it = FrameGrpc.newBlockingStub(_service._channel)
+          .download(FrameId.newBuilder().setFrameId("grpc_download_chunks.hex").build());
+      List<FrameChunk> downloaded = new ArrayList<>();
+      while (it.hasNext())
+        downloaded.add(it.next());
+      assertEquals(5, downloaded.size());
+      assertTrue(downloaded.get(0).hasSpec());
+      int row = 0;
+      for (int i = 0; i < downloaded.size(); i++) {
+        FrameChunk c = downloaded.get(i);
+        assertFalse(c.hasError());
+        assertEquals(i, c.getChunkIndex());
+        assertEquals(row, c.getFirstRow());
+        for (int r = 0; r < c.getNrows(); r++, row++) {
+          assertEquals(row + 1, c.getColumns(0).getNum(r), 0);
+          assertEquals(String.valueOf((char) ('a' + row)), c.getColumns(1).getStr(r));
+        }
+      }
+      assertEquals(9, row);
+      // The frame is not locked anymore once the stream is over
+      assertNull(((Frame) DKV.getGet("grpc_download_chunks.hex"))._lockers);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testDownloadUnknownFrame() {
+    Iterator<FrameChunk> it = FrameGrpc.newBlockingStub(_service._channel)
+        .download(FrameId.newBuilder().setFrameId("grpc_no_such_frame.hex").build());
+    FrameChunk c = it.next();
+    assertEquals("Frame grpc_no_such_frame.hex not found in the DKV", c.getError().getMessage());
+    assertFalse(it.hasNext());
+  }
+
+  private static FrameChunk chunk(int cidx, long firstRow, double[] nums, int[] cats, String[] strs) {
+    ColumnData.Builder num = ColumnData.newBuilder();
+    ColumnData.Builder cat = ColumnData.newBuilder();
+    ColumnData.Builder str = ColumnData.newBuilder();
+    for (int r = 0; r < nums.length; r++) {
+      num.addNum(nums[r]);
+      cat.addCat(cats[r]);
+      str.addStr(strs[r] == null ? "" : strs[r]);
+      if (strs[r] == null)
+        str.addNaRows(r);
+    }
+    return FrameChunk.newBuilder()
+        .setChunkIndex(cidx)
+        .setFirstRow(firstRow)
+        .setNrows(nums.length)
+        .addColumns(num)
+        .addColumns(cat)
+        .addColumns(str)
+        .build();
+  }
+
+  // Transport with room for a single message, the test makes it ready again
+  private static class ThrottledObserver extends CallStreamObserver<FrameChunk> {
+    final List<FrameChunk> _chunks = new ArrayList<>();
+    Runnable _onReady;
+    boolean _ready;
+    boolean _completed;
+
+    @Override public boolean isReady() { return _ready; }
+
+    @Override public void setOnReadyHandler(Runnable onReadyHandler) { _onReady = onReadyHandler; }
+
+    @Override public void disableAutoInboundFlowControl() {}
+
+    @Override public void request(int count) {}
+
+    @Override public void setMessageCompression(boolean enable) {}
+
+    @Override public void onNext(FrameChunk value) {
+      _chunks.add(value);
+      _ready = false;
+    }
+
+    @Override public void onError(Throwable t) { throw new AssertionError(t); }
+
+    @Override public void onCompleted() { _completed = true; }
+  }
+
+}
@@ -0,0 +1,118 @@
+package ai.h2o.api.proto.models;
+
+import ai.h2o.api.GrpcTestUtil.InProcessService;
+import ai.h2o.api.GrpcTestUtil.Recorder;
+import ai.h2o.api.proto.frames.ColumnData;
+import ai.h2o.api.proto.frames.ColumnSpec;
+import ai.h2o.api.proto.frames.ColumnType;
+import ai.h2o.api.proto.frames.FrameChunk;
+import hex.glm.GLM;
+import hex.glm.GLMModel;
+import hex.glm.GLMModel.GLMParameters;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ModelServiceTest extends TestUtil {
+
+  @BeforeClass
+  static public void setup() { stall_till_cloudsize(1); }
+
+  private InProcessService _service;
+
+  @Before
+  public void startService() throws Exception { _service = new InProcessService(new ModelService()); }
+
+  @After
+  public void stopService() { _service.shutdown(); }
+
+  @Test
+  public void testScore() throws Exception {
+    Frame train = null, test = null, preds = null;
+    GLMModel model = null;
+    try {
+      train = new TestFrameBuilder()
+          .withName("grpc_train.hex")
+          .withColNames("x", "y")
+          .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+          .withDataForCol(0, ard(1, 2, 3, 4, 5, 6))
+          .withDataForCol(1, ard(3.1, 4.9, 7.2, 9, 10.8, 13.1))
+          .build();
+      GLMParameters parms = new GLMParameters(GLMParameters.Family.gaussian);
+      parms._train = train._key;
+      parms._response_column = "y";
+      parms._lambda = new double[]{0};
+      model = new GLM(parms).trainModel().get();
+
+      Recorder<ScoreResponse> responses = new Recorder<>();
+      StreamObserver<ScoreRequest> requests = ModelGrpc.newStub(_service._channel).score(responses);
+      requests.onNext(ScoreRequest.newBuilder().setSpec(ScoreSpec.newBuilder()
+          .setModelId(model._key.toString())
+          .addColumns(ColumnSpec.newBuilder().setName("x").setType(ColumnType.NUM))).build());
+      requests.onNext(batch(0, 0, 1.5, 2.5));
+      requests.onNext(batch(1, 2, 7));
+      requests.onCompleted();
+      List<ScoreResponse> res = responses.await();
+      assertEquals(2, res.size());
+
+      // Same predictions as scoring the batches in a single frame
+      test = new TestFrameBuilder()
+          .withName("grpc_test.hex")
+          .withColNames("x")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ard(1.5, 2.5, 7))
+          .build();
+      preds = model.score(test);
+      FrameChunk p0 = res.get(0).getPredictions(), p1 = res.get(1).getPredictions();
+      assertFalse(res.get(0).hasError());
+      assertEquals("predict", p0.getSpec().getColumns(0).getName());
+      assertFalse(p1.hasSpec());
+      assertEquals(0, p0.getChunkIndex());
+      assertEquals(1, p1.getChunkIndex());
+      assertEquals(2, p1.getFirstRow());
+      assertEquals(preds.vec(0).at(0), p0.getColumns(0).getNum(0), 1e-10);
+      assertEquals(preds.vec(0).at(1), p0.getColumns(0).getNum(1), 1e-10);
+      assertEquals(preds.vec(0).at(2), p1.getColumns(0).getNum(0), 1e-10);
+    } finally {
+      if (train != null) train.delete();
+      if (test != null) test.delete();
+      if (preds != null) preds.delete();
+      if (model != null) model.delete();
+    }
+  }
+
+  @Test
+  public void testScoreUnknownModel() throws Exception {
+    Recorder<ScoreResponse> responses = new Recorder<>();
+    StreamObserver<ScoreRequest> requests = ModelGrpc.newStub(_service._channel).score(responses);
+    requests.onNext(ScoreRequest.newBuilder().setSpec(ScoreSpec.newBuilder()
+        .setModelId("grpc_no_such_model")
+        .addColumns(ColumnSpec.newBuilder().setName("x").setType(ColumnType.NUM))).build());
+    requests.onCompleted();
+    List<ScoreResponse> res = responses.await();
+    assertEquals(1, res.size());
+    assertEquals("Model grpc_no_such_model not found in the DKV", res.get(0).getError().getMessage());
+  }
+
+  private static ScoreRequest batch(int cidx, long firstRow, double... xs) {
+    ColumnData.Builder x = ColumnData.newBuilder();
+    for (double d : xs)
+      x.addNum(d);
+    return ScoreRequest.newBuilder().setBatch(FrameChunk.newBuilder()
+        .setChunkIndex(cidx)
+        .setFirstRow(firstRow)
+        .setNrows(xs.length)
+        .addColumns(x)).build();
+  }
+
+}
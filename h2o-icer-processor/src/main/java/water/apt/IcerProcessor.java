@@ -0,0 +1,552 @@
+package water.apt;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates at compile time the serialization delegates ({@code water.Icer}) of the {@code water.Freezable} classes
+ * of a module - the same delegates {@code water.Weaver} generates with javassist on first use - and an index of all
+ * the Freezable classes of the module ({@code water.IcerIndex}), which gives them stable type ids.
+ * <p>
+ * The processor does not need any annotation, it looks at every class being compiled. A class gets a pre-generated
+ * Icer only if the Icer of its superclass is pre-generated too and the generated source can reach everything it
+ * needs: the class, the types of its fields, the {@code AutoBuffer} calls and the custom serializers. All the other
+ * classes are left to the Weaver, the generated source mirrors the code woven by the Weaver so that both produce
+ * the same bytes.
+ * <p>
+ * The processor runs only if the name of the module is given by the {@value #OPT_MODULE} option.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(IcerProcessor.OPT_MODULE)
+public class IcerProcessor extends AbstractProcessor {
+  static final String OPT_MODULE = "water.icers.module";
+
+  private static final String INDEX_PACKAGE = "water.icers";
+
+  // Short type names of the AutoBuffer calls, by field type (see Weaver.ftype)
+  private static final String[] FLDSZ1 = {
+    "Z","1","2","2","4","4f","8","8d", // Primitives
+    "Str","","Enum",                   // String, Freezable, Enum
+    "Ser"                              // java.lang.Serializable
+  };
+  private static final String[] UNSAFE = {
+    "Boolean","Byte","Char","Short","Int","Float","Long","Double"
+  };
+
+  private Elements _elems;
+  private Types _types;
+  private String _module;
+  private TypeMirror _freezable, _enum, _serializable, _string, _dtask;
+  private TypeElement _autoBuffer;
+
+  // Binary names of all the Freezable classes of the module
+  private final TreeSet<String> _classes = new TreeSet<>();
+  // Binary names of the classes being compiled
+  private final HashSet<String> _sources = new HashSet<>();
+  // Binary name -> has a pre-generated Icer
+  private final HashMap<String, Boolean> _icers = new HashMap<>();
+  private boolean _indexWritten;
+
+  @Override public synchronized void init(ProcessingEnvironment env) {
+    super.init(env);
+    _elems = env.getElementUtils();
+    _types = env.getTypeUtils();
+    _module = env.getOptions().get(OPT_MODULE);
+    TypeElement freezable = _elems.getTypeElement("water.Freezable");
+    _autoBuffer = _elems.getTypeElement("water.AutoBuffer");
+    if (_module == null || freezable == null || _autoBuffer == null) {
+      _module = null; // Nothing to do
+      return;
+    }
+    _freezable = _types.erasure(freezable.asType());
+    _enum = _types.erasure(_elems.getTypeElement("java.lang.Enum").asType());
+    _serializable = _elems.getTypeElement("java.io.Serializable").asType();
+    _string = _elems.getTypeElement("java.lang.String").asType();
+    _dtask = _types.erasure(_elems.getTypeElement("water.DTask").asType());
+  }
+
+  @Override public SourceVersion getSupportedSourceVersion() { return SourceVersion.latestSupported(); }
+
+  @Override public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (_module == null) return false;
+    ArrayList<TypeElement> classes = new ArrayList<>();
+    for (Element e : roundEnv.getRootElements())
+      collect(e, classes);
+    for (TypeElement te : classes)
+      hasIcer(te);
+    // Generated Icers come back in the next round, the index is written once no new class shows up
+    if (classes.isEmpty() && !_indexWritten && !_classes.isEmpty()) {
+      writeIndex();
+      _indexWritten = true;
+    }
+    return false; // Never claim the annotations, other processors need them
+  }
+
+  private void collect(Element e, ArrayList<TypeElement> classes) {
+    if (!(e instanceof TypeElement)) return;
+    TypeElement te = (TypeElement) e;
+    if (te.getKind() == ElementKind.CLASS && isFreezable(te.asType())) {
+      String name = binaryName(te);
+      _sources.add(name);
+      _classes.add(name);
+      classes.add(te);
+    }
+    for (Element ee : te.getEnclosedElements())
+      collect(ee, classes);
+  }
+
+  private boolean isFreezable(TypeMirror t) {
+    return t.getKind() == TypeKind.DECLARED && _types.isSubtype(_types.erasure(t), _freezable);
+  }
+
+  private String binaryName(TypeElement te) { return _elems.getBinaryName(te).toString(); }
+
+  private static String packageName(String binaryName) {
+    int idx = binaryName.lastIndexOf('.');
+    return idx == -1 ? "" : binaryName.substring(0, idx);
+  }
+
+  // Does the superclass (or the class) have a pre-generated Icer?  Generates the Icers of classes being compiled.
+  private boolean hasIcer(TypeElement te) {
+    String name = binaryName(te);
+    Boolean b = _icers.get(name);
+    if (b != null) return b;
+    if (_sources.contains(name)) {
+      _icers.put(name, false); // Guard, the superclass chain cannot loop
+      b = generate(te);
+    } else { // Compiled earlier, maybe in another module
+      b = _elems.getTypeElement(name + "$Icer") != null;
+    }
+    _icers.put(name, b);
+    return b;
+  }
+
+  // Freezable superclass, or null
+  private TypeElement freezableSuper(TypeElement te) {
+    TypeMirror sup = te.getSuperclass();
+    return isFreezable(sup) ? (TypeElement) ((DeclaredType) sup).asElement() : null;
+  }
+
+  // Position of the class in its Freezable class hierarchy, names the call chain of the Icers
+  private int depth(TypeElement te) {
+    int d = 0;
+    for (TypeElement sup = freezableSuper(te); sup != null; sup = freezableSuper(sup)) d++;
+    return d;
+  }
+
+  // Can the source of package pkg name the type?
+  private boolean accessible(TypeMirror t, String pkg) {
+    while (t.getKind() == TypeKind.ARRAY) t = ((ArrayType) t).getComponentType();
+    if (t.getKind().isPrimitive()) return true;
+    if (t.getKind() != TypeKind.DECLARED) return false;
+    Element e = ((DeclaredType) t).asElement();
+    for (; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      TypeElement te = (TypeElement) e;
+      if (te.getNestingKind() == NestingKind.ANONYMOUS || te.getNestingKind() == NestingKind.LOCAL) return false;
+      Set<Modifier> mods = te.getModifiers();
+      if (mods.contains(Modifier.PRIVATE)) return false;
+      if (!mods.contains(Modifier.PUBLIC) && !packageName(binaryName(te)).equals(pkg)) return false;
+    }
+    return true;
+  }
+
+  // Field type encoding of the Weaver, -1 if not serializable
+  private int ftype(TypeMirror t) {
+    switch (t.getKind()) {
+    case BOOLEAN: return 0;
+    case BYTE:    return 1;
+    case CHAR:    return 2;
+    case SHORT:   return 3;
+    case INT:     return 4;
+    case FLOAT:   return 5;
+    case LONG:    return 6;
+    case DOUBLE:  return 7;
+    case DECLARED:
+      if (_types.isSameType(t, _string)) return 8;
+      if (_types.isSubtype(t, _freezable)) return 9;
+      if (_types.isSubtype(t, _enum)) return 10;
+      if (_types.isSubtype(t, _serializable)) return 11;
+      return -1;
+    case ARRAY:
+      int ft = ftype(((ArrayType) t).getComponentType());
+      return ft == -1 ? -1 : ft + 20;
+    default:
+      return -1;
+    }
+  }
+
+  private static String zname(int ftype) {
+    String z = FLDSZ1[ftype % 20];
+    for (int i = 0; i < ftype / 20; ++i) z = 'A' + z;
+    return z;
+  }
+
+  private static TypeMirror baseType(TypeMirror t) {
+    while (t.getKind() == TypeKind.ARRAY) t = ((ArrayType) t).getComponentType();
+    return t;
+  }
+
+  // An accessible AutoBuffer method taking the given arguments (null args are not checked) and returning a type
+  // castable to ret (if not null)
+  private boolean hasCall(String name, String pkg, TypeMirror ret, TypeMirror... args) {
+    for (ExecutableElement m : ElementFilter.methodsIn(_autoBuffer.getEnclosedElements())) {
+      if (!m.getSimpleName().contentEquals(name) || m.getParameters().size() != args.length) continue;
+      Set<Modifier> mods = m.getModifiers();
+      if (mods.contains(Modifier.PRIVATE) || !mods.contains(Modifier.PUBLIC) && !pkg.equals("water")) continue;
+      boolean ok = true;
+      for (int i = 0; i < args.length && ok; i++)
+        ok = args[i] == null || _types.isAssignable(args[i], _types.erasure(m.getParameters().get(i).asType()));
+      if (ok && ret != null) ok = castable(_types.erasure(m.getReturnType()), ret);
+      if (ok) return true;
+    }
+    return false;
+  }
+
+  // Can a value of erased type a be cast to erased type b?  Good enough for the AutoBuffer getters
+  private boolean castable(TypeMirror a, TypeMirror b) {
+    if (a.getKind().isPrimitive() && b.getKind().isPrimitive())
+      return (a.getKind() == TypeKind.BOOLEAN) == (b.getKind() == TypeKind.BOOLEAN);
+    return _types.isAssignable(a, b) || _types.isAssignable(b, a);
+  }
+
+  private static boolean isApiJsonFalse(VariableElement f) {
+    for (AnnotationMirror am : f.getAnnotationMirrors()) {
+      if (!((TypeElement) am.getAnnotationType().asElement()).getQualifiedName().contentEquals("water.api.API")) continue;
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : am.getElementValues().entrySet())
+        if (e.getKey().getSimpleName().contentEquals("json") && Boolean.FALSE.equals(e.getValue().getValue()))
+          return true;
+    }
+    return false;
+  }
+
+  /**
+   * A serialized field.  Fields the generated code cannot name, because they are private, final (when set) or
+   * declared by a class it cannot name, are accessed through Unsafe.  Field types it cannot name are seen as
+   * Freezable, Enum or Object, with their classes found by reflection.
+   */
+  private final class Fld {
+    final String _name;
+    final TypeMirror _type;   // Erased
+    final TypeMirror _view;   // Type seen by the generated code
+    final String _tname;      // Source name of the view
+    final int _ftype;
+    final boolean _private, _final;
+    final boolean _opaque;    // The generated code cannot name the type
+    Fld(VariableElement f, String pkg, boolean opaqueClass) {
+      _name = f.getSimpleName().toString();
+      _type = _types.erasure(f.asType());
+      _ftype = ftype(_type);
+      _opaque = _ftype != -1 && !accessible(_type, pkg);
+      _view = _opaque ? view(_ftype) : _type;
+      _tname = _view.toString();
+      _private = opaqueClass || _opaque || f.getModifiers().contains(Modifier.PRIVATE);
+      _final = f.getModifiers().contains(Modifier.FINAL);
+    }
+    private TypeMirror view(int ftype) {
+      String base = ftype % 20 == 9 ? "water.Freezable" : ftype % 20 == 10 ? "java.lang.Enum" : "java.lang.Object";
+      TypeMirror t = _types.erasure(_elems.getTypeElement(base).asType());
+      for (int i = 0; i < ftype / 20; ++i) t = _types.getArrayType(t);
+      return t;
+    }
+    String unsafe() { return _type.getKind().isPrimitive() ? UNSAFE[_ftype] : "Object"; }
+    String get(String obj) {
+      return _private ? "((" + _tname + ")_unsafe.get" + unsafe() + "(" + obj + ",OFF$" + _name + "))" : obj + "." + _name;
+    }
+    String set(String obj, String expr) {
+      return _private || _final
+          ? "_unsafe.put" + unsafe() + "(" + obj + ",OFF$" + _name + ",(" + _tname + ")" + expr + ");"
+          : obj + "." + _name + " = (" + _tname + ")" + expr + ";";
+    }
+    boolean usesUnsafe() { return _private || _final; }
+    // The base class of the type is found by reflection
+    boolean needsClass() { return _opaque && _ftype % 20 >= 9; }
+    String baseName() { return needsClass() ? null : _types.erasure(baseType(_type)).toString(); }
+    // Arguments of the AutoBuffer getter
+    String getArgs() {
+      int ft = _ftype % 20;
+      if (ft == 10) return "this." + _name;
+      if (ft == 9 || ft == 11) return needsClass() ? "CLS$" + _name : baseName() + ".class";
+      return "";
+    }
+  }
+
+  /** A custom serializer of the class, see Weaver.make_body */
+  private static final class Custom {
+    final String _call;      // null if abstract
+    Custom(String call) { _call = call; }
+  }
+
+  // Generates the Icer of a class being compiled, false if it cannot be generated
+  private boolean generate(TypeElement te) {
+    String name = binaryName(te);
+    String pkg = packageName(name);
+    // Classes the generated code cannot name are seen as their closest accessible superclass
+    boolean opaqueClass = !accessible(te.asType(), pkg);
+    if (te.getNestingKind() == NestingKind.ANONYMOUS || te.getNestingKind() == NestingKind.LOCAL) return false;
+    String iced = opaqueClass ? view(te, pkg) : te.getQualifiedName().toString();
+    // Inner classes serialize their hidden reference to the outer instance, left to the Weaver
+    if (te.getNestingKind() == NestingKind.MEMBER && !te.getModifiers().contains(Modifier.STATIC)) return false;
+    TypeElement sup = freezableSuper(te);
+    if (sup != null && !hasIcer(sup)) return false;
+    String superIcer = sup == null ? "water.Icer" : binaryName(sup) + "$Icer";
+    int depth = depth(te);
+
+    boolean dtask = _types.isSubtype(_types.erasure(te.asType()), _dtask);
+    Map<String, Custom> customs = new HashMap<>();
+    for (String impl : new String[]{"write", "writeJSON", "read", "readJSON", "copyOver"}) {
+      Custom c = custom(te, impl);
+      if (c == NOT_SUPPORTED || c != null && impl.equals("copyOver")) return false;
+      if (c != null && c._call != null && opaqueClass) return false; // Cannot call it
+      if (c != null) customs.put(impl, c);
+    }
+
+    ArrayList<Fld> all = new ArrayList<>();
+    ArrayList<Fld> flds = new ArrayList<>();
+    for (VariableElement f : ElementFilter.fieldsIn(te.getEnclosedElements())) {
+      Set<Modifier> mods = f.getModifiers();
+      if (mods.contains(Modifier.TRANSIENT) || mods.contains(Modifier.STATIC)) continue;
+      Fld fld = new Fld(f, pkg, opaqueClass);
+      // Fields of other types are fine only if the custom serializers never touch them
+      if (fld._ftype == -1) {
+        if (customs.size() < 4 || dtask) return false;
+        continue;
+      }
+      all.add(fld);
+      if (!isApiJsonFalse(f)) flds.add(fld);
+    }
+    // Check the AutoBuffer calls of the default serializers
+    for (Fld f : flds) {
+      String z = zname(f._ftype);
+      TypeMirror getArg = f._ftype % 20 == 10 ? null : _types.erasure(_elems.getTypeElement("java.lang.Class").asType());
+      boolean noArgs = f.getArgs().isEmpty();
+      if (!customs.containsKey("write") && !hasCall("put" + z, pkg, null, f._view)) return false;
+      if (!customs.containsKey("writeJSON") && !hasCall("putJSON" + z, pkg, null, _string, f._view)) return false;
+      for (String impl : new String[]{"read", "readJSON"})
+        if (!customs.containsKey(impl) && !(noArgs ? hasCall("get" + z, pkg, f._view) : hasCall("get" + z, pkg, f._view, getArg)))
+          return false;
+    }
+
+    String icerSimple = name.substring(pkg.isEmpty() ? 0 : pkg.length() + 1) + "$Icer";
+    StringBuilder sb = new StringBuilder();
+    if (!pkg.isEmpty()) sb.append("package ").append(pkg).append(";\n\n");
+    sb.append("// Generated by ").append(IcerProcessor.class.getName()).append(", do not edit\n");
+    sb.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+    sb.append("public class ").append(icerSimple).append(" extends ").append(superIcer).append(" {\n");
+    sb.append("  private static final int TYPE_ID = water.TypeMap.onIce(\"").append(name).append("\");\n");
+    // Offsets of the fields accessed through Unsafe, and classes of the types the code cannot name
+    boolean reflect = false;
+    for (Fld f : flds) reflect |= f.usesUnsafe();
+    for (Fld f : all) reflect |= f.needsClass();
+    if (reflect) {
+      for (Fld f : flds)
+        if (f.usesUnsafe()) sb.append("  private static final long OFF$").append(f._name).append(";\n");
+      for (Fld f : all)
+        if (f.needsClass()) sb.append("  private static final Class CLS$").append(f._name).append(";\n");
+      sb.append("  static {\n    try {\n");
+      sb.append("      Class c = ").append(opaqueClass ? "Class.forName(\"" + name + "\")" : iced + ".class").append(";\n");
+      for (Fld f : flds)
+        if (f.usesUnsafe())
+          sb.append("      OFF$").append(f._name).append(" = _unsafe.objectFieldOffset(c.getDeclaredField(\"").append(f._name).append("\"));\n");
+      for (Fld f : all)
+        if (f.needsClass()) {
+          sb.append("      Class t$").append(f._name).append(" = c.getDeclaredField(\"").append(f._name).append("\").getType();\n");
+          sb.append("      while (t$").append(f._name).append(".isArray()) t$").append(f._name).append(" = t$").append(f._name).append(".getComponentType();\n");
+          sb.append("      CLS$").append(f._name).append(" = t$").append(f._name).append(";\n");
+        }
+      sb.append("    } catch (Exception e) {\n      throw new RuntimeException(e);\n    }\n  }\n");
+    }
+    // Copies of the enum values() arrays, for deserialization
+    for (Fld f : all)
+      if (f._ftype % 20 == 10) {
+        String e = f.needsClass() ? "java.lang.Enum" : f.baseName();
+        String values = f.needsClass() ? "(java.lang.Enum[])CLS$" + f._name + ".getEnumConstants()" : e + ".values()";
+        sb.append("  private final ").append(e).append("[] ").append(f._name).append(" = ").append(values).append(";\n");
+      }
+
+    String sup1 = depth == 0 ? null : String.valueOf(depth - 1);
+    // The write calls
+    sb.append("  protected final water.AutoBuffer write").append(depth).append("(water.AutoBuffer ab, ").append(iced).append(" ice) {\n");
+    if (sup1 != null) sb.append("    write").append(sup1).append("(ab,ice);\n");
+    if (!customBody(sb, customs.get("write"), "ab")) {
+      for (Fld f : flds)
+        sb.append("    ab.put").append(zname(f._ftype)).append("(").append(f.get("ice")).append(");\n");
+      sb.append("    return ab;\n");
+    }
+    sb.append("  }\n");
+
+    sb.append("  protected final water.AutoBuffer writeJSON").append(depth).append("(water.AutoBuffer ab, ").append(iced).append(" ice) {\n");
+    if (sup1 == null) {
+      sb.append("    boolean supers = false;\n");
+    } else {
+      sb.append("    int position = ab.position();\n");
+      sb.append("    writeJSON").append(sup1).append("(ab,ice);\n");
+      sb.append("    boolean supers = ab.position() != position;\n");
+    }
+    Custom cj = customs.get("writeJSON");
+    if (cj != null && cj._call != null && sup1 != null) {
+      sb.append("    if(supers) {\n");
+      sb.append("      ab.put1(',');\n");
+      sb.append("      int pos = ab.position();\n");
+      sb.append("      ").append(cj._call).append(";\n");
+      sb.append("      if(ab.position() == pos) ab.position(pos-1);\n");
+      sb.append("      return ab;\n");
+      sb.append("    }\n");
+      sb.append("    return ").append(cj._call).append(";\n");
+    } else if (!customBody(sb, cj, "ab")) {
+      boolean first = true;
+      for (Fld f : flds) {
+        sb.append(first ? "    (supers?ab.put1(','):ab)." : "    ab.put1(',').");
+        first = false;
+        sb.append("putJSON").append(zname(f._ftype)).append("(\"").append(f._name).append("\",").append(f.get("ice")).append(");\n");
+      }
+      sb.append("    return ab;\n");
+    }
+    sb.append("  }\n");
+
+    // The read calls
+    for (String impl : new String[]{"read", "readJSON"}) {
+      sb.append("  protected final ").append(iced).append(" ").append(impl).append(depth).append("(water.AutoBuffer ab, ").append(iced).append(" ice) {\n");
+      if (sup1 != null) sb.append("    ").append(impl).append(sup1).append("(ab,ice);\n");
+      Custom c = customs.get(impl);
+      if (c != null && c._call != null) {
+        sb.append("    return (").append(iced).append(")").append(c._call).append(";\n");
+      } else if (!customBody(sb, c, "ice")) {
+        for (Fld f : flds)
+          sb.append("    ").append(f.set("ice", "ab.get" + zname(f._ftype) + "(" + f.getArgs() + ")")).append("\n");
+        sb.append("    return ice;\n");
+      }
+      sb.append("  }\n");
+    }
+
+    // The generic overrides, called virtually at the start of a serialization call
+    sb.append("  protected water.AutoBuffer write(water.AutoBuffer ab, water.Freezable ice) {\n");
+    sb.append("    return write").append(depth).append("(ab,(").append(iced).append(")ice);\n  }\n");
+    sb.append("  protected water.AutoBuffer writeJSON(water.AutoBuffer ab, water.Freezable ice) {\n");
+    sb.append("    return writeJSON").append(depth).append("(ab.put1('{'),(").append(iced).append(")ice).put1('}');\n  }\n");
+    sb.append("  protected water.Freezable read(water.AutoBuffer ab, water.Freezable ice) {\n");
+    sb.append("    return read").append(depth).append("(ab,(").append(iced).append(")ice);\n  }\n");
+    sb.append("  protected water.Freezable readJSON(water.AutoBuffer ab, water.Freezable ice) {\n");
+    sb.append("    return readJSON").append(depth).append("(ab,(").append(iced).append(")ice);\n  }\n");
+    sb.append("  protected java.lang.String className() { return \"").append(name).append("\"; }\n");
+    sb.append("  public int frozenType() { return TYPE_ID; }\n");
+    sb.append("  protected void compute1(water.H2O.H2OCountedCompleter dt) { dt.compute1(); }\n");
+
+    // DTasks copy all their fields from one instance over another, to match the MRTask API
+    if (dtask) {
+      sb.append("  protected void copyOver(water.Freezable fdst, water.Freezable fsrc) {\n");
+      sb.append("    super.copyOver(fdst,fsrc);\n");
+      sb.append("    ").append(iced).append(" dst = (").append(iced).append(")fdst;\n");
+      sb.append("    ").append(iced).append(" src = (").append(iced).append(")fsrc;\n");
+      for (Fld f : flds)
+        sb.append("    ").append(f.set("dst", f.get("src"))).append("\n");
+      sb.append("  }\n");
+    }
+
+    sb.append("  public ").append(icerSimple).append("(").append(iced).append(" iced) { super(iced); }\n");
+    sb.append("}\n");
+
+    try {
+      JavaFileObject jfo = processingEnv.getFiler().createSourceFile(name + "$Icer", te);
+      try (Writer w = jfo.openWriter()) {
+        w.write(sb.toString());
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Cannot generate the Icer of " + name + ": " + e, te);
+      return false;
+    }
+    return true;
+  }
+
+  private static final Custom NOT_SUPPORTED = new Custom(null);
+
+  // Closest superclass the generated code of package pkg can name
+  private String view(TypeElement te, String pkg) {
+    for (TypeElement sup = freezableSuper(te); sup != null; sup = freezableSuper(sup))
+      if (accessible(sup.asType(), pkg)) return sup.getQualifiedName().toString();
+    return "water.Freezable";
+  }
+
+  // Custom serializer impl+"_impl" declared by the class, null if none
+  private Custom custom(TypeElement te, String impl) {
+    String mimpl = impl + "_impl";
+    TypeMirror ab = _autoBuffer.asType();
+    for (ExecutableElement m : ElementFilter.methodsIn(te.getEnclosedElements())) {
+      if (!m.getSimpleName().contentEquals(mimpl)) continue;
+      Set<Modifier> mods = m.getModifiers();
+      if (mods.contains(Modifier.ABSTRACT)) return new Custom(null);
+      if (mods.contains(Modifier.PRIVATE)) return NOT_SUPPORTED;
+      List<? extends VariableElement> ps = m.getParameters();
+      TypeMirror ret = _types.erasure(m.getReturnType());
+      boolean write = impl.startsWith("write");
+      if (write ? !_types.isAssignable(ret, ab) : !castable(ret, _types.erasure(te.asType())))
+        return NOT_SUPPORTED;
+      if (mods.contains(Modifier.STATIC)) {
+        if (ps.size() != 2 || !_types.isAssignable(_types.erasure(te.asType()), _types.erasure(ps.get(0).asType()))
+            || !_types.isAssignable(ab, _types.erasure(ps.get(1).asType())))
+          return NOT_SUPPORTED;
+        return new Custom(te.getQualifiedName() + "." + mimpl + "(ice,ab)");
+      }
+      if (mods.contains(Modifier.FINAL)) {
+        if (ps.size() != 1 || !_types.isAssignable(ab, _types.erasure(ps.get(0).asType())))
+          return NOT_SUPPORTED;
+        return new Custom("ice." + mimpl + "(ab)");
+      }
+      return NOT_SUPPORTED; // The Weaver refuses these
+    }
+    return null;
+  }
+
+  // Body of a custom serializer, false if there is none
+  private static boolean customBody(StringBuilder sb, Custom c, String ret) {
+    if (c == null) return false;
+    if (c._call == null) sb.append("    return ").append(ret).append(";\n"); // Abstract, implemented by subclasses
+    else sb.append("    return ").append(c._call).append(";\n");
+    return true;
+  }
+
+  // Index of all the Freezable classes of the module, registered as a service
+  private void writeIndex() {
+    String cls = "Icers_" + _module.replaceAll("[^A-Za-z0-9]", "_");
+    StringBuilder sb = new StringBuilder();
+    sb.append("package ").append(INDEX_PACKAGE).append(";\n\n");
+    sb.append("// Generated by ").append(IcerProcessor.class.getName()).append(", do not edit\n");
+    sb.append("public class ").append(cls).append(" implements water.IcerIndex {\n");
+    sb.append("  @Override public String module() { return \"").append(_module).append("\"; }\n");
+    sb.append("  @Override public String[] classes() {\n");
+    sb.append("    return new String[] {\n");
+    for (String c : _classes) sb.append("      \"").append(c).append("\",\n");
+    sb.append("    };\n  }\n}\n");
+    try {
+      JavaFileObject jfo = processingEnv.getFiler().createSourceFile(INDEX_PACKAGE + "." + cls);
+      try (Writer w = jfo.openWriter()) {
+        w.write(sb.toString());
+      }
+      FileObject svc = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+          "META-INF/services/water.IcerIndex");
+      try (Writer w = svc.openWriter()) {
+        w.write(INDEX_PACKAGE + "." + cls + "\n");
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Cannot write the Icer index: " + e);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.util.PrettyPrint;
+
+import java.util.HashMap;
+
+/**
+ * Writes rows of H2O chunks as Parquet records.
+ *
+ * Integer columns are written using the narrowest physical type that holds their range (INT32 annotated as INT_8,
+ * INT_16 or INT_32, or INT64), categorical columns as UTF8 strings whose levels are encoded only once in the
+ * dictionary of every column chunk.
+ */
+public class ChunkWriteSupport extends WriteSupport<ChunkWriteSupport.Row> {
+
+  private static final byte INT32 = 0;
+  private static final byte INT64 = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte TIME = 3;
+  private static final byte CAT = 4;
+  private static final byte STR = 5;
+  private static final byte UUID = 6;
+
+  /** Cursor pointing at a row of the current chunks */
+  public static class Row {
+    final Chunk[] _cs;
+    int _row;
+
+    public Row(int ncols) {
+      _cs = new Chunk[ncols];
+    }
+  }
+
+  private final MessageType _schema;
+  private final String[] _names;
+  private final byte[] _kinds;
+  private final Binary[][] _levels;
+  private final BufferedString _bs = new BufferedString();
+  private RecordConsumer _consumer;
+
+  public ChunkWriteSupport(Frame fr) {
+    Vec[] vecs = fr.vecs();
+    _names = fr.names();
+    _kinds = new byte[vecs.length];
+    _levels = new Binary[vecs.length][];
+    Types.MessageTypeBuilder builder = Types.buildMessage();
+    for (int i = 0; i < vecs.length; i++) {
+      Vec v = vecs[i];
+      switch (v.get_type()) {
+        case Vec.T_CAT:
+          _kinds[i] = CAT;
+          _levels[i] = new Binary[v.domain().length];
+          for (int l = 0; l < _levels[i].length; l++)
+            _levels[i][l] = Binary.fromString(v.domain()[l]);
+          builder.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(_names[i]);
+          break;
+        case Vec.T_STR:
+          _kinds[i] = STR;
+          builder.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(_names[i]);
+          break;
+        case Vec.T_UUID:
+          _kinds[i] = UUID;
+          builder.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(_names[i]);
+          break;
+        case Vec.T_TIME:
+          _kinds[i] = TIME;
+          builder.optional(PrimitiveTypeName.INT64).as(OriginalType.TIMESTAMP_MILLIS).named(_names[i]);
+          break;
+        case Vec.T_NUM:
+          if (v.isInt()) {
+            OriginalType intType = intType(v.min(), v.max());
+            if (intType != null) {
+              _kinds[i] = INT32;
+              builder.optional(PrimitiveTypeName.INT32).as(intType).named(_names[i]);
+            } else {
+              _kinds[i] = INT64;
+              builder.optional(PrimitiveTypeName.INT64).named(_names[i]);
+            }
+            break;
+          }
+          // fall through: real numbers
+        default:
+          _kinds[i] = DOUBLE;
+          builder.optional(PrimitiveTypeName.DOUBLE).named(_names[i]);
+      }
+    }
+    _schema = builder.named("h2o_frame");
+  }
+
+  // Narrowest 32-bit integer type holding the range, null if 64 bits are needed
+  static OriginalType intType(double min, double max) {
+    if (min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE) return OriginalType.INT_8;
+    if (min >= Short.MIN_VALUE && max <= Short.MAX_VALUE) return OriginalType.INT_16;
+    if (min >= Integer.MIN_VALUE && max <= Integer.MAX_VALUE) return OriginalType.INT_32;
+    return null;
+  }
+
+  public MessageType getSchema() {
+    return _schema;
+  }
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    return new WriteContext(_schema, new HashMap<String, String>());
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    _consumer = recordConsumer;
+  }
+
+  @Override
+  public void write(Row record) {
+    final int row = record._row;
+    _consumer.startMessage();
+    for (int i = 0; i < _kinds.length; i++) {
+      Chunk c = record._cs[i];
+      if (c.isNA(row)) continue;
+      _consumer.startField(_names[i], i);
+      switch (_kinds[i]) {
+        case INT32:
+          _consumer.addInteger((int) c.at8(row));
+          break;
+        case INT64:
+        case TIME:
+          _consumer.addLong(c.at8(row));
+          break;
+        case DOUBLE:
+          _consumer.addDouble(c.atd(row));
+          break;
+        case CAT:
+          _consumer.addBinary(_levels[i][(int) c.at8(row)]);
+          break;
+        case STR:
+          // the string points into the (immutable) chunk, it does not need to be copied
+          c.atStr(_bs, row);
+          _consumer.addBinary(Binary.fromByteArray(_bs.getBuffer(), _bs.getOffset(), _bs.length()));
+          break;
+        case UUID:
+          _consumer.addBinary(Binary.fromString(PrettyPrint.UUID(c.at16l(row), c.at16h(row))));
+          break;
+      }
+      _consumer.endField(_names[i], i);
+    }
+    _consumer.endMessage();
+  }
+
+}
@@ -0,0 +1,69 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import water.Job;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.ExportFormatProvider;
+
+import java.io.IOException;
+
+/**
+ * Exports frames into Parquet files.
+ *
+ * Each part file is written by the home node of its first chunk, every chunk is streamed directly into the column
+ * writers without being formatted as text.
+ */
+public class ParquetExportFormatProvider extends ExportFormatProvider {
+
+  private static final int BLOCK_SIZE = ParquetWriter.DEFAULT_BLOCK_SIZE;
+  private static final int PAGE_SIZE = ParquetWriter.DEFAULT_PAGE_SIZE;
+
+  @Override
+  public String name() {
+    return "parquet";
+  }
+
+  @Override
+  public String partExtension() {
+    return ".parquet";
+  }
+
+  @Override
+  public long writePart(Frame fr, int firstChunk, int nChunks, String path, boolean overwrite, Job job)
+          throws IOException {
+    Configuration conf = new Configuration();
+    Path p = new Path(path);
+    FileSystem fs = p.getFileSystem(conf);
+    if (fs.exists(p)) {
+      if (!overwrite)
+        throw new IOException("File " + path + " already exists");
+      fs.delete(p, false);
+    }
+    Vec[] vecs = fr.vecs();
+    ChunkWriteSupport.Row row = new ChunkWriteSupport.Row(vecs.length);
+    ParquetWriter<ChunkWriteSupport.Row> writer = new ParquetWriter<>(p, new ChunkWriteSupport(fr),
+            CompressionCodecName.SNAPPY, BLOCK_SIZE, PAGE_SIZE, PAGE_SIZE, true, false,
+            ParquetProperties.WriterVersion.PARQUET_1_0, conf);
+    try {
+      for (int cidx = firstChunk; cidx < firstChunk + nChunks; cidx++) {
+        if (job.stop_requested()) throw new Job.JobCancelledException();
+        for (int i = 0; i < vecs.length; i++)
+          row._cs[i] = vecs[i].chunkForChunkIdx(cidx);
+        int len = row._cs[0]._len;
+        for (row._row = 0; row._row < len; row._row++)
+          writer.write(row);
+        job.update(1);
+      }
+    } finally {
+      writer.close();
+    }
+    return fs.getFileStatus(p).getLen();
+  }
+
+}
@@ -15,6 +15,7 @@ import org.apache.parquet.example.data.simple.SimpleGroupFactory;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.example.GroupWriteSupport;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -148,6 +149,32 @@ public class ParseTestParquet extends TestUtil {
     assertFrameAssertion(assertion);
   }
 
+  @Test
+  public void testExportRoundTrip() {
+    Frame expected = null, actual = null;
+    try {
+      expected = parse_test_file("smalldata/airlines/AirlinesTrain.csv.zip");
+      File f = new File(Files.createTempDir(), "airlines-export.parquet");
+      Frame.export(expected, f.getAbsolutePath(), expected._key.toString(), false, 1, "parquet").get();
+      actual = TestUtil.parse_test_file(f.getAbsolutePath());
+
+      assertEquals(Arrays.asList(expected._names), Arrays.asList(actual._names));
+      assertEquals(Arrays.asList(expected.typesStr()), Arrays.asList(actual.typesStr()));
+      assertTrue(isBitIdentical(expected, actual));
+    } finally {
+      if (expected != null) expected.delete();
+      if (actual != null) actual.delete();
+    }
+  }
+
+  @Test
+  public void testNarrowIntTypes() {
+    assertEquals(OriginalType.INT_8, ChunkWriteSupport.intType(-128, 127));
+    assertEquals(OriginalType.INT_16, ChunkWriteSupport.intType(0, 255));
+    assertEquals(OriginalType.INT_32, ChunkWriteSupport.intType(-40000, 0));
+    assertNull(ChunkWriteSupport.intType(0, 1L << 40));
+  }
+
 }
 
 class ParquetFileGenerator {
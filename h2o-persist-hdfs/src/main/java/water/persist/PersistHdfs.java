@@ -76,6 +76,13 @@ public final class PersistHdfs extends Persist {
     CONF = conf;
   }
 
+  // Chunks of HDFS files are read through a read-ahead layer with a local block cache
+  private final RemoteChunkReader _remote = RemoteChunkReader.make("hdfs", new RemoteChunkReader.RangeReader() {
+    @Override public void read(Key k, long off, byte[] dst, int dstOff, int len) {
+      readRange(new Path(getPathForKey(k)), off, dst, dstOff, len);
+    }
+  });
+
   // Loading HDFS files
   public PersistHdfs() { _iceRoot = null; }
   public void cleanUp() { throw H2O.unimpl(); /** user-mode swapping not implemented */}
@@ -108,7 +115,7 @@ public final class PersistHdfs extends Persist {
     return res;
   }*/
 
-  @Override public byte[] load(final Value v) {
+  @Override public byte[] load(final Value v) throws IOException {
     //
     // !!! WARNING !!!
     //
@@ -139,13 +146,20 @@ public final class PersistHdfs extends Persist {
     // new library version.  Might make sense to go to straight to 's3a' which is a replacement
     // for 's3n'.
     //
-    long end, start = System.currentTimeMillis();
-    final byte[] b = MemoryManager.malloc1(v._max);
-    Key k = v._key;
+    if (_iceRoot != null) { // Spilled Value, not a chunk of a file
+      byte[] b = MemoryManager.malloc1(v._max);
+      readRange(new Path(_iceRoot, getIceName(v)), 0, b, 0, b.length);
+      assert v.isPersisted();
+      return b;
+    }
+    byte[] b = _remote.load(v);
+    assert v.isPersisted();
+    return b;
+  }
 
-    long skip = k.isChunkKey() ? water.fvec.NFSFileVec.chunkOffset(k) : 0;
-    final Path p = _iceRoot == null?new Path(getPathForKey(k)):new Path(_iceRoot, getIceName(v));
-    final long skip_ = skip;
+  // Reads len bytes of the file at Path p, starting at offset skip
+  private static void readRange(final Path p, final long skip, final byte[] b, final int off, final int len) {
+    long end, start = System.currentTimeMillis();
     run(new Callable() {
       @Override public Object call() throws Exception {
         FileSystem fs = FileSystem.get(p.toUri(), CONF);
@@ -163,8 +177,8 @@ public final class PersistHdfs extends Persist {
             // Instead of skipping by seeking, it skips by reading and dropping.  Very bad.
             // Use the HDFS API here directly instead.
 
-            s.seek(skip_);
-            s.readFully(b);
+            s.seek(skip);
+            s.readFully(b, off, len);
           }
           else {
             // NOTE:
@@ -173,22 +187,19 @@ public final class PersistHdfs extends Persist {
             // Load of 300MB file via Google API ~ 14sec, via s.readFully ~ 5min (under the same condition)
 //            ByteStreams.skipFully(s, skip_);
 //            ByteStreams.readFully(s, b);
-            s.seek(skip_);
-            s.readFully(b);
+            s.seek(skip);
+            s.readFully(b, off, len);
           }
-          assert v.isPersisted();
         } finally {
           s.getWrappedStream().close();
           FileUtils.close(s);
         }
         return null;
       }
-    }, true, v._max);
+    }, true, len);
     end = System.currentTimeMillis();
     if (end-start > 1000) // Only log read that took over 1 second to complete
-      Log.debug("Slow Read: "+(end-start)+" millis to get bytes "+skip_ +"-"+(skip_+b.length)+" in HDFS read.");
-
-    return b;
+      Log.debug("Slow Read: "+(end-start)+" millis to get bytes "+skip +"-"+(skip+len)+" in HDFS read.");
   }
 
   @Override public void store(Value v) {
@@ -218,6 +229,10 @@ public final class PersistHdfs extends Persist {
   }
 
   @Override public void delete(final Value v) {
+    if( _iceRoot == null ) { // Chunk of an HDFS file being removed, the file stays; drop its cached blocks
+      _remote.evict(Vec.getVecKey(v._key));
+      return;
+    }
     assert this == H2O.getPM().getIce();
     assert !v.isPersisted();   // Upper layers already cleared out
 
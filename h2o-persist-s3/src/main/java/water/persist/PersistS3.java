@@ -168,14 +168,20 @@ public final class PersistS3 extends Persist {
   // disk. A racing delete can trigger a failure where we get a null return,
   // but no crash (although one could argue that a racing load&delete is a bug
   // no matter what).
-  @Override public byte[] load(Value v) {
+  // Chunks of S3 files are read through a read-ahead layer with a local block cache
+  private final RemoteChunkReader _remote = RemoteChunkReader.make("s3", new RemoteChunkReader.RangeReader() {
+    @Override public void read(Key k, long off, byte[] dst, int dstOff, int len) { readRange(k, off, dst, dstOff, len); }
+  });
+
+  @Override public byte[] load(Value v) throws IOException {
+    byte[] b = _remote.load(v);
+    assert v.isPersisted();
+    return b;
+  }
+
+  // Reads len bytes of the S3 object of Key k, starting at offset skip
+  private static void readRange(Key k, long skip, byte[] b, int off, int len) {
     long start_io_ms = System.currentTimeMillis();
-    byte[] b = MemoryManager.malloc1(v._max);
-    Key k = v._key;
-    long skip = 0;
-    // Skip offset based on chunk number
-    if(k._kb[0] == Key.CHK)
-      skip = FileVec.chunkOffset(k); // The offset
     // Too complicate matters, S3 likes to reset connections when H2O hits it
     // too hard.  We "fix" this by just trying again, assuming we're getting
     // hit with a bogus resource limit (H2O doing a parse looks like a DDOS to
@@ -185,11 +191,10 @@ public final class PersistS3 extends Persist {
     while( true ) {             // Loop, in case we get premature EOF's
       try {
         long start_ns = System.nanoTime(); // Blocking i/o call timing - without counting repeats
-        s = getObjectForKey(k, skip, v._max).getObjectContent();
-        ByteStreams.readFully(s, b); // delegate work to Google (it reads the byte buffer in a cycle as we did)
-        assert v.isPersisted();
-//        TimeLine.record_IOclose(start_ns, start_io_ms, 1/* read */, v._max, Value.S3);
-        return b;
+        s = getObjectForKey(k, skip, len).getObjectContent();
+        ByteStreams.readFully(s, b, off, len); // delegate work to Google (it reads the byte buffer in a cycle as we did)
+//        TimeLine.record_IOclose(start_ns, start_io_ms, 1/* read */, len, Value.S3);
+        return;
         // Explicitly ignore the following exceptions but
         // fail on the rest IOExceptions
       } catch( EOFException e ) {
@@ -354,7 +359,9 @@ public final class PersistS3 extends Persist {
   }
 
   @Override public void delete(Value v) {
-    throw new UnsupportedOperationException();
+    // Chunk of an S3 object being removed, the object stays; drop its cached blocks
+    if( !v._key.isChunkKey() ) throw new UnsupportedOperationException();
+    _remote.evict(Vec.getVecKey(v._key));
   }
 
   @Override
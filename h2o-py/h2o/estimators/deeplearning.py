@@ -55,7 +55,8 @@ class H2ODeepLearningEstimator(H2OEstimator):
                       "missing_values_handling", "quiet_mode", "autoencoder", "sparse", "col_major",
                       "average_activation", "sparsity_beta", "max_categorical_features", "reproducible",
                       "export_weights_and_biases", "mini_batch_size", "categorical_encoding", "elastic_averaging",
-                      "elastic_averaging_moving_rate", "elastic_averaging_regularization"}
+                      "elastic_averaging_moving_rate", "elastic_averaging_regularization", "weight_replicas",
+                      "replica_sync_interval"}
         if "Lambda" in kwargs: kwargs["lambda_"] = kwargs.pop("Lambda")
         for pname, pvalue in kwargs.items():
             if pname == 'model_id':
@@ -1374,6 +1375,37 @@ class H2ODeepLearningEstimator(H2OEstimator):
         self._parms["elastic_averaging_regularization"] = elastic_averaging_regularization
 
 
+    @property
+    def weight_replicas(self):
+        """
+        Number of replicas of the weights per node (-1: one per thread), so that threads don't contend for the same
+        weights. 0 disables replicas (Hogwild!). #Experimental
+
+        Type: ``int``  (default: ``0``).
+        """
+        return self._parms.get("weight_replicas")
+
+    @weight_replicas.setter
+    def weight_replicas(self, weight_replicas):
+        assert_is_type(weight_replicas, None, int)
+        self._parms["weight_replicas"] = weight_replicas
+
+
+    @property
+    def replica_sync_interval(self):
+        """
+        Number of mini-batches between two averaging steps of a weight replica (only if weight replicas are enabled).
+
+        Type: ``int``  (default: ``1000``).
+        """
+        return self._parms.get("replica_sync_interval")
+
+    @replica_sync_interval.setter
+    def replica_sync_interval(self, replica_sync_interval):
+        assert_is_type(replica_sync_interval, None, int)
+        self._parms["replica_sync_interval"] = replica_sync_interval
+
+
 
 class H2OAutoEncoderEstimator(H2ODeepLearningEstimator):
     """
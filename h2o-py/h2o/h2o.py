@@ -409,7 +409,8 @@ def import_file(path=None, destination_frame=None, parse=True, header=0, sep=Non
         return H2OFrame()._import_parse(path, pattern, destination_frame, header, sep, col_names, col_types, na_strings)
 
 
-def import_sql_table(connection_url, table, username, password, columns=None, optimize=True):
+def import_sql_table(connection_url, table, username, password, columns=None, optimize=True, partition_column=None,
+                     filter=None):
     """
     Import SQL table to H2OFrame in memory.
 
@@ -430,6 +431,9 @@ def import_sql_table(connection_url, table, username, password, columns=None, op
     :param username: username for SQL server
     :param password: password for SQL server
     :param optimize: optimize import of SQL table for faster imports. Experimental.
+    :param partition_column: numeric or date column used to split the table into range partitions which are read
+        in parallel, instead of paging through the table with LIMIT/OFFSET queries.
+    :param filter: SQL condition (without the ``WHERE`` keyword) the imported rows have to satisfy.
 
     :returns: an :class:`H2OFrame` containing data of the specified SQL table.
 
@@ -446,9 +450,15 @@ def import_sql_table(connection_url, table, username, password, columns=None, op
     assert_is_type(password, str)
     assert_is_type(columns, [str], None)
     assert_is_type(optimize, bool)
+    assert_is_type(partition_column, str, None)
+    assert_is_type(filter, str, None)
     p = {"connection_url": connection_url, "table": table, "username": username, "password": password, "optimize": optimize}
     if columns:
         p["columns"] = ", ".join(columns)
+    if partition_column:
+        p["partition_column"] = partition_column
+    if filter:
+        p["filter"] = filter
     j = H2OJob(api("POST /99/ImportSQLTable", data=p), "Import SQL Table").poll()
     return get_frame(j.dest_key)
 
@@ -973,7 +983,7 @@ def load_model(path):
     return get_model(res["models"][0]["model_id"]["name"])
 
 
-def export_file(frame, path, force=False, parts=1):
+def export_file(frame, path, force=False, parts=1, format="csv"):
     """
     Export a given H2OFrame to a path on the machine this python session is currently connected to.
 
@@ -986,12 +996,16 @@ def export_file(frame, path, force=False, parts=1):
         specify your desired maximum number of part files. Path needs to be a directory
         when exporting to multiple files, also that directory must be empty.
         Default is ``parts = 1``, which is to export to a single file.
+    :param format: format of the exported file(s): ``"csv"`` (default) or ``"parquet"``. Parquet export requires
+        the Parquet extension on the H2O cloud.
     """
     assert_is_type(frame, H2OFrame)
     assert_is_type(path, str)
     assert_is_type(force, bool)
     assert_is_type(parts, int)
-    H2OJob(api("POST /3/Frames/%s/export" % (frame.frame_id), data={"path": path, "num_parts": parts, "force": force}),
+    assert_is_type(format, str)
+    H2OJob(api("POST /3/Frames/%s/export" % (frame.frame_id),
+               data={"path": path, "num_parts": parts, "force": force, "format": format}),
            "Export File").poll()
 
 